@@ -0,0 +1,448 @@
+import java.util.*;
+
+/**
+ * BidirectionalSolver class finds the shortest winning move sequence by
+ * searching forward from the board and backward from the goal at once.
+ *
+ * The backward search starts from every position where the red robot has
+ * just stopped on the center, and asks which positions could have slid
+ * into the current one: a robot stopped on a cell with something right
+ * behind it could have come from any free cell in front of it. Each round
+ * the smaller frontier is expanded, and the search ends on the level where
+ * the two meet, so each side only goes about half the solution deep.
+ *
+ * Seeding the backward search means listing every goal position, which
+ * only works while that count is modest (the standard board has about
+ * 27 thousand). Past kMaxGoals it falls back to a forward BoardSolver.
+ *
+ * @author Eric Tran
+ * @version 1
+ */
+public class BidirectionalSolver implements PuzzleSolver
+{
+    /**
+     * Most goal positions the backward search is willing to start from.
+     */
+    public static final long kMaxGoals = 1 << 21;
+
+    private static final int kInfinity = Integer.MAX_VALUE;
+
+    private BitBoard engine;
+    private Side forward;
+    private Side backward;
+    private BoardSolver fallback;
+    private long[][] goals;
+    private int bestLength;
+    private int bestForward;
+    private int bestMove;
+    private int bestBackward;
+
+    /**
+     * Default constructor for a solver of the standard board.
+     */
+    public BidirectionalSolver()
+    {
+        this(new BitBoard(GameBoard.kMaxRowCol));
+    }
+
+    /**
+     * Constructs a solver for boards of the engine's size.
+     * @param engine the engine used to compute slides
+     */
+    public BidirectionalSolver(BitBoard engine)
+    {
+        this.engine = engine;
+        forward = new Side();
+        backward = new Side();
+        fallback = new BoardSolver(engine);
+        goals = new long[engine.getCellCount() + 1][];
+    }
+
+    /**
+     * Gets the number of positions expanded by the last solve, both ways.
+     * @return number of expanded positions
+     */
+    public int getExpanded()
+    {
+        return forward.expanded + backward.expanded;
+    }
+
+    /**
+     * Finds the shortest winning move sequence for a board.
+     * @param board the board to be solved, e.g. "11 15 32R 34 51 55"
+     * @return the moves in "32R" notation, or null if it can't be won
+     */
+    public ArrayList<String> solve(String board)
+    {
+        return solve(engine.parse(board));
+    }
+
+    /**
+     * Finds the shortest winning move sequence for a packed position.
+     * @param start the position to be solved
+     * @return the moves in "32R" notation, or null if it can't be won
+     */
+    public ArrayList<String> solve(long start)
+    {
+        int robots = Long.bitCount(BitBoard.occupied(start));
+        forward.reset();
+        backward.reset();
+        // Too many goals to list, so search one way only
+        if (choose(engine.getCellCount() - 1, robots - 1) > kMaxGoals)
+        {
+            return fallback.solve(start);
+        }
+        forward.add(start, -1, -1, 0);
+        seedGoals(robots);
+        bestLength = kInfinity;
+        int forwardHead = 0;
+        int backwardHead = 0;
+
+        // Expands the smaller level each round until the two sides meet
+        while (forwardHead < forward.tail && backwardHead < backward.tail)
+        {
+            int forwardEnd = forward.tail;
+            int backwardEnd = backward.tail;
+            // Forward level is smaller
+            if (forwardEnd - forwardHead <= backwardEnd - backwardHead)
+            {
+                // Goes through the forward level
+                for (; forwardHead < forwardEnd; forwardHead++)
+                {
+                    expandForward(forwardHead);
+                }
+            }
+            // Backward level is smaller
+            else
+            {
+                // Goes through the backward level
+                for (; backwardHead < backwardEnd; backwardHead++)
+                {
+                    expandBackward(backwardHead);
+                }
+            }
+            // The sides met somewhere on this level
+            if (bestLength != kInfinity)
+            {
+                return buildPath();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Counts the ways to pick k cells out of n, capped past kMaxGoals.
+     * @param n the number of cells
+     * @param k the number picked
+     * @return the number of ways
+     */
+    private static long choose(int n, int k)
+    {
+        long ways = 1;
+        // Multiplies in one factor at a time
+        for (int in = 1; in <= k && ways <= kMaxGoals; in++)
+        {
+            ways = ways * (n - k + in) / in;
+        }
+        return ways;
+    }
+
+    /**
+     * Starts the backward search from every goal position.
+     * The goals only depend on the number of robots, so they are
+     * listed once per count and kept.
+     * @param robots number of robots on the board
+     */
+    private void seedGoals(int robots)
+    {
+        // First board with this many robots
+        if (goals[robots] == null)
+        {
+            goals[robots] = listGoals(robots);
+        }
+        // Goes through the goals
+        for (long goal : goals[robots])
+        {
+            backward.add(goal, -1, -1, 0);
+        }
+    }
+
+    /**
+     * Lists every position where the red robot could have just stopped on
+     * the center: the greens anywhere else, with one right beside the
+     * center and a free cell on the other side for red to come from.
+     * @param robots number of robots on the board
+     * @return the goal positions
+     */
+    private long[] listGoals(int robots)
+    {
+        int center = engine.getCenter();
+        int others = engine.getCellCount() - 1;
+        int greens = robots - 1;
+        long below = (1L << center) - 1;
+        long[] list = new long[(int) choose(others, greens)];
+        int count = 0;
+        // Needs at least one green to stop red
+        if (greens < 1)
+        {
+            return new long[0];
+        }
+        // Goes through every way to place the greens
+        for (long pick = (1L << greens) - 1; pick < (1L << others); )
+        {
+            long cells = (pick & below) | ((pick & ~below) << 1);
+            long position = BitBoard.pack(cells | (1L << center), center);
+            // Keep it if red can stop on the center from some side
+            if (canArrive(position, center))
+            {
+                list[count++] = position;
+            }
+            pick = BitBoard.nextCombination(pick);
+        }
+        return Arrays.copyOf(list, count);
+    }
+
+    /**
+     * Checks whether a robot on a cell could have slid there from some side.
+     * @param position the packed position
+     * @param cell the cell the robot is on
+     * @return whether it has a blocker on one side and room on the other
+     */
+    private boolean canArrive(long position, int cell)
+    {
+        // Goes through every direction it could have moved in
+        for (int dir = 0; dir < BitBoard.kNumDirs; dir++)
+        {
+            int blocker = engine.neighbor(cell, dir);
+            int before = engine.neighbor(cell, BitBoard.opposite(dir));
+            // Stopped by the blocker, coming from a free cell
+            if (blocker != BitBoard.kOffBoard && before != BitBoard.kOffBoard &&
+                BitBoard.isOccupied(position, blocker) &&
+                !BitBoard.isOccupied(position, before))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Keeps a meeting point if it makes the shortest solution so far.
+     * @param forwardIndex forward index of the position before the move
+     * @param move the move joining the sides
+     * @param backwardIndex backward index after the move, or -1 if it wins
+     * @param length the total solution length
+     */
+    private void offer(int forwardIndex, int move, int backwardIndex, int length)
+    {
+        // Shorter than what we have
+        if (length < bestLength)
+        {
+            bestLength = length;
+            bestForward = forwardIndex;
+            bestMove = move;
+            bestBackward = backwardIndex;
+        }
+    }
+
+    /**
+     * Expands a forward position, watching for wins and meetings.
+     * @param index forward index of the position
+     */
+    private void expandForward(int index)
+    {
+        long position = forward.positions[index];
+        int depth = forward.depths[index];
+        int red = BitBoard.redCell(position);
+        long robots = BitBoard.occupied(position);
+        forward.expanded++;
+        // Goes through every robot
+        while (robots != 0)
+        {
+            int from = Long.numberOfTrailingZeros(robots);
+            robots &= robots - 1;
+            // Goes through every direction
+            for (int dir = 0; dir < BitBoard.kNumDirs; dir++)
+            {
+                int to = engine.slide(position, from, dir);
+                int move = from * BitBoard.kNumDirs + dir;
+                // Red ends its move on the center, so the game is won
+                if (from == red && to == engine.getCenter())
+                {
+                    offer(index, move, -1, depth + 1);
+                    continue;
+                }
+                // Walking off loses and a blocked robot changes nothing
+                if (to == BitBoard.kOffBoard || to == from)
+                {
+                    continue;
+                }
+                long next = BitBoard.move(position, from, to);
+                int other = backward.indexOf(next);
+                // Met the backward search past its goal level
+                if (other != LongIntHashMap.kMissing &&
+                    backward.depths[other] > 0)
+                {
+                    offer(index, move, other,
+                        depth + 1 + backward.depths[other]);
+                }
+                forward.add(next, index, move, depth + 1);
+            }
+        }
+    }
+
+    /**
+     * Expands a backward position into every position that could
+     * have slid into it, watching for meetings.
+     * @param index backward index of the position
+     */
+    private void expandBackward(int index)
+    {
+        long position = backward.positions[index];
+        int depth = backward.depths[index];
+        long robots = BitBoard.occupied(position);
+        backward.expanded++;
+        // The winning move has to be the red robot's
+        if (depth == 0)
+        {
+            robots = 1L << BitBoard.redCell(position);
+        }
+        // Goes through every robot
+        while (robots != 0)
+        {
+            int cell = Long.numberOfTrailingZeros(robots);
+            robots &= robots - 1;
+            // Goes through every direction it could have moved in
+            for (int dir = 0; dir < BitBoard.kNumDirs; dir++)
+            {
+                int blocker = engine.neighbor(cell, dir);
+                // Nothing there to stop it
+                if (blocker == BitBoard.kOffBoard ||
+                    !BitBoard.isOccupied(position, blocker))
+                {
+                    continue;
+                }
+                int back = BitBoard.opposite(dir);
+                // Goes back over every free cell it could have started on
+                for (int from = engine.neighbor(cell, back);
+                    from != BitBoard.kOffBoard &&
+                    !BitBoard.isOccupied(position, from);
+                    from = engine.neighbor(from, back))
+                {
+                    long before = BitBoard.move(position, cell, from);
+                    int move = from * BitBoard.kNumDirs + dir;
+                    int other = forward.indexOf(before);
+                    // Met the forward search
+                    if (other != LongIntHashMap.kMissing)
+                    {
+                        offer(other, move, index,
+                            forward.depths[other] + 1 + depth);
+                    }
+                    backward.add(before, index, move, depth + 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Joins the forward path, the meeting move and the backward path.
+     * @return the moves in "32R" notation
+     */
+    private ArrayList<String> buildPath()
+    {
+        ArrayList<String> path = new ArrayList<String>();
+        // Goes back to the start
+        for (int in = bestForward; forward.links[in] != -1; in = forward.links[in])
+        {
+            path.add(moveName(forward.moves[in]));
+        }
+        Collections.reverse(path);
+        path.add(moveName(bestMove));
+        // Goes on to the goal
+        for (int in = bestBackward; in != -1 && backward.links[in] != -1;
+            in = backward.links[in])
+        {
+            path.add(moveName(backward.moves[in]));
+        }
+        return path;
+    }
+
+    /**
+     * Names an encoded move the way the GameBoard records it.
+     * @param move the move, encoded as cell * 4 + direction
+     * @return the move in "32R" notation
+     */
+    private String moveName(int move)
+    {
+        int cell = move / BitBoard.kNumDirs;
+        return BitBoard.moveName(engine.rowOf(cell), engine.colOf(cell),
+            move % BitBoard.kNumDirs);
+    }
+
+    /**
+     * One side of the search: the positions it found, kept in flat arrays,
+     * each with a link to the position it was found from and the move
+     * between them.
+     */
+    private static class Side
+    {
+        private static final int kInitialSize = 1024;
+
+        private long[] positions = new long[kInitialSize];
+        private int[] links = new int[kInitialSize];
+        private int[] moves = new int[kInitialSize];
+        private int[] depths = new int[kInitialSize];
+        private LongIntHashMap index = new LongIntHashMap();
+        private int tail;
+        private int expanded;
+
+        /**
+         * Empties the side for a new search.
+         */
+        public void reset()
+        {
+            index.clear();
+            tail = 0;
+            expanded = 0;
+        }
+
+        /**
+         * Gets where a position is stored.
+         * @param position the packed position
+         * @return its index, or LongIntHashMap.kMissing
+         */
+        public int indexOf(long position)
+        {
+            return index.get(position);
+        }
+
+        /**
+         * Stores a position if it is new.
+         * @param position the packed position
+         * @param link index of the position it was found from
+         * @param move the move between the two
+         * @param depth moves from where this side started
+         */
+        public void add(long position, int link, int move, int depth)
+        {
+            // Already found
+            if (!index.putIfAbsent(position, tail))
+            {
+                return;
+            }
+            // Out of room, so double the arrays
+            if (tail == positions.length)
+            {
+                positions = Arrays.copyOf(positions, tail * 2);
+                links = Arrays.copyOf(links, tail * 2);
+                moves = Arrays.copyOf(moves, tail * 2);
+                depths = Arrays.copyOf(depths, tail * 2);
+            }
+            positions[tail] = position;
+            links[tail] = link;
+            moves[tail] = move;
+            depths[tail] = depth;
+            tail++;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.util.*;
+
+/**
+ * The test class BidirectionalSolverTest.
+ *
+ * @author  Eric Tran
+ * @version 1
+ */
+public class BidirectionalSolverTest extends junit.framework.TestCase
+{
+    /**
+     * Tests that searching both ways finds solutions as short as
+     * searching forward on every built in board.
+     */
+    @Test
+    public void testMatchesBoardSolver()
+    {
+        PuzzleSolver single = new BoardSolver();
+        PuzzleSolver both = new BidirectionalSolver();
+        ReplayEngine replayer = new ReplayEngine();
+        BoardRegulator regulator = new BoardRegulator();
+        for (int in = 1; in <= 18; in++)
+        {
+            regulator.setBoard(in);
+            ArrayList<String> moves = both.solve(regulator.getBoard());
+            assertEquals("Board " + in + " same length",
+                single.solve(regulator.getBoard()).size(), moves.size());
+            assertTrue("Board " + in + " solution wins",
+                replayer.replay(regulator.getBoard(), moves).isWon());
+        }
+    }
+
+    /**
+     * Tests the paths joined from both sides.
+     */
+    @Test
+    public void testPaths()
+    {
+        PuzzleSolver both = new BidirectionalSolver();
+        assertEquals("Board 1", "[32R]",
+            both.solve("11 15 32R 34 51 55").toString());
+        assertEquals("Board 2", "[14D, 22D, 32R]",
+            both.solve("22R 14 31 42 44 55").toString());
+        assertNull("Red alone can't win", both.solve("32R"));
+        assertNull("Nothing can stop red", both.solve("11 32R"));
+    }
+}
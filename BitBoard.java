@@ -0,0 +1,410 @@
+/**
+ * BitBoard class is the headless engine behind the GameBoard.
+ * A whole position is packed into one long: the low bits are an
+ * occupancy mask of the playable (inner) cells, and the red robot's
+ * cell index sits above them. Slides are computed with precomputed
+ * ray masks, so a move never touches more than a handful of words.
+ *
+ * Only the inner cells are encoded, since any robot that reaches the
+ * outer border has walked off the board and the game is over.
+ * Boards up to 9x9 (a 7x7 play area) fit in a single long.
+ *
+ * @author Eric Tran
+ * @version 1
+ */
+public class BitBoard
+{
+    /**
+     * Direction up.
+     */
+    public static final int kUp = 0;
+
+    /**
+     * Direction down.
+     */
+    public static final int kDown = 1;
+
+    /**
+     * Direction left.
+     */
+    public static final int kLeft = 2;
+
+    /**
+     * Direction right.
+     */
+    public static final int kRight = 3;
+
+    /**
+     * Number of directions a robot can slide in.
+     */
+    public static final int kNumDirs = 4;
+
+    /**
+     * Letters used for the directions in move sequences, indexed by direction.
+     */
+    public static final String kDirNames = "UDLR";
+
+    /**
+     * Returned by slide when the robot walks off the board.
+     */
+    public static final int kOffBoard = -1;
+
+    /**
+     * Largest board (including the border) that fits in one long.
+     */
+    public static final int kMaxSize = 9;
+
+    private static final int kRedShift = 56;
+    private static final long kOccupiedMask = (1L << kRedShift) - 1;
+
+    private final int size;
+    private final int inner;
+    private final int cellCount;
+    private final int center;
+    private final long[][] rays;
+
+    /**
+     * Constructs an engine for a square board of the given size.
+     * @param size rows and cols of the board, including the border
+     */
+    public BitBoard(int size)
+    {
+        // Must have a play area and fit in a long
+        if (size < "abc".length() || size > kMaxSize)
+        {
+            throw new IllegalArgumentException("Unsupported board size " + size);
+        }
+        this.size = size;
+        this.inner = size - 2;
+        this.cellCount = inner * inner;
+        this.center = cellAt(size / 2, size / 2);
+        this.rays = new long[kNumDirs][cellCount];
+        buildRays();
+    }
+
+    /**
+     * Precomputes, for every cell and direction, the mask of the
+     * inner cells a robot would pass over when sliding that way.
+     */
+    private void buildRays()
+    {
+        // Goes through every inner cell
+        for (int cell = 0; cell < cellCount; cell++)
+        {
+            int row = cell / inner;
+            int col = cell % inner;
+            // Goes through the cells above
+            for (int in = row - 1; in >= 0; in--)
+            {
+                rays[kUp][cell] |= 1L << (in * inner + col);
+            }
+            // Goes through the cells below
+            for (int in = row + 1; in < inner; in++)
+            {
+                rays[kDown][cell] |= 1L << (in * inner + col);
+            }
+            // Goes through the cells to the left
+            for (int in = col - 1; in >= 0; in--)
+            {
+                rays[kLeft][cell] |= 1L << (row * inner + in);
+            }
+            // Goes through the cells to the right
+            for (int in = col + 1; in < inner; in++)
+            {
+                rays[kRight][cell] |= 1L << (row * inner + in);
+            }
+        }
+    }
+
+    /**
+     * Gets the size of the board, including the border.
+     * @return rows and cols of the board
+     */
+    public int getSize()
+    {
+        return size;
+    }
+
+    /**
+     * Gets the number of playable cells.
+     * @return number of inner cells
+     */
+    public int getCellCount()
+    {
+        return cellCount;
+    }
+
+    /**
+     * Gets the cell the red robot must reach to win.
+     * @return index of the center cell
+     */
+    public int getCenter()
+    {
+        return center;
+    }
+
+    /**
+     * Checks whether grid coordinates are inside the play area.
+     * @param row the x coord on the grid
+     * @param col the y coord on the grid
+     * @return whether the coordinates name an inner cell
+     */
+    public boolean contains(int row, int col)
+    {
+        return row >= 1 && row <= inner && col >= 1 && col <= inner;
+    }
+
+    /**
+     * Converts grid coordinates to a cell index.
+     * @param row the x coord, 1 based like the grid
+     * @param col the y coord, 1 based like the grid
+     * @return the cell index
+     */
+    public int cellAt(int row, int col)
+    {
+        return (row - 1) * inner + (col - 1);
+    }
+
+    /**
+     * Gets the grid row of a cell.
+     * @param cell the cell index
+     * @return the x coord on the grid
+     */
+    public int rowOf(int cell)
+    {
+        return cell / inner + 1;
+    }
+
+    /**
+     * Gets the grid col of a cell.
+     * @param cell the cell index
+     * @return the y coord on the grid
+     */
+    public int colOf(int cell)
+    {
+        return cell % inner + 1;
+    }
+
+    /**
+     * Gets the neighbouring inner cell in a direction.
+     * @param cell the cell to step from
+     * @param dir the direction to step in
+     * @return the next cell, or kOffBoard if that is the border
+     */
+    public int neighbor(int cell, int dir)
+    {
+        int row = cell / inner;
+        int col = cell % inner;
+        switch (dir)
+        {
+            case kUp:
+                return row == 0 ? kOffBoard : cell - inner;
+            case kDown:
+                return row == inner - 1 ? kOffBoard : cell + inner;
+            case kLeft:
+                return col == 0 ? kOffBoard : cell - 1;
+            default:
+                return col == inner - 1 ? kOffBoard : cell + 1;
+        }
+    }
+
+    /**
+     * Gets the opposite of a direction.
+     * @param dir the direction
+     * @return the direction pointing the other way
+     */
+    public static int opposite(int dir)
+    {
+        return dir ^ 1;
+    }
+
+    /**
+     * Gets the occupancy mask of a position.
+     * @param position the packed position
+     * @return bit mask with one bit per robot
+     */
+    public static long occupied(long position)
+    {
+        return position & kOccupiedMask;
+    }
+
+    /**
+     * Gets the cell the red robot is on.
+     * @param position the packed position
+     * @return the red robot's cell index
+     */
+    public static int redCell(long position)
+    {
+        return (int) (position >>> kRedShift);
+    }
+
+    /**
+     * Builds a packed position.
+     * @param occupied the occupancy mask, red included
+     * @param red the red robot's cell index
+     * @return the packed position
+     */
+    public static long pack(long occupied, int red)
+    {
+        return occupied | ((long) red << kRedShift);
+    }
+
+    /**
+     * Checks whether a robot stands on a cell.
+     * @param position the packed position
+     * @param cell the cell index
+     * @return whether the cell is occupied
+     */
+    public static boolean isOccupied(long position, int cell)
+    {
+        return (position & (1L << cell)) != 0;
+    }
+
+    /**
+     * Checks whether the red robot is on the center cell.
+     * @param position the packed position
+     * @return whether the position is won
+     */
+    public boolean isWin(long position)
+    {
+        return redCell(position) == center;
+    }
+
+    /**
+     * Parses a board in the BoardRegulator format, e.g. "11 15 32R 34 51 55".
+     * The board must already have been validated.
+     * @param board the board to be parsed
+     * @return the packed position
+     */
+    public long parse(String board)
+    {
+        long occupied = 0;
+        int red = 0;
+        int index = 0;
+        int length = board.length();
+        // Goes through each coordinate
+        while (index < length)
+        {
+            // Skip the spaces in between
+            if (board.charAt(index) == ' ')
+            {
+                index++;
+                continue;
+            }
+            int cell = cellAt(board.charAt(index) - '0',
+                board.charAt(index + 1) - '0');
+            occupied |= 1L << cell;
+            index += 2;
+            // An R after the coordinate means red
+            if (index < length &&
+                (board.charAt(index) == 'R' || board.charAt(index) == 'r'))
+            {
+                red = cell;
+                index++;
+            }
+        }
+        return pack(occupied, red);
+    }
+
+    /**
+     * Formats a position back into the BoardRegulator format.
+     * @param position the packed position
+     * @return the board string
+     */
+    public String format(long position)
+    {
+        StringBuilder board = new StringBuilder();
+        long bits = occupied(position);
+        int red = redCell(position);
+        // Goes through the robots in cell order
+        while (bits != 0)
+        {
+            int cell = Long.numberOfTrailingZeros(bits);
+            bits &= bits - 1;
+            // Separate the coordinates
+            if (board.length() > 0)
+            {
+                board.append(' ');
+            }
+            board.append(rowOf(cell)).append(colOf(cell));
+            // Mark the red robot
+            if (cell == red)
+            {
+                board.append('R');
+            }
+        }
+        return board.toString();
+    }
+
+    /**
+     * Finds where a robot ends up when slid in a direction.
+     * @param position the packed position
+     * @param cell the cell of the robot to slide
+     * @param dir the direction to slide in
+     * @return the cell it stops on, or kOffBoard if it walks off
+     */
+    public int slide(long position, int cell, int dir)
+    {
+        long blockers = position & rays[dir][cell];
+        // Nothing in the way, walks off the board
+        if (blockers == 0)
+        {
+            return kOffBoard;
+        }
+        switch (dir)
+        {
+            case kUp:
+                return (63 - Long.numberOfLeadingZeros(blockers)) + inner;
+            case kDown:
+                return Long.numberOfTrailingZeros(blockers) - inner;
+            case kLeft:
+                return (63 - Long.numberOfLeadingZeros(blockers)) + 1;
+            default:
+                return Long.numberOfTrailingZeros(blockers) - 1;
+        }
+    }
+
+    /**
+     * Moves the robot on one cell to another cell.
+     * @param position the packed position
+     * @param from the cell the robot is on
+     * @param to the cell the robot stops on
+     * @return the new packed position
+     */
+    public static long move(long position, int from, int to)
+    {
+        long next = (position & ~(1L << from)) | (1L << to);
+        // The red robot moved, so its index moves along
+        if (redCell(position) == from)
+        {
+            next = pack(occupied(next), to);
+        }
+        return next;
+    }
+
+    /**
+     * Steps to the next set of cells with the same number of bits,
+     * in increasing order, for listing every way to place the robots.
+     * @param pick the current set, never 0
+     * @return the next larger set with as many bits
+     */
+    public static long nextCombination(long pick)
+    {
+        long low = pick & -pick;
+        long ripple = pick + low;
+        return (((ripple ^ pick) >>> 2) / low) | ripple;
+    }
+
+    /**
+     * Names a move the same way the GameBoard records it, e.g. "32R".
+     * @param row the x coord of the robot
+     * @param col the y coord of the robot
+     * @param dir the direction it was moved in
+     * @return the move in text form
+     */
+    public static String moveName(int row, int col, int dir)
+    {
+        return Integer.toString(row) + Integer.toString(col)
+            + kDirNames.charAt(dir);
+    }
+}
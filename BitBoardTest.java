@@ -0,0 +1,99 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * The test class BitBoardTest.
+ *
+ * @author  Eric Tran
+ * @version 1
+ */
+public class BitBoardTest extends junit.framework.TestCase
+{
+    /**
+     * Tests parsing and formatting a board string.
+     */
+    @Test
+    public void testParseFormat()
+    {
+        BitBoard engine = new BitBoard(GameBoard.kMaxRowCol);
+        long position = engine.parse("11 15 32R 34 51 55");
+
+        assertEquals("Six robots", 6,
+            Long.bitCount(BitBoard.occupied(position)));
+        assertEquals("Red at 32", engine.cellAt(3, 2),
+            BitBoard.redCell(position));
+        assertTrue(BitBoard.isOccupied(position, engine.cellAt(5, 5)));
+        assertFalse(BitBoard.isOccupied(position, engine.cellAt(3, 3)));
+        assertEquals("Formats back in cell order", "11 15 32R 34 51 55",
+            engine.format(position));
+        assertEquals("Lower case r is red", engine.parse("11 15 32R 34 51 55"),
+            engine.parse("11 15 32r 34 51 55"));
+    }
+
+    /**
+     * Tests sliding in all four directions.
+     */
+    @Test
+    public void testSlide()
+    {
+        BitBoard engine = new BitBoard(GameBoard.kMaxRowCol);
+        long position = engine.parse("11 15 32R 34 51 55");
+        int red = engine.cellAt(3, 2);
+
+        assertEquals("Right stops next to 34", engine.cellAt(3, 3),
+            engine.slide(position, red, BitBoard.kRight));
+        assertEquals("Left walks off", BitBoard.kOffBoard,
+            engine.slide(position, red, BitBoard.kLeft));
+        assertEquals("Up walks off", BitBoard.kOffBoard,
+            engine.slide(position, red, BitBoard.kUp));
+        assertEquals("Down walks off", BitBoard.kOffBoard,
+            engine.slide(position, red, BitBoard.kDown));
+        assertEquals("11 down stops above 51", engine.cellAt(4, 1),
+            engine.slide(position, engine.cellAt(1, 1), BitBoard.kDown));
+        assertEquals("55 up stops below 15", engine.cellAt(2, 5),
+            engine.slide(position, engine.cellAt(5, 5), BitBoard.kUp));
+        assertEquals("15 left stops next to 11", engine.cellAt(1, 2),
+            engine.slide(position, engine.cellAt(1, 5), BitBoard.kLeft));
+    }
+
+    /**
+     * Tests moving robots and the win check.
+     */
+    @Test
+    public void testMoveWin()
+    {
+        BitBoard engine = new BitBoard(GameBoard.kMaxRowCol);
+        long position = engine.parse("11 15 32R 34 51 55");
+        int red = engine.cellAt(3, 2);
+
+        assertFalse(engine.isWin(position));
+        position = BitBoard.move(position, red,
+            engine.slide(position, red, BitBoard.kRight));
+        assertTrue(engine.isWin(position));
+        assertEquals("Red moved along", "11 15 33R 34 51 55",
+            engine.format(position));
+
+        position = BitBoard.move(position, engine.cellAt(1, 1),
+            engine.cellAt(4, 1));
+        assertEquals("Green moved, red stays", "15 33R 34 41 51 55",
+            engine.format(position));
+        assertEquals("Move name", "32R",
+            BitBoard.moveName(3, 2, BitBoard.kRight));
+    }
+
+    /**
+     * Tests a bigger board.
+     */
+    @Test
+    public void testLargeBoard()
+    {
+        BitBoard engine = new BitBoard(BitBoard.kMaxSize);
+        long position = engine.parse("11 17 42R 46 71 77");
+
+        assertEquals("Center of 9x9", engine.cellAt(4, 4), engine.getCenter());
+        assertEquals("Right stops next to 46", engine.cellAt(4, 5),
+            engine.slide(position, engine.cellAt(4, 2), BitBoard.kRight));
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * BoardEvent class tells the views what changed on the GameBoard, so
+ * each can redraw only the cells it names instead of the whole board.
+ *
+ * A move sends kTrailCleared for the dots of the move before it, if
+ * there were any, then kPieceMoved, or kGameWon or kGameLost when the
+ * move ended the game. Cells are numbered row * kMaxRowCol + col.
+ *
+ * Each event carries the snapshot the board published just before
+ * sending it. A view that draws late, after more moves or a new game,
+ * still draws the board the event is about, as long as it reads
+ * everything from that snapshot.
+ *
+ * @author Eric Tran
+ * @version 1
+ */
+public class BoardEvent
+{
+    /**
+     * A robot slid, or a move was taken back or made again. The cells
+     * are the path, where the robot stopped and any dots put back.
+     */
+    public static final int kPieceMoved = 0;
+
+    /**
+     * The last move's dots were removed. The cells are where they were.
+     */
+    public static final int kTrailCleared = 1;
+
+    /**
+     * A move put the red robot on the center. The cells are as kPieceMoved.
+     */
+    public static final int kGameWon = 2;
+
+    /**
+     * A move slid a robot off the board. The cells are as kPieceMoved.
+     */
+    public static final int kGameLost = 3;
+
+    /**
+     * A new board was set up, so everything changed. The cells are
+     * where the robots stand.
+     */
+    public static final int kBoardLoaded = 4;
+
+    /**
+     * The About or Hall of Fame dialog was asked for. No cells changed.
+     */
+    public static final int kDialogRequested = 5;
+
+    private static final String[] kNames = {"PieceMoved", "TrailCleared",
+        "GameWon", "GameLost", "BoardLoaded", "DialogRequested"};
+
+    private int kind;
+    private int[] cells;
+    private BoardSnapshot snapshot;
+
+    /**
+     * Constructs an event that isn't about any one board.
+     * @param kind what happened, e.g. kPieceMoved
+     * @param cells the cells that changed, which the event keeps
+     */
+    public BoardEvent(int kind, int[] cells)
+    {
+        this(kind, cells, null);
+    }
+
+    /**
+     * Constructs an event.
+     * @param kind what happened, e.g. kPieceMoved
+     * @param cells the cells that changed, which the event keeps
+     * @param snapshot the board after the change
+     */
+    public BoardEvent(int kind, int[] cells, BoardSnapshot snapshot)
+    {
+        this.kind = kind;
+        this.cells = cells;
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Gets what happened.
+     * @return one of the event kinds, e.g. kPieceMoved
+     */
+    public int getKind()
+    {
+        return kind;
+    }
+
+    /**
+     * Gets the cells that changed.
+     * @return the cells, each as row * kMaxRowCol + col
+     */
+    public int[] getCells()
+    {
+        return cells;
+    }
+
+    /**
+     * Gets the board as it was right after the change.
+     * @return the snapshot published with the event, or null if none was
+     */
+    public BoardSnapshot getSnapshot()
+    {
+        return snapshot;
+    }
+
+    /**
+     * Checks whether the event ended the game.
+     * @return true for kGameWon and kGameLost
+     */
+    public boolean endsGame()
+    {
+        return kind == kGameWon || kind == kGameLost;
+    }
+
+    /**
+     * Checks whether the event moved or removed anything on the grid.
+     * @return false only for kDialogRequested
+     */
+    public boolean changesBoard()
+    {
+        return kind != kDialogRequested;
+    }
+
+    /**
+     * Names the event and how many cells it changed.
+     * @return e.g. "PieceMoved(4)"
+     */
+    public String toString()
+    {
+        return kNames[kind] + "(" + cells.length + ")";
+    }
+}
@@ -0,0 +1,15 @@
+/**
+ * BoardListener interface is shared by every view of the GameBoard,
+ * which passes it what changed through its ListenerBus.
+ *
+ * @author Eric Tran
+ * @version 1
+ */
+public interface BoardListener
+{
+    /**
+     * Called whenever the board changes.
+     * @param event what changed, or null to show the board as it is
+     */
+    void boardChanged(BoardEvent event);
+}
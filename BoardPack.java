@@ -0,0 +1,349 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+
+/**
+ * BoardPack class holds a list of boards in a compact binary form.
+ * Packs on disk are memory-mapped, so even a pack of millions of boards
+ * opens at once and any board is read straight from its record.
+ *
+ * After a header of magic, board size, robots per board and board count,
+ * every board is one fixed width record: a byte per robot holding its
+ * row and col, then the index of the red robot among them, the
+ * difficulty letter, and the par (0 if not known).
+ *
+ * @author Eric Tran
+ * @version 1
+ */
+public class BoardPack
+{
+    /**
+     * Where BoardRegulator looks for a pack to play.
+     */
+    public static final String kDefaultFile = "roundup/boards.pack";
+
+    /**
+     * Difficulty stored for boards that haven't been rated.
+     */
+    public static final char kUnrated = ' ';
+
+    private static final int kMagic = 0x5250414b;
+    private static final int kHeaderSize = 16;
+    private static final int kExtraBytes = 3;
+
+    private BitBoard engine;
+    private int robots;
+    private int count;
+    private int recordSize;
+    private ByteBuffer records;
+
+    /**
+     * Constructs a pack over a buffer of records.
+     * @param engine the engine for the pack's board size
+     * @param robots number of robots in every record
+     * @param count number of records
+     * @param records the records, after any header
+     */
+    private BoardPack(BitBoard engine, int robots, int count, ByteBuffer records)
+    {
+        this.engine = engine;
+        this.robots = robots;
+        this.count = count;
+        this.records = records;
+        recordSize = robots + kExtraBytes;
+    }
+
+    /**
+     * Builds a pack in memory, as the built in boards are kept.
+     * @param engine the engine for the boards' size
+     * @param boards the boards, e.g. "11 15 32R 34 51 55", all with
+     * the same number of robots
+     * @return the pack, with every board unrated
+     */
+    public static BoardPack fromBoards(BitBoard engine, String[] boards)
+    {
+        int robots = boards[0].trim().split("\\s+").length;
+        BoardPack pack = new BoardPack(engine, robots, boards.length,
+            ByteBuffer.allocate(boards.length * (robots + kExtraBytes)));
+        // Encodes every board
+        for (String board : boards)
+        {
+            pack.records.put(pack.encode(board, kUnrated, 0));
+        }
+        return pack;
+    }
+
+    /**
+     * Memory-maps a pack file.
+     * @param file the file to open
+     * @return the pack
+     * @throws IOException if the file can't be read, isn't a pack, or
+     * doesn't hold as many boards as its header says
+     */
+    public static BoardPack open(File file) throws IOException
+    {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try
+        {
+            FileChannel channel = raf.getChannel();
+            MappedByteBuffer map = channel.map(
+                FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            // Check it is really a pack
+            if (map.capacity() < kHeaderSize || map.getInt(0) != kMagic)
+            {
+                throw new IOException(file.getName() + " is not a board pack");
+            }
+            BitBoard engine;
+            try
+            {
+                engine = new BitBoard(map.getInt(4));
+            }
+            catch (IllegalArgumentException e)
+            {
+                throw new IOException(file.getName() + ": " + e.getMessage());
+            }
+            int robots = map.getInt(8);
+            int count = map.getInt(12);
+            // More robots than cells, boards with none, or fewer than no boards
+            if (robots < 0 || robots > engine.getCellCount() || count < 0 ||
+                count > 0 && robots == 0)
+            {
+                throw new IOException(file.getName() + " has " + robots
+                    + " robots and " + count + " boards");
+            }
+            // Cut short, or more bytes than its boards take
+            if ((long) count * (robots + kExtraBytes)
+                != map.capacity() - kHeaderSize)
+            {
+                throw new IOException(file.getName() + " should hold "
+                    + count + " boards but is " + map.capacity() + " bytes");
+            }
+            map.position(kHeaderSize);
+            return new BoardPack(engine, robots, count, map.slice());
+        }
+        finally
+        {
+            raf.close();
+        }
+    }
+
+    /**
+     * Converts a text pack written by PuzzleGenerator into a binary pack.
+     * @param text the text pack, one "E 1 11 15 32R 34 51 55" line a board
+     * @param file the binary pack to write
+     * @param engine the engine for the boards' size
+     * @return number of boards written
+     * @throws IOException if a pack can't be read or written
+     */
+    public static int convert(File text, File file, BitBoard engine)
+        throws IOException
+    {
+        BufferedReader in = new BufferedReader(new FileReader(text));
+        DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(new FileOutputStream(file)));
+        BoardPack pack = null;
+        int written = 0;
+        try
+        {
+            String line;
+            // Goes through every board
+            while ((line = in.readLine()) != null)
+            {
+                int space = line.indexOf(' ', 2);
+                String board = line.substring(space + 1);
+                // The first board decides the number of robots
+                if (pack == null)
+                {
+                    pack = new BoardPack(engine,
+                        board.split("\\s+").length, 0, null);
+                    out.writeInt(kMagic);
+                    out.writeInt(engine.getSize());
+                    out.writeInt(pack.robots);
+                    out.writeInt(0);
+                }
+                out.write(pack.encode(board, line.charAt(0),
+                    Integer.parseInt(line.substring(2, space))));
+                written++;
+            }
+        }
+        finally
+        {
+            in.close();
+            out.close();
+        }
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try
+        {
+            // Nothing was read, so write an empty pack
+            if (pack == null)
+            {
+                raf.writeInt(kMagic);
+                raf.writeInt(engine.getSize());
+                raf.writeInt(0);
+            }
+            raf.seek(12);
+            raf.writeInt(written);
+        }
+        finally
+        {
+            raf.close();
+        }
+        return written;
+    }
+
+    /**
+     * Encodes a board into one record.
+     * @param board the board
+     * @param difficulty the difficulty letter
+     * @param par moves in the shortest solution, or 0 if not known
+     * @return the record
+     */
+    private byte[] encode(String board, char difficulty, int par)
+    {
+        String[] coords = board.trim().split("\\s+");
+        // Records are fixed width
+        if (coords.length != robots)
+        {
+            throw new IllegalArgumentException("Board \"" + board
+                + "\" doesn't have " + robots + " robots");
+        }
+        byte[] record = new byte[recordSize];
+        // Packs the row and col of every robot into a byte
+        for (int in = 0; in < robots; in++)
+        {
+            int row = coords[in].charAt(0) - '0';
+            int col = coords[in].charAt(1) - '0';
+            record[in] = (byte) (row << 4 | col);
+            // This is the red robot
+            if (coords[in].length() > 2)
+            {
+                record[robots] = (byte) in;
+            }
+        }
+        record[robots + 1] = (byte) difficulty;
+        record[robots + 2] = (byte) par;
+        return record;
+    }
+
+    /**
+     * Gets the number of boards in the pack.
+     * @return number of boards
+     */
+    public int size()
+    {
+        return count;
+    }
+
+    /**
+     * Gets the number of robots on every board, red included.
+     * @return number of robots
+     */
+    public int getRobots()
+    {
+        return robots;
+    }
+
+    /**
+     * Gets the engine for the pack's board size.
+     * @return the engine
+     */
+    public BitBoard getEngine()
+    {
+        return engine;
+    }
+
+    /**
+     * Gets a board in the BoardRegulator format.
+     * @param index the board, from 0
+     * @return the board, e.g. "11 15 32R 34 51 55"
+     */
+    public String getBoard(int index)
+    {
+        int base = recordOf(index);
+        int red = records.get(base + robots);
+        StringBuilder board = new StringBuilder(robots * 4);
+        // Goes through the robots in the order they were written
+        for (int in = 0; in < robots; in++)
+        {
+            int coord = records.get(base + in);
+            // Separate the coordinates
+            if (in > 0)
+            {
+                board.append(' ');
+            }
+            board.append(coord >> 4).append(coord & 0xf);
+            // Mark the red robot
+            if (in == red)
+            {
+                board.append('R');
+            }
+        }
+        return board.toString();
+    }
+
+    /**
+     * Gets a board packed by the engine, without making a string.
+     * @param index the board, from 0
+     * @return the packed position
+     */
+    public long getPosition(int index)
+    {
+        int base = recordOf(index);
+        long occupied = 0;
+        // Goes through every robot
+        for (int in = 0; in < robots; in++)
+        {
+            int coord = records.get(base + in);
+            occupied |= 1L << engine.cellAt(coord >> 4, coord & 0xf);
+        }
+        int coord = records.get(base + records.get(base + robots));
+        return BitBoard.pack(occupied, engine.cellAt(coord >> 4, coord & 0xf));
+    }
+
+    /**
+     * Gets a board's difficulty letter.
+     * @param index the board, from 0
+     * @return the letter, or kUnrated
+     */
+    public char getDifficulty(int index)
+    {
+        return (char) records.get(recordOf(index) + robots + 1);
+    }
+
+    /**
+     * Gets a board's par.
+     * @param index the board, from 0
+     * @return moves in the shortest solution, or 0 if not known
+     */
+    public int getPar(int index)
+    {
+        return records.get(recordOf(index) + robots + 2) & 0xff;
+    }
+
+    /**
+     * Finds where a board's record starts.
+     * @param index the board, from 0
+     * @return offset of the record
+     */
+    private int recordOf(int index)
+    {
+        // No such board
+        if (index < 0 || index >= count)
+        {
+            throw new IndexOutOfBoundsException("Board " + index);
+        }
+        return index * recordSize;
+    }
+
+    /**
+     * Converts a text pack into the binary pack BoardRegulator plays.
+     * @param args the text pack and optionally the binary pack
+     */
+    public static void main(String[] args) throws IOException
+    {
+        File text = new File(args.length > 0 ? args[0] : "roundup/boards.txt");
+        File file = new File(args.length > 1 ? args[1] : kDefaultFile);
+        int written = convert(text, file, new BitBoard(GameBoard.kMaxRowCol));
+        System.out.println(written + " boards, " + file.length() + " bytes");
+    }
+}
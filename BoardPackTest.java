@@ -0,0 +1,150 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.util.*;
+import java.io.*;
+
+/**
+ * The test class BoardPackTest.
+ *
+ * @author  Eric Tran
+ * @version 1
+ */
+public class BoardPackTest extends junit.framework.TestCase
+{
+    /**
+     * Tests that boards read back the way they were written.
+     */
+    @Test
+    public void testFromBoards()
+    {
+        BitBoard engine = new BitBoard(GameBoard.kMaxRowCol);
+        String[] boards = {"22R 14 31 42 44 55", "11 15 32R 34 51 55"};
+        BoardPack pack = BoardPack.fromBoards(engine, boards);
+        assertEquals("Size", 2, pack.size());
+        for (int in = 0; in < boards.length; in++)
+        {
+            assertEquals("Same order", boards[in], pack.getBoard(in));
+            assertEquals("Same position", engine.parse(boards[in]),
+                pack.getPosition(in));
+            assertEquals("Unrated", BoardPack.kUnrated, pack.getDifficulty(in));
+            assertEquals("No par", 0, pack.getPar(in));
+        }
+        try
+        {
+            pack.getBoard(2);
+            fail("No board 2");
+        }
+        catch (IndexOutOfBoundsException e)
+        {
+        }
+        try
+        {
+            BoardPack.fromBoards(engine, new String[] {"11 32R", "11 12 32R"});
+            fail("Different robot counts");
+        }
+        catch (IllegalArgumentException e)
+        {
+        }
+    }
+
+    /**
+     * Tests converting a generated text pack and mapping it back.
+     */
+    @Test
+    public void testConvertOpen() throws IOException
+    {
+        BitBoard engine = new BitBoard(GameBoard.kMaxRowCol);
+        File text = File.createTempFile("boards", ".txt");
+        File file = File.createTempFile("boards", ".pack");
+        try
+        {
+            PuzzleGenerator generator = new PuzzleGenerator(1);
+            assertEquals("Generated", 100, generator.generate('M', 100, text));
+            assertEquals("Converted", 100,
+                BoardPack.convert(text, file, engine));
+            assertEquals("Fixed width", 16 + 100 * 9, file.length());
+            BoardPack pack = BoardPack.open(file);
+            BufferedReader in = new BufferedReader(new FileReader(text));
+            for (int index = 0; index < pack.size(); index++)
+            {
+                String line = in.readLine();
+                assertEquals("Letter", line.charAt(0), pack.getDifficulty(index));
+                assertEquals("Par", line.substring(2, line.indexOf(' ', 2)),
+                    pack.getPar(index) + "");
+                assertEquals("Board", line.substring(line.indexOf(' ', 2) + 1),
+                    pack.getBoard(index));
+            }
+            in.close();
+
+            BoardRegulator regulator = new BoardRegulator(pack);
+            assertEquals("Count", 100, regulator.getBoardCount());
+            regulator.setBoard(100);
+            assertEquals("Last board", pack.getBoard(99), regulator.getBoard());
+            assertEquals("Pack letter", "M", regulator.getBoardDifficulty());
+            regulator.nextBoard();
+            assertEquals("Loops back", 1, regulator.getBoardNumber());
+
+            new FileWriter(text).close();
+            assertEquals("Empty", 0, BoardPack.convert(text, file, engine));
+            assertEquals("Empty pack", 0, BoardPack.open(file).size());
+            try
+            {
+                BoardPack.open(text);
+                fail("Not a pack");
+            }
+            catch (IOException e)
+            {
+            }
+
+            assertEquals("Converted again", 2, BoardPack.convert(
+                write(text, "E 1 11 15 32R 34 51 55\nE 1 22R 14 31 42 44 55"),
+                file, engine));
+            assertEquals("Robots", 6, BoardPack.open(file).getRobots());
+            RandomAccessFile cut = new RandomAccessFile(file, "rw");
+            cut.setLength(file.length() - 1);
+            cut.close();
+            try
+            {
+                BoardPack.open(file);
+                fail("Truncated");
+            }
+            catch (IOException e)
+            {
+            }
+            cut = new RandomAccessFile(file, "rw");
+            cut.setLength(file.length() + 1);
+            cut.seek(8);
+            cut.writeInt(99);
+            cut.close();
+            try
+            {
+                BoardPack.open(file);
+                fail("More robots than cells");
+            }
+            catch (IOException e)
+            {
+            }
+        }
+        finally
+        {
+            text.delete();
+            file.delete();
+        }
+    }
+
+    /**
+     * Writes text to a file.
+     * @param file the file
+     * @param text what it holds
+     * @return the file
+     */
+    private static File write(File file, String text) throws IOException
+    {
+        FileWriter out = new FileWriter(file);
+        out.write(text);
+        out.close();
+        return file;
+    }
+}
@@ -1,47 +1,94 @@
+import java.io.*;
 
 /**
  * BoardRegulator class monitors all aspects of the game board.
  * It keeps track of all the possible boards,
  * and which one is currently being used.
+ * It isn't thread safe, a GameBoard only changes its regulator
+ * on its writer thread.
  * @author Eric Tran
  * @version 1
  */
 public class BoardRegulator
 {
-    private String[] boards;
+    private static final String[] kBuiltInBoards = {
+        "11 15 32R 34 51 55",
+        "22R 14 31 42 44 55",
+        "11 21 31R 51 15 45",
+        "11 22R 31 35 51 54",
+        "11 23 25 31 41R 44",
+        "21 22 13R 33 42 43",
+        "11 14R 31 33 34 44",
+        "11 13R 15 21 45 51",
+        "11 15 21 33 41R 44",
+        "11 13 21 25R 31 54",
+        "13 15 25R 31 44 52",
+        "11 15 21 23R 45 51",
+        "11 13 15 31 51 55R",
+        "11R 15 41 44 53 54",
+        "13 15 21R 25 52 55",
+        "11R 25 41 51 54 55",
+        "14 21R 34 41 45 52",
+        "11 15 21 43R 45 51"
+    };
+
+    private BoardPack boards;
     private String currentBoard;
-    private String difficulty;
     private int currentBoardNumber;
+    private DifficultyRater rater;
 
     /**
      * Default constructor for the BoardRegualtor class.
+     * Plays the pack in BoardPack.kDefaultFile if there is one,
+     * otherwise the 18 built in boards.
      */
     public BoardRegulator()
     {
-        boards = new String[] {
-            "",
-            "11 15 32R 34 51 55",
-            "22R 14 31 42 44 55",
-            "11 21 31R 51 15 45",
-            "11 22R 31 35 51 54",
-            "11 23 25 31 41R 44",
-            "21 22 13R 33 42 43",
-            "11 14R 31 33 34 44",
-            "11 13R 15 21 45 51",
-            "11 15 21 33 41R 44",
-            "11 13 21 25R 31 54",
-            "13 15 25R 31 44 52",
-            "11 15 21 23R 45 51",
-            "11 13 15 31 51 55R",
-            "11R 15 41 44 53 54",
-            "13 15 21R 25 52 55",
-            "11R 25 41 51 54 55",
-            "14 21R 34 41 45 52",
-            "11 15 21 43R 45 51"
-        };
-        currentBoard = boards[1];   
+        this(defaultPack());
+    }
+
+    /**
+     * Constructs a regulator playing the boards of a pack.
+     * @param boards the pack to be played, boards numbered from 1
+     */
+    public BoardRegulator(BoardPack boards)
+    {
+        this.boards = boards;
+        currentBoard = boards.getBoard(0);   
         currentBoardNumber = 1;            
-        difficulty = "EEMMEEMMMDHMDHHHEM"; 
+        rater = DifficultyRater.getStandard();
+    }
+
+    /**
+     * Opens the default pack, falling back to the built in boards.
+     * @return the pack to be played
+     */
+    private static BoardPack defaultPack()
+    {
+        File file = new File(BoardPack.kDefaultFile);
+        // A pack has been put in place
+        if (file.exists())
+        {
+            try
+            {
+                BoardPack pack = BoardPack.open(file);
+                // Only use it if it has boards of the right size and robots
+                if (pack.size() > 0 &&
+                    pack.getEngine().getSize() == GameBoard.kMaxRowCol &&
+                    pack.getRobots() == Tablebase.kStandardRobots)
+                {
+                    return pack;
+                }
+                System.out.println("Board pack " + file.getName()
+                    + " isn't for this board");
+            }
+            catch (IOException e)
+            {
+                System.out.println("Can't open board pack " + file.getName());
+            }
+        }
+        return BoardPack.fromBoards(
+            new BitBoard(GameBoard.kMaxRowCol), kBuiltInBoards);
     }
 
     /**
@@ -50,7 +97,7 @@ public class BoardRegulator
      */
     public void setBoard(int boardNumber) 
     {
-        this.currentBoard = boards[boardNumber];
+        this.currentBoard = boards.getBoard(boardNumber - 1);
         this.currentBoardNumber = boardNumber;
     }
 
@@ -72,14 +119,23 @@ public class BoardRegulator
         return this.currentBoardNumber;
     }
 
+    /**
+     * Gets the number of boards that can be played, not counting custom.
+     * @return number of boards
+     */
+    public int getBoardCount()
+    {
+        return boards.size();
+    }
+
     /**
      * Increments the currentBoard by 1.
-     * If board 18, loops back to loop 1.
+     * If the last board, loops back to board 1.
      */
     public void nextBoard()
     {
         // If the board is not currently at the last board
-        if (this.currentBoardNumber != boards.length - 1) 
+        if (this.currentBoardNumber != boards.size()) 
         {
             this.currentBoardNumber++;
         }
@@ -87,7 +143,7 @@ public class BoardRegulator
         {
             this.currentBoardNumber = 1;
         }
-        this.currentBoard = boards[this.currentBoardNumber];
+        this.currentBoard = boards.getBoard(this.currentBoardNumber - 1);
     }
 
     /**
@@ -101,20 +157,28 @@ public class BoardRegulator
     }
 
     /**
-     * Gets the currentBoard's difficulty level. 
-     * @return string that represents the difficulty of current board
+     * Gets the currentBoard's difficulty level, rated from how hard
+     * the board is to solve.
+     * @return string that represents the difficulty of current board,
+     * blank if it can't be won
      */
     public String getBoardDifficulty()
     {
-        // If board is not custom
-        if (currentBoardNumber != 0)
-        {
-            return difficulty.charAt(currentBoardNumber - 1) + "";    
-        }
-        // Board is custom
-        else
+        // The pack already knows
+        if (currentBoardNumber != 0 &&
+            boards.getDifficulty(currentBoardNumber - 1) != BoardPack.kUnrated)
         {
-            return " ";
+            return boards.getDifficulty(currentBoardNumber - 1) + "";
         }
+        return getBoardRating().getLetter();
+    }
+
+    /**
+     * Gets the solver metrics the currentBoard's difficulty comes from.
+     * @return the rating of the current board
+     */
+    public DifficultyRating getBoardRating()
+    {
+        return rater.rate(currentBoard);
     }
 }
\ No newline at end of file
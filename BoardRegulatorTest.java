@@ -62,6 +62,11 @@ public class BoardRegulatorTest extends junit.framework.TestCase
                         regulate.getBoard());
         assertEquals("CurrentBoard diff should be blank", " ", 
                         regulate.getBoardDifficulty());
+
+        // Custom boards that can be won are rated too
+        regulate.setCustom("22R 14 31 42 44 55");
+        assertEquals("Custom diff should be E", "E", 
+                        regulate.getBoardDifficulty());
         
         // Test loop back to 1
         regulate.nextBoard();
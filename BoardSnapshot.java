@@ -0,0 +1,284 @@
+import java.util.*;
+
+/**
+ * BoardSnapshot class is the GameBoard at one moment, never changed once
+ * made. The board publishes a new one after every change, so a view that
+ * reads everything from one snapshot can't see a slide half done, and
+ * never has to lock the board to read it.
+ *
+ * Cells are numbered row * width + col.
+ *
+ * @author Eric Tran
+ * @version 1
+ */
+public final class BoardSnapshot
+{
+    private final int width;
+    private final byte[] cells;
+    private final int[] trail;
+    private final int[] pieces;
+    private final long position;
+    private final long hash;
+    private final BitBoard engine;
+    private final byte[] moves;
+    private final int moveCount;
+    private final boolean winFlag;
+    private final boolean loseFlag;
+    private final int movedRow;
+    private final int movedCol;
+    private final boolean undoable;
+    private final boolean redoable;
+    private final int boardNumber;
+    private final String difficulty;
+
+    /**
+     * Constructs a snapshot, copying the grid so the board can go on.
+     * @param grid the cells of the grid, by row then col
+     * @param trail the trail's cells
+     * @param pieces the robots' cells, red first
+     * @param position the position packed by the engine
+     * @param hash the position's zobrist hash
+     * @param engine the engine the moves were made on
+     * @param moves the moves made so far, one byte each, shared with
+     *        the board's MoveBuffer
+     * @param moveCount the number of moves made
+     * @param winFlag whether the game is won
+     * @param loseFlag whether the game is lost
+     * @param movedRow the x coord of the last moved robot, or -1
+     * @param movedCol the y coord of the last moved robot, or -1
+     * @param undoable whether there is a move to take back
+     * @param redoable whether there is a taken back move to make again
+     * @param boardNumber the number of the board being played, 0 if custom
+     * @param difficulty the board's difficulty letter
+     */
+    BoardSnapshot(byte[][] grid, int[] trail, int[] pieces, long position,
+        long hash, BitBoard engine, byte[] moves, int moveCount,
+        boolean winFlag, boolean loseFlag,
+        int movedRow, int movedCol, boolean undoable, boolean redoable,
+        int boardNumber, String difficulty)
+    {
+        width = grid.length;
+        cells = new byte[width * width];
+        // Copies every row
+        for (int row = 0; row < width; row++)
+        {
+            System.arraycopy(grid[row], 0, cells, row * width, width);
+        }
+        this.trail = trail;
+        this.pieces = pieces;
+        this.position = position;
+        this.hash = hash;
+        this.engine = engine;
+        this.moves = moves;
+        this.moveCount = moveCount;
+        this.winFlag = winFlag;
+        this.loseFlag = loseFlag;
+        this.movedRow = movedRow;
+        this.movedCol = movedCol;
+        this.undoable = undoable;
+        this.redoable = redoable;
+        this.boardNumber = boardNumber;
+        this.difficulty = difficulty;
+    }
+
+    /**
+     * Gets the number of the board being played.
+     * @return the board number, 0 for a custom board
+     */
+    public int getBoardNumber()
+    {
+        return boardNumber;
+    }
+
+    /**
+     * Gets the difficulty of the board being played.
+     * @return the difficulty letter, blank if it can't be won
+     */
+    public String getDifficulty()
+    {
+        return difficulty;
+    }
+
+    /**
+     * Gets the cell at a row and col.
+     * @param row the x coord
+     * @param col the y coord
+     * @return the Cell
+     */
+    public int getCell(int row, int col)
+    {
+        return cells[row * width + col];
+    }
+
+    /**
+     * Gets the rows and cols of the grid.
+     * @return the width
+     */
+    public int getWidth()
+    {
+        return width;
+    }
+
+    /**
+     * Checks whether a cell has a dot from the last move's trail.
+     * @param row the x coord
+     * @param col the y coord
+     * @return whether the cell is on the trail
+     */
+    public boolean isTrail(int row, int col)
+    {
+        int cell = row * width + col;
+        // Goes along the trail
+        for (int dot : trail)
+        {
+            // Found the cell
+            if (dot == cell)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the cells of the last move's trail.
+     * @return a copy of the cells
+     */
+    public int[] getTrail()
+    {
+        return trail.clone();
+    }
+
+    /**
+     * Gets where every robot stands.
+     * @return a copy of the cells, red first
+     */
+    public int[] getPieces()
+    {
+        return pieces.clone();
+    }
+
+    /**
+     * Gets the position packed by the engine.
+     * @return the packed position
+     */
+    public long getPosition()
+    {
+        return position;
+    }
+
+    /**
+     * Gets the zobrist hash of the position.
+     * @return the position's hash
+     */
+    public long getHash()
+    {
+        return hash;
+    }
+
+    /**
+     * Gets the number of moves made.
+     * @return number of moves
+     */
+    public int getMoveCount()
+    {
+        return moveCount;
+    }
+
+    /**
+     * Gets one of the moves made.
+     * @param index which move, the first is 0
+     * @return the move, encoded as in MoveBuffer
+     */
+    public int getMove(int index)
+    {
+        // Only the moves made when this was published are ours
+        if (index < 0 || index >= moveCount)
+        {
+            throw new IndexOutOfBoundsException("Move " + index);
+        }
+        return moves[index] & 0xFF;
+    }
+
+    /**
+     * Writes the moves made so far one after another, without making
+     * a string for each.
+     * @param out where to write them, e.g. "32R34L"
+     */
+    public void appendMoves(StringBuilder out)
+    {
+        MoveBuffer.appendMoves(out, engine, moves, moveCount);
+    }
+
+    /**
+     * Gets the moves made so far.
+     * @return the moves in "32R" notation, first move first
+     */
+    public ArrayList<String> getMoves()
+    {
+        ArrayList<String> list = new ArrayList<String>(moveCount);
+        StringBuilder move = new StringBuilder();
+        // Writes out each move
+        for (int in = 0; in < moveCount; in++)
+        {
+            move.setLength(0);
+            MoveBuffer.appendMove(move, engine, moves[in] & 0xFF);
+            list.add(move.toString());
+        }
+        return list;
+    }
+
+    /**
+     * Gets whether the game is won.
+     * @return the win flag
+     */
+    public boolean getWinFlag()
+    {
+        return winFlag;
+    }
+
+    /**
+     * Gets whether the game is lost.
+     * @return the lose flag
+     */
+    public boolean getLoseFlag()
+    {
+        return loseFlag;
+    }
+
+    /**
+     * Gets the row of the last moved robot.
+     * @return the row, or -1
+     */
+    public int getLastMovedRow()
+    {
+        return movedRow;
+    }
+
+    /**
+     * Gets the col of the last moved robot.
+     * @return the col, or -1
+     */
+    public int getLastMovedCol()
+    {
+        return movedCol;
+    }
+
+    /**
+     * Checks whether there is a move to take back.
+     * @return whether undo would do anything
+     */
+    public boolean canUndo()
+    {
+        return undoable;
+    }
+
+    /**
+     * Checks whether there is a taken back move to make again.
+     * @return whether redo would do anything
+     */
+    public boolean canRedo()
+    {
+        return redoable;
+    }
+}
@@ -0,0 +1,407 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.util.*;
+import java.util.concurrent.*;
+import javax.swing.SwingUtilities;
+
+/**
+ * The test class BoardSnapshotTest.
+ *
+ * @author  Eric Tran
+ * @version 1
+ */
+public class BoardSnapshotTest extends junit.framework.TestCase
+{
+    /**
+     * Checks that a snapshot is one whole board.
+     * @param snapshot the snapshot
+     * @param engine the board's engine
+     * @return what is wrong with it, or null
+     */
+    private static String check(BoardSnapshot snapshot, BitBoard engine)
+    {
+        int width = snapshot.getWidth();
+        int robots = 0;
+        int reds = 0;
+        // Counts the robots on the grid
+        for (int cell = 0; cell < width * width; cell++)
+        {
+            int piece = snapshot.getCell(cell / width, cell % width);
+            // A robot
+            if (Cell.isRobot(piece))
+            {
+                robots++;
+                reds += Cell.isRed(piece) ? 1 : 0;
+            }
+        }
+        int[] pieces = snapshot.getPieces();
+        // The index and the grid disagree
+        if (reds != 1 || robots != pieces.length ||
+            !Cell.isRed(snapshot.getCell(pieces[0] / width, pieces[0] % width)))
+        {
+            return "Robots " + robots + ", reds " + reds + ", index "
+                + Arrays.toString(pieces);
+        }
+        // Goes through the robots the index has
+        for (int cell : pieces)
+        {
+            // Not on the grid
+            if (!Cell.isRobot(snapshot.getCell(cell / width, cell % width)))
+            {
+                return "No robot on " + cell;
+            }
+        }
+        // Goes along the trail
+        for (int cell : snapshot.getTrail())
+        {
+            // A dot under a robot
+            if (snapshot.getCell(cell / width, cell % width) != Cell.kEmpty)
+            {
+                return "Trail on a robot at " + cell;
+            }
+        }
+        // The count and the moves disagree
+        if (snapshot.getMoves().size() != snapshot.getMoveCount())
+        {
+            return "Moves " + snapshot.getMoves() + ", count "
+                + snapshot.getMoveCount();
+        }
+        // The engine doesn't know about robots slid off the board
+        if (!snapshot.getLoseFlag())
+        {
+            long occupied = 0;
+            // Puts the index into the engine's cells
+            for (int cell : pieces)
+            {
+                occupied |= 1L << engine.cellAt(cell / width, cell % width);
+            }
+            // The engine's position is from another board
+            if (occupied != BitBoard.occupied(snapshot.getPosition()) ||
+                engine.cellAt(pieces[0] / width, pieces[0] % width)
+                    != BitBoard.redCell(snapshot.getPosition()))
+            {
+                return "Position doesn't match " + Arrays.toString(pieces);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Tests that a snapshot keeps its board after the board moves on.
+     */
+    @Test
+    public void testUnchanged()
+    {
+        GameBoard board = new GameBoard(false);
+        BoardSnapshot before = board.getSnapshot();
+        board.movePiece(1, 5, BitBoard.kLeft);
+        BoardSnapshot after = board.getSnapshot();
+        assertTrue("New snapshot", before != after);
+        assertTrue("Old still has the robot", Cell.isRobot(before.getCell(1, 5)));
+        assertEquals("Old has no trail", 0, before.getTrail().length);
+        assertEquals("Old has no moves", 0, before.getMoveCount());
+        assertFalse("Nothing to undo before", before.canUndo());
+        assertEquals("Robot gone", Cell.kEmpty, after.getCell(1, 5));
+        assertTrue("Trail left", after.isTrail(1, 5));
+        assertEquals("Move kept", "[15L]", after.getMoves().toString());
+        assertTrue("Can undo after", after.canUndo());
+
+        board.undo();
+        assertEquals("Undone", 0, board.getSnapshot().getMoveCount());
+        assertTrue("Can redo", board.getSnapshot().canRedo());
+        assertEquals("Moved snapshot unchanged", "[15L]",
+            after.getMoves().toString());
+        assertNull(check(before, board.getEngine()));
+        assertNull(check(after, board.getEngine()));
+    }
+
+    /**
+     * Tests that a listener reads the board its event is about.
+     */
+    @Test
+    public void testPublishedBeforeEvent()
+    {
+        final GameBoard board = new GameBoard(false);
+        final ArrayList<String> seen = new ArrayList<String>();
+        board.addListener(new BoardListener()
+        {
+            public void boardChanged(BoardEvent event)
+            {
+                seen.add(event + " " + board.getSnapshot().getMoveCount()
+                    + " " + board.getSnapshot().getWinFlag());
+            }
+        }, ListenerBus.kSync);
+        board.movePiece(1, 5, BitBoard.kLeft);
+        board.movePiece(3, 2, BitBoard.kRight);
+        assertEquals("Each event sees its own move",
+            "[PieceMoved(4) 1 false, TrailCleared(3) 2 true, GameWon(2) 2 true]",
+            seen.toString());
+    }
+
+    /**
+     * Tests the console and the Swing thread changing one board at once,
+     * while another thread keeps reading it.
+     */
+    @Test
+    public void testStress() throws Exception
+    {
+        final GameBoard board = new GameBoard(true);
+        final BitBoard engine = board.getEngine();
+        final ConcurrentLinkedQueue<String> problems =
+            new ConcurrentLinkedQueue<String>();
+        final int rounds = 300;
+        StringBuilder script = new StringBuilder();
+        // The console keeps playing, undoing and restarting
+        for (int in = 0; in < rounds; in++)
+        {
+            script.append("15L\n51U\nu\nr\n12D\n55L\nu\nu\n34U\n32R\n1\n");
+        }
+        final java.io.StringWriter output = new java.io.StringWriter();
+        final ConsoleUI console = new ConsoleUI(
+            new java.io.StringReader(script.toString()), output, board);
+        CoalescingListener consoleView = new CoalescingListener(console,
+            4, CoalescingListener.kMerge);
+        board.addListener(consoleView, ListenerBus.kSync);
+        // Stands in for the gui, checking what it would draw
+        CoalescingListener guiView = new CoalescingListener(new BoardListener()
+        {
+            public void boardChanged(BoardEvent event)
+            {
+                String problem = check(board.getSnapshot(), engine);
+                // Would draw a broken board
+                if (problem != null)
+                {
+                    problems.add("Swing view: " + problem);
+                }
+            }
+        }, EdtListener.kEdt, 4, CoalescingListener.kMerge);
+        board.addListener(guiView, ListenerBus.kSync);
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch writersDone = new CountDownLatch(2);
+        Thread consoleThread = new Thread(new Runnable()
+        {
+            public void run()
+            {
+                try
+                {
+                    start.await();
+                    console.run();
+                }
+                catch (Throwable ex)
+                {
+                    problems.add("Console: " + ex);
+                }
+                writersDone.countDown();
+            }
+        });
+        Thread swingThread = new Thread(new Runnable()
+        {
+            public void run()
+            {
+                final Random random = new Random(42);
+                try
+                {
+                    start.await();
+                    // Clicks and keys the way the gui sends them
+                    for (int in = 0; in < rounds * 10; in++)
+                    {
+                        SwingUtilities.invokeAndWait(new Runnable()
+                        {
+                            public void run()
+                            {
+                                int action = random.nextInt(20);
+                                // Mostly moves
+                                if (action < 14)
+                                {
+                                    int[] pieces = board.getPieces();
+                                    int cell = pieces[random.nextInt(pieces.length)];
+                                    int dir = random.nextInt(BitBoard.kNumDirs);
+                                    board.setLastDir(dir);
+                                    board.movePiece(cell / GameBoard.kMaxRowCol,
+                                        cell % GameBoard.kMaxRowCol, dir);
+                                }
+                                else if (action < 17)
+                                {
+                                    board.undo();
+                                }
+                                else if (action < 19)
+                                {
+                                    board.redo();
+                                }
+                                else
+                                {
+                                    board.newGame(board.getRegulator().getBoard());
+                                }
+                            }
+                        });
+                    }
+                }
+                catch (Throwable ex)
+                {
+                    problems.add("Swing: " + ex);
+                }
+                writersDone.countDown();
+            }
+        });
+        consoleThread.start();
+        swingThread.start();
+        start.countDown();
+
+        int reads = 0;
+        // Reads without ever waiting until both writers are done
+        while (writersDone.getCount() > 0)
+        {
+            String problem = check(board.getSnapshot(), engine);
+            // Saw a broken board
+            if (problem != null)
+            {
+                problems.add("Reader: " + problem);
+            }
+            reads++;
+        }
+        assertTrue("Writers finished", writersDone.await(60, TimeUnit.SECONDS));
+        assertTrue("Console caught up", consoleView.flush(10000));
+        assertTrue("Swing caught up", guiView.flush(10000));
+        assertEquals("No broken boards", "[]", problems.toString());
+        assertTrue("Read while writing", reads > 0);
+        assertNull("Ends whole", check(board.getSnapshot(), engine));
+        assertTrue("Console drew", output.toString().contains("Moves: "));
+    }
+
+    /**
+     * Tests the console and the Swing thread picking boards at once,
+     * checking that each board shown has its own number and difficulty
+     * and that no board is skipped.
+     */
+    @Test
+    public void testBoardSteps() throws Exception
+    {
+        final GameBoard board = new GameBoard(true);
+        final BitBoard engine = board.getEngine();
+        BoardRegulator boards = new BoardRegulator();
+        final int count = boards.getBoardCount();
+        final String[] starts = new String[count + 1];
+        final String[] difficulties = new String[count + 1];
+        // What each board number has to show
+        for (int in = 1; in <= count; in++)
+        {
+            boards.setBoard(in);
+            starts[in] = boards.getBoard();
+            difficulties[in] = boards.getBoardDifficulty();
+        }
+        final ConcurrentLinkedQueue<String> problems =
+            new ConcurrentLinkedQueue<String>();
+        board.addListener(new BoardListener()
+        {
+            public void boardChanged(BoardEvent event)
+            {
+                BoardSnapshot snapshot = event.getSnapshot();
+                int number = snapshot.getBoardNumber();
+                // Loaded with another board's number or difficulty
+                if (event.getKind() == BoardEvent.kBoardLoaded &&
+                    (snapshot.getPosition() != engine.parse(starts[number]) ||
+                    !snapshot.getDifficulty().equals(difficulties[number])))
+                {
+                    problems.add("Board " + number + " shows "
+                        + Arrays.toString(snapshot.getPieces()) + " "
+                        + snapshot.getDifficulty());
+                }
+            }
+        }, ListenerBus.kSync);
+
+        final int rounds = 100;
+        StringBuilder next = new StringBuilder();
+        // The console only steps to the next board
+        for (int in = 0; in < rounds; in++)
+        {
+            next.append("2\n");
+        }
+        playBoth(board, next.toString(), rounds, false, problems);
+        assertEquals("No board skipped", (2 * rounds) % count + 1,
+            board.getSnapshot().getBoardNumber());
+
+        StringBuilder mixed = new StringBuilder();
+        // The console steps and selects
+        for (int in = 0; in < rounds; in++)
+        {
+            mixed.append("2\n3\n").append(in % count + 1).append("\n");
+        }
+        playBoth(board, mixed.toString(), rounds, true, problems);
+        assertEquals("Every board its own", "[]", problems.toString());
+    }
+
+    /**
+     * Runs the console and the Swing thread picking boards together.
+     * @param board the board both change
+     * @param script what is typed on the console
+     * @param rounds boards the Swing thread picks
+     * @param select whether the Swing thread also selects boards
+     * @param problems where what went wrong goes
+     */
+    private static void playBoth(final GameBoard board, String script,
+        final int rounds, final boolean select,
+        final ConcurrentLinkedQueue<String> problems) throws Exception
+    {
+        final ConsoleUI console = new ConsoleUI(
+            new java.io.StringReader(script), new java.io.StringWriter(),
+            board);
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread consoleThread = new Thread(new Runnable()
+        {
+            public void run()
+            {
+                try
+                {
+                    start.await();
+                    console.run();
+                }
+                catch (Throwable ex)
+                {
+                    problems.add("Console: " + ex);
+                }
+            }
+        });
+        Thread swingThread = new Thread(new Runnable()
+        {
+            public void run()
+            {
+                try
+                {
+                    start.await();
+                    // New Game and Select Game the way the gui sends them
+                    for (int in = 0; in < rounds; in++)
+                    {
+                        final int number = in % board.getRegulator()
+                            .getBoardCount() + 1;
+                        SwingUtilities.invokeAndWait(new Runnable()
+                        {
+                            public void run()
+                            {
+                                board.nextGame();
+                                // Selects a board as well
+                                if (select && board.newGame(number)
+                                    .getBoardNumber() != number)
+                                {
+                                    problems.add("Title of board " + number
+                                        + " is another board's");
+                                }
+                            }
+                        });
+                    }
+                }
+                catch (Throwable ex)
+                {
+                    problems.add("Swing: " + ex);
+                }
+            }
+        });
+        consoleThread.start();
+        swingThread.start();
+        start.countDown();
+        consoleThread.join(60000);
+        swingThread.join(60000);
+    }
+}
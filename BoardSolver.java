@@ -0,0 +1,273 @@
+import java.util.*;
+
+/**
+ * BoardSolver class finds the shortest winning move sequence
+ * for a board in the BoardRegulator format.
+ * It runs a breadth-first search over packed BitBoard positions,
+ * keeping the frontier in flat primitive arrays.
+ *
+ * @author Eric Tran
+ * @version 1
+ */
+public class BoardSolver implements PuzzleSolver
+{
+    private static final int kInitialQueue = 1024;
+
+    private BitBoard engine;
+    private long[] queue;
+    private int[] parents;
+    private int[] moves;
+    private int tail;
+    private LongHashSet visited;
+    private int expanded;
+    private TranspositionTable table;
+
+    /**
+     * Default constructor for a solver of the standard board.
+     */
+    public BoardSolver()
+    {
+        this(new BitBoard(GameBoard.kMaxRowCol));
+    }
+
+    /**
+     * Constructs a solver for boards of the engine's size.
+     * @param engine the engine used to compute slides
+     */
+    public BoardSolver(BitBoard engine)
+    {
+        this.engine = engine;
+        queue = new long[kInitialQueue];
+        parents = new int[kInitialQueue];
+        moves = new int[kInitialQueue];
+        visited = new LongHashSet();
+    }
+
+    /**
+     * Gets the engine used by this solver.
+     * @return the bitboard engine
+     */
+    public BitBoard getEngine()
+    {
+        return engine;
+    }
+
+    /**
+     * Sets a table to reuse and record solutions in.
+     * Before searching, the solver follows the table's best moves; after,
+     * it stores the moves left and best move for every position on the path.
+     * @param table the table to share, or null for none
+     */
+    public void setTable(TranspositionTable table)
+    {
+        this.table = table;
+    }
+
+    /**
+     * Gets the number of positions expanded by the last solve.
+     * @return number of expanded positions
+     */
+    public int getExpanded()
+    {
+        return expanded;
+    }
+
+    /**
+     * Finds the shortest winning move sequence for a board.
+     * @param board the board to be solved, e.g. "11 15 32R 34 51 55"
+     * @return the moves in "32R" notation, or null if it can't be won
+     */
+    public ArrayList<String> solve(String board)
+    {
+        return solve(engine.parse(board));
+    }
+
+    /**
+     * Finds the shortest winning move sequence for a packed position.
+     * @param start the position to be solved
+     * @return the moves in "32R" notation, or null if it can't be won
+     */
+    public ArrayList<String> solve(long start)
+    {
+        // Maybe the table already knows the way
+        if (table != null)
+        {
+            ArrayList<String> known = followTable(start);
+            // Found a full path in the table
+            if (known != null)
+            {
+                expanded = 0;
+                return known;
+            }
+        }
+        visited.clear();
+        tail = 0;
+        expanded = 0;
+        enqueue(start, -1, -1);
+        visited.add(start);
+
+        // Goes through the positions in the order they were found
+        for (int head = 0; head < tail; head++)
+        {
+            long position = queue[head];
+            int red = BitBoard.redCell(position);
+            long robots = BitBoard.occupied(position);
+            expanded++;
+            // Goes through every robot
+            while (robots != 0)
+            {
+                int from = Long.numberOfTrailingZeros(robots);
+                robots &= robots - 1;
+                // Goes through every direction
+                for (int dir = 0; dir < BitBoard.kNumDirs; dir++)
+                {
+                    int to = engine.slide(position, from, dir);
+                    // Red ends its move on the center, so the game is won
+                    if (from == red && to == engine.getCenter())
+                    {
+                        record(head, from * BitBoard.kNumDirs + dir);
+                        return buildPath(head, from * BitBoard.kNumDirs + dir);
+                    }
+                    // Walking off loses and a blocked robot changes nothing
+                    if (to == BitBoard.kOffBoard || to == from)
+                    {
+                        continue;
+                    }
+                    long next = BitBoard.move(position, from, to);
+                    // Only search positions not seen before
+                    if (visited.add(next))
+                    {
+                        enqueue(next, head, from * BitBoard.kNumDirs + dir);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds a position to the end of the queue.
+     * @param position the position found
+     * @param parent queue index of the position it came from
+     * @param move the move that led to it
+     */
+    private void enqueue(long position, int parent, int move)
+    {
+        // Out of room, so double the arrays
+        if (tail == queue.length)
+        {
+            queue = Arrays.copyOf(queue, tail * 2);
+            parents = Arrays.copyOf(parents, tail * 2);
+            moves = Arrays.copyOf(moves, tail * 2);
+        }
+        queue[tail] = position;
+        parents[tail] = parent;
+        moves[tail] = move;
+        tail++;
+    }
+
+    /**
+     * Walks the parents back to the start to build the move sequence.
+     * @param last queue index of the position the winning move was made from
+     * @param winMove the winning move
+     * @return the moves in "32R" notation
+     */
+    private ArrayList<String> buildPath(int last, int winMove)
+    {
+        ArrayList<String> path = new ArrayList<String>();
+        path.add(moveName(winMove));
+        // Goes back until the start position
+        for (int in = last; parents[in] != -1; in = parents[in])
+        {
+            path.add(moveName(moves[in]));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Stores every position on the winning path in the table.
+     * @param last queue index of the position the winning move was made from
+     * @param winMove the winning move
+     */
+    private void record(int last, int winMove)
+    {
+        // No table to record in
+        if (table == null)
+        {
+            return;
+        }
+        int distance = 1;
+        int move = winMove;
+        // Goes back until the start position
+        for (int in = last; in != -1; in = parents[in])
+        {
+            table.store(Zobrist.hash(queue[in]), queue[in], distance++, move);
+            move = moves[in];
+        }
+    }
+
+    /**
+     * Follows the best moves stored in the table from a position.
+     * An entry is only trusted if its move is made by a robot, changes
+     * the position, and leads to an entry one move closer to the win,
+     * so a stale or corrupt table can't send it round in circles.
+     * @param start the position to start from
+     * @return the moves in "32R" notation, or null if the table
+     * doesn't lead all the way to a win
+     */
+    private ArrayList<String> followTable(long start)
+    {
+        ArrayList<String> path = new ArrayList<String>();
+        long position = start;
+        long data = table.probe(Zobrist.hash(position), position);
+        // Follows the moves while the table knows them
+        while (data != TranspositionTable.kMiss)
+        {
+            int distance = TranspositionTable.distanceOf(data);
+            int move = TranspositionTable.moveOf(data);
+            int from = move / BitBoard.kNumDirs;
+            // No robot there to move
+            if (move == TranspositionTable.kNoMove || distance == 0 ||
+                from >= engine.getCellCount() ||
+                !BitBoard.isOccupied(position, from))
+            {
+                return null;
+            }
+            int to = engine.slide(position, from, move % BitBoard.kNumDirs);
+            // Stale entry, moves off the board or doesn't move at all
+            if (to == BitBoard.kOffBoard || to == from)
+            {
+                return null;
+            }
+            path.add(moveName(move));
+            // The last move, it has to end with red on the center
+            if (distance == 1)
+            {
+                return from == BitBoard.redCell(position) &&
+                    to == engine.getCenter() ? path : null;
+            }
+            position = BitBoard.move(position, from, to);
+            data = table.probe(Zobrist.hash(position), position);
+            // The next entry must be one move closer, or it can't be trusted
+            if (data != TranspositionTable.kMiss &&
+                TranspositionTable.distanceOf(data) != distance - 1)
+            {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Names an encoded move the way the GameBoard records it.
+     * @param move the move, encoded as cell * 4 + direction
+     * @return the move in "32R" notation
+     */
+    private String moveName(int move)
+    {
+        int cell = move / BitBoard.kNumDirs;
+        return BitBoard.moveName(engine.rowOf(cell), engine.colOf(cell),
+            move % BitBoard.kNumDirs);
+    }
+}
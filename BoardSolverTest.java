@@ -0,0 +1,104 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.util.*;
+
+/**
+ * The test class BoardSolverTest.
+ *
+ * @author  Eric Tran
+ * @version 1
+ */
+public class BoardSolverTest extends junit.framework.TestCase
+{
+    /**
+     * Tests solving the first two boards.
+     */
+    @Test
+    public void testShortSolutions()
+    {
+        BoardSolver solver = new BoardSolver();
+
+        assertEquals("Board 1 is one move", "[32R]",
+            solver.solve("11 15 32R 34 51 55").toString());
+        ArrayList<String> moves = solver.solve("22R 14 31 42 44 55");
+        assertEquals("Board 2 is three moves", 3, moves.size());
+        assertTrue("Board 2 solution wins", new ReplayEngine()
+            .replay("22R 14 31 42 44 55", moves).isWon());
+    }
+
+    /**
+     * Tests that every built in board has a winning solution.
+     */
+    @Test
+    public void testAllBoards()
+    {
+        BoardSolver solver = new BoardSolver();
+        ReplayEngine replayer = new ReplayEngine();
+        BoardRegulator regulator = new BoardRegulator();
+        for (int in = 1; in <= 18; in++)
+        {
+            regulator.setBoard(in);
+            ArrayList<String> moves = solver.solve(regulator.getBoard());
+            assertNotNull("Board " + in + " is solvable", moves);
+            assertTrue("Board " + in + " solution wins",
+                replayer.replay(regulator.getBoard(), moves).isWon());
+        }
+    }
+
+    /**
+     * Tests a board that can't be won.
+     */
+    @Test
+    public void testUnsolvable()
+    {
+        BoardSolver solver = new BoardSolver();
+        assertNull("Red alone can only walk off", solver.solve("32R"));
+    }
+
+    /**
+     * Tests that table entries that can't be right are not followed.
+     */
+    @Test
+    public void testBadTable()
+    {
+        String board = "22R 14 31 42 44 55";
+        BoardSolver solver = new BoardSolver();
+        BitBoard engine = solver.getEngine();
+        long start = engine.parse(board);
+        long hash = Zobrist.hash(start);
+        int down14 = MoveBuffer.encode(engine.cellAt(1, 4), BitBoard.kDown);
+        long next = BitBoard.move(start, engine.cellAt(1, 4),
+            engine.cellAt(3, 4));
+        TranspositionTable table = new TranspositionTable(12);
+        solver.setTable(table);
+
+        table.store(hash, start, 1, down14);
+        assertEquals("Last move doesn't win", "[14D, 22D, 32R]",
+            solver.solve(board).toString());
+        assertTrue("Searched", solver.getExpanded() > 0);
+
+        table.clear();
+        table.store(hash, start, 3, down14);
+        table.store(Zobrist.hash(next), next, 3, down14);
+        assertEquals("Distance doesn't go down", "[14D, 22D, 32R]",
+            solver.solve(board).toString());
+        assertTrue("Searched again", solver.getExpanded() > 0);
+
+        table.clear();
+        table.store(hash, start, 3,
+            MoveBuffer.encode(engine.cellAt(4, 4), BitBoard.kUp));
+        assertEquals("Blocked robot doesn't move", "[14D, 22D, 32R]",
+            solver.solve(board).toString());
+
+        table.clear();
+        table.store(hash, start, 3,
+            MoveBuffer.encode(engine.cellAt(3, 3), BitBoard.kUp));
+        assertEquals("No robot there", "[14D, 22D, 32R]",
+            solver.solve(board).toString());
+        assertEquals("Trusted once right", "[14D, 22D, 32R]",
+            solver.solve(board).toString());
+        assertEquals("Followed", 0, solver.getExpanded());
+    }
+}
@@ -0,0 +1,104 @@
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * BoardTableModel class shows a GameBoard to a JTable. It keeps no
+ * cells of its own, each one is read from a snapshot of the board, so
+ * the board itself never needs Swing.
+ *
+ * A view sets the snapshot of each event it draws, so every cell of a
+ * paint comes from the same board as the rest of the view. Until one
+ * is set, each cell is read from the board's latest snapshot.
+ *
+ * @author Eric Tran
+ * @version 1
+ */
+public class BoardTableModel extends AbstractTableModel
+{
+    private static final long serialVersionUID = 1L;
+    private final GameBoard board;
+    private volatile BoardSnapshot shown;
+
+    /**
+     * Constructs a table model for a board.
+     * @param board the board to show
+     */
+    public BoardTableModel(GameBoard board)
+    {
+        this.board = board;
+    }
+
+    /**
+     * Gets the board being shown.
+     * @return the board
+     */
+    public GameBoard getBoard()
+    {
+        return board;
+    }
+
+    /**
+     * Gets the snapshot the cells are read from.
+     * @return the snapshot set, or the board's latest if none is
+     */
+    public BoardSnapshot getSnapshot()
+    {
+        BoardSnapshot snapshot = shown;
+        return snapshot == null ? board.getSnapshot() : snapshot;
+    }
+
+    /**
+     * Sets the snapshot the cells are read from, until the next is set.
+     * @param snapshot the board to show, or null to follow the latest
+     */
+    public void setSnapshot(BoardSnapshot snapshot)
+    {
+        shown = snapshot;
+    }
+
+    /**
+     * Gets the number of rows.
+     * @return the grid's width
+     */
+    public int getRowCount()
+    {
+        return board.getSize();
+    }
+
+    /**
+     * Gets the number of columns.
+     * @return the grid's width
+     */
+    public int getColumnCount()
+    {
+        return board.getSize();
+    }
+
+    /**
+     * Gets the column name at an index, the columns have none.
+     * @param columnIndex the column
+     * @return an empty name
+     */
+    public String getColumnName(int columnIndex)
+    {
+        return "";
+    }
+
+    /**
+     * Gets the piece at a certain row, col.
+     * @param rowIndex the x coord
+     * @param columnIndex the y coord
+     * @return GameBoard.kRed, kGreen or kBlank
+     */
+    public Object getValueAt(int rowIndex, int columnIndex)
+    {
+        switch (Cell.pieceOf(getSnapshot().getCell(rowIndex, columnIndex)))
+        {
+            case Cell.kRed:
+                return GameBoard.kRed;
+            case Cell.kGreen:
+                return GameBoard.kGreen;
+            default:
+                return GameBoard.kBlank;
+        }
+    }
+}
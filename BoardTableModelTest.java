@@ -0,0 +1,61 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * The test class BoardTableModelTest.
+ *
+ * @author  Eric Tran
+ * @version 1
+ */
+public class BoardTableModelTest extends junit.framework.TestCase
+{
+    /**
+     * Tests that the model shows the board as it changes.
+     */
+    @Test
+    public void testFollowsBoard()
+    {
+        GameBoard board = new GameBoard(false);
+        BoardTableModel model = new BoardTableModel(board);
+        assertSame("Shows the board", board, model.getBoard());
+        assertEquals("Rows", GameBoard.kMaxRowCol, model.getRowCount());
+        assertEquals("Cols", GameBoard.kMaxRowCol, model.getColumnCount());
+        assertEquals("No column names", "", model.getColumnName(0));
+        assertEquals("Red", GameBoard.kRed, model.getValueAt(3, 2));
+        assertEquals("Green", GameBoard.kGreen, model.getValueAt(1, 5));
+        assertEquals("Blank", GameBoard.kBlank, model.getValueAt(2, 2));
+
+        board.movePiece(1, 5, BitBoard.kLeft);
+        assertEquals("Trail shows blank", GameBoard.kBlank, model.getValueAt(1, 5));
+        assertEquals("Green moved", GameBoard.kGreen, model.getValueAt(1, 2));
+        board.movePiece(1, 1, BitBoard.kUp);
+        assertEquals("Dead robot still shown", GameBoard.kGreen,
+            model.getValueAt(0, 1));
+    }
+
+    /**
+     * Tests that a snapshot set stays shown while the board moves on.
+     */
+    @Test
+    public void testShowsSnapshotSet()
+    {
+        GameBoard board = new GameBoard(false);
+        BoardTableModel model = new BoardTableModel(board);
+        BoardSnapshot before = board.getSnapshot();
+        model.setSnapshot(before);
+        board.movePiece(1, 5, BitBoard.kLeft);
+        assertSame("Keeps the snapshot", before, model.getSnapshot());
+        assertEquals("Green not moved yet", GameBoard.kGreen,
+            model.getValueAt(1, 5));
+        assertEquals("Blank until the next is set", GameBoard.kBlank,
+            model.getValueAt(1, 2));
+
+        model.setSnapshot(board.getSnapshot());
+        assertEquals("Green moved", GameBoard.kGreen, model.getValueAt(1, 2));
+        model.setSnapshot(null);
+        assertSame("Follows the board again", board.getSnapshot(),
+            model.getSnapshot());
+    }
+}
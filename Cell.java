@@ -0,0 +1,124 @@
+/**
+ * Cell class describes what is on one square of the grid, packed into
+ * the bits of an int so the grid can hold plain bytes: whether a robot
+ * is there, its colour, the way it faces, and whether it fell off.
+ *
+ * The low two bits are the piece, kEmpty, kGreen or kRed, so callers
+ * switch on pieceOf. The facing is one of the BitBoard directions.
+ * Pictures for a cell are chosen by the view, never stored here.
+ *
+ * @author Eric Tran
+ * @version 1
+ */
+public final class Cell
+{
+    /**
+     * Piece of an empty square.
+     */
+    public static final int kEmpty = 0;
+
+    /**
+     * Piece of a green robot.
+     */
+    public static final int kGreen = 1;
+
+    /**
+     * Piece of the red robot.
+     */
+    public static final int kRed = 3;
+
+    private static final int kRobotBit = 1;
+    private static final int kPieceMask = 3;
+    private static final int kFacingShift = 2;
+    private static final int kFacingMask = 3 << kFacingShift;
+    private static final int kDeadBit = 1 << 4;
+
+    /**
+     * Not constructed, every method is static.
+     */
+    private Cell()
+    {
+    }
+
+    /**
+     * Makes the cell of a robot.
+     * @param red whether it is the red robot
+     * @param facing the BitBoard direction it faces
+     * @return the cell
+     */
+    public static int robot(boolean red, int facing)
+    {
+        return (red ? kRed : kGreen) | facing << kFacingShift;
+    }
+
+    /**
+     * Gets what kind of piece is on a cell.
+     * @param cell the cell
+     * @return kEmpty, kGreen or kRed
+     */
+    public static int pieceOf(int cell)
+    {
+        return cell & kPieceMask;
+    }
+
+    /**
+     * Checks whether a robot of either colour is on a cell.
+     * @param cell the cell
+     * @return whether there is a robot
+     */
+    public static boolean isRobot(int cell)
+    {
+        return (cell & kRobotBit) != 0;
+    }
+
+    /**
+     * Checks whether the red robot is on a cell.
+     * @param cell the cell
+     * @return whether it is red
+     */
+    public static boolean isRed(int cell)
+    {
+        return (cell & kPieceMask) == kRed;
+    }
+
+    /**
+     * Gets the way the robot on a cell faces.
+     * @param cell the cell
+     * @return the BitBoard direction
+     */
+    public static int facingOf(int cell)
+    {
+        return (cell & kFacingMask) >> kFacingShift;
+    }
+
+    /**
+     * Turns the robot on a cell.
+     * @param cell the cell
+     * @param facing the BitBoard direction to face
+     * @return the turned cell
+     */
+    public static int face(int cell, int facing)
+    {
+        return cell & ~kFacingMask | facing << kFacingShift;
+    }
+
+    /**
+     * Checks whether the robot on a cell fell off the board.
+     * @param cell the cell
+     * @return whether it is dead
+     */
+    public static boolean isDead(int cell)
+    {
+        return (cell & kDeadBit) != 0;
+    }
+
+    /**
+     * Marks the robot on a cell as fallen off the board.
+     * @param cell the cell
+     * @return the dead cell
+     */
+    public static int kill(int cell)
+    {
+        return cell | kDeadBit;
+    }
+}
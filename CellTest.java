@@ -0,0 +1,71 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * The test class CellTest.
+ *
+ * @author  Eric Tran
+ * @version 1
+ */
+public class CellTest extends junit.framework.TestCase
+{
+    /**
+     * Tests packing and reading a cell.
+     */
+    @Test
+    public void testCell()
+    {
+        assertFalse("Empty", Cell.isRobot(Cell.kEmpty));
+        assertEquals("Empty piece", Cell.kEmpty, Cell.pieceOf(Cell.kEmpty));
+
+        int red = Cell.robot(true, BitBoard.kUp);
+        assertTrue("Red is a robot", Cell.isRobot(red));
+        assertTrue("Red", Cell.isRed(red));
+        assertEquals("Red piece", Cell.kRed, Cell.pieceOf(red));
+        assertEquals("Faces up", BitBoard.kUp, Cell.facingOf(red));
+        assertFalse("Alive", Cell.isDead(red));
+
+        int green = Cell.face(Cell.robot(false, BitBoard.kUp), BitBoard.kLeft);
+        assertTrue("Green is a robot", Cell.isRobot(green));
+        assertFalse("Green", Cell.isRed(green));
+        assertEquals("Green piece", Cell.kGreen, Cell.pieceOf(green));
+        assertEquals("Turned left", BitBoard.kLeft, Cell.facingOf(green));
+
+        int dead = Cell.kill(Cell.face(green, BitBoard.kRight));
+        assertTrue("Dead", Cell.isDead(dead));
+        assertEquals("Still green", Cell.kGreen, Cell.pieceOf(dead));
+        assertEquals("Turned right", BitBoard.kRight, Cell.facingOf(dead));
+        assertEquals("Fits a byte", dead, (byte) dead);
+    }
+
+    /**
+     * Tests that the grid keeps the way robots face and fall.
+     */
+    @Test
+    public void testGrid()
+    {
+        GameBoard board = new GameBoard(false);
+        assertEquals("Starts facing up", BitBoard.kUp,
+            Cell.facingOf(board.getSnapshot().getCell(3, 2)));
+
+        board.movePiece(1, 5, BitBoard.kLeft);
+        int green = board.getSnapshot().getCell(1, 2);
+        assertEquals("Moved green", Cell.kGreen, Cell.pieceOf(green));
+        assertEquals("Faces left", BitBoard.kLeft, Cell.facingOf(green));
+        assertEquals("Blank left behind", Cell.kEmpty, 
+            board.getSnapshot().getCell(1, 5));
+
+        board.movePiece(1, 1, BitBoard.kUp);
+        int dead = board.getSnapshot().getCell(0, 1);
+        assertTrue("Fell off", Cell.isDead(dead));
+        assertEquals("Faces up", BitBoard.kUp, Cell.facingOf(dead));
+
+        board.undo();
+        assertFalse("Back on the board", 
+            Cell.isDead(board.getSnapshot().getCell(1, 1)));
+        assertEquals("Off board is blank", Cell.kEmpty, 
+            board.getSnapshot().getCell(0, 1));
+    }
+}
@@ -0,0 +1,326 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * CoalescingListener class stands between the board and a slow view.
+ * Events are queued as they come and handed to the view on a thread of
+ * its own, or through an executor such as EdtListener.kEdt for a Swing
+ * view, so the board never waits on drawing.
+ * If moves land faster than the view draws them, the ones still queued
+ * are merged and the view only draws the latest board.
+ *
+ * A merged event keeps the snapshot of the later event, so the view
+ * draws the latest board. A win or a loss is never merged into what
+ * comes after it or dropped, so its message is always shown with the
+ * board it happened on. The queue is bounded: when it is full the
+ * oldest other event is dropped, or the thread changing the board
+ * waits for a view on its own thread to catch up.
+ *
+ * @author Eric Tran
+ * @version 1
+ */
+public class CoalescingListener implements BoardListener
+{
+    /**
+     * Merge queued events, and wait for room when nothing can be merged.
+     */
+    public static final int kMerge = 0;
+
+    /**
+     * Never merge, drop the oldest event when the queue is full,
+     * unless it ended the game.
+     */
+    public static final int kDropOldest = 1;
+
+    private final BoardListener target;
+    private final int capacity;
+    private final int policy;
+    private final ArrayDeque<BoardEvent> queue;
+    private final Executor executor;
+    private final Runnable drain;
+    private final boolean shared;
+    private volatile Thread drainThread;
+    private boolean scheduled;
+    private long delivered;
+    private long merged;
+    private long dropped;
+
+    /**
+     * Constructs a listener that hands events on to a view on a thread
+     * of its own.
+     * @param target the view
+     * @param capacity most events queued at once
+     * @param policy what to do when events pile up, kMerge or kDropOldest
+     */
+    public CoalescingListener(BoardListener target, int capacity, int policy)
+    {
+        this(target, null, capacity, policy);
+    }
+
+    /**
+     * Constructs a listener that hands events on to a view through an
+     * executor, e.g. EdtListener.kEdt. The executor's thread may itself
+     * be waiting on the board, so the board never waits for room.
+     * @param target the view
+     * @param executor runs the view, or null for a thread of its own
+     * @param capacity most events queued at once
+     * @param policy what to do when events pile up, kMerge or kDropOldest
+     */
+    public CoalescingListener(BoardListener target, Executor executor,
+        int capacity, int policy)
+    {
+        // Not a policy, or no room at all
+        if (policy != kMerge && policy != kDropOldest || capacity < 1)
+        {
+            throw new IllegalArgumentException(
+                "Policy " + policy + ", capacity " + capacity);
+        }
+        this.target = target;
+        this.capacity = capacity;
+        this.policy = policy;
+        queue = new ArrayDeque<BoardEvent>(capacity);
+        shared = executor != null;
+        // The executor given or a daemon thread of our own
+        if (shared)
+        {
+            this.executor = executor;
+        }
+        else
+        {
+            this.executor = Executors.newSingleThreadExecutor(
+                new ThreadFactory()
+                {
+                    public Thread newThread(Runnable run)
+                    {
+                        Thread thread = new Thread(run, "board-view");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        }
+        drain = new Runnable()
+        {
+            public void run()
+            {
+                drain();
+            }
+        };
+    }
+
+    /**
+     * Queues an event for the view, merging or dropping if it must.
+     * @param event what changed
+     */
+    public synchronized void boardChanged(BoardEvent event)
+    {
+        BoardEvent last = queue.peekLast();
+        // Folds into the event still waiting
+        if (policy == kMerge && last != null && canMerge(last, event))
+        {
+            queue.pollLast();
+            queue.addLast(merge(last, event));
+            merged++;
+        }
+        else
+        {
+            // Makes room
+            while (queue.size() >= capacity)
+            {
+                // Drop the oldest that didn't end the game
+                if (policy == kDropOldest)
+                {
+                    // Every queued event ended a game, so keep them all
+                    if (!dropOldest())
+                    {
+                        break;
+                    }
+                    dropped++;
+                }
+                // The view's own thread can't wait on itself, and a
+                // shared one like Swing's may be waiting on the board
+                else if (Thread.currentThread() == drainThread || shared)
+                {
+                    break;
+                }
+                // Wait for the view to catch up
+                else
+                {
+                    try
+                    {
+                        wait();
+                    }
+                    catch (InterruptedException ex)
+                    {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+            queue.addLast(event);
+        }
+        // Nothing is draining, so start
+        if (!scheduled)
+        {
+            scheduled = true;
+            executor.execute(drain);
+        }
+    }
+
+    /**
+     * Removes the oldest queued event that didn't end the game.
+     * @return whether there was one to remove
+     */
+    private boolean dropOldest()
+    {
+        Iterator<BoardEvent> queued = queue.iterator();
+        // Goes from the oldest
+        while (queued.hasNext())
+        {
+            // Can be dropped
+            if (!queued.next().endsGame())
+            {
+                queued.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a queued event can take in the one after it.
+     * @param last the queued event
+     * @param next the new event
+     * @return whether they can be drawn as one
+     */
+    private static boolean canMerge(BoardEvent last, BoardEvent next)
+    {
+        return last.changesBoard() && next.changesBoard()
+            && !last.endsGame();
+    }
+
+    /**
+     * Merges two events into one that draws the latest board.
+     * @param last the queued event
+     * @param next the new event
+     * @return the merged event
+     */
+    private static BoardEvent merge(BoardEvent last, BoardEvent next)
+    {
+        int kind = next.getKind();
+        // Ending the game outranks everything, then a new board
+        if (!next.endsGame())
+        {
+            // A new board means drawing everything
+            if (last.getKind() == BoardEvent.kBoardLoaded)
+            {
+                kind = BoardEvent.kBoardLoaded;
+            }
+            // Removed dots don't change what the move was
+            else if (kind == BoardEvent.kTrailCleared)
+            {
+                kind = last.getKind();
+            }
+        }
+        int[] cells = Arrays.copyOf(last.getCells(),
+            last.getCells().length + next.getCells().length);
+        System.arraycopy(next.getCells(), 0, cells, last.getCells().length,
+            next.getCells().length);
+        return new BoardEvent(kind, cells, next.getSnapshot());
+    }
+
+    /**
+     * Hands every queued event to the view, on the view's thread.
+     */
+    private void drain()
+    {
+        drainThread = Thread.currentThread();
+        // Goes until the queue is empty
+        while (true)
+        {
+            BoardEvent event;
+            synchronized (this)
+            {
+                event = queue.pollFirst();
+                // Nothing left, the next event starts a new drain
+                if (event == null)
+                {
+                    scheduled = false;
+                    notifyAll();
+                    return;
+                }
+                notifyAll();
+            }
+            target.boardChanged(event);
+            synchronized (this)
+            {
+                delivered++;
+            }
+        }
+    }
+
+    /**
+     * Waits until the view has drawn every queued event.
+     * @param timeout most milliseconds to wait
+     * @return whether the view caught up in time
+     */
+    public synchronized boolean flush(long timeout)
+    {
+        long end = System.currentTimeMillis() + timeout;
+        // Waits while there is something left to draw
+        while (scheduled)
+        {
+            long left = end - System.currentTimeMillis();
+            // Out of time
+            if (left <= 0)
+            {
+                return false;
+            }
+            try
+            {
+                wait(left);
+            }
+            catch (InterruptedException ex)
+            {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the number of events the view was handed.
+     * @return events delivered
+     */
+    public synchronized long getDelivered()
+    {
+        return delivered;
+    }
+
+    /**
+     * Gets the number of events merged into the one queued before them.
+     * @return events merged
+     */
+    public synchronized long getMerged()
+    {
+        return merged;
+    }
+
+    /**
+     * Gets the number of events dropped because the queue was full.
+     * @return events dropped
+     */
+    public synchronized long getDropped()
+    {
+        return dropped;
+    }
+
+    /**
+     * Gets the number of frames the view never drew.
+     * @return events merged or dropped
+     */
+    public synchronized long getSkipped()
+    {
+        return merged + dropped;
+    }
+}
@@ -0,0 +1,269 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * The test class CoalescingListenerTest.
+ *
+ * @author  Eric Tran
+ * @version 1
+ */
+public class CoalescingListenerTest extends junit.framework.TestCase
+{
+    /**
+     * A view that holds up its first update until released,
+     * and keeps what it was handed.
+     */
+    private static class SlowView implements BoardListener
+    {
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final List<BoardEvent> seen =
+            Collections.synchronizedList(new ArrayList<BoardEvent>());
+
+        public void boardChanged(BoardEvent event)
+        {
+            seen.add(event);
+            started.countDown();
+            try
+            {
+                release.await();
+            }
+            catch (InterruptedException ex)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Makes an event.
+     * @param kind what happened
+     * @param cells number of cells
+     * @return the event
+     */
+    private static BoardEvent event(int kind, int cells)
+    {
+        return new BoardEvent(kind, new int[cells]);
+    }
+
+    /**
+     * Tests that moves queued behind a slow view are drawn as one.
+     */
+    @Test
+    public void testMerge() throws Exception
+    {
+        SlowView view = new SlowView();
+        CoalescingListener listener = new CoalescingListener(view,
+            8, CoalescingListener.kMerge);
+        listener.boardChanged(event(BoardEvent.kBoardLoaded, 6));
+        assertTrue("View started", view.started.await(10, TimeUnit.SECONDS));
+        // Lots of moves while the view is busy
+        for (int in = 0; in < 1000; in++)
+        {
+            listener.boardChanged(event(BoardEvent.kTrailCleared, 1));
+            listener.boardChanged(event(BoardEvent.kPieceMoved, 2));
+        }
+        view.release.countDown();
+        assertTrue("Caught up", listener.flush(10000));
+        assertEquals("Drew the first and the latest",
+            "[BoardLoaded(6), PieceMoved(3000)]", view.seen.toString());
+        assertEquals("Delivered", 2, listener.getDelivered());
+        assertEquals("Skipped", 1999, listener.getSkipped());
+        assertEquals("Nothing dropped", 0, listener.getDropped());
+    }
+
+    /**
+     * Tests that a win is never merged away and ends a merge.
+     */
+    @Test
+    public void testWinKept() throws Exception
+    {
+        SlowView view = new SlowView();
+        CoalescingListener listener = new CoalescingListener(view,
+            8, CoalescingListener.kMerge);
+        listener.boardChanged(event(BoardEvent.kPieceMoved, 1));
+        assertTrue("View started", view.started.await(10, TimeUnit.SECONDS));
+        listener.boardChanged(event(BoardEvent.kPieceMoved, 2));
+        listener.boardChanged(event(BoardEvent.kGameWon, 3));
+        listener.boardChanged(event(BoardEvent.kPieceMoved, 4));
+        listener.boardChanged(event(BoardEvent.kDialogRequested, 0));
+        view.release.countDown();
+        assertTrue("Caught up", listener.flush(10000));
+        assertEquals("Win shown, dialog on its own",
+            "[PieceMoved(1), GameWon(5), PieceMoved(4), DialogRequested(0)]",
+            view.seen.toString());
+        assertEquals("One merge", 1, listener.getMerged());
+    }
+
+    /**
+     * Tests dropping the oldest updates when the queue is full.
+     */
+    @Test
+    public void testDropOldest() throws Exception
+    {
+        SlowView view = new SlowView();
+        CoalescingListener listener = new CoalescingListener(view,
+            2, CoalescingListener.kDropOldest);
+        listener.boardChanged(event(BoardEvent.kPieceMoved, 0));
+        assertTrue("View started", view.started.await(10, TimeUnit.SECONDS));
+        // Goes past the queue
+        for (int in = 1; in <= 5; in++)
+        {
+            listener.boardChanged(event(BoardEvent.kPieceMoved, in));
+        }
+        view.release.countDown();
+        assertTrue("Caught up", listener.flush(10000));
+        assertEquals("Only the newest kept",
+            "[PieceMoved(0), PieceMoved(4), PieceMoved(5)]", view.seen.toString());
+        assertEquals("Dropped", 3, listener.getDropped());
+        assertEquals("Skipped", 3, listener.getSkipped());
+    }
+
+    /**
+     * Tests that a full queue never drops a win or a loss.
+     */
+    @Test
+    public void testDropKeepsEnd() throws Exception
+    {
+        SlowView view = new SlowView();
+        CoalescingListener listener = new CoalescingListener(view,
+            2, CoalescingListener.kDropOldest);
+        listener.boardChanged(event(BoardEvent.kPieceMoved, 0));
+        assertTrue("View started", view.started.await(10, TimeUnit.SECONDS));
+        listener.boardChanged(event(BoardEvent.kGameWon, 1));
+        listener.boardChanged(event(BoardEvent.kBoardLoaded, 2));
+        listener.boardChanged(event(BoardEvent.kGameLost, 3));
+        listener.boardChanged(event(BoardEvent.kBoardLoaded, 4));
+        listener.boardChanged(event(BoardEvent.kPieceMoved, 5));
+        view.release.countDown();
+        assertTrue("Caught up", listener.flush(10000));
+        assertEquals("Win and loss kept",
+            "[PieceMoved(0), GameWon(1), GameLost(3), PieceMoved(5)]",
+            view.seen.toString());
+        assertEquals("Dropped", 2, listener.getDropped());
+    }
+
+    /**
+     * Tests that a merged event carries the later board.
+     */
+    @Test
+    public void testMergeKeepsLatest() throws Exception
+    {
+        GameBoard board = new GameBoard(false);
+        BoardSnapshot before = board.getSnapshot();
+        board.movePiece(1, 5, BitBoard.kLeft);
+        BoardSnapshot after = board.getSnapshot();
+        SlowView view = new SlowView();
+        CoalescingListener listener = new CoalescingListener(view,
+            8, CoalescingListener.kMerge);
+        listener.boardChanged(event(BoardEvent.kBoardLoaded, 6));
+        assertTrue("View started", view.started.await(10, TimeUnit.SECONDS));
+        listener.boardChanged(new BoardEvent(BoardEvent.kPieceMoved, new int[1],
+            before));
+        listener.boardChanged(new BoardEvent(BoardEvent.kPieceMoved, new int[1],
+            after));
+        view.release.countDown();
+        assertTrue("Caught up", listener.flush(10000));
+        assertSame("Latest board", after, view.seen.get(1).getSnapshot());
+    }
+
+    /**
+     * Tests that a console drawing slowly shows a win with the board it
+     * was won on, even after the game was restarted.
+     */
+    @Test
+    public void testSlowConsoleWin() throws Exception
+    {
+        // Races differently each time
+        for (int run = 0; run < 5; run++)
+        {
+            GameBoard board = new GameBoard(false);
+            java.io.StringWriter output = new java.io.StringWriter();
+            final ConsoleUI console = new ConsoleUI(
+                new java.io.StringReader("32R\n1\n"), output, board);
+            BoardListener slow = new BoardListener()
+            {
+                public void boardChanged(BoardEvent event)
+                {
+                    try
+                    {
+                        Thread.sleep(20);
+                    }
+                    catch (InterruptedException ex)
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+                    console.boardChanged(event);
+                }
+            };
+            CoalescingListener listener = new CoalescingListener(slow,
+                64, CoalescingListener.kMerge);
+            board.addListener(listener, ListenerBus.kSync);
+            console.run();
+            assertTrue("Caught up", listener.flush(10000));
+            String text = output.toString();
+            int won = text.indexOf("Game Won Notification: You won game 1!");
+            assertTrue("Win shown", won >= 0);
+            assertEquals("Won in one move", "Moves: 1", text.substring(
+                text.lastIndexOf("Moves: ", won), text.lastIndexOf("Moves: ",
+                won) + "Moves: 1".length()));
+            String after = text.substring(won).split("\\R")[1];
+            assertEquals("Moves shown", "32R", after);
+        }
+    }
+
+    /**
+     * Tests that the board waits when nothing can be merged or dropped.
+     */
+    @Test
+    public void testBackpressure() throws Exception
+    {
+        SlowView view = new SlowView();
+        final CoalescingListener listener = new CoalescingListener(view,
+            1, CoalescingListener.kMerge);
+        listener.boardChanged(event(BoardEvent.kPieceMoved, 0));
+        assertTrue("View started", view.started.await(10, TimeUnit.SECONDS));
+        listener.boardChanged(event(BoardEvent.kDialogRequested, 0));
+        Thread mover = new Thread(new Runnable()
+        {
+            public void run()
+            {
+                listener.boardChanged(event(BoardEvent.kDialogRequested, 0));
+            }
+        });
+        mover.start();
+        mover.join(200);
+        assertTrue("Waits for room", mover.isAlive());
+        view.release.countDown();
+        mover.join(10000);
+        assertFalse("Room made", mover.isAlive());
+        assertTrue("Caught up", listener.flush(10000));
+        assertEquals("All drawn", 3, listener.getDelivered());
+    }
+
+    /**
+     * Tests a console session drawn through the queue.
+     */
+    @Test
+    public void testConsole() throws Exception
+    {
+        GameBoard board = new GameBoard(false);
+        java.io.StringWriter output = new java.io.StringWriter();
+        ConsoleUI console = new ConsoleUI(
+            new java.io.StringReader("15L\n51U\nu\n12D\n"), output, board);
+        CoalescingListener listener = new CoalescingListener(console,
+            4, CoalescingListener.kMerge);
+        board.addListener(listener, ListenerBus.kSync);
+        console.run();
+        assertTrue("Caught up", listener.flush(10000));
+        String text = output.toString();
+        assertTrue("Last board printed", text.trim().endsWith(
+            "1)Restart 2)New Game 3)Select Game 4)Set Game 5)Hall of Fame "
+            + "6)About 7)Quit 8)Prefs u)Undo r)Redo"));
+        assertTrue("Ends on two moves", text.contains("Moves: 2"));
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * ConcurrentLongHashSet class is a thread safe set of packed positions.
+ * Keys are spread over independent LongHashSet stripes, each guarded by
+ * its own lock, so threads adding different positions rarely contend.
+ *
+ * @author Eric Tran
+ * @version 1
+ */
+public class ConcurrentLongHashSet
+{
+    private LongHashSet[] stripes;
+    private int shift;
+
+    /**
+     * Constructs a set with enough stripes for the number of threads.
+     * @param threads number of threads expected to add at once
+     */
+    public ConcurrentLongHashSet(int threads)
+    {
+        int count = Integer.highestOneBit(Math.max(threads, 1) * 8 - 1) * 2;
+        stripes = new LongHashSet[count];
+        shift = Long.SIZE - Integer.numberOfTrailingZeros(count);
+        // Makes every stripe
+        for (int in = 0; in < count; in++)
+        {
+            stripes[in] = new LongHashSet();
+        }
+    }
+
+    /**
+     * Picks the stripe a key lives in from the top bits of its hash.
+     * @param key the key to be placed
+     * @return the stripe for the key
+     */
+    private LongHashSet stripeFor(long key)
+    {
+        return stripes[(int) (LongHashSet.mix(key) >>> shift)];
+    }
+
+    /**
+     * Adds a key to the set.
+     * @param key the key to be added, never 0
+     * @return whether the key was not already in the set
+     */
+    public boolean add(long key)
+    {
+        LongHashSet stripe = stripeFor(key);
+        synchronized (stripe)
+        {
+            return stripe.add(key);
+        }
+    }
+
+    /**
+     * Checks whether a key is in the set.
+     * @param key the key to be looked up
+     * @return whether the key is in the set
+     */
+    public boolean contains(long key)
+    {
+        LongHashSet stripe = stripeFor(key);
+        synchronized (stripe)
+        {
+            return stripe.contains(key);
+        }
+    }
+
+    /**
+     * Gets the number of keys in the set.
+     * @return number of keys
+     */
+    public int size()
+    {
+        int size = 0;
+        // Adds up every stripe
+        for (LongHashSet stripe : stripes)
+        {
+            synchronized (stripe)
+            {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Removes every key from the set.
+     */
+    public void clear()
+    {
+        // Clears every stripe
+        for (LongHashSet stripe : stripes)
+        {
+            synchronized (stripe)
+            {
+                stripe.clear();
+            }
+        }
+    }
+}
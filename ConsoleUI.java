@@ -1,6 +1,5 @@
 import java.io.*;
 import java.util.*;
-import java.awt.event.*;
 
 /**
  * ConsoleUI represents one of the different views of the GameBoard.
@@ -10,20 +9,24 @@ import java.awt.event.*;
  * @author Eric Tran
  * @version 1
  */
-public class ConsoleUI implements Observer 
+public class ConsoleUI implements BoardListener 
 {
     private Scanner console;
     private PrintWriter display;
     private GameBoard gameBoard;
     private BoardRegulator regulator; 
-    private StringBuilder lastSeqMove;
-    private boolean aboutHallPrint;
+    private volatile BoardSnapshot lastWin;
+
+    /**
+     * Line ending the display uses.
+     */
+    private static final String kNewLine = System.lineSeparator();
 
     /**
      * Prompt message.
      */
     private static final String kPrompt = "1)Restart 2)New Game 3)Select Game " +
-        "4)Set Game 5)Hall of Fame 6)About 7)Quit 8)Prefs";
+        "4)Set Game 5)Hall of Fame 6)About 7)Quit 8)Prefs u)Undo r)Redo";
     
     /**
      * About Game message.
@@ -46,7 +49,7 @@ public class ConsoleUI implements Observer
      * usually <code>System.in</code>
      * @param wtr a Writer to which to display the output, 
      * usually <code>System.out</code>
-     * @param board the observable gameboard
+     * @param board the gameboard it listens to
      */
     public ConsoleUI(Reader rdr, Writer wtr, GameBoard board) 
     {
@@ -54,7 +57,6 @@ public class ConsoleUI implements Observer
         display = new PrintWriter(wtr, true);   
         gameBoard = board;
         regulator = board.getRegulator();
-        aboutHallPrint = false; 
     }
 
     /**
@@ -99,12 +101,12 @@ public class ConsoleUI implements Observer
     private void trySelectGame()
     {
         display.println("Select Game: " +
-            "Enter desired game number (1 - 18):");
+            "Enter desired game number (1 - " 
+            + regulator.getBoardCount() + "):");
         try
         {
             int board = console.nextInt();
-            regulator.setBoard(board);
-            gameBoard.newGame(regulator.getBoard());
+            gameBoard.newGame(board);
         }
         catch (InputMismatchException e)
         {
@@ -125,7 +127,6 @@ public class ConsoleUI implements Observer
         // If it is then do this. 
         else 
         {
-            aboutHallPrint = true;
             gameBoard.setHallFlag(true);
         }
     }
@@ -143,7 +144,6 @@ public class ConsoleUI implements Observer
         // If it is true then do this. 
         else 
         {
-            aboutHallPrint = true;
             gameBoard.setAboutFlag(true);
         }
     }
@@ -173,11 +173,10 @@ public class ConsoleUI implements Observer
                 display.println("roundup/halloffame.ser deleted.");
                 break;
             case "1": 
-                gameBoard.newGame(regulator.getBoard());
+                gameBoard.restartGame();
                 break;
             case "2":
-                regulator.nextBoard();
-                gameBoard.newGame(regulator.getBoard());  
+                gameBoard.nextGame();
                 break;
             case "3":
                 trySelectGame();
@@ -197,6 +196,12 @@ public class ConsoleUI implements Observer
             case "8":
                 printPref();
                 break;
+            case "u":
+                gameBoard.undo();
+                break;
+            case "r":
+                gameBoard.redo();
+                break;
             default: 
                 break;
         }
@@ -213,10 +218,13 @@ public class ConsoleUI implements Observer
             "(a) default (robots) = robots  (b) sheep = sheep" +
             "  (c) cows = cows  (d) rainbow robots = rainbow  "); 
         display.println("Your choice?");
-        display.println("Roundup - board " + regulator.getBoardNumber() 
-            + " " + regulator.getBoardDifficulty());
-        display.println("Moves: " + gameBoard.getMoveCount());
-        printBoard();
+        BoardSnapshot snapshot = gameBoard.getSnapshot();
+        StringBuilder out = new StringBuilder();
+        appendTitle(out, snapshot);
+        out.append("Moves: ").append(snapshot.getMoveCount()).append(kNewLine);
+        appendBoard(out, snapshot);
+        display.print(out);
+        display.flush();
     }
 
     /**
@@ -229,8 +237,7 @@ public class ConsoleUI implements Observer
         // Provided string is valid. 
         if (gameBoard.checkValid(coord))
         {
-            regulator.setCustom(coord);
-            gameBoard.newGame(coord);
+            gameBoard.newCustomGame(coord);
         }
         // Invalid string. 
         else
@@ -245,13 +252,20 @@ public class ConsoleUI implements Observer
      */
     private void tokenLengthOne(String firstToken)
     {
-        // Checks if the token is a y for saving into hallOfFame
-        if (firstToken.equals("y") && 
-            !gameBoard.getAlreadySaved() && 
-            lastSeqMove != null)
+        // Checks if the token is a y for saving a won game into hallOfFame
+        if (firstToken.equals("y"))
         {
-            gameBoard.addEntryToHallOfFame(lastSeqMove);
-            lastSeqMove = null;
+            BoardSnapshot won = gameBoard.getSnapshot();
+            // Board isn't won, so save the win last shown, if any
+            if (!won.getWinFlag())
+            {
+                won = lastWin;
+            }
+            // There is a win to save
+            if (won != null)
+            {
+                gameBoard.addEntryToHallOfFame(won);
+            }
         }
     }
 
@@ -267,20 +281,20 @@ public class ConsoleUI implements Observer
         switch (dir)
         {
             case "D":
-                gameBoard.setLastDir(KeyEvent.VK_DOWN);
-                gameBoard.movePiece(locationX, locationY, KeyEvent.VK_DOWN);
+                gameBoard.setLastDir(BitBoard.kDown);
+                gameBoard.movePiece(locationX, locationY, BitBoard.kDown);
                 break;
             case "R":
-                gameBoard.setLastDir(KeyEvent.VK_RIGHT);
-                gameBoard.movePiece(locationX, locationY, KeyEvent.VK_RIGHT);
+                gameBoard.setLastDir(BitBoard.kRight);
+                gameBoard.movePiece(locationX, locationY, BitBoard.kRight);
                 break;
             case "L":
-                gameBoard.setLastDir(KeyEvent.VK_LEFT);
-                gameBoard.movePiece(locationX, locationY, KeyEvent.VK_LEFT);
+                gameBoard.setLastDir(BitBoard.kLeft);
+                gameBoard.movePiece(locationX, locationY, BitBoard.kLeft);
                 break;
             case "U":
-                gameBoard.setLastDir(KeyEvent.VK_UP);
-                gameBoard.movePiece(locationX, locationY, KeyEvent.VK_UP);
+                gameBoard.setLastDir(BitBoard.kUp);
+                gameBoard.movePiece(locationX, locationY, BitBoard.kUp);
                 break;
             default:
                 break;
@@ -292,21 +306,12 @@ public class ConsoleUI implements Observer
      * @param locationX the x coord
      * @param locationY the y coord
      * @param dir the direction
-     * @param gamePiece the piece to be analyzed
+     * @param gamePiece the cell to be analyzed
      */
-    private void checkMovable(int locationX, int locationY, String dir, Object gamePiece)
+    private void checkMovable(int locationX, int locationY, String dir, int gamePiece)
     {
         // If there is a movable piece at location    
-        if (gamePiece.equals(GameBoard.kRed) || 
-            gamePiece.equals(GameBoard.kGreen) ||
-            gamePiece.toString().equals("red") || 
-            gamePiece.toString().equals("green") ||
-            gamePiece.toString().equals("reddown") || 
-            gamePiece.toString().equals("greendown") ||
-            gamePiece.toString().equals("redleft") || 
-            gamePiece.toString().equals("greenleft") ||
-            gamePiece.toString().equals("redright") || 
-            gamePiece.toString().equals("greenright") )
+        if (Cell.isRobot(gamePiece))
         {
             moveChecks(locationX, locationY, dir);
         }
@@ -320,15 +325,13 @@ public class ConsoleUI implements Observer
     {
         int locationX = Integer.parseInt(firstToken.substring(0, 1));
         int locationY = Integer.parseInt(firstToken.substring(1, 2));
-        int maxBound = gameBoard.getGrid().getRowCount() - 2;
+        int maxBound = gameBoard.getSize() - 2;
         // Location is within the bounds. 
         if (locationX >= 1 && locationX <= maxBound && 
             locationY >= 1 && locationY <= maxBound)
         {
             String dir = firstToken.substring(2).toUpperCase();
-            GameBoard.MyTable grid = gameBoard.getGrid();
-            Object gamePiece = 
-                grid.getValueAt(locationX, locationY);
+            int gamePiece = gameBoard.getSnapshot().getCell(locationX, locationY);
 
             checkMovable(locationX, locationY, dir, gamePiece);
         }
@@ -380,113 +383,100 @@ public class ConsoleUI implements Observer
 
     /**
      * Helps print the initial layout of the board. 
+     * @param out where to write it
      * @param in the row num
      */
-    private void printSideGrid(int in)
+    private void printSideGrid(StringBuilder out, int in)
     {
         // Only print the colons for 1 to 5
-        if (in != 0 && in != gameBoard.getGrid().getRowCount() - 1)
+        if (in != 0 && in != gameBoard.getSize() - 1)
         {
-            display.printf("%2s:", in);  
+            out.append(in < 10 ? " " : "").append(in).append(':');
         }
         // Otherwise print nothing
         else 
         {
-            display.printf("%2s", "   ");
+            out.append("   ");
         }
     }
 
     /**
-     * Checks the bounds for printing board.
+     * Gets the mark for a green robot, by whether it fell off the board.
+     * @param cell the robot's cell, as row * kMaxRowCol + col
+     * @return the mark to print
      */
-    private void printBound(int row, int col)
+    private char greenMark(int cell)
     {
+        int row = cell / GameBoard.kMaxRowCol;
+        int col = cell % GameBoard.kMaxRowCol;
         // Check if it falls off the board. 
-        if (row == 0 || row == gameBoard.getGrid().getRowCount() - 1 || 
-            col == 0 || col == gameBoard.getGrid().getColumnCount() - 1)
+        if (row == 0 || row == gameBoard.getSize() - 1 || 
+            col == 0 || col == gameBoard.getSize() - 1)
         {
-            display.printf("%3s", "  X");
+            return 'X';
         }
         // Didn't fall off. 
-        else
-        {
-            display.printf("%3s", "  o");
-        }
+        return 'o';
     }
 
     /**
-     * Helper method to help print easier.
-     * @param gamePiece the piece to analyze
+     * Prints the board to the display. 
      */
-    private void printLeftOver(Object gamePiece)
+    public void printBoard()
     {
-        // Game piece is red
-        if (gamePiece.toString().equals("red") ||
-            gamePiece.equals(GameBoard.kRed) ||
-            gamePiece.toString().equals("redleft") || 
-            gamePiece.toString().equals("reddown") ||
-            gamePiece.toString().equals("redright") 
-        )
-        {
-            display.printf("%3s", "  *");
-        }
-        // If the piece is a trailing dot.
-        else if (gamePiece.equals(GameBoard.kTrail))
-        {
-            display.printf("%3s", "  .");
-        }
-        // It has to be a blank space. 
-        else 
-        {
-            display.printf("%3s", "   ");
-        }
+        StringBuilder out = new StringBuilder();
+        appendBoard(out, gameBoard.getSnapshot());
+        display.print(out);
+        display.flush();
     }
-    
+
     /**
-     * Checks the game piece and determines how to print it.
-     * @param gamePiece the piece being manipulated
-     * @param row the x coord
-     * @param col the y coord
+     * Writes the board and the prompt.
+     * @param out where to write it
+     * @param snapshot the board to write
      */
-    private void checkPieceToPrint(Object gamePiece, int row, int col)
+    private void appendBoard(StringBuilder out, BoardSnapshot snapshot)
     {
-        // If the piece is a green piece
-        if (gamePiece.toString().equals("greenright") || 
-            gamePiece.equals(GameBoard.kGreen) ||
-            gamePiece.toString().equals("greenleft") || 
-            gamePiece.toString().equals("greendown") ||
-            gamePiece.toString().equals("green") )
+        int rows = snapshot.getWidth();
+        char[] marks = new char[rows * GameBoard.kMaxRowCol];
+        Arrays.fill(marks, ' ');
+        // Marks the trailing dots
+        for (int cell : snapshot.getTrail())
         {
-            printBound(row, col);
+            marks[cell] = '.';
         }
-        // If the piece is a red piece
-        else 
+        int[] pieces = snapshot.getPieces();
+        // Marks the robots, red is first
+        for (int in = 0; in < pieces.length; in++)
         {
-            printLeftOver(gamePiece);
+            marks[pieces[in]] = in == 0 ? '*' : greenMark(pieces[in]);
         }
-    }
-
-    /**
-     * Prints the board to the display. 
-     */
-    public void printBoard()
-    {
-        Object gamePiece; 
-        display.println("        1  2  3  4  5   ");
+        out.append("        1  2  3  4  5   ").append(kNewLine);
         // Goes through the entire row
-        for (int row = 0; row < gameBoard.getGrid().getRowCount(); row++)
+        for (int row = 0; row < rows; row++)
         {
-            printSideGrid(row);
+            printSideGrid(out, row);
             // Goes through all columns
-            for (int col = 0; col < gameBoard.getGrid().getColumnCount(); col++)
+            for (int col = 0; col < rows; col++)
             {   
-                gamePiece =  gameBoard.getGrid().getValueAt(row, col);
-                checkPieceToPrint(gamePiece, row, col);
+                out.append("  ").append(marks[row * GameBoard.kMaxRowCol + col]);
             }
-            display.println();
+            out.append(kNewLine);
         }
-        display.println(" -----------------------");
-        display.println(kPrompt);
+        out.append(" -----------------------").append(kNewLine);
+        out.append(kPrompt).append(kNewLine);
+    }
+
+    /**
+     * Gets the moves made so far as one string.
+     * @param snapshot the board the moves were made on
+     * @return the moves, e.g. "32R34L"
+     */
+    private String movesSoFar(BoardSnapshot snapshot)
+    {
+        StringBuilder moves = new StringBuilder();
+        snapshot.appendMoves(moves);
+        return moves.toString();
     }
 
     /**
@@ -495,54 +485,98 @@ public class ConsoleUI implements Observer
      */
     public void printWin()
     {
-        String toAddHall = "";
-        display.println("Moves: " + gameBoard.getMoveCount());
-        printBoard();
-        ArrayList<String> allMoves = gameBoard.getMoves();
-        StringBuilder moves = new StringBuilder();
-        // Builds the move sequence.
-        for (String move : allMoves)
-        {
-            moves.append(move);
-        }
-        display.println("Game Won Notification: You won game " 
-            + regulator.getBoardNumber() + "!");
-        display.println(moves.toString());
-        display.println("Save your time of 0:00? (y/n)");
-        lastSeqMove = moves;
+        StringBuilder out = new StringBuilder();
+        appendWin(out, gameBoard.getSnapshot());
+        display.print(out);
+        display.flush();
+    }
+
+    /**
+     * Writes the congratulatory message with the win sequence.
+     * @param out where to write it
+     * @param snapshot the won board
+     */
+    private void appendWin(StringBuilder out, BoardSnapshot snapshot)
+    {
+        out.append("Moves: ").append(snapshot.getMoveCount()).append(kNewLine);
+        appendBoard(out, snapshot);
+        out.append("Game Won Notification: You won game ")
+            .append(snapshot.getBoardNumber()).append('!').append(kNewLine);
+        out.append(movesSoFar(snapshot)).append(kNewLine);
+        out.append("Save your time of 0:00? (y/n)").append(kNewLine);
     }
 
     /**
      * Called whenever the model is changed. 
-     * Updates the console view. 
-     * @param obs the obserable object
-     * @param obj the object that called the update method 
+     * Updates the console view. Removed dots and dialogs meant for the
+     * gui print nothing, the next board printed shows them. Each update
+     * is printed in one write, so it never mixes with other output, 
+     * from the event's snapshot, so it shows the board the event is
+     * about even when it is printed after later moves. 
+     * @param event what changed, or null to print the board as it is
      */
-    public void update(Observable obs, Object obj)
+    public void boardChanged(BoardEvent event)
     {
-        // Check to avoid double printing. 
-        if (!aboutHallPrint)
+        BoardSnapshot snapshot = gameBoard.getSnapshot();
+        // Draw the board the event is about, not the board now
+        if (event != null && event.getSnapshot() != null)
         {
-            display.println("Roundup - board " + regulator.getBoardNumber() 
-                + " " + regulator.getBoardDifficulty());
-            // Game was lost.     
-            if (gameBoard.getLoseFlag())
-            {
-                display.println("LOSE");
-                printBoard();
-            }
-            // Game was won. 
-            else if (gameBoard.getWinFlag())
-            {
-                printWin();
-            }
-            // Game is going. 
-            else
-            {
-                display.println("Moves: " + gameBoard.getMoveCount());
-                printBoard();
-            }
+            snapshot = event.getSnapshot();
+        }
+        int kind;
+        // Event says what happened
+        if (event != null)
+        {
+            kind = event.getKind();
         }
-        aboutHallPrint = false;
+        // Otherwise go by the flags
+        else if (snapshot.getLoseFlag())
+        {
+            kind = BoardEvent.kGameLost;
+        }
+        else if (snapshot.getWinFlag())
+        {
+            kind = BoardEvent.kGameWon;
+        }
+        else
+        {
+            kind = BoardEvent.kPieceMoved;
+        }
+        StringBuilder out = new StringBuilder();
+        switch (kind)
+        {
+            case BoardEvent.kTrailCleared:
+            case BoardEvent.kDialogRequested:
+                return;
+            case BoardEvent.kGameLost:
+                appendTitle(out, snapshot);
+                out.append("LOSE").append(kNewLine);
+                appendBoard(out, snapshot);
+                break;
+            case BoardEvent.kGameWon:
+                lastWin = snapshot;
+                appendTitle(out, snapshot);
+                appendWin(out, snapshot);
+                break;
+            default:
+                appendTitle(out, snapshot);
+                out.append("Moves: ").append(snapshot.getMoveCount())
+                    .append(kNewLine);
+                appendBoard(out, snapshot);
+                break;
+        }
+        display.print(out);
+        display.flush();
+    }
+
+    /**
+     * Writes the board number and difficulty. 
+     * @param out where to write it
+     * @param snapshot the board being shown
+     */
+    private void appendTitle(StringBuilder out, BoardSnapshot snapshot)
+    {
+        out.append("Roundup - board ").append(snapshot.getBoardNumber()) 
+            .append(' ').append(snapshot.getDifficulty()).append(kNewLine);
     }
-}
\ No newline at end of file
+}
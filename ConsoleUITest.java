@@ -26,12 +26,14 @@ public class ConsoleUITest extends junit.framework.TestCase
         StringWriter output = new StringWriter();
         ConsoleUI console = new ConsoleUI(
             new StringReader("32R"), new StringWriter(), board);
-        GameBoard.MyTable grid = board.getGrid();
+        BoardTableModel grid = new BoardTableModel(board);
         assertEquals("Red ", GameBoard.kRed, grid.getValueAt(3, 2));
         console.run();
         assertEquals(
-            "Red piece gone from prev spot, replace by trail", 
-                GameBoard.kTrail, grid.getValueAt(3, 2));
+            "Red piece gone from prev spot", 
+                GameBoard.kBlank, grid.getValueAt(3, 2));
+        assertTrue(
+            "Prev spot is on the trail", board.isTrail(3, 2));
         assertEquals(
             "Red piece moved to the right by 1", 
                 GameBoard.kRed, grid.getValueAt(3, 3));
@@ -40,7 +42,7 @@ public class ConsoleUITest extends junit.framework.TestCase
         console = 
             new ConsoleUI(new StringReader("2"), new StringWriter(), board);
         console.run();
-        grid = board.getGrid();
+        grid = new BoardTableModel(board);
 
         assertEquals("Red ", GameBoard.kRed, grid.getValueAt(2, 2));
         assertEquals("Green ", GameBoard.kGreen, grid.getValueAt(1, 4));
@@ -53,7 +55,7 @@ public class ConsoleUITest extends junit.framework.TestCase
         console = 
             new ConsoleUI(new StringReader("3\n1"), new StringWriter(), board);
         console.run();
-        grid = board.getGrid();
+        grid = new BoardTableModel(board);
 
         assertEquals("Green ", GameBoard.kGreen, grid.getValueAt(1, 1));
         assertEquals("Green ", GameBoard.kGreen, grid.getValueAt(1, 5));
@@ -161,7 +163,7 @@ public class ConsoleUITest extends junit.framework.TestCase
         
         // Test the board prints 
         console.printBoard(); 
-        console.update(board, null);
+        console.boardChanged(null);
     }
 
     /**
@@ -0,0 +1,400 @@
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * DifficultyRater class rates boards from solver metrics instead of a
+ * hand-written letter. It searches breadth first out to par, counting
+ * the different shortest solutions, the moves on offer from every
+ * position, and which positions are on no shortest solution at all.
+ *
+ * Ratings are cached by position, so a board is only searched once
+ * however many views or hall of fame entries ask for it. The cache is
+ * emptied once it holds kDefaultCacheSize ratings, and rating a whole
+ * pack doesn't use it, as those boards are each asked for only once.
+ *
+ * @author Eric Tran
+ * @version 1
+ */
+public class DifficultyRater
+{
+    /**
+     * Most ratings cached at once by default.
+     */
+    public static final int kDefaultCacheSize = 4096;
+
+    private static final int kInitialSize = 1024;
+    private static DifficultyRater standard;
+
+    private BitBoard engine;
+    private ConcurrentHashMap<Long, DifficultyRating> cache;
+    private int cacheSize;
+
+    /**
+     * Constructs a rater for boards of the engine's size.
+     * @param engine the engine used to compute slides
+     */
+    public DifficultyRater(BitBoard engine)
+    {
+        this(engine, kDefaultCacheSize);
+    }
+
+    /**
+     * Constructs a rater with a cache of a certain size.
+     * @param engine the engine used to compute slides
+     * @param cacheSize most ratings cached at once, or 0 for no cache
+     */
+    public DifficultyRater(BitBoard engine, int cacheSize)
+    {
+        this.engine = engine;
+        this.cacheSize = cacheSize;
+        cache = new ConcurrentHashMap<Long, DifficultyRating>();
+    }
+
+    /**
+     * Gets the number of ratings cached.
+     * @return number of ratings
+     */
+    public int getCached()
+    {
+        return cache.size();
+    }
+
+    /**
+     * Gets the rater shared by everything playing the standard board.
+     * @return the shared rater
+     */
+    public static synchronized DifficultyRater getStandard()
+    {
+        // Made the first time it is asked for
+        if (standard == null)
+        {
+            standard = new DifficultyRater(new BitBoard(GameBoard.kMaxRowCol));
+        }
+        return standard;
+    }
+
+    /**
+     * Rates a board.
+     * @param board the board, e.g. "11 15 32R 34 51 55"
+     * @return the rating
+     */
+    public DifficultyRating rate(String board)
+    {
+        return rate(engine.parse(board));
+    }
+
+    /**
+     * Rates a packed position, searching only if it isn't cached.
+     * @param position the packed position
+     * @return the rating
+     */
+    public DifficultyRating rate(long position)
+    {
+        // Nothing is cached
+        if (cacheSize == 0)
+        {
+            return search(position);
+        }
+        DifficultyRating rating = cache.get(position);
+        // Not rated before
+        if (rating == null)
+        {
+            rating = search(position);
+            // Full, so start again rather than grow without end
+            if (cache.size() >= cacheSize)
+            {
+                cache.clear();
+            }
+            cache.put(position, rating);
+        }
+        return rating;
+    }
+
+    /**
+     * Rates many boards at once on every core, searching each one
+     * without going through the cache.
+     * @param boards the boards to rate
+     * @return the ratings, in the same order
+     */
+    public DifficultyRating[] rateAll(final List<String> boards)
+    {
+        final DifficultyRating[] ratings = new DifficultyRating[boards.size()];
+        ExecutorService pool = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors());
+        ArrayList<Future<?>> tasks = new ArrayList<Future<?>>();
+        // Hands every board to the pool
+        for (int in = 0; in < boards.size(); in++)
+        {
+            final int index = in;
+            tasks.add(pool.submit(new Runnable()
+            {
+                public void run()
+                {
+                    ratings[index] = search(engine.parse(boards.get(index)));
+                }
+            }));
+        }
+        try
+        {
+            // Waits for every board
+            for (Future<?> task : tasks)
+            {
+                task.get();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException e)
+        {
+            throw new RuntimeException(e.getCause());
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+        return ratings;
+    }
+
+    /**
+     * Rates every board of a pack file written by PuzzleGenerator and
+     * writes the pack back out with the new letters.
+     * @param in the pack to read
+     * @param out the pack to write
+     * @return number of boards whose letter changed
+     * @throws IOException if a pack can't be read or written
+     */
+    public int ratePack(File in, File out) throws IOException
+    {
+        ArrayList<String> boards = new ArrayList<String>();
+        ArrayList<String> letters = new ArrayList<String>();
+        BufferedReader reader = new BufferedReader(new FileReader(in));
+        try
+        {
+            String line;
+            // Splits every line into letter and board
+            while ((line = reader.readLine()) != null)
+            {
+                int space = line.indexOf(' ', 2);
+                letters.add(line.substring(0, 1));
+                boards.add(line.substring(space + 1));
+            }
+        }
+        finally
+        {
+            reader.close();
+        }
+        DifficultyRating[] ratings = rateAll(boards);
+        int changed = 0;
+        PrintWriter writer = new PrintWriter(
+            new BufferedWriter(new FileWriter(out)));
+        try
+        {
+            // Writes every board with its new rating
+            for (int index = 0; index < ratings.length; index++)
+            {
+                // Rated differently than before
+                if (!ratings[index].getLetter().equals(letters.get(index)))
+                {
+                    changed++;
+                }
+                writer.println(ratings[index].getLetter() + " "
+                    + ratings[index].getPar() + " " + boards.get(index));
+            }
+        }
+        finally
+        {
+            writer.close();
+        }
+        return changed;
+    }
+
+    /**
+     * Searches breadth first out to par and works out the metrics.
+     * @param start the position to rate
+     * @return the rating
+     */
+    private DifficultyRating search(long start)
+    {
+        LongIntHashMap index = new LongIntHashMap();
+        long[] positions = new long[kInitialSize];
+        long[] ways = new long[kInitialSize];
+        ArrayList<Integer> levels = new ArrayList<Integer>();
+        int count = 1;
+        positions[0] = start;
+        ways[0] = 1;
+        index.put(start, 0);
+        levels.add(0);
+        long solutions = 0;
+        long moves = 0;
+        // Goes one level deeper until a level can win or nothing is left
+        for (int head = 0; solutions == 0 && head < count; )
+        {
+            int end = count;
+            levels.add(end);
+            // Goes through this level
+            for (; head < end; head++)
+            {
+                long position = positions[head];
+                int red = BitBoard.redCell(position);
+                long robots = BitBoard.occupied(position);
+                // Goes through every robot
+                while (robots != 0)
+                {
+                    int from = Long.numberOfTrailingZeros(robots);
+                    robots &= robots - 1;
+                    // Goes through every direction
+                    for (int dir = 0; dir < BitBoard.kNumDirs; dir++)
+                    {
+                        int to = engine.slide(position, from, dir);
+                        // Red ends its move on the center, another solution
+                        if (from == red && to == engine.getCenter())
+                        {
+                            solutions += ways[head];
+                            moves++;
+                            continue;
+                        }
+                        // Walking off loses and a blocked robot changes nothing
+                        if (to == BitBoard.kOffBoard || to == from)
+                        {
+                            continue;
+                        }
+                        moves++;
+                        long next = BitBoard.move(position, from, to);
+                        int at = index.get(next);
+                        // Not seen before, so it starts the next level
+                        if (at == LongIntHashMap.kMissing)
+                        {
+                            // Out of room, so double the arrays
+                            if (count == positions.length)
+                            {
+                                positions = Arrays.copyOf(positions, count * 2);
+                                ways = Arrays.copyOf(ways, count * 2);
+                            }
+                            index.put(next, count);
+                            positions[count] = next;
+                            ways[count++] = ways[head];
+                        }
+                        // Another shortest way into the next level
+                        else if (at >= end)
+                        {
+                            ways[at] += ways[head];
+                        }
+                    }
+                }
+            }
+        }
+        // Never found a win
+        if (solutions == 0)
+        {
+            return new DifficultyRating(-1, 0, 0, 0);
+        }
+        int par = levels.size() - 1;
+        int searched = levels.get(par);
+        int onPath = countOnPath(positions, index, levels);
+        return new DifficultyRating(par, solutions,
+            1 - (double) onPath / searched, (double) moves / searched);
+    }
+
+    /**
+     * Counts the positions that are on some shortest solution, working
+     * back from the last level.
+     * @param positions the positions found, level by level
+     * @param index where each position is in the array
+     * @param levels where each level starts, and where the last one ends
+     * @return number of positions on a shortest solution
+     */
+    private int countOnPath(long[] positions, LongIntHashMap index,
+        ArrayList<Integer> levels)
+    {
+        int par = levels.size() - 1;
+        boolean[] onPath = new boolean[levels.get(par)];
+        int count = 0;
+        // Goes back from the level that wins to the start
+        for (int level = par - 1; level >= 0; level--)
+        {
+            // Goes through this level
+            for (int at = levels.get(level); at < levels.get(level + 1); at++)
+            {
+                onPath[at] = leadsOn(positions[at], index, onPath,
+                    levels.get(level + 1), level == par - 1);
+                // Counts the positions on a solution
+                if (onPath[at])
+                {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Checks whether a position has a move onto a shortest solution.
+     * @param position the packed position
+     * @param index where each position is in the array
+     * @param onPath which later positions are on a shortest solution
+     * @param nextLevel where the next level starts
+     * @param last whether this is the level the win is made from
+     * @return whether it is on a shortest solution
+     */
+    private boolean leadsOn(long position, LongIntHashMap index,
+        boolean[] onPath, int nextLevel, boolean last)
+    {
+        int red = BitBoard.redCell(position);
+        long robots = BitBoard.occupied(position);
+        // Goes through every robot
+        while (robots != 0)
+        {
+            int from = Long.numberOfTrailingZeros(robots);
+            robots &= robots - 1;
+            // Goes through every direction
+            for (int dir = 0; dir < BitBoard.kNumDirs; dir++)
+            {
+                int to = engine.slide(position, from, dir);
+                // Only the last level can win
+                if (last)
+                {
+                    // Red ends its move on the center
+                    if (from == red && to == engine.getCenter())
+                    {
+                        return true;
+                    }
+                    continue;
+                }
+                // Walking off loses and a blocked robot changes nothing
+                if (to == BitBoard.kOffBoard || to == from)
+                {
+                    continue;
+                }
+                int at = index.get(BitBoard.move(position, from, to));
+                // Moves on to a position on a shortest solution
+                if (at >= nextLevel && onPath[at])
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Re-rates a pack file on every core and prints how many changed.
+     * @param args the pack to read, then optionally the pack to write,
+     *        the same pack if not given
+     */
+    public static void main(String[] args) throws IOException
+    {
+        // Nothing to rate
+        if (args.length == 0)
+        {
+            System.out.println("Usage: java DifficultyRater in-pack [out-pack]");
+            return;
+        }
+        File in = new File(args[0]);
+        File out = new File(args.length > 1 ? args[1] : args[0]);
+        int changed = getStandard().ratePack(in, out);
+        System.out.println(changed + " letters changed");
+    }
+}
@@ -0,0 +1,136 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.util.*;
+import java.io.*;
+
+/**
+ * The test class DifficultyRaterTest.
+ *
+ * @author  Eric Tran
+ * @version 1
+ */
+public class DifficultyRaterTest extends junit.framework.TestCase
+{
+    /**
+     * Tests the metrics of a few known boards.
+     */
+    @Test
+    public void testMetrics()
+    {
+        DifficultyRater rater = new DifficultyRater(new BitBoard(7));
+        DifficultyRating rating = rater.rate("11 15 32R 34 51 55");
+        assertEquals("Board 1 par", 1, rating.getPar());
+        assertEquals("Board 1 solutions", 1, rating.getSolutions());
+        assertEquals("Board 1 branching", 10.0, rating.getBranching(), 1e-9);
+        assertEquals("Board 1 no dead ends", 0.0,
+            rating.getDeadEndRatio(), 1e-9);
+        assertEquals("Board 1", "E", rating.getLetter());
+
+        rating = rater.rate("11 13 15 31 51 55R");
+        assertEquals("Board 13 par", 13, rating.getPar());
+        assertEquals("Board 13 solutions", 296, rating.getSolutions());
+        assertTrue("Board 13 mostly dead ends", rating.getDeadEndRatio() > 0.9);
+        assertEquals("Board 13", "H", rating.getLetter());
+
+        rating = rater.rate("11 12 13 14 15 25R");
+        assertEquals("Can't be won", -1, rating.getPar());
+        assertEquals("Unrated", DifficultyRating.kUnrated, rating.getLetter());
+    }
+
+    /**
+     * Tests that the letters get harder as the boards get longer.
+     */
+    @Test
+    public void testOrder()
+    {
+        DifficultyRater rater = new DifficultyRater(new BitBoard(7));
+        assertEquals("Par 2", "E", rater.rate("11 23 25 31 41R 44").getLetter());
+        assertEquals("Par 5", "M", rater.rate("11 21 31R 51 15 45").getLetter());
+        assertEquals("Par 10", "H", rater.rate("11 13 21 25R 31 54").getLetter());
+    }
+
+    /**
+     * Tests that a board is only searched once.
+     */
+    @Test
+    public void testCache()
+    {
+        DifficultyRater rater = new DifficultyRater(new BitBoard(7));
+        assertSame("Same rating", rater.rate("22R 14 31 42 44 55"),
+            rater.rate("14 22R 31 42 44 55"));
+        assertSame("Shared rater", DifficultyRater.getStandard(),
+            DifficultyRater.getStandard());
+
+        rater = new DifficultyRater(new BitBoard(7), 2);
+        rater.rate("11 15 32R 34 51 55");
+        rater.rate("22R 14 31 42 44 55");
+        assertEquals("Full", 2, rater.getCached());
+        rater.rate("11 23 25 31 41R 44");
+        assertEquals("Emptied before growing", 1, rater.getCached());
+
+        rater = new DifficultyRater(new BitBoard(7), 0);
+        assertTrue("No cache", rater.rate("22R 14 31 42 44 55")
+            != rater.rate("22R 14 31 42 44 55"));
+        assertEquals("Nothing cached", 0, rater.getCached());
+    }
+
+    /**
+     * Tests that the letters start at the same scores everywhere.
+     */
+    @Test
+    public void testScale()
+    {
+        assertEquals("Easy", 0, DifficultyRating.bandOf(1));
+        assertEquals("Still easy", 0, DifficultyRating.bandOf(5));
+        assertEquals("Medium", 1, DifficultyRating.bandOf(5.5));
+        assertEquals("Hard", 3, DifficultyRating.bandOf(17));
+        DifficultyRating rating = new DifficultyRating(3, 2, 0.8, 2.5);
+        assertEquals("Letter from the scale", "" + DifficultyRating.kBands
+            .charAt(DifficultyRating.bandOf(rating.getScore())),
+            rating.getLetter());
+    }
+
+    /**
+     * Tests rating many boards at once, and a whole pack.
+     */
+    @Test
+    public void testRateAll() throws IOException
+    {
+        DifficultyRater rater = new DifficultyRater(new BitBoard(7));
+        BoardRegulator regulator = new BoardRegulator();
+        ArrayList<String> boards = new ArrayList<String>();
+        for (int in = 1; in <= 18; in++)
+        {
+            regulator.setBoard(in);
+            boards.add(regulator.getBoard());
+        }
+        DifficultyRating[] ratings = rater.rateAll(boards);
+        assertEquals("Batch not cached", 0, rater.getCached());
+        for (int in = 0; in < boards.size(); in++)
+        {
+            DifficultyRating rating = rater.rate(boards.get(in));
+            assertEquals("Board " + (in + 1), rating.toString(),
+                ratings[in].toString());
+        }
+
+        File pack = File.createTempFile("pack", ".txt");
+        try
+        {
+            PrintWriter out = new PrintWriter(new FileWriter(pack));
+            out.println("H 1 11 15 32R 34 51 55");
+            out.println("E 3 22R 14 31 42 44 55");
+            out.close();
+            assertEquals("One letter changed", 1, rater.ratePack(pack, pack));
+            BufferedReader in = new BufferedReader(new FileReader(pack));
+            assertEquals("Re-rated", "E 1 11 15 32R 34 51 55", in.readLine());
+            assertEquals("Kept", "E 3 22R 14 31 42 44 55", in.readLine());
+            in.close();
+        }
+        finally
+        {
+            pack.delete();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * DifficultyRating class holds the solver metrics of a board and
+ * the difficulty letter worked out from them.
+ *
+ * The letters and the scores they start at are the one difficulty
+ * scale of the game: the rater gives boards their letters by it, and
+ * the puzzle generator only keeps boards that rate the letter wanted.
+ *
+ * @author Eric Tran
+ * @version 1
+ */
+public class DifficultyRating
+{
+    /**
+     * Letter given to boards that can't be won.
+     */
+    public static final String kUnrated = " ";
+
+    /**
+     * The difficulties, easiest first.
+     */
+    public static final String kBands = "EMDH";
+
+    /**
+     * Highest score of every difficulty but the hardest.
+     */
+    private static final double[] kBounds = {5, 10, 13};
+
+    private int par;
+    private long solutions;
+    private double deadEndRatio;
+    private double branching;
+    private String letter;
+
+    /**
+     * Constructs a rating from the solver metrics.
+     * @param par moves in the shortest solution, or -1 if it can't be won
+     * @param solutions number of different shortest solutions
+     * @param deadEndRatio share of the positions searched that are on
+     * no shortest solution
+     * @param branching average number of moves from a searched position
+     */
+    public DifficultyRating(int par, long solutions, double deadEndRatio,
+        double branching)
+    {
+        this.par = par;
+        this.solutions = solutions;
+        this.deadEndRatio = deadEndRatio;
+        this.branching = branching;
+        letter = kUnrated;
+        // Only boards that can be won get a letter
+        if (par != -1)
+        {
+            letter = "" + kBands.charAt(bandOf(getScore()));
+        }
+    }
+
+    /**
+     * Gets the moves in the shortest solution.
+     * @return par, or -1 if it can't be won
+     */
+    public int getPar()
+    {
+        return par;
+    }
+
+    /**
+     * Gets the number of different shortest solutions.
+     * @return number of solutions
+     */
+    public long getSolutions()
+    {
+        return solutions;
+    }
+
+    /**
+     * Gets the share of the positions searched that lead nowhere.
+     * @return ratio between 0 and 1
+     */
+    public double getDeadEndRatio()
+    {
+        return deadEndRatio;
+    }
+
+    /**
+     * Gets the average number of moves from a searched position.
+     * @return branching factor
+     */
+    public double getBranching()
+    {
+        return branching;
+    }
+
+    /**
+     * Gets the difficulty letter, as BoardRegulator reports it.
+     * @return one of "E", "M", "D" and "H", or kUnrated
+     */
+    public String getLetter()
+    {
+        return letter;
+    }
+
+    /**
+     * Combines the metrics into one number: every move of par counts,
+     * and so does how hard the shortest solutions are to find among
+     * all the moves on offer.
+     * @return the score, higher is harder
+     */
+    public double getScore()
+    {
+        // Can't be won
+        if (par == -1)
+        {
+            return Double.NaN;
+        }
+        double search = Math.log(Math.pow(branching, par) / solutions)
+            / Math.log(2);
+        return par + search * deadEndRatio / 2;
+    }
+
+    /**
+     * Works out which letter a score falls under.
+     * @param score the combined score
+     * @return index into kBands
+     */
+    public static int bandOf(double score)
+    {
+        int band = 0;
+        // Goes up a letter for every bound passed
+        for (double bound : kBounds)
+        {
+            // Harder than this bound
+            if (score > bound)
+            {
+                band++;
+            }
+        }
+        return band;
+    }
+
+    /**
+     * Describes the rating.
+     * @return the letter followed by the metrics
+     */
+    public String toString()
+    {
+        return String.format("%s par %d solutions %d dead ends %.2f "
+            + "branching %.2f score %.2f", letter, par, solutions,
+            deadEndRatio, branching, getScore());
+    }
+}
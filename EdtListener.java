@@ -0,0 +1,58 @@
+import java.util.concurrent.Executor;
+import javax.swing.SwingUtilities;
+
+/**
+ * EdtListener class hands board events to a Swing view on the Swing
+ * event thread, so the board and its listener bus never need Swing.
+ * The view is called right away when the event is sent from the Swing
+ * thread, and queued for it otherwise.
+ *
+ * @author Eric Tran
+ * @version 1
+ */
+public class EdtListener implements BoardListener
+{
+    /**
+     * Runs tasks on the Swing event thread, for a CoalescingListener
+     * standing in front of a Swing view.
+     */
+    public static final Executor kEdt = new Executor()
+    {
+        public void execute(Runnable run)
+        {
+            SwingUtilities.invokeLater(run);
+        }
+    };
+
+    private final BoardListener target;
+
+    /**
+     * Constructs a listener that calls a view on the Swing thread.
+     * @param target the view
+     */
+    public EdtListener(BoardListener target)
+    {
+        this.target = target;
+    }
+
+    /**
+     * Calls the view on the Swing thread.
+     * @param event what changed
+     */
+    public void boardChanged(final BoardEvent event)
+    {
+        // Already on the Swing thread
+        if (SwingUtilities.isEventDispatchThread())
+        {
+            target.boardChanged(event);
+            return;
+        }
+        SwingUtilities.invokeLater(new Runnable()
+        {
+            public void run()
+            {
+                target.boardChanged(event);
+            }
+        });
+    }
+}
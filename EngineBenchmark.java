@@ -0,0 +1,682 @@
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+
+/**
+ * EngineBenchmark class times the hot paths of a game: moving a robot
+ * each way, loading and checking boards, clearing the trail, printing
+ * the console board, replaying move sequences, and saving and loading
+ * the hall of fame. It also times the parts around the game: sending
+ * events to listeners, the solvers on the built in boards, and making,
+ * rating and packing boards. For each
+ * it prints the time and the bytes allocated per operation, counted
+ * over every thread so the board's writer thread is included, so a
+ * release that makes moves slower or allocate more shows up here.
+ *
+ * Each case is warmed up, then timed for some rounds, and the median
+ * round is printed.
+ *
+ * @author Eric Tran
+ * @version 1
+ */
+public class EngineBenchmark
+{
+    /**
+     * Board the moves are made on, every robot can move each way.
+     */
+    private static final String kBoard = "11 15 32R 34 51 55";
+
+    private static final int kWarmupRounds = 3;
+    private static final int kDefaultRounds = 5;
+    private static final int kHallSize = 1000;
+    private static final int kIndexSize = 200000;
+    private static final int kIndexBoards = 18;
+
+    /**
+     * Board a robot can be moved back and forth on for as long as wanted,
+     * 12 and 14 stop against 11, 13 and 15.
+     */
+    private static final String kShuttleBoard = "11 13 15 32R 51 55";
+    private static final int kShuttleMoves = 1001;
+
+    private static final int kListeners = 2;
+    private static final int kPackSize = 50;
+
+    /**
+     * Inner class for one operation to be timed.
+     */
+    private abstract static class Case
+    {
+        private final String name;
+        private final int ops;
+
+        /**
+         * Constructs a case.
+         * @param name what is printed for it
+         * @param ops operations in one round
+         */
+        Case(String name, int ops)
+        {
+            this.name = name;
+            this.ops = ops;
+        }
+
+        /**
+         * Runs the operation some times.
+         * @param count how many times
+         * @return something from the results, so they are not optimized away
+         */
+        abstract long run(int count) throws Exception;
+    }
+
+    /**
+     * Gets the bytes allocated so far by every live thread.
+     * @return the bytes, or -1 if the JVM doesn't count them
+     */
+    private static long allocated()
+    {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        // Only HotSpot's bean counts allocations
+        if (!(threads instanceof com.sun.management.ThreadMXBean))
+        {
+            return -1;
+        }
+        long total = 0;
+        long[] bytes = ((com.sun.management.ThreadMXBean) threads)
+            .getThreadAllocatedBytes(threads.getAllThreadIds());
+        // Adds up the threads that could be measured
+        for (long thread : bytes)
+        {
+            // Thread ended or isn't counted
+            if (thread > 0)
+            {
+                total += thread;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Finds the middle of some values.
+     * @param values the values, sorted in place
+     * @return the median
+     */
+    private static double median(double[] values)
+    {
+        Arrays.sort(values);
+        return values[values.length / 2];
+    }
+
+    /**
+     * Times a case and prints nanoseconds and bytes per operation.
+     * @param bench the case
+     * @param rounds rounds to time after warming up
+     * @return what the case returned, so it is not optimized away
+     */
+    private static long time(Case bench, int rounds) throws Exception
+    {
+        long sink = 0;
+        double[] nanos = new double[rounds];
+        double[] bytes = new double[rounds];
+        // Warms up, then times each round
+        for (int round = -kWarmupRounds; round < rounds; round++)
+        {
+            long startBytes = allocated();
+            long start = System.nanoTime();
+            sink += bench.run(bench.ops);
+            long took = System.nanoTime() - start;
+            long endBytes = allocated();
+            // Only keep the timed rounds
+            if (round >= 0)
+            {
+                nanos[round] = (double) took / bench.ops;
+                bytes[round] = startBytes < 0 ? -1
+                    : Math.max(0, (double) (endBytes - startBytes) / bench.ops);
+            }
+        }
+        double perOp = median(bytes);
+        System.out.println(String.format("%-32s %10.1f ns/op %10s B/op",
+            bench.name, median(nanos),
+            perOp < 0 ? "n/a" : String.format("%.1f", perOp)));
+        return sink;
+    }
+
+    /**
+     * Makes a case that moves a robot and takes the move back.
+     * @param board the board to move on
+     * @param name the direction's name
+     * @param row the x coord of the robot
+     * @param col the y coord of the robot
+     * @param dir the direction, e.g. BitBoard.kUp
+     * @return the case
+     */
+    private static Case move(final GameBoard board, String name,
+        final int row, final int col, final int dir)
+    {
+        return new Case("movePiece+undo " + name, 20000)
+        {
+            long run(int count)
+            {
+                long moved = 0;
+                // Each move is taken back, so the next one is the same
+                for (int in = 0; in < count; in++)
+                {
+                    moved += board.movePiece(row, col, dir) ? 1 : 0;
+                    board.undo();
+                }
+                return moved;
+            }
+        };
+    }
+
+    /**
+     * Makes a case that adds entries to a hall of fame written by
+     * a writer of its own.
+     * @param name what the writer does
+     * @param entry the entry added
+     * @param policy HallOfFameWriter.kNoSync, kGroupSync or kEntrySync
+     * @param groupSize entries written together
+     * @param ops entries added in a round
+     * @return the case
+     */
+    private static Case save(String name, final Object[] entry, int policy,
+        int groupSize, int ops) throws IOException
+    {
+        File file = File.createTempFile("halloffame", ".ser");
+        file.deleteOnExit();
+        file.delete();
+        final HallOfFame hof = new HallOfFame(file,
+            new HallOfFameWriter(file, policy, groupSize, 0));
+        return new Case("HallOfFame save " + name, ops)
+        {
+            long run(int count)
+            {
+                // Saves one entry at a time, as a win does
+                for (int in = 0; in < count; in++)
+                {
+                    hof.addEntry(entry);
+                }
+                hof.close();
+                return hof.getHallOfFamers().size();
+            }
+        };
+    }
+
+    /**
+     * Makes a case that sends events to a few listeners through the bus.
+     * @return the case
+     */
+    private static Case publish()
+    {
+        final LongSum sink = new LongSum();
+        final ListenerBus bus = new ListenerBus();
+        // Listeners that only count what they got
+        for (int in = 0; in < kListeners; in++)
+        {
+            bus.add(new BoardListener()
+            {
+                public void boardChanged(BoardEvent changed)
+                {
+                    sink.add(changed.getCells().length);
+                }
+            }, ListenerBus.kSync);
+        }
+        final BoardEvent event = new BoardEvent(BoardEvent.kPieceMoved,
+            new int[4]);
+        return new Case("ListenerBus publish", 2000000)
+        {
+            long run(int count)
+            {
+                // Sends the same event again and again
+                for (int in = 0; in < count; in++)
+                {
+                    bus.publish(event);
+                }
+                return sink.total;
+            }
+        };
+    }
+
+    /**
+     * Makes a case that sends events to the same listeners through
+     * Observable.notifyObservers, as the board used to.
+     * @return the case
+     */
+    @SuppressWarnings("deprecation")
+    private static Case notifyObservers()
+    {
+        final LongSum sink = new LongSum();
+        final Observable observable = new Observable()
+        {
+            public void notifyObservers(Object arg)
+            {
+                setChanged();
+                super.notifyObservers(arg);
+            }
+        };
+        // Observers that only count what they got
+        for (int in = 0; in < kListeners; in++)
+        {
+            observable.addObserver(new Observer()
+            {
+                public void update(Observable from, Object changed)
+                {
+                    sink.add(((BoardEvent) changed).getCells().length);
+                }
+            });
+        }
+        final BoardEvent event = new BoardEvent(BoardEvent.kPieceMoved,
+            new int[4]);
+        return new Case("Observable notifyObservers", 2000000)
+        {
+            long run(int count)
+            {
+                // Sends the same event again and again
+                for (int in = 0; in < count; in++)
+                {
+                    observable.notifyObservers(event);
+                }
+                return sink.total;
+            }
+        };
+    }
+
+    /**
+     * Inner class adding up what the listeners got.
+     */
+    private static class LongSum
+    {
+        private long total;
+
+        /**
+         * Adds to the total.
+         * @param value what to add
+         */
+        void add(long value)
+        {
+            total += value;
+        }
+    }
+
+    /**
+     * Makes a case that clears a move's trail and lays a new one, either
+     * by scanning every cell of a grid or with a TrailOverlay.
+     * @param width the board's width
+     * @param scan whether to scan the grid the way GameBoard used to
+     * @return the case
+     */
+    private static Case trail(final int width, final boolean scan)
+    {
+        final Object[][] grid = new Object[width][width];
+        // Fills the grid with blanks
+        for (Object[] row : grid)
+        {
+            Arrays.fill(row, GameBoard.kBlank);
+        }
+        final TrailOverlay overlay = new TrailOverlay(width);
+        return new Case("trail " + (scan ? "grid scan " : "overlay ") + width
+            + "x" + width, 200000)
+        {
+            long run(int count)
+            {
+                long cleared = 0;
+                // Each move clears the trail then lays a new one
+                for (int move = 0; move < count; move++)
+                {
+                    int row = 1 + move % (width - 2);
+                    // Clears the old way
+                    if (scan)
+                    {
+                        cleared += scanClear(grid);
+                    }
+                    else
+                    {
+                        cleared += overlay.size();
+                        overlay.clear();
+                    }
+                    // Lays a trail along a row
+                    for (int col = 1; col < 4; col++)
+                    {
+                        // Marks the grid the old way
+                        if (scan)
+                        {
+                            grid[row][col] = GameBoard.kTrail;
+                        }
+                        else
+                        {
+                            overlay.add(row, col);
+                        }
+                    }
+                }
+                return cleared;
+            }
+        };
+    }
+
+    /**
+     * Clears trail dots the way GameBoard used to, by checking every cell.
+     * @param grid the grid to clear
+     * @return number of dots cleared
+     */
+    private static int scanClear(Object[][] grid)
+    {
+        int cleared = 0;
+        // Goes through rows
+        for (int row = 0; row < grid.length; row++)
+        {
+            // Goes through cols
+            for (int col = 0; col < grid[row].length; col++)
+            {
+                // If current square is a trail, remove it
+                if (grid[row][col].toString().equals("piecedot") ||
+                    grid[row][col].equals(GameBoard.kTrail))
+                {
+                    grid[row][col] = GameBoard.kBlank;
+                    cleared++;
+                }
+            }
+        }
+        return cleared;
+    }
+
+    /**
+     * Gets the built in boards.
+     * @return every board the regulator has
+     */
+    private static String[] builtInBoards()
+    {
+        BoardRegulator regulator = new BoardRegulator();
+        String[] boards = new String[regulator.getBoardCount()];
+        // Goes through the boards, numbered from 1
+        for (int in = 0; in < boards.length; in++)
+        {
+            regulator.setBoard(in + 1);
+            boards[in] = regulator.getBoard();
+        }
+        return boards;
+    }
+
+    /**
+     * Makes a case that solves every built in board, one op per board.
+     * @param name the solver's name
+     * @param solver the solver
+     * @param boards the built in boards
+     * @return the case
+     */
+    private static Case solve(String name, final PuzzleSolver solver,
+        final String[] boards)
+    {
+        return new Case("solve " + name, boards.length * 20)
+        {
+            long run(int count)
+            {
+                long moves = 0;
+                // Goes through the boards in turn
+                for (int in = 0; in < count; in++)
+                {
+                    moves += solver.solve(boards[in % boards.length]).size();
+                }
+                return moves;
+            }
+        };
+    }
+
+    /**
+     * Times each hot path.
+     * @param args optional number of timed rounds
+     */
+    public static void main(String[] args) throws Exception
+    {
+        final int rounds = args.length > 0 ? Integer.parseInt(args[0])
+            : kDefaultRounds;
+        final GameBoard board = new GameBoard(false);
+        board.newGame(kBoard);
+        final StringWriter output = new StringWriter();
+        final ConsoleUI console = new ConsoleUI(new StringReader(""), output,
+            board);
+        final TrailOverlay trail = new TrailOverlay(GameBoard.kMaxRowCol);
+
+        final File saved = File.createTempFile("halloffame", ".ser");
+        saved.deleteOnExit();
+        saved.delete();
+        final HallOfFame savedHall = new HallOfFame(saved);
+        final Object[] entry = savedHall.buildEntry(1, "E", "0:00:00", 3,
+            "15L51R32R");
+        final File loaded = File.createTempFile("halloffame", ".ser");
+        loaded.deleteOnExit();
+        loaded.delete();
+        HallOfFame filler = new HallOfFame(loaded);
+        // Fills the file to be loaded
+        for (int in = 0; in < kHallSize; in++)
+        {
+            filler.addEntry(entry);
+        }
+
+        final HallOfFameIndex index = new HallOfFameIndex();
+        Random random = new Random(1);
+        // Fills the index with entries spread over the boards
+        for (int in = 0; in < kIndexSize; in++)
+        {
+            index.add(savedHall.buildEntry(1 + random.nextInt(kIndexBoards),
+                "E", "0:00:" + (10 + random.nextInt(50)),
+                1 + random.nextInt(20), "15L51R32R"));
+        }
+
+        final ReplayEngine replayer = new ReplayEngine();
+        final StringBuilder shuttle = new StringBuilder("13L");
+        // Moves the robot right and back again
+        while (shuttle.length() < kShuttleMoves * ReplayEngine.kMoveLength)
+        {
+            shuttle.append("12R14L");
+        }
+
+        final BitBoard engine = new BitBoard(GameBoard.kMaxRowCol);
+        final String[] boards = builtInBoards();
+        final File text = File.createTempFile("boards", ".txt");
+        text.deleteOnExit();
+        new PuzzleGenerator(1).generate('E', kPackSize, text);
+        final File rated = File.createTempFile("boards", ".txt");
+        rated.deleteOnExit();
+        final File packed = File.createTempFile("boards", ".pack");
+        packed.deleteOnExit();
+
+        ArrayList<Case> cases = new ArrayList<Case>(Arrays.asList(new Case[] {
+            move(board, "up", 5, 5, BitBoard.kUp),
+            move(board, "down", 1, 1, BitBoard.kDown),
+            move(board, "left", 1, 5, BitBoard.kLeft),
+            move(board, "right", 5, 1, BitBoard.kRight),
+            new Case("newGame", 20000)
+            {
+                long run(int count)
+                {
+                    // Loads the same board again and again
+                    for (int in = 0; in < count; in++)
+                    {
+                        board.newGame(kBoard);
+                    }
+                    return board.getHash();
+                }
+            },
+            new Case("checkValid", 200000)
+            {
+                long run(int count)
+                {
+                    long valid = 0;
+                    // Checks the same board again and again
+                    for (int in = 0; in < count; in++)
+                    {
+                        valid += board.checkValid(kBoard) ? 1 : 0;
+                    }
+                    return valid;
+                }
+            },
+            new Case("clearTrails", 2000000)
+            {
+                long run(int count)
+                {
+                    // Lays a move's trail, then clears it
+                    for (int in = 0; in < count; in++)
+                    {
+                        trail.add(1, 2);
+                        trail.add(1, 3);
+                        trail.add(1, 4);
+                        trail.clear();
+                    }
+                    return trail.size();
+                }
+            },
+            new Case("printBoard", 100000)
+            {
+                long run(int count)
+                {
+                    long length = 0;
+                    // Prints the board, throwing the text away each time
+                    for (int in = 0; in < count; in++)
+                    {
+                        output.getBuffer().setLength(0);
+                        console.printBoard();
+                        length += output.getBuffer().length();
+                    }
+                    return length;
+                }
+            },
+            new Case("replay per move", kShuttleMoves * 1000)
+            {
+                long run(int count)
+                {
+                    long moves = 0;
+                    // Replays the long sequence, each op is one move
+                    for (int in = 0; in < count / kShuttleMoves; in++)
+                    {
+                        moves += replayer.replay(kShuttleBoard, shuttle)
+                            .getMoveCount();
+                    }
+                    return moves;
+                }
+            },
+            new Case("replay 14D22D32R", 1000000)
+            {
+                long run(int count)
+                {
+                    long won = 0;
+                    // Replays a short win, parsing the board each time
+                    for (int in = 0; in < count; in++)
+                    {
+                        won += replayer.replay("22R 14 31 42 44 55", "14D22D32R")
+                            .isWon() ? 1 : 0;
+                    }
+                    return won;
+                }
+            },
+            new Case("HallOfFame save", 2000)
+            {
+                long run(int count)
+                {
+                    // Saves one entry at a time, as a win does
+                    for (int in = 0; in < count; in++)
+                    {
+                        savedHall.addEntry(entry);
+                    }
+                    return savedHall.getHallOfFamers().size();
+                }
+            },
+            save("group 64", entry, HallOfFameWriter.kNoSync, 64, 20000),
+            save("group 64 fsync", entry, HallOfFameWriter.kGroupSync, 64,
+                20000),
+            save("each fsync", entry, HallOfFameWriter.kEntrySync, 1, 500),
+            new Case("HallOfFame best " + HallOfFameDialog.kShown + " of "
+                + kIndexSize, 200000)
+            {
+                long run(int count)
+                {
+                    long moves = 0;
+                    // Asks for each board's best in turn
+                    for (int in = 0; in < count; in++)
+                    {
+                        moves += (Integer) index.getBest(1 + in % kIndexBoards,
+                            HallOfFameDialog.kShown).get(0)[3];
+                    }
+                    return moves;
+                }
+            },
+            new Case("HallOfFame load " + kHallSize, 100)
+            {
+                long run(int count)
+                {
+                    long size = 0;
+                    // Reads the whole file each time
+                    for (int in = 0; in < count; in++)
+                    {
+                        size += new HallOfFame(loaded).getHallOfFamers().size();
+                    }
+                    return size;
+                }
+            },
+            publish(),
+            notifyObservers(),
+            trail(7, true),
+            trail(7, false),
+            trail(63, true),
+            trail(63, false),
+            solve("bfs", new BoardSolver(engine), boards),
+            solve("both ways", new BidirectionalSolver(engine), boards),
+            solve("ida*", new IdaStarSolver(engine, null,
+                IdaStarSolver.kDefaultTableSize), boards),
+            solve("ida*+pdb", new IdaStarSolver(engine,
+                new PatternDatabase(engine), IdaStarSolver.kDefaultTableSize),
+                boards),
+            new Case("generate E board", kPackSize)
+            {
+                long run(int count) throws IOException
+                {
+                    StringWriter pack = new StringWriter();
+                    return new PuzzleGenerator(1).generate('E', count, pack);
+                }
+            },
+            new Case("rate pack board", kPackSize)
+            {
+                long run(int count) throws IOException
+                {
+                    // A new rater, so nothing is cached
+                    return new DifficultyRater(engine).ratePack(text, rated);
+                }
+            },
+            new Case("convert pack board", kPackSize)
+            {
+                long run(int count) throws IOException
+                {
+                    return BoardPack.convert(text, packed, engine);
+                }
+            },
+        }));
+        ArrayList<ParallelBoardSolver> parallel =
+            new ArrayList<ParallelBoardSolver>();
+        int processors = Runtime.getRuntime().availableProcessors();
+        // The same boards on twice the threads each time
+        for (int threads = 1; threads <= processors; threads *= 2)
+        {
+            ParallelBoardSolver solver = new ParallelBoardSolver(engine,
+                threads);
+            parallel.add(solver);
+            cases.add(solve("parallel " + threads + " thread(s)", solver,
+                boards));
+        }
+        long sink = 0;
+        // Times every case in turn
+        for (Case bench : cases)
+        {
+            sink += time(bench, rounds);
+        }
+        // Lets the parallel solvers' threads stop
+        for (ParallelBoardSolver solver : parallel)
+        {
+            solver.shutdown();
+        }
+        // Keeps the work from being optimized away
+        if (sink == 42)
+        {
+            System.out.println();
+        }
+    }
+}
@@ -1,24 +1,28 @@
-import javax.swing.*;
-import javax.swing.table.*;
-import javax.swing.event.*;
 import java.util.*;
-import java.awt.*;
-import java.awt.event.*;
-import java.io.*;
-import java.net.*;
-import javax.imageio.ImageIO;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
 /**
  * GameBoard class represents the grid on 
  * which our roundup game will be played on. 
  * 
+ * The console and the Swing thread share one board. Every change is
+ * made on a single writer thread, one at a time, and ends by publishing
+ * a BoardSnapshot. The getters read the latest snapshot, so a view
+ * never locks the board and never sees a slide half done.
+ * 
+ * The board needs neither Swing nor AWT, so the console and the batch
+ * tools never load them. Directions are the engine's, BitBoard.kUp and
+ * so on; the views turn keys into them, and BoardTableModel shows the
+ * board to a JTable.
+ * 
  * @author Eric Tran 
  * @version 1
  */
-public class GameBoard extends Observable
+public class GameBoard
 {
     /**
-     * Represents red piece on the board.
+     * Represents red piece on the board, as BoardTableModel shows it.
      */
     public static final Object kRed = -1;
     
@@ -33,7 +37,8 @@ public class GameBoard extends Observable
     public static final Object kBlank = 0;
     
     /**
-     * Represents trail dot on the board.
+     * Represents trail dot on the board. The grid no longer holds
+     * trail dots, they are kept in the trail overlay, see isTrail.
      */
     public static final Object kTrail = 2;
     
@@ -42,21 +47,40 @@ public class GameBoard extends Observable
      */
     public static final int kMaxRowCol = 7;
 
+    /**
+     * Milliseconds the writer thread waits for work before it stops.
+     */
+    private static final long kWriterIdle = 1000;
+
     private BoardRegulator regulator;
-    private MyTable grid ;
-    private int moveCount;
+    private byte[][] cells;
+    private BitBoard engine;
+    private long position;
+    private long hash;
     private boolean loseFlag;
     private boolean winFlag;
-    private boolean aboutFlag;
-    private boolean hallFlag;
-    private boolean alreadySaved;
+    private volatile boolean aboutFlag;
+    private volatile boolean hallFlag;
+    private volatile boolean alreadySaved;
+    private BoardSnapshot savedWin;
     private boolean bothViewUp;
     private boolean consoleQuit;
     private int movedRow;
     private int movedCol; 
-    private int lastDir;
-    private ArrayList<String> moveSeqs;
+    private int boardNumber;
+    private String difficulty;
+    private volatile int lastDir;
+    private final MoveBuffer moveSeqs = new MoveBuffer();
+    private TrailOverlay trail;
+    private PieceIndex pieces;
+    private ArrayList<MoveDelta> journal;
+    private int journalTop;
     private HallOfFame hof;
+    private ListenerBus bus;
+    private final AtomicReference<BoardSnapshot> current =
+        new AtomicReference<BoardSnapshot>();
+    private final ThreadPoolExecutor writer;
+    private volatile Thread writerThread;
 
     
     /**
@@ -64,12 +88,24 @@ public class GameBoard extends Observable
      * @param bothView whether or not two views
      */
     public GameBoard(boolean bothView)
+    {
+        this(bothView, new HallOfFame());
+    }
+
+    /**
+     * Constructs a GameBoard that saves wins to a hall of fame.
+     * @param bothView whether or not two views
+     * @param hof where wins are saved
+     */
+    public GameBoard(boolean bothView, HallOfFame hof)
     {
         regulator = new BoardRegulator();
-        grid = new MyTable(kMaxRowCol, kMaxRowCol);
-        moveSeqs = new ArrayList<String>();
+        cells = new byte[kMaxRowCol][kMaxRowCol];
+        engine = new BitBoard(kMaxRowCol);
+        journal = new ArrayList<MoveDelta>();
+        trail = new TrailOverlay(kMaxRowCol);
+        pieces = new PieceIndex(kMaxRowCol);
 
-        moveCount = 0;
         movedRow = -1;
         movedCol = -1;
         lastDir = -1;
@@ -80,21 +116,183 @@ public class GameBoard extends Observable
         alreadySaved = false;
         consoleQuit = false; 
         bothViewUp = bothView;
-        hof = new HallOfFame();
+        this.hof = hof;
+        bus = new ListenerBus();
+        writer = new ThreadPoolExecutor(1, 1, kWriterIdle, 
+            TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(),
+            new ThreadFactory()
+            {
+                public Thread newThread(Runnable run)
+                {
+                    Thread thread = new Thread(run, "board-writer");
+                    thread.setDaemon(true);
+                    writerThread = thread;
+                    return thread;
+                }
+            });
+        writer.allowCoreThreadTimeOut(true);
         newGame(regulator.getBoard());
     }
 
     /**
-     * Gets the grid.
-     * @return the abstract table model 
+     * Gets the board as it was after the last change. Everything read
+     * from one snapshot belongs together.
+     * @return the latest snapshot
+     */
+    public BoardSnapshot getSnapshot()
+    {
+        return current.get();
+    }
+
+    /**
+     * Publishes the working state as a new snapshot. Only the writer
+     * thread calls this, before it tells the listeners.
+     */
+    private void publish()
+    {
+        current.set(new BoardSnapshot(cells, trail.toArray(), 
+            pieces.toArray(), position, hash, engine, moveSeqs.share(),
+            moveSeqs.size(), winFlag, loseFlag,
+            movedRow, movedCol, journalTop > 0, journalTop < journal.size(),
+            boardNumber, difficulty));
+    }
+
+    /**
+     * Makes a change on the writer thread and waits for it, so changes
+     * from the console and the Swing thread are made one at a time.
+     * A listener that changes the board is already on the writer
+     * thread, so its change is made right away.
+     * @param change the change
+     * @return what the change returned
+     */
+    private <T> T write(Callable<T> change)
+    {
+        FutureTask<T> task = new FutureTask<T>(change);
+        // Already the writer
+        if (Thread.currentThread() == writerThread)
+        {
+            task.run();
+        }
+        else
+        {
+            writer.execute(task);
+        }
+        boolean interrupted = false;
+        try
+        {
+            // The change is made either way, so wait it out
+            while (true)
+            {
+                try
+                {
+                    return task.get();
+                }
+                catch (InterruptedException ex)
+                {
+                    interrupted = true;
+                }
+            }
+        }
+        catch (ExecutionException ex)
+        {
+            Throwable cause = ex.getCause();
+            // Pass on what the change threw
+            if (cause instanceof RuntimeException)
+            {
+                throw (RuntimeException) cause;
+            }
+            else if (cause instanceof Error)
+            {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+        finally
+        {
+            // Keep the interrupt for the caller
+            if (interrupted)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of rows and cols of the grid.
+     * @return the grid's width
      */
-    public MyTable getGrid()
+    public int getSize()
     {
-        return grid; 
+        return cells.length;
     }
 
     /**
-     * Gets the board regulator.
+     * Gets the engine that computes the slides.
+     * @return the bitboard engine
+     */
+    public BitBoard getEngine()
+    {
+        return engine;
+    }
+
+    /**
+     * Gets the current position packed by the engine.
+     * @return the packed position
+     */
+    public long getPosition()
+    {
+        return current.get().getPosition();
+    }
+
+    /**
+     * Gets the zobrist hash of the current position.
+     * @return the position's hash
+     */
+    public long getHash()
+    {
+        return current.get().getHash();
+    }
+
+    /**
+     * Suggests the next move, from the tablebase when it has been
+     * generated, otherwise by solving the position.
+     * @return the move in "32R" notation, or null if the game is over
+     * or can't be won
+     */
+    public String getHint()
+    {
+        BoardSnapshot snapshot = current.get();
+        long position = snapshot.getPosition();
+        // Nothing left to suggest
+        if (snapshot.getWinFlag() || snapshot.getLoseFlag())
+        {
+            return null;
+        }
+        Tablebase tablebase = Tablebase.getStandard();
+        // Looking it up is much cheaper than searching
+        if (tablebase != null && tablebase.covers(position))
+        {
+            int move = tablebase.bestMove(position);
+            // Can't be won
+            if (move == -1)
+            {
+                return null;
+            }
+            int cell = move / BitBoard.kNumDirs;
+            return BitBoard.moveName(engine.rowOf(cell), engine.colOf(cell),
+                move % BitBoard.kNumDirs);
+        }
+        BoardSolver solver = new BoardSolver(engine);
+        // Hints already worked out, this run or an earlier one, are reused
+        solver.setTable(TranspositionTable.getShared());
+        ArrayList<String> moves = solver.solve(position);
+        return moves == null ? null : moves.get(0);
+    }
+
+    /**
+     * Gets the board regulator. Only the writer thread changes it, so
+     * use newGame, nextGame or newCustomGame to pick another board, and
+     * read the board number and difficulty from a snapshot.
      * @return the board regulator
      */
     public BoardRegulator getRegulator()
@@ -108,7 +306,7 @@ public class GameBoard extends Observable
      */
     public int getMoveCount()
     {
-        return moveCount;
+        return current.get().getMoveCount();
     }
 
     /**
@@ -117,7 +315,7 @@ public class GameBoard extends Observable
      */
     public boolean getLoseFlag()
     {
-        return loseFlag; 
+        return current.get().getLoseFlag(); 
     }
 
     /**
@@ -126,7 +324,7 @@ public class GameBoard extends Observable
      */
     public boolean getWinFlag()
     {
-        return winFlag;
+        return current.get().getWinFlag();
     }
 
     /**
@@ -134,11 +332,13 @@ public class GameBoard extends Observable
      */
     private void resetWinLose()
     {
-        moveCount = 0;
         winFlag = false;
         loseFlag = false;
         alreadySaved = false;
-        moveSeqs = new ArrayList<String>();
+        moveSeqs.clear();
+        journal.clear();
+        journalTop = 0;
+        trail.clear();
     }
 
     /**
@@ -147,7 +347,7 @@ public class GameBoard extends Observable
      */
     public int getLastMovedRow()
     {
-        return movedRow;
+        return current.get().getLastMovedRow();
     }
 
     /**
@@ -156,7 +356,7 @@ public class GameBoard extends Observable
      */
     public int getLastMovedCol()
     {
-        return movedCol;
+        return current.get().getLastMovedCol();
     }
 
     /**
@@ -164,22 +364,30 @@ public class GameBoard extends Observable
      */
     public void resetMovedRowCol()
     {
-        movedRow = -1;
-        movedCol = -1;
+        write(new Callable<Void>()
+        {
+            public Void call()
+            {
+                movedRow = -1;
+                movedCol = -1;
+                publish();
+                return null;
+            }
+        });
     }
 
     /**
      * Stores the last moved direction.
-     * @param code the direction to be saved
+     * @param dir the direction to be saved, e.g. BitBoard.kUp
      */
-    public void setLastDir(int code)
+    public void setLastDir(int dir)
     {
-        lastDir = code; 
+        lastDir = dir; 
     }
 
     /**
      * Gets the last moved direction.
-     * @return last move direction
+     * @return last move direction, e.g. BitBoard.kUp, or -1
      */
     public int getLastDir()
     {
@@ -188,11 +396,11 @@ public class GameBoard extends Observable
 
     /**
      * Gets the move sequence used currently.
-     * @return list of moves
+     * @return a copy of the list of moves
      */
     public ArrayList<String> getMoves()
     {
-        return moveSeqs;
+        return current.get().getMoves();
     }
 
     /**
@@ -247,11 +455,17 @@ public class GameBoard extends Observable
      * Sets the aboutFlag.
      * @param flag new flag to set to 
      */
-    public void setAboutFlag(boolean flag)
+    public void setAboutFlag(final boolean flag)
     {
-        aboutFlag = flag;
-        setChanged();
-        notifyObservers();
+        write(new Callable<Void>()
+        {
+            public Void call()
+            {
+                aboutFlag = flag;
+                fire(BoardEvent.kDialogRequested, new int[0]);
+                return null;
+            }
+        });
     }
     
     /**
@@ -259,15 +473,21 @@ public class GameBoard extends Observable
      * @param flag new flag to set to 
      */
     
-    public void setHallFlag(boolean flag)
+    public void setHallFlag(final boolean flag)
     {
-        hallFlag = flag;
-        setChanged();
-        notifyObservers();
+        write(new Callable<Void>()
+        {
+            public Void call()
+            {
+                hallFlag = flag;
+                fire(BoardEvent.kDialogRequested, new int[0]);
+                return null;
+            }
+        });
     }
         
     /**
-     * Sets the aboutFlag without notifying the observers.
+     * Sets the aboutFlag without notifying the listeners.
      * @param flag new flag to set to 
      */
     public void setAboutFlagWithoutNotifying(boolean flag)
@@ -276,7 +496,7 @@ public class GameBoard extends Observable
     }
     
     /**
-     * Sets the hallFlag without notifying observers.
+     * Sets the hallFlag without notifying listeners.
      * @param flag new flag to set to 
      * 
      */
@@ -286,16 +506,35 @@ public class GameBoard extends Observable
     }
     
     /**
-     * Adds a new entry into the HallOfFame.
-     * @param moves the winning seqence to add to hall 
+     * Adds a won game into the HallOfFame. The entry is made from the
+     * snapshot the win was shown with, so it is right even if the
+     * board has moved on since.
+     * @param won the board when the game was won
+     * @return whether it was added, false if it isn't a win or was
+     * already added
      */
-    public void addEntryToHallOfFame(StringBuilder moves)
+    public boolean addEntryToHallOfFame(final BoardSnapshot won)
     {
-        alreadySaved = true;
-        Object[] entry = hof.buildEntry(regulator.getBoardNumber(), 
-                regulator.getBoardDifficulty(), "0:00:00", 
-                getMoveCount(), moves.toString());
-        hof.addEntry(entry);
+        return write(new Callable<Boolean>()
+        {
+            public Boolean call()
+            {
+                // Only a win, and only once
+                if (!won.getWinFlag() || won == savedWin)
+                {
+                    return false;
+                }
+                savedWin = won;
+                alreadySaved = true;
+                StringBuilder moves = new StringBuilder();
+                won.appendMoves(moves);
+                Object[] entry = hof.buildEntry(won.getBoardNumber(), 
+                        won.getDifficulty(), "0:00:00", 
+                        won.getMoveCount(), moves.toString());
+                hof.addEntry(entry);
+                return true;
+            }
+        });
     }
     
     /**
@@ -359,7 +598,7 @@ public class GameBoard extends Observable
                         input.substring(0, 1));
         int coordY = Integer.parseInt(
                         input.substring(1, 2));
-        int max = grid.getRowCount() - 2;
+        int max = cells.length - 2;
         // Checks if the number is within the bounds 
         if (coordX < 1 || coordX > max || 
             coordY < 1 || coordY > max)
@@ -439,12 +678,12 @@ public class GameBoard extends Observable
         boolean inRightPlaceR = true;
 
         // Makes sure 6 coordinates are entered. 
-        if (tokens.countTokens() == grid.getRowCount() - 1) 
+        if (tokens.countTokens() == cells.length - 1) 
         {
             splited = new String[tokens.countTokens()];
             int coordX = -1;
             int coordY = -1;
-            int max = grid.getRowCount()-2;
+            int max = cells.length-2;
             int maxChar = "abc".length();
             int index = 0;
             sixCoords = true;
@@ -476,368 +715,556 @@ public class GameBoard extends Observable
      */
     private void clearBoard() 
     {
-        // Goes through rows
-        for (int row = 0; row < grid.getRowCount(); row++)
+        // Goes through the robots, the rest of the grid is already blank
+        for (int in = 0; in < pieces.size(); in++)
         {
-            //Goes through cols
-            for (int col = 0; col < grid.getColumnCount(); col++)
-            {
-                grid.setSpace(row, col, kBlank);
-            }
+            int cell = pieces.get(in);
+            setCell(cell / kMaxRowCol, cell % kMaxRowCol, Cell.kEmpty);
         }
+        pieces.clear();
     }
 
     /**
      * Start a new game by putting new values in the board.
      * @param board new board to be changed to 
      */
-    public void newGame(String board)
+    public void newGame(final String board)
     {
-        clearBoard();
-        resetWinLose();
-        Scanner scanner = new Scanner(board);
-        String location = "";
-        int locationX = 0;
-        int locationY = 0;
-        // Goes through the string 
-        while (scanner.hasNext())
-        {
-            location = scanner.next();
-            locationX = Integer.parseInt(location.substring(0, 1));
-            locationY = Integer.parseInt(location.substring(1, 2));
-            // If there is an R, means red
-            if (location.contains("R") || location.contains("r"))
+        write(new Callable<Void>()
+        {
+            public Void call()
             {
-                grid.setSpace(locationX, locationY, kRed);
+                loadGame(board);
+                return null;
             }
-            // It is green
-            else 
+        });
+    }
+
+    /**
+     * Plays the regulator's current board again from the start.
+     * @return the snapshot of the board as loaded
+     */
+    public BoardSnapshot restartGame()
+    {
+        return write(new Callable<BoardSnapshot>()
+        {
+            public BoardSnapshot call()
             {
-                grid.setSpace(locationX, locationY, kGreen);
+                loadGame(regulator.getBoard());
+                return current.get();
             }
-        }
-        setChanged();
-        notifyObservers();
+        });
     }
 
     /**
-     * Clears the previous trail to blanks.
+     * Starts a game of a board of the regulator, picking the board and
+     * loading it as one change so no other change comes in between.
+     * @param boardNumber the board number, from 1
+     * @return the snapshot of the board as loaded
      */
-    private void clearTrails()
+    public BoardSnapshot newGame(final int boardNumber)
     {
-        // Goes through rows
-        for (int row = 0; row < grid.getRowCount(); row++)
+        return write(new Callable<BoardSnapshot>()
         {
-            // Goes through cols 
-            for (int col = 0; col < grid.getColumnCount(); col++)
+            public BoardSnapshot call()
             {
-                // If current square is a trail, remove it
-                if (grid.getValueAt(row, col).toString().equals("piecedot") ||
-                    grid.getValueAt(row, col).equals(GameBoard.kTrail))
-                {
-                    grid.setSpace(row, col, kBlank);
-                }
+                regulator.setBoard(boardNumber);
+                loadGame(regulator.getBoard());
+                return current.get();
+            }
+        });
+    }
+
+    /**
+     * Starts a game of the regulator's next board, looping back to
+     * board 1 after the last.
+     * @return the snapshot of the board as loaded
+     */
+    public BoardSnapshot nextGame()
+    {
+        return write(new Callable<BoardSnapshot>()
+        {
+            public BoardSnapshot call()
+            {
+                regulator.nextBoard();
+                loadGame(regulator.getBoard());
+                return current.get();
+            }
+        });
+    }
+
+    /**
+     * Starts a game of a custom board, numbered 0.
+     * @param board the board, already validated with checkValid
+     * @return the snapshot of the board as loaded
+     */
+    public BoardSnapshot newCustomGame(final String board)
+    {
+        return write(new Callable<BoardSnapshot>()
+        {
+            public BoardSnapshot call()
+            {
+                regulator.setCustom(board);
+                loadGame(board);
+                return current.get();
             }
+        });
+    }
+
+    /**
+     * Puts a new board on the grid, on the writer thread.
+     * @param board new board to be changed to 
+     */
+    private void loadGame(String board)
+    {
+        clearBoard();
+        resetWinLose();
+        boardNumber = regulator.getBoardNumber();
+        difficulty = regulator.getBoardDifficulty();
+        position = engine.parse(board);
+        hash = Zobrist.hash(position);
+        long robots = BitBoard.occupied(position);
+        int red = BitBoard.redCell(position);
+        // Goes through the robots the engine found
+        while (robots != 0)
+        {
+            int cell = Long.numberOfTrailingZeros(robots);
+            robots &= robots - 1;
+            setCell(engine.rowOf(cell), engine.colOf(cell),
+                Cell.robot(cell == red, BitBoard.kUp));
+            pieces.add(engine.rowOf(cell), engine.colOf(cell), cell == red);
         }
+        publish();
+        fire(BoardEvent.kBoardLoaded, pieces.toArray());
+    }
+
+    /**
+     * Clears the previous trail.
+     */
+    private void clearTrails()
+    {
+        trail.clear();
+    }
+
+    /**
+     * Checks whether a cell has a dot from the last move's trail.
+     * @param row the x coord
+     * @param col the y coord
+     * @return whether the cell is on the trail
+     */
+    public boolean isTrail(int row, int col)
+    {
+        return current.get().isTrail(row, col);
+    }
+
+    /**
+     * Gets the cells of the last move's trail.
+     * @return the cells, each as row * kMaxRowCol + col
+     */
+    public int[] getTrail()
+    {
+        return current.get().getTrail();
+    }
+
+    /**
+     * Gets where every robot stands.
+     * @return the cells, red first, each as row * kMaxRowCol + col
+     */
+    public int[] getPieces()
+    {
+        return current.get().getPieces();
+    }
+
+    /**
+     * Adds a view to be told whenever the board changes.
+     * @param listener the view
+     * @param delivery how it is called, ListenerBus.kSync or kBackground
+     */
+    public void addListener(BoardListener listener, int delivery)
+    {
+        bus.add(listener, delivery);
+    }
+
+    /**
+     * Stops telling a view about changes.
+     * @param listener the view
+     * @return whether it was listening
+     */
+    public boolean removeListener(BoardListener listener)
+    {
+        return bus.remove(listener);
+    }
+
+    /**
+     * Tells the listeners what changed, handing them the snapshot
+     * just published.
+     * @param kind what happened, e.g. BoardEvent.kPieceMoved
+     * @param cells the cells that changed
+     */
+    private void fire(int kind, int[] cells)
+    {
+        bus.publish(new BoardEvent(kind, cells, current.get()));
     }
 
     /**
      * Checks at the end of each move, if user has won the game.
-     * @param movedPiece the gamePiece to be analyzed
+     * @param movedPiece the cell of the moved robot
      */
-    private void checkWinGame(Object movedPiece)
+    private void checkWinGame(int movedPiece)
     {
-        int winSpot = "abc".length(); 
         // If piece is the red robot
-        if (movedPiece.equals(kRed))
+        if (Cell.isRed(movedPiece))
         { 
+            int center = engine.getCenter();
             // Check if the middle red square has the red robot
-            if (grid.getValueAt(winSpot, winSpot).equals(kRed)) 
+            if (pieces.getRed() == engine.rowOf(center) * kMaxRowCol 
+                + engine.colOf(center)) 
             {
                 winFlag = true;
             }
         }
-        setChanged();
-        notifyObservers(); 
     }
 
     /**
-     * Determines if the piece we're moving is red or green.
-     * @param row the x coord
-     * @param col the y coord
-     * @return the correct color piece at that location 
-     */
-    private Object selectRightPiece(int row, int col)
-    {
-        Object moveThisPiece = grid.getValueAt(row, col);
-        Object movedPiece;
-        // The piece is red 
-        if (moveThisPiece.toString().equals("red") || 
-            moveThisPiece.toString().equals("reddown") ||
-            moveThisPiece.toString().equals("redleft") || 
-            moveThisPiece.toString().equals("redright") ||
-            moveThisPiece.equals(GameBoard.kRed)) 
-        {   
-            movedPiece = kRed;
+     * Tells the listeners how a move ended.
+     * @param changed the cells the move changed
+     */
+    private void fireMoveEnded(int[] changed)
+    {
+        // Move ended the game one way or the other
+        if (winFlag)
+        {
+            fire(BoardEvent.kGameWon, changed);
         }
-        // The piece is green 
-        else 
+        else if (loseFlag)
+        {
+            fire(BoardEvent.kGameLost, changed);
+        }
+        else
         {
-            movedPiece = kGreen;
+            fire(BoardEvent.kPieceMoved, changed);
         }
-        return movedPiece;
     }
 
     /**
-     * Helps move the gamePiece to a location.
+     * Gets the piece we're moving, turned the way it moves.
      * @param row the x coord
-     * @param col the y coord 
-     * @param movedPiece the color to be moved
-     * @return the direction moved
+     * @param col the y coord
+     * @param dir the engine direction moved in
+     * @return the cell the piece will have when it stops
      */
-    private String moveDirectionDown(int row, int col, Object movedPiece)
+    private int selectRightPiece(int row, int col, int dir)
     {
-        int in = row;
-        // Go all the way up
-        while(in < grid.getRowCount() - 1 && 
-            grid.getValueAt(in + 1, col) == kBlank)
-        {
-            grid.setSpace(in, col, kTrail);
-            grid.setSpace(in + 1, col, movedPiece);
-            in++;
-        }
-        // If off board
-        if (in == grid.getRowCount() - 1) 
-        {
-            loseFlag = true;
-        }
-        movedRow = in;
-        movedCol = col;
-        return "D";
+        return Cell.face(cells[row][col], dir);
     }
-    
+
     /**
-     * Helps move the gamePiece to a location.
-     * @param row the x coord
-     * @param col the y coord 
-     * @param movedPiece the color to be moved
-     * @return the direction moved
+     * Copies a slide computed by the engine onto the grid,
+     * leaving a trail behind the moved piece.
+     * @param row the x coord the piece started on
+     * @param col the y coord the piece started on
+     * @param endRow the x coord the piece stopped on
+     * @param endCol the y coord the piece stopped on
+     * @param movedPiece the cell of the moved robot
      */
-    private String moveDirectionUp(int row, int col, Object movedPiece)
+    private void slideOnGrid(int row, int col, int endRow, int endCol,
+        int movedPiece)
     {
-        int in = row;
-        // Go all the way down
-        while (in > 0 && grid.getValueAt(in - 1, col) == kBlank)
-        {
-            grid.setSpace(in, col, kTrail);
-            grid.setSpace(in - 1, col, movedPiece);
-            in--;
-        }
-        // If off board
-        if (in == 0) 
+        int stepRow = Integer.signum(endRow - row);
+        int stepCol = Integer.signum(endCol - col);
+        pieces.move(row, col, endRow, endCol);
+        // Goes along the path, dropping the trail
+        while (row != endRow || col != endCol)
         {
-            loseFlag = true;
+            setCell(row, col, Cell.kEmpty);
+            trail.add(row, col);
+            row += stepRow;
+            col += stepCol;
         }
-        movedRow = in;
-        movedCol = col;
-        return "U";
+        setCell(endRow, endCol, movedPiece);
+        movedRow = endRow;
+        movedCol = endCol;
     }
-    
-     /**
-     * Helps move the gamePiece to a location.
+
+    /**
+     * Slides a piece all the way onto the border, which loses the game.
      * @param row the x coord
-     * @param col the y coord 
-     * @param movedPiece the color to be moved
-     * @return the direction moved
+     * @param col the y coord
+     * @param dir the engine direction moved in
+     * @param movedPiece the cell of the moved robot
      */
-    private String moveDirectionRight(int row, int col, Object movedPiece)
+    private void slideOffBoard(int row, int col, int dir, int movedPiece)
     {
-        int in = col;
-        // Go all the way right
-        while (in < grid.getColumnCount() - 1 && 
-             grid.getValueAt(row, in + 1) == kBlank)
+        int edge = cells.length - 1;
+        movedPiece = Cell.kill(movedPiece);
+        // Goes all the way up
+        if (dir == BitBoard.kUp)
         {
-            grid.setSpace(row, in, kTrail);
-            grid.setSpace(row, in + 1, movedPiece);
-            in++;
+            slideOnGrid(row, col, 0, col, movedPiece);
         }
-        // If off board
-        if (in == grid.getColumnCount() - 1) 
+        // Goes all the way down
+        else if (dir == BitBoard.kDown)
         {
-            loseFlag = true;
+            slideOnGrid(row, col, edge, col, movedPiece);
         }
-        movedRow = row;
-        movedCol = in;
-        return "R";
-    }
-
-    /**
-     * Helps move the gamePiece to a location.
-     * @param row the x coord
-     * @param col the y coord 
-     * @param movedPiece the color to be moved
-     * @return the direction moved
-     */
-    private String moveDirectionLeft(int row, int col, Object movedPiece)
-    {
-        int in = col;
-        // Go all the way left
-        while (in > 0 && grid.getValueAt(row, in - 1) == kBlank)
+        // Goes all the way left
+        else if (dir == BitBoard.kLeft)
         {
-            grid.setSpace(row, in, kTrail);
-            grid.setSpace(row, in - 1, movedPiece);
-            in--;
+            slideOnGrid(row, col, row, 0, movedPiece);
         }
-        // If off board
-        if (in == 0) 
+        // Goes all the way right
+        else 
         {
-            loseFlag = true;
+            slideOnGrid(row, col, row, edge, movedPiece);
         }
-        movedRow = row;
-        movedCol = in;
-        return "L";
+        loseFlag = true;
     }
-    
+
     /**
-     * Moves a gamepiece in the direction of keycode.
+     * Moves a gamepiece in a direction.
+     * Listeners are passed a BoardEvent naming the changed cells.
      * @param row the x coord
      * @param col the y coord
-     * @param keyCode the direction key entered
+     * @param dir the direction, BitBoard.kUp, kDown, kLeft or kRight
+     * @return whether the move was made
      */  
-    public void movePiece(int row, int col, int keyCode)
+    public boolean movePiece(final int row, final int col, final int dir)
     {
-        // If  game isn't won or lost yet 
-        if (!loseFlag && !winFlag)
+        return write(new Callable<Boolean>()
         {
-            clearTrails();
-            Object movedPiece = selectRightPiece(row, col);
-            String newMove = Integer.toString(row) + Integer.toString(col);
-            // If key entered was down or d
-            if (keyCode == KeyEvent.VK_DOWN || keyCode == KeyEvent.VK_D)
-            {
-                newMove += moveDirectionDown(row, col, movedPiece);
-            }
-            // If key entered was up or e
-            else if (keyCode == KeyEvent.VK_UP || keyCode == KeyEvent.VK_E)
-            {  
-                newMove += moveDirectionUp(row, col, movedPiece);
-            }
-            // If key entered was left or s
-            else if (keyCode == KeyEvent.VK_LEFT || keyCode == KeyEvent.VK_S)
+            public Boolean call()
             {
-                newMove += moveDirectionLeft(row, col, movedPiece);
+                // If game isn't won or lost yet, and a robot is moved a real way
+                if (!loseFlag && !winFlag && dir >= 0 && 
+                    dir < BitBoard.kNumDirs && engine.contains(row, col) &&
+                    BitBoard.isOccupied(position, engine.cellAt(row, col)))
+                {
+                    // A new move after an undo drops the moves undone
+                    if (journalTop < journal.size())
+                    {
+                        journal.subList(journalTop, journal.size()).clear();
+                    }
+                    makeMove(row, col, dir);
+                    return true;
+                }
+                return false;
             }
-            // If key entered was right or f
-            else if (keyCode == KeyEvent.VK_RIGHT || keyCode == KeyEvent.VK_F)
-            {
-                newMove += moveDirectionRight(row, col, movedPiece);
-            }    
-            moveSeqs.add(newMove);
-            grid.setCurRowCol(0, 0);
-            moveCount++;
-            checkWinGame(movedPiece);
-        }
+        });
     }
 
     /**
-     * Inner class representing the underlying grid of the board. 
+     * Makes a move that is known to be allowed, and logs what it changed
+     * in the journal at journalTop. A move being redone is already there,
+     * so its entry is replaced rather than inserted.
+     * @param row the x coord
+     * @param col the y coord
+     * @param dir the engine direction
      */
-    class MyTable extends AbstractTableModel
+    private void makeMove(int row, int col, int dir)
     {
-        private Object[][] absTable;
-        private String[] columns = {"", "", "", "", "", "", "", };
-        private int curRow;
-        private int curCol; 
-       
-        /**
-         * Default constructor of the grid. 
-         */
-        public MyTable(int rows, int cols)
+        MoveDelta delta = new MoveDelta();
+        delta.fromRow = row;
+        delta.fromCol = col;
+        delta.dir = dir;
+        delta.position = position;
+        delta.hash = hash;
+        delta.trailBefore = trail.toArray();
+        delta.piece = cells[row][col];
+        clearTrails();
+        int movedPiece = selectRightPiece(row, col, dir);
+        int from = engine.cellAt(row, col);
+        int to = engine.slide(position, from, dir);
+        // Walked off the board, so it ends up on the border
+        if (to == BitBoard.kOffBoard)
         {
-            absTable = new Object[rows][cols];
-            curRow = 0;
-            curCol = 0; 
+            slideOffBoard(row, col, dir, movedPiece);
         }
-        
-        /**
-         * Sets the current row and col. 
-         */
-        public void setCurRowCol(int row, int col)
+        // Stopped by another robot
+        else
         {
-            curRow = row;
-            curCol = col;
+            hash = Zobrist.slide(hash, from, to, Cell.isRed(movedPiece));
+            position = BitBoard.move(position, from, to);
+            slideOnGrid(row, col, engine.rowOf(to), engine.colOf(to),
+                movedPiece);
         }
-
-        /**
-         * Gets the current row.
-         */
-        public int getCurRow()
+        delta.toRow = movedRow;
+        delta.toCol = movedCol;
+        moveSeqs.add(MoveBuffer.encode(from, dir));
+        // The next move after the journal's end
+        if (journalTop == journal.size())
         {
-            return curRow;
+            journal.add(delta);
         }
-
-        /**
-         * Gets the current col.
-         */
-        public int getCurCol()
+        // Redoing the move kept at journalTop
+        else
         {
-            return curCol;
+            journal.set(journalTop, delta);
         }
-
-        /**
-         * Sets the current row and col in the grid to a desired state. 
-         */
-        public void setSpace(int row, int col, Object state)
+        journalTop++;
+        checkWinGame(movedPiece);
+        publish();
+        // The dots of the move before are gone
+        if (delta.trailBefore.length > 0)
         {
-            absTable[row][col] = state;
+            fire(BoardEvent.kTrailCleared, delta.trailBefore);
         }
+        fireMoveEnded(movedCells(delta));
+    }
 
-        /**
-         * Gets the 2d grid. 
-         */
-        public Object[][] getTable()
+    /**
+     * Takes back the last move, putting the robot and the trail
+     * before it back where they were.
+     * @return whether there was a move to take back
+     */
+    public boolean undo()
+    {
+        return write(new Callable<Boolean>()
         {
-            return absTable;
-        }
+            public Boolean call()
+            {
+                // Nothing to take back
+                if (journalTop == 0)
+                {
+                    return false;
+                }
+                MoveDelta delta = journal.get(--journalTop);
+                setCell(delta.toRow, delta.toCol, Cell.kEmpty);
+                setCell(delta.fromRow, delta.fromCol, delta.piece);
+                pieces.move(delta.toRow, delta.toCol, delta.fromRow, 
+                    delta.fromCol);
+                trail.set(delta.trailBefore);
+                position = delta.position;
+                hash = delta.hash;
+                winFlag = false;
+                loseFlag = false;
+                moveSeqs.removeLast();
+                movedRow = -1;
+                movedCol = -1;
+                publish();
+                fire(BoardEvent.kPieceMoved, changedCells(delta));
+                return true;
+            }
+        });
+    }
 
-        /**
-         * Gets the columns.
-         */
-        public String[] getColumns()
+    /**
+     * Makes the last move taken back again.
+     * @return whether there was a move to make again
+     */
+    public boolean redo()
+    {
+        return write(new Callable<Boolean>()
         {
-            return columns;
-        }
+            public Boolean call()
+            {
+                // Nothing was taken back
+                if (journalTop == journal.size())
+                {
+                    return false;
+                }
+                MoveDelta delta = journal.get(journalTop);
+                lastDir = delta.dir;
+                makeMove(delta.fromRow, delta.fromCol, delta.dir);
+                return true;
+            }
+        });
+    }
 
-        /**
-         * Gets the Object at a certain row, col. 
-         */
-        public Object getValueAt(int rowIndex, int columnIndex)
-        {
-            return absTable[rowIndex][columnIndex];
-        }
+    /**
+     * Checks whether there is a move to take back.
+     * @return whether undo would do anything
+     */
+    public boolean canUndo()
+    {
+        return current.get().canUndo();
+    }
 
-        /**
-         * Gets the column name at an index. 
-         */
-        public String getColumnName(int columnIndex)
-        {
-            return columns[columnIndex];
-        }
+    /**
+     * Checks whether there is a taken back move to make again.
+     * @return whether redo would do anything
+     */
+    public boolean canRedo()
+    {
+        return current.get().canRedo();
+    }
 
-        /**
-         * Gets the number of columns. 
-         */
-        public int getColumnCount()
+    /**
+     * Lists the cells a move left its trail on.
+     * @param delta the move
+     * @return the cells from where it started up to where it stopped,
+     * each as row * kMaxRowCol + col
+     */
+    private int[] pathOf(MoveDelta delta)
+    {
+        int length = Math.abs(delta.toRow - delta.fromRow) 
+            + Math.abs(delta.toCol - delta.fromCol);
+        int stepRow = Integer.signum(delta.toRow - delta.fromRow);
+        int stepCol = Integer.signum(delta.toCol - delta.fromCol);
+        int[] path = new int[length];
+        // Goes along the path
+        for (int in = 0; in < length; in++)
         {
-            return columns.length;
+            path[in] = (delta.fromRow + stepRow * in) * kMaxRowCol 
+                + delta.fromCol + stepCol * in;
         }
+        return path;
+    }
 
-        /**
-         * Gets the numner of rows. 
-         */
-        public int getRowCount()
-        {
-            return absTable.length;
-        }
+    /**
+     * Lists the cells a move's robot went over: its trail and where
+     * it stopped.
+     * @param delta the move
+     * @return the cells, each as row * kMaxRowCol + col
+     */
+    private int[] movedCells(MoveDelta delta)
+    {
+        int[] path = pathOf(delta);
+        int[] moved = Arrays.copyOf(path, path.length + 1);
+        moved[path.length] = delta.toRow * kMaxRowCol + delta.toCol;
+        return moved;
+    }
+
+    /**
+     * Lists every cell a move changed: the old trail, the new trail
+     * and where the robot stopped.
+     * @param delta the move
+     * @return the cells, each as row * kMaxRowCol + col
+     */
+    private int[] changedCells(MoveDelta delta)
+    {
+        int[] moved = movedCells(delta);
+        int[] changed = Arrays.copyOf(moved, 
+            moved.length + delta.trailBefore.length);
+        System.arraycopy(delta.trailBefore, 0, changed, moved.length,
+            delta.trailBefore.length);
+        return changed;
+    }
+
+    /**
+     * Sets a row and col in the grid to a cell, on the writer thread.
+     * @param row the x coord
+     * @param col the y coord
+     * @param cell the Cell
+     */
+    private void setCell(int row, int col, int cell)
+    {
+        cells[row][col] = (byte) cell;
+    }
+
+    /**
+     * Inner class holding what a move changed, so it can be undone
+     * without rebuilding the board.
+     */
+    private static class MoveDelta
+    {
+        private int fromRow;
+        private int fromCol;
+        private int toRow;
+        private int toCol;
+        private int dir;
+        private int piece;
+        private long position;
+        private long hash;
+        private int[] trailBefore;
     }
 }
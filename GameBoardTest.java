@@ -21,7 +21,7 @@ public class GameBoardTest extends junit.framework.TestCase
     public void testInitGetters()
     {
         GameBoard board = new GameBoard(true);
-        GameBoard.MyTable grid = board.getGrid();
+        BoardTableModel grid = new BoardTableModel(board);
         BoardRegulator regulator = board.getRegulator();
         HallOfFame hof = board.getHallOfFame();
         int moveCount = board.getMoveCount();
@@ -91,7 +91,7 @@ public class GameBoardTest extends junit.framework.TestCase
     {
         GameBoard board = new GameBoard(true);
         String valid = "11 12 13 14 15 25R";
-        GameBoard.MyTable grid = board.getGrid();
+        BoardTableModel grid = new BoardTableModel(board);
         
         // Original game 1 board
         assertEquals("Green ", GameBoard.kGreen, grid.getValueAt(1, 1));
@@ -123,71 +123,79 @@ public class GameBoardTest extends junit.framework.TestCase
     {
         GameBoard board = new GameBoard(true);
         String valid = "11 12 13 14 15 25R";
-        GameBoard.MyTable grid = board.getGrid();
+        BoardTableModel grid = new BoardTableModel(board);
         
         // test move right
         assertEquals("Red piece here", 
             GameBoard.kRed, grid.getValueAt(3, 2));
         
-        board.movePiece(3, 2, KeyEvent.VK_RIGHT);
+        board.movePiece(3, 2, BitBoard.kRight);
         board = new GameBoard(true);  
-        grid = board.getGrid();
-        board.movePiece(3, 2, KeyEvent.VK_F);
+        grid = new BoardTableModel(board);
+        board.movePiece(3, 2, RoundUpGUI.directionOf(KeyEvent.VK_F));
         assertEquals(
-            "Red piece gone from prev spot, replace by trail", 
-                GameBoard.kTrail, grid.getValueAt(3, 2));
+            "Red piece gone from prev spot", 
+                GameBoard.kBlank, grid.getValueAt(3, 2));
+        assertTrue(
+            "Prev spot is on the trail", board.isTrail(3, 2));
         assertEquals(
             "Red piece moved to the right by 1", 
                 GameBoard.kRed, grid.getValueAt(3, 3));
         
         board = new GameBoard(true);      
-        grid = board.getGrid();
+        grid = new BoardTableModel(board);
         // test move down        
         assertEquals("Red piece here", 
         GameBoard.kRed, grid.getValueAt(3, 2));
         
-        board.movePiece(3, 2, KeyEvent.VK_DOWN);
+        board.movePiece(3, 2, BitBoard.kDown);
         board = new GameBoard(true);  
-        grid = board.getGrid();
-        board.movePiece(3, 2, KeyEvent.VK_D);
+        grid = new BoardTableModel(board);
+        board.movePiece(3, 2, RoundUpGUI.directionOf(KeyEvent.VK_D));
         assertEquals(
-            "Red piece gone from prev spot, replace by trail", 
-                GameBoard.kTrail, grid.getValueAt(3, 2));
+            "Red piece gone from prev spot", 
+                GameBoard.kBlank, grid.getValueAt(3, 2));
+        assertTrue(
+            "Prev spot is on the trail", board.isTrail(3, 2));
         assertEquals(
             "Red piece moved to the down", 
                 GameBoard.kRed, grid.getValueAt(6, 2));
                 
         board = new GameBoard(true);   
-        grid = board.getGrid();
+        grid = new BoardTableModel(board);
         // test move left        
         assertEquals("Red piece here", 
         GameBoard.kRed, grid.getValueAt(3, 2));
         
-        board.movePiece(3, 2, KeyEvent.VK_LEFT);
+        board.movePiece(3, 2, BitBoard.kLeft);
         board = new GameBoard(true);  
-        grid = board.getGrid();
-        board.movePiece(3, 2, KeyEvent.VK_S);
+        grid = new BoardTableModel(board);
+        board.movePiece(3, 2, RoundUpGUI.directionOf(KeyEvent.VK_S));
         assertEquals(
-            "Red piece gone from prev spot, replace by trail", 
-                GameBoard.kTrail, grid.getValueAt(3, 2));
+            "Red piece gone from prev spot", 
+                GameBoard.kBlank, grid.getValueAt(3, 2));
+        assertTrue(
+            "Prev spot is on the trail", board.isTrail(3, 2));
         assertEquals(
             "Red piece moved to the left", 
                 GameBoard.kRed, grid.getValueAt(3, 0));
                 
         board = new GameBoard(true);  
-        grid = board.getGrid();
+        grid = new BoardTableModel(board);
         // test move up     
         assertEquals("Red piece here", 
         GameBoard.kRed, grid.getValueAt(3, 2));
         
-        board.movePiece(3, 2, KeyEvent.VK_UP);
+        board.movePiece(3, 2, BitBoard.kUp);
         board = new GameBoard(true);  
-        grid = board.getGrid();
-        board.movePiece(3, 2, KeyEvent.VK_E);
+        grid = new BoardTableModel(board);
+        board.movePiece(3, 2, RoundUpGUI.directionOf(KeyEvent.VK_E));
         
         assertEquals(
-            "Red piece gone from prev spot, replace by trail", 
-                GameBoard.kTrail, grid.getValueAt(3, 2));
+            "Red piece gone from prev spot", 
+                GameBoard.kBlank, grid.getValueAt(3, 2));
+        assertTrue(
+            "Prev spot is on the trail", board.isTrail(3, 2));
         assertEquals(
             "Red piece moved to the up", 
                 GameBoard.kRed, grid.getValueAt(0, 2));        
@@ -199,9 +207,120 @@ public class GameBoardTest extends junit.framework.TestCase
     public void testAddEntryToHall()
     {
         GameBoard board = new GameBoard(true);
-        StringBuilder string = new StringBuilder();
-        string.append("32R");
-        board.addEntryToHallOfFame(string);
+        assertFalse("Not won", board.addEntryToHallOfFame(board.getSnapshot()));
+        board.movePiece(3, 2, BitBoard.kRight);
+        BoardSnapshot won = board.getSnapshot();
+        int size = board.getHallOfFame().getHallOfFamers().size();
+        board.newGame("11 15 32R 34 51 55");
+        assertTrue("Saved after the restart", board.addEntryToHallOfFame(won));
+        assertFalse("Only once", board.addEntryToHallOfFame(won));
+        ArrayList<Object[]> entries = board.getHallOfFame().getHallOfFamers();
+        assertEquals("One added", size + 1, entries.size());
+        assertEquals("The won moves", "32R", entries.get(size)[4]);
+        assertEquals("Move count", 1, entries.get(size)[3]);
+    }
+
+    /**
+     * Copies the grid so it can be compared later.
+     * @param board the board to copy
+     * @return the values of every cell
+     */
+    private int[][] copyGrid(GameBoard board)
+    {
+        BoardSnapshot grid = board.getSnapshot();
+        int[][] copy = new int[grid.getWidth()][grid.getWidth()];
+        for (int row = 0; row < copy.length; row++)
+        {
+            for (int col = 0; col < copy[row].length; col++)
+            {
+                copy[row][col] = grid.getCell(row, col);
+            }
+        }
+        return copy;
     }
-}
 
+    /**
+     * Tests taking moves back and making them again.
+     */
+    @Test
+    public void testUndoRedo()
+    {
+        GameBoard board = new GameBoard(true);
+        board.newGame("22R 14 31 42 44 55");
+        final ArrayList<Object> changes = new ArrayList<Object>();
+        board.addListener(new BoardListener()
+        {
+            public void boardChanged(BoardEvent changed)
+            {
+                changes.add(changed);
+            }
+        }, ListenerBus.kSync);
+        int[][] start = copyGrid(board);
+        long startHash = board.getHash();
+        assertFalse("Nothing to undo", board.undo());
+
+        board.movePiece(1, 4, BitBoard.kDown);
+        int[][] first = copyGrid(board);
+        board.movePiece(2, 2, BitBoard.kDown);
+        int[][] second = copyGrid(board);
+        assertEquals("Moves", "[14D, 22D]", board.getMoves().toString());
+
+        assertTrue("Undo second", board.undo());
+        assertTrue("Back to first", Arrays.deepEquals(first, copyGrid(board)));
+        assertEquals("One move", 1, board.getMoveCount());
+        assertEquals("Moves", "[14D]", board.getMoves().toString());
+        BoardEvent event = (BoardEvent) changes.get(changes.size() - 1);
+        assertEquals("Undo moves a piece", BoardEvent.kPieceMoved,
+            event.getKind());
+        assertEquals("Only the cells that changed", 4, event.getCells().length);
+
+        assertTrue("Undo first", board.undo());
+        assertTrue("Back to start", Arrays.deepEquals(start, copyGrid(board)));
+        assertEquals("Same hash", startHash, board.getHash());
+        assertEquals("No moves", 0, board.getMoveCount());
+        assertTrue("Can redo", board.canRedo());
+
+        assertTrue("Redo first", board.redo());
+        assertTrue("Redo second", board.redo());
+        assertFalse("Nothing more to redo", board.redo());
+        assertTrue("Same as before", Arrays.deepEquals(second, copyGrid(board)));
+        assertEquals("Moves", "[14D, 22D]", board.getMoves().toString());
+        board.undo();
+        board.undo();
+        assertTrue("Redo first again", board.redo());
+        assertTrue("Second still kept", board.canRedo());
+        assertTrue("Redo second again", board.redo());
+        assertTrue("Same again", Arrays.deepEquals(second, copyGrid(board)));
+
+        changes.clear();
+        board.movePiece(3, 2, BitBoard.kRight);
+        assertTrue("Won", board.getWinFlag());
+        assertEquals("Old dots then the win", "[TrailCleared(1), GameWon(2)]",
+            changes.toString());
+        board.undo();
+        assertFalse("Not won anymore", board.getWinFlag());
+        board.undo();
+        board.movePiece(3, 1, BitBoard.kRight);
+        assertFalse("New move drops the redo", board.canRedo());
+
+        board.newGame("11 15 32R 34 51 55");
+        start = copyGrid(board);
+        changes.clear();
+        board.movePiece(3, 2, BitBoard.kLeft);
+        assertTrue("Lost", board.getLoseFlag());
+        assertEquals("Lost with no dots before", "[GameLost(3)]",
+            changes.toString());
+        board.undo();
+        assertFalse("Not lost anymore", board.getLoseFlag());
+        assertTrue("Back to start", Arrays.deepEquals(start, copyGrid(board)));
+        assertFalse("New game clears the journal", board.canUndo());
+
+        changes.clear();
+        board.newGame("11 15 32R 34 51 55");
+        board.setAboutFlag(true);
+        assertEquals("Board then dialog", "[BoardLoaded(6), DialogRequested(0)]",
+            changes.toString());
+        assertFalse("Dialog doesn't touch the board",
+            ((BoardEvent) changes.get(1)).changesBoard());
+    }
+}
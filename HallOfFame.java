@@ -1,9 +1,4 @@
 import java.util.*;
-import javax.swing.*;
-import javax.swing.table.*;
-import javax.swing.table.TableModel;
-import javax.swing.table.TableRowSorter;
-import java.awt.*;
 import java.io.*;
 
 /**
@@ -12,21 +7,25 @@ import java.io.*;
  * Stores the board number, difficult, number of moves, 
  * and win sequence in a file called "halloffame.ser"
  * located in a subdirectory called "roundup".
+ * HallOfFameDialog shows it in the gui, and a HallOfFameWriter
+ * appends the entries to the file.
  * 
  * @author Eric Tran
  * @version 1
  */
 public class HallOfFame
 {
+    /**
+     * Where the game keeps its hall of fame.
+     */
+    public static final String kDefaultFile = "roundup/halloffame.ser";
+
     private ArrayList<Object[]> data;
+    private HallOfFameIndex index;
     private String[] columnNames; 
     private File destination;
     private boolean fileExist;
-    private PrintWriter out;
-    private BufferedWriter bw; 
-    
-    private static final int kDialogWidth = 600;
-    private static final int kDialogHeight = 200;
+    private HallOfFameWriter writer;
 
     /**
      * Default constructor for a Hall Of Fame.
@@ -35,7 +34,31 @@ public class HallOfFame
      */
     public HallOfFame()
     {
+        this(new File(kDefaultFile));
+    }
+
+    /**
+     * Constructs a Hall Of Fame kept in a file of its own,
+     * creating the file if it does not exist. Each entry is written
+     * as it is added.
+     * @param file where the entries are kept
+     */
+    public HallOfFame(File file)
+    {
+        this(file, new HallOfFameWriter(file));
+    }
+
+    /**
+     * Constructs a Hall Of Fame kept in a file of its own, written by
+     * a writer that may hold entries back to write them in groups.
+     * @param file where the entries are kept
+     * @param writer appends the entries to the file
+     */
+    public HallOfFame(File file, HallOfFameWriter writer)
+    {
+        this.writer = writer;
         data = new ArrayList<Object[]>();
+        index = new HallOfFameIndex();
         columnNames = new String[] {
             "Board",
             "Difficulty",
@@ -45,7 +68,7 @@ public class HallOfFame
 
         try
         {
-            destination = new File("roundup/halloffame.ser");
+            destination = file;
             fileExist = destination.exists();
             // If the file does not exist
             if (!fileExist)
@@ -88,6 +111,7 @@ public class HallOfFame
     public void addEntry(Object[] entry)
     {
         data.add(entry);
+        index.add(entry);
         saveToFile(entry);
     }
 
@@ -100,6 +124,26 @@ public class HallOfFame
         return data;
     }
 
+    /**
+     * Gets the best entries of a board, without going through the others.
+     * @param board the board number
+     * @param count most entries wanted
+     * @return up to count entries, fewest moves and then quickest first
+     */
+    public ArrayList<Object[]> getBest(int board, int count)
+    {
+        return index.getBest(board, count);
+    }
+
+    /**
+     * Gets the boards that have entries.
+     * @return the board numbers, lowest first
+     */
+    public ArrayList<Integer> getBoards()
+    {
+        return index.getBoards();
+    }
+
     /**
      * Writes an entry to the hallOfFame. 
      * @param entry the entry to be written to a file
@@ -108,15 +152,12 @@ public class HallOfFame
     {
         try
         {
-            bw = new BufferedWriter(new FileWriter(destination, true));
-            out = new PrintWriter(bw);
             int index = 0; 
-            out.println(entry[index++] + " " 
+            writer.append(entry[index++] + " " 
                 + entry[index++] + " " 
                 + entry[index++] + " " 
                 + entry[index++] + " " 
                 + entry[index++]);
-            out.close();
         }
         catch (IOException c)
         {
@@ -131,8 +172,27 @@ public class HallOfFame
      */
     public void deleteFile()
     {
+        close();
         destination.delete();
         data = new ArrayList<Object[]>();
+        index.clear();
+    }
+
+    /**
+     * Writes any entries the writer is holding back and closes the file.
+     * Adding an entry afterwards opens it again.
+     */
+    public void close()
+    {
+        try
+        {
+            writer.close();
+        }
+        catch (IOException c)
+        {
+            System.out.println("Can't save entry to file " 
+                + destination.getName());
+        }
     }
 
     /**
@@ -163,7 +223,7 @@ public class HallOfFame
                         Integer.parseInt(tokens.nextToken()),
                         tokens.nextToken());
                 }
-                // Its a custom board, so difficulty is blank 
+                // Its a board that couldn't be rated, so difficulty is blank 
                 else 
                 {
                     entry = buildEntry(
@@ -174,6 +234,7 @@ public class HallOfFame
                         tokens.nextToken());
                 }
                 data.add(entry);
+                index.add(entry);
             }
             br.close();
         }
@@ -185,43 +246,11 @@ public class HallOfFame
     }
 
     /**
-     * Creates the GUI Hall Of Fame. 
+     * Gets the names of the columns of an entry.
+     * @return the column names
      */
-    public void makeVisibleDialog()
+    public String[] getColumnNames()
     {
-        JTable hallOfFameTable 
-            = new JTable(
-                data.toArray(
-                    new Object[data.size()][data.size()]), columnNames);
-                    
-        hallOfFameTable.setAutoCreateRowSorter(true);
-        hallOfFameTable.setPreferredScrollableViewportSize(
-            hallOfFameTable.getPreferredSize());
-        
-        DefaultTableCellRenderer rightRenderer = new DefaultTableCellRenderer();
-        rightRenderer.setHorizontalAlignment(DefaultTableCellRenderer.RIGHT);
-        hallOfFameTable.getColumn("Board").setCellRenderer( rightRenderer );  
-        
-        DefaultTableCellRenderer centerRenderer 
-            = new DefaultTableCellRenderer();
-        centerRenderer.setHorizontalAlignment(
-            DefaultTableCellRenderer.CENTER);
-        hallOfFameTable
-            .getColumn("Difficulty").setCellRenderer( centerRenderer );  
-        hallOfFameTable
-            .getColumn("Solve Time").setCellRenderer( centerRenderer );
-        hallOfFameTable
-            .getColumn("# Moves").setCellRenderer( centerRenderer );
-            
-        JScrollPane scrollpane = new JScrollPane(hallOfFameTable);
-        JPanel panel = new JPanel();
-        panel.add(scrollpane);
-
-        JDialog dialog = new JDialog();
-        dialog.setTitle("Hall Of Fame");
-        dialog.add(scrollpane);
-        dialog.setResizable(true);
-        dialog.setSize(kDialogWidth, kDialogHeight);
-        dialog.setVisible(true);
+        return columnNames;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,165 @@
+import java.awt.*;
+import java.awt.event.*;
+import java.util.*;
+import javax.swing.*;
+import javax.swing.table.*;
+
+/**
+ * HallOfFameDialog class shows a HallOfFame in a dialog, so the
+ * hall of fame itself only has to read and write its file.
+ * Only the best entries of one board are shown at a time, picked
+ * from the hall of fame's index, so a big hall of fame isn't copied
+ * into the table every time it is opened.
+ *
+ * @author Eric Tran
+ * @version 1
+ */
+public class HallOfFameDialog
+{
+    private static final int kDialogWidth = 600;
+    private static final int kDialogHeight = 240;
+
+    /**
+     * Most entries shown for a board.
+     */
+    public static final int kShown = 10;
+
+    private final HallOfFame hof;
+
+    /**
+     * Constructs a dialog for a hall of fame.
+     * @param hof the hall of fame to show
+     */
+    public HallOfFameDialog(HallOfFame hof)
+    {
+        this.hof = hof;
+    }
+
+    /**
+     * Creates the GUI Hall Of Fame, showing the lowest board with entries.
+     */
+    public void makeVisibleDialog()
+    {
+        ArrayList<Integer> boards = hof.getBoards();
+        makeVisibleDialog(boards.isEmpty() ? 1 : boards.get(0));
+    }
+
+    /**
+     * Creates the GUI Hall Of Fame.
+     * @param board the board whose best entries are shown first
+     */
+    public void makeVisibleDialog(int board)
+    {
+        final BestTableModel model = new BestTableModel();
+        model.setBoard(board);
+        JTable hallOfFameTable = new JTable(model);
+
+        hallOfFameTable.setAutoCreateRowSorter(true);
+        hallOfFameTable.setPreferredScrollableViewportSize(
+            hallOfFameTable.getPreferredSize());
+
+        DefaultTableCellRenderer rightRenderer = new DefaultTableCellRenderer();
+        rightRenderer.setHorizontalAlignment(DefaultTableCellRenderer.RIGHT);
+        hallOfFameTable.getColumn("Board").setCellRenderer( rightRenderer );
+
+        DefaultTableCellRenderer centerRenderer
+            = new DefaultTableCellRenderer();
+        centerRenderer.setHorizontalAlignment(
+            DefaultTableCellRenderer.CENTER);
+        hallOfFameTable
+            .getColumn("Difficulty").setCellRenderer( centerRenderer );
+        hallOfFameTable
+            .getColumn("Solve Time").setCellRenderer( centerRenderer );
+        hallOfFameTable
+            .getColumn("# Moves").setCellRenderer( centerRenderer );
+
+        ArrayList<Integer> numbers = hof.getBoards();
+        // The board may have no entries yet
+        if (!numbers.contains(board))
+        {
+            numbers.add(board);
+            Collections.sort(numbers);
+        }
+        final JComboBox<Integer> boards = new JComboBox<Integer>(
+            numbers.toArray(new Integer[numbers.size()]));
+        boards.setSelectedItem(board);
+        boards.addActionListener(new ActionListener()
+            {
+                public void actionPerformed(ActionEvent e)
+                {
+                    model.setBoard((Integer) boards.getSelectedItem());
+                }
+            });
+        JPanel chooser = new JPanel();
+        chooser.add(new JLabel("Best " + kShown + " of board"));
+        chooser.add(boards);
+
+        JScrollPane scrollpane = new JScrollPane(hallOfFameTable);
+
+        JDialog dialog = new JDialog();
+        dialog.setTitle("Hall Of Fame");
+        dialog.add(chooser, BorderLayout.NORTH);
+        dialog.add(scrollpane, BorderLayout.CENTER);
+        dialog.setResizable(true);
+        dialog.setSize(kDialogWidth, kDialogHeight);
+        dialog.setVisible(true);
+    }
+
+    /**
+     * Inner class showing the best entries of one board.
+     */
+    private class BestTableModel extends AbstractTableModel
+    {
+        private static final long serialVersionUID = 1L;
+        private ArrayList<Object[]> rows = new ArrayList<Object[]>();
+
+        /**
+         * Shows another board's best entries.
+         * @param board the board number
+         */
+        void setBoard(int board)
+        {
+            rows = hof.getBest(board, kShown);
+            fireTableDataChanged();
+        }
+
+        /**
+         * Gets the number of rows.
+         * @return entries shown
+         */
+        public int getRowCount()
+        {
+            return rows.size();
+        }
+
+        /**
+         * Gets the number of columns.
+         * @return fields of an entry
+         */
+        public int getColumnCount()
+        {
+            return hof.getColumnNames().length;
+        }
+
+        /**
+         * Gets the name of a column.
+         * @param columnIndex the column
+         * @return its name
+         */
+        public String getColumnName(int columnIndex)
+        {
+            return hof.getColumnNames()[columnIndex];
+        }
+
+        /**
+         * Gets a field of an entry shown.
+         * @param rowIndex the entry
+         * @param columnIndex the field
+         * @return the field
+         */
+        public Object getValueAt(int rowIndex, int columnIndex)
+        {
+            return rows.get(rowIndex)[columnIndex];
+        }
+    }
+}
@@ -0,0 +1,175 @@
+import java.util.*;
+
+/**
+ * HallOfFameIndex class keeps the hall of fame entries of each board
+ * in order, fewest moves first and then quickest, so the best entries
+ * of a board are found without looking at any other board's.
+ *
+ * Each board's entries are kept in a TreeSet, so an entry is added in
+ * O(log n), and the best k of a board are found in O(log n + k).
+ *
+ * @author Eric Tran
+ * @version 1
+ */
+public class HallOfFameIndex
+{
+    /**
+     * Puts entries in order of moves, then solve time, then the order
+     * they were added in, so no two are ever the same.
+     */
+    private static final Comparator<Ranked> kOrder = new Comparator<Ranked>()
+    {
+        public int compare(Ranked one, Ranked two)
+        {
+            // Fewer moves first
+            if (one.moves != two.moves)
+            {
+                return one.moves < two.moves ? -1 : 1;
+            }
+            // Then the quicker
+            if (one.seconds != two.seconds)
+            {
+                return one.seconds < two.seconds ? -1 : 1;
+            }
+            return Long.compare(one.added, two.added);
+        }
+    };
+
+    private final TreeMap<Integer, TreeSet<Ranked>> boards;
+    private long added;
+
+    /**
+     * Constructs an empty index.
+     */
+    public HallOfFameIndex()
+    {
+        boards = new TreeMap<Integer, TreeSet<Ranked>>();
+    }
+
+    /**
+     * Adds an entry in its place.
+     * @param entry the entry, as built by HallOfFame.buildEntry
+     */
+    public synchronized void add(Object[] entry)
+    {
+        Integer board = (Integer) entry[0];
+        TreeSet<Ranked> ranked = boards.get(board);
+        // First entry of this board
+        if (ranked == null)
+        {
+            ranked = new TreeSet<Ranked>(kOrder);
+            boards.put(board, ranked);
+        }
+        ranked.add(new Ranked(entry, added++));
+    }
+
+    /**
+     * Removes every entry.
+     */
+    public synchronized void clear()
+    {
+        boards.clear();
+    }
+
+    /**
+     * Gets the best entries of a board.
+     * @param board the board number
+     * @param count most entries wanted
+     * @return up to count entries, fewest moves first
+     */
+    public synchronized ArrayList<Object[]> getBest(int board, int count)
+    {
+        ArrayList<Object[]> best = new ArrayList<Object[]>();
+        TreeSet<Ranked> ranked = boards.get(board);
+        // Board has entries
+        if (ranked != null)
+        {
+            Iterator<Ranked> entries = ranked.iterator();
+            // Takes them in order until there are enough
+            while (best.size() < count && entries.hasNext())
+            {
+                best.add(entries.next().entry);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Gets the boards that have entries.
+     * @return the board numbers, lowest first
+     */
+    public synchronized ArrayList<Integer> getBoards()
+    {
+        return new ArrayList<Integer>(boards.keySet());
+    }
+
+    /**
+     * Gets the number of entries of a board.
+     * @param board the board number
+     * @return number of entries
+     */
+    public synchronized int size(int board)
+    {
+        TreeSet<Ranked> ranked = boards.get(board);
+        return ranked == null ? 0 : ranked.size();
+    }
+
+    /**
+     * Reads a solve time like "1:02:03".
+     * @param time hours, minutes and seconds
+     * @return the seconds, or Long.MAX_VALUE if it isn't a time
+     */
+    static long secondsOf(String time)
+    {
+        long seconds = 0;
+        long field = 0;
+        boolean digits = false;
+        // Goes through each character, a colon starts the next field
+        for (int in = 0; in < time.length(); in++)
+        {
+            char next = time.charAt(in);
+            // Part of the number
+            if (next >= '0' && next <= '9')
+            {
+                field = field * 10 + next - '0';
+                digits = true;
+            }
+            // End of the field
+            else if (next == ':' && digits)
+            {
+                seconds = seconds * 60 + field;
+                field = 0;
+                digits = false;
+            }
+            else
+            {
+                return Long.MAX_VALUE;
+            }
+        }
+        return digits ? seconds * 60 + field : Long.MAX_VALUE;
+    }
+
+    /**
+     * Inner class holding an entry with what it is ordered by.
+     */
+    private static final class Ranked
+    {
+        private final Object[] entry;
+        private final int moves;
+        private final long seconds;
+        private final long added;
+
+        /**
+         * Constructs the ranked entry.
+         * @param entry the entry
+         * @param added how many were added before it
+         */
+        Ranked(Object[] entry, long added)
+        {
+            this.entry = entry;
+            moves = (Integer) entry[3];
+            seconds = secondsOf((String) entry[2]);
+            this.added = added;
+        }
+    }
+}
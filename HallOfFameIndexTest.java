@@ -0,0 +1,103 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.util.*;
+import java.io.*;
+
+/**
+ * The test class HallOfFameIndexTest.
+ *
+ * @author  Eric Tran
+ * @version 1
+ */
+public class HallOfFameIndexTest extends junit.framework.TestCase
+{
+    /**
+     * Makes an entry the way HallOfFame.buildEntry does.
+     * @param board the board number
+     * @param time the solve time
+     * @param count the number of moves
+     * @param moves the win sequence
+     * @return the entry
+     */
+    private static Object[] entry(int board, String time, int count,
+        String moves)
+    {
+        return new Object[] {board, "E", time, count, moves};
+    }
+
+    /**
+     * Tests the order the best entries come in.
+     */
+    @Test
+    public void testOrder()
+    {
+        HallOfFameIndex index = new HallOfFameIndex();
+        Object[] slow = entry(2, "0:01:00", 3, "14D22D32R");
+        Object[] quick = entry(2, "0:00:09", 3, "14D22D32R");
+        Object[] again = entry(2, "0:00:09", 3, "14D22D32R");
+        Object[] longer = entry(2, "0:00:01", 5, "14D22D32R");
+        Object[] other = entry(1, "0:00:05", 1, "32R");
+        index.add(longer);
+        index.add(slow);
+        index.add(quick);
+        index.add(other);
+        index.add(again);
+
+        ArrayList<Object[]> best = index.getBest(2, 10);
+        assertEquals("Only board 2", 4, best.size());
+        assertSame("Quickest", quick, best.get(0));
+        assertSame("Same time, added later", again, best.get(1));
+        assertSame("Slower", slow, best.get(2));
+        assertSame("More moves", longer, best.get(3));
+        assertEquals("Limited", 2, index.getBest(2, 2).size());
+        assertSame("Other board", other, index.getBest(1, 10).get(0));
+        assertEquals("No entries", 0, index.getBest(3, 10).size());
+        assertEquals("Boards", "[1, 2]", index.getBoards().toString());
+        assertEquals("Board size", 4, index.size(2));
+
+        index.clear();
+        assertEquals("Cleared", 0, index.size(2));
+        assertEquals("No boards", 0, index.getBoards().size());
+    }
+
+    /**
+     * Tests reading solve times.
+     */
+    @Test
+    public void testSecondsOf()
+    {
+        assertEquals("Zero", 0, HallOfFameIndex.secondsOf("0:00:00"));
+        assertEquals("All fields", 3723, HallOfFameIndex.secondsOf("1:02:03"));
+        assertEquals("Minutes only", 62, HallOfFameIndex.secondsOf("1:02"));
+        assertEquals("Not a time", Long.MAX_VALUE,
+            HallOfFameIndex.secondsOf("soon"));
+        assertEquals("Empty field", Long.MAX_VALUE,
+            HallOfFameIndex.secondsOf("1::03"));
+        assertEquals("Empty", Long.MAX_VALUE, HallOfFameIndex.secondsOf(""));
+    }
+
+    /**
+     * Tests that a hall of fame keeps its index as entries are loaded
+     * and added.
+     */
+    @Test
+    public void testHallOfFame() throws IOException
+    {
+        File file = File.createTempFile("halloffame", ".ser");
+        file.delete();
+        file.deleteOnExit();
+        HallOfFame hof = new HallOfFame(file);
+        hof.addEntry(hof.buildEntry(2, "E", "0:00:00", 5, "14D22D32R"));
+        hof.addEntry(hof.buildEntry(1, "E", "0:00:00", 1, "32R"));
+
+        HallOfFame loaded = new HallOfFame(file);
+        assertEquals("Loaded", "[1, 2]", loaded.getBoards().toString());
+        loaded.addEntry(loaded.buildEntry(2, "E", "0:00:00", 3, "14D22D32R"));
+        assertEquals("Added in front", 3,
+            loaded.getBest(2, 1).get(0)[3]);
+        loaded.deleteFile();
+        assertEquals("Deleted", 0, loaded.getBoards().size());
+    }
+}
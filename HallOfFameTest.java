@@ -3,6 +3,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import java.util.*;
+import java.io.*;
 
 /**
  * The test class GameBoardTest.
@@ -41,6 +42,29 @@ public class HallOfFameTest extends junit.framework.TestCase
                 1, hof.getHallOfFamers().size());
                 
         // Test dialog works
-        hof.makeVisibleDialog();
+        new HallOfFameDialog(hof).makeVisibleDialog();
+    }
+
+    /**
+     * Tests keeping the hall of fame in a file of its own.
+     */
+    @Test
+    public void testOwnFile() throws IOException
+    {
+        File file = File.createTempFile("halloffame", ".ser");
+        file.delete();
+        file.deleteOnExit();
+        HallOfFame hof = new HallOfFame(file);
+        assertTrue("File made", file.exists());
+        hof.addEntry(hof.buildEntry(1, "E", "0:00:00", 1, "32R"));
+        hof.addEntry(hof.buildEntry(7, "H", "0:00:00", 3, "15L51R32R"));
+
+        HallOfFame loaded = new HallOfFame(file);
+        assertEquals("Both read back", 2, loaded.getHallOfFamers().size());
+        assertEquals("Same entry", Arrays.toString(
+            hof.getHallOfFamers().get(1)), 
+            Arrays.toString(loaded.getHallOfFamers().get(1)));
+        loaded.deleteFile();
+        assertFalse("Deleted", file.exists());
     }
 }
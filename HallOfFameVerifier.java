@@ -0,0 +1,360 @@
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * HallOfFameVerifier class checks hall of fame entries by replaying
+ * each win sequence on its board. An entry is flagged if its moves
+ * don't win the board, if its move count isn't the number of moves in
+ * the sequence, or if its board isn't one of the boards being played.
+ *
+ * Entries are split into chunks that are replayed in parallel on a
+ * ForkJoinPool, and while they are the progress and throughput can be
+ * printed. Run main to check a hall of fame file from the command line,
+ * or start the game with RoundupLauncher's --verify to check the hall
+ * of fame it loads.
+ *
+ * @author Eric Tran
+ * @version 1
+ */
+public class HallOfFameVerifier
+{
+    /**
+     * The entry's moves win its board in its number of moves.
+     */
+    public static final int kVerified = 0;
+
+    /**
+     * The entry's moves don't win its board.
+     */
+    public static final int kNotWon = 1;
+
+    /**
+     * The entry's moves win, but it has the wrong number of moves.
+     */
+    public static final int kWrongCount = 2;
+
+    /**
+     * The entry's board isn't one being played, e.g. a custom board.
+     */
+    public static final int kUnknownBoard = 3;
+
+    private static final String[] kStatusNames = {
+        "verified", "doesn't win", "wrong move count", "unknown board"};
+
+    private static final int kSplitSize = 2048;
+    private static final long kReportMillis = 1000;
+
+    private final ReplayEngine replayer;
+    private final long[] starts;
+    private final ForkJoinPool pool;
+    private long elapsed;
+    private long movesReplayed;
+
+    /**
+     * Constructs a verifier for the boards the game plays.
+     * @param threads number of threads to replay with
+     */
+    public HallOfFameVerifier(int threads)
+    {
+        this(new BoardRegulator(), threads);
+    }
+
+    /**
+     * Constructs a verifier for the boards of a regulator.
+     * @param regulator the boards, numbered from 1 like the entries;
+     *        it is left on its last board
+     * @param threads number of threads to replay with
+     */
+    public HallOfFameVerifier(BoardRegulator regulator, int threads)
+    {
+        replayer = new ReplayEngine();
+        starts = new long[regulator.getBoardCount()];
+        // Parses each board once, not once per entry
+        for (int in = 0; in < starts.length; in++)
+        {
+            regulator.setBoard(in + 1);
+            starts[in] = replayer.getEngine().parse(regulator.getBoard());
+        }
+        pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * Stops the threads of this verifier.
+     */
+    public void shutdown()
+    {
+        pool.shutdown();
+    }
+
+    /**
+     * Gets how long the last verify took.
+     * @return nanoseconds
+     */
+    public long getElapsed()
+    {
+        return elapsed;
+    }
+
+    /**
+     * Gets the number of moves replayed by the last verify.
+     * @return number of moves
+     */
+    public long getMovesReplayed()
+    {
+        return movesReplayed;
+    }
+
+    /**
+     * Names a status.
+     * @param status kVerified, kNotWon, kWrongCount or kUnknownBoard
+     * @return the name, e.g. "doesn't win"
+     */
+    public static String statusName(int status)
+    {
+        return kStatusNames[status];
+    }
+
+    /**
+     * Checks one entry.
+     * @param entry the entry, as built by HallOfFame.buildEntry
+     * @return kVerified, kNotWon, kWrongCount or kUnknownBoard
+     */
+    public int verify(Object[] entry)
+    {
+        return check(entry, new long[1]);
+    }
+
+    /**
+     * Checks every entry of a hall of fame.
+     * @param hof the hall of fame
+     * @param progress where to print the progress, or null
+     * @return the status of each entry, in order
+     */
+    public int[] verify(HallOfFame hof, PrintStream progress)
+    {
+        return verify(hof.getHallOfFamers(), progress);
+    }
+
+    /**
+     * Checks entries in parallel.
+     * @param entries the entries, as built by HallOfFame.buildEntry
+     * @param progress where to print the progress and throughput, or null
+     * @return the status of each entry, in order
+     */
+    public int[] verify(final List<Object[]> entries, PrintStream progress)
+    {
+        int[] statuses = new int[entries.size()];
+        AtomicLong done = new AtomicLong();
+        AtomicLong moves = new AtomicLong();
+        long start = System.nanoTime();
+        ForkJoinTask<Void> task = pool.submit(
+            new Check(entries, statuses, 0, statuses.length, done, moves));
+        boolean finished = false;
+        // Waits for the replays, reporting how far they got
+        while (!finished)
+        {
+            try
+            {
+                task.get(kReportMillis, TimeUnit.MILLISECONDS);
+                finished = true;
+            }
+            catch (TimeoutException e)
+            {
+                // Still going
+                if (progress != null)
+                {
+                    progress.println(String.format(
+                        "Verified %d of %d entries, %.0f entries/s",
+                        done.get(), statuses.length,
+                        perSecond(done.get(), System.nanoTime() - start)));
+                }
+            }
+            catch (InterruptedException e)
+            {
+                task.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted");
+            }
+            catch (ExecutionException e)
+            {
+                Throwable cause = e.getCause();
+                // Rethrows what went wrong as it was
+                if (cause instanceof RuntimeException)
+                {
+                    throw (RuntimeException) cause;
+                }
+                throw (Error) cause;
+            }
+        }
+        elapsed = System.nanoTime() - start;
+        movesReplayed = moves.get();
+        // Says how it went
+        if (progress != null)
+        {
+            int flagged = 0;
+            // Counts the entries that weren't verified
+            for (int status : statuses)
+            {
+                flagged += status == kVerified ? 0 : 1;
+            }
+            progress.println(String.format(
+                "Verified %d entries in %d ms on %d threads, "
+                    + "%.0f entries/s, %.0f moves/s, %d flagged",
+                statuses.length, elapsed / 1000000, pool.getParallelism(),
+                perSecond(statuses.length, elapsed),
+                perSecond(movesReplayed, elapsed), flagged));
+        }
+        return statuses;
+    }
+
+    /**
+     * Works out a rate.
+     * @param count things done
+     * @param nanos time taken
+     * @return things per second
+     */
+    private static double perSecond(long count, long nanos)
+    {
+        return nanos == 0 ? 0 : count * 1e9 / nanos;
+    }
+
+    /**
+     * Checks one entry.
+     * @param entry the entry, as built by HallOfFame.buildEntry
+     * @param moves adds the moves replayed to moves[0]
+     * @return kVerified, kNotWon, kWrongCount or kUnknownBoard
+     */
+    private int check(Object[] entry, long[] moves)
+    {
+        int board = (Integer) entry[0];
+        // Custom boards aren't recorded, so can't be replayed
+        if (board < 1 || board > starts.length)
+        {
+            return kUnknownBoard;
+        }
+        Replay replay = replayer.replay(starts[board - 1], (String) entry[4]);
+        moves[0] += replay.getMoveCount();
+        // Red never reached the center
+        if (!replay.isWon())
+        {
+            return kNotWon;
+        }
+        // Won, but not in the moves it says
+        if (replay.getMoveCount() != (Integer) entry[3])
+        {
+            return kWrongCount;
+        }
+        return kVerified;
+    }
+
+    /**
+     * Inner class that checks a range of entries, splitting it
+     * in half until it is small enough.
+     */
+    private class Check extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+        private final List<Object[]> entries;
+        private final int[] statuses;
+        private final int from;
+        private final int to;
+        private final AtomicLong done;
+        private final AtomicLong moves;
+
+        /**
+         * Constructs the check of a range.
+         * @param entries all the entries
+         * @param statuses where each entry's status goes
+         * @param from first entry of the range
+         * @param to entry after the range
+         * @param done counts the entries checked
+         * @param moves counts the moves replayed
+         */
+        Check(List<Object[]> entries, int[] statuses, int from, int to,
+            AtomicLong done, AtomicLong moves)
+        {
+            this.entries = entries;
+            this.statuses = statuses;
+            this.from = from;
+            this.to = to;
+            this.done = done;
+            this.moves = moves;
+        }
+
+        /**
+         * Checks the range, or splits it.
+         */
+        protected void compute()
+        {
+            // Small enough to check here
+            if (to - from <= kSplitSize)
+            {
+                long[] replayed = new long[1];
+                // Checks each entry of the range
+                for (int in = from; in < to; in++)
+                {
+                    statuses[in] = check(entries.get(in), replayed);
+                }
+                moves.addAndGet(replayed[0]);
+                done.addAndGet(to - from);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Check(entries, statuses, from, middle, done, moves),
+                new Check(entries, statuses, middle, to, done, moves));
+        }
+    }
+
+    /**
+     * Lists each entry that wasn't verified, numbered from 1.
+     * @param entries the entries checked
+     * @param statuses their statuses, as verify returned them
+     * @param out where to print them
+     * @return number of entries flagged
+     */
+    public static int printFlagged(List<Object[]> entries, int[] statuses,
+        PrintStream out)
+    {
+        int flagged = 0;
+        // Goes through every entry
+        for (int in = 0; in < statuses.length; in++)
+        {
+            // Flagged
+            if (statuses[in] != kVerified)
+            {
+                Object[] entry = entries.get(in);
+                out.println("Entry " + (in + 1) + ": board " + entry[0]
+                    + ", " + entry[3] + " moves " + entry[4] + ": "
+                    + statusName(statuses[in]));
+                flagged++;
+            }
+        }
+        return flagged;
+    }
+
+    /**
+     * Checks a hall of fame file and prints the entries flagged.
+     * @param args the file, roundup/halloffame.ser if not given,
+     *        then optionally the number of threads
+     */
+    public static void main(String[] args)
+    {
+        File file = new File(args.length > 0 ? args[0]
+            : HallOfFame.kDefaultFile);
+        int threads = args.length > 1 ? Integer.parseInt(args[1])
+            : Runtime.getRuntime().availableProcessors();
+        // Nothing to check
+        if (!file.exists())
+        {
+            System.out.println("Can't find file " + file.getName());
+            return;
+        }
+        List<Object[]> entries = new HallOfFame(file).getHallOfFamers();
+        HallOfFameVerifier verifier = new HallOfFameVerifier(threads);
+        int[] statuses = verifier.verify(entries, System.out);
+        verifier.shutdown();
+        printFlagged(entries, statuses, System.out);
+    }
+}
@@ -0,0 +1,112 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.util.*;
+import java.io.*;
+
+/**
+ * The test class HallOfFameVerifierTest.
+ *
+ * @author  Eric Tran
+ * @version 1
+ */
+public class HallOfFameVerifierTest extends junit.framework.TestCase
+{
+    /**
+     * Makes an entry the way HallOfFame.buildEntry does.
+     * @param board the board number
+     * @param count the number of moves
+     * @param moves the win sequence
+     * @return the entry
+     */
+    private static Object[] entry(int board, int count, String moves)
+    {
+        return new Object[] {board, "E", "0:00:00", count, moves};
+    }
+
+    /**
+     * Tests each way an entry can be flagged.
+     */
+    @Test
+    public void testStatuses()
+    {
+        HallOfFameVerifier verifier = new HallOfFameVerifier(2);
+        assertEquals("Wins", HallOfFameVerifier.kVerified,
+            verifier.verify(entry(2, 3, "14D22D32R")));
+        assertEquals("Loses", HallOfFameVerifier.kNotWon,
+            verifier.verify(entry(1, 1, "15U")));
+        assertEquals("Not finished", HallOfFameVerifier.kNotWon,
+            verifier.verify(entry(2, 2, "14D22D")));
+        assertEquals("Garbage", HallOfFameVerifier.kNotWon,
+            verifier.verify(entry(1, 1, "hello")));
+        assertEquals("Wrong board", HallOfFameVerifier.kNotWon,
+            verifier.verify(entry(2, 1, "32R")));
+        assertEquals("Count", HallOfFameVerifier.kWrongCount,
+            verifier.verify(entry(1, 2, "32R")));
+        assertEquals("Custom", HallOfFameVerifier.kUnknownBoard,
+            verifier.verify(entry(0, 1, "32R")));
+        assertEquals("No such board", HallOfFameVerifier.kUnknownBoard,
+            verifier.verify(entry(999, 1, "32R")));
+        verifier.shutdown();
+    }
+
+    /**
+     * Tests checking a big hall of fame in parallel.
+     */
+    @Test
+    public void testParallel()
+    {
+        PuzzleSolver solver = new BoardSolver();
+        BoardRegulator regulator = new BoardRegulator();
+        String[] wins = new String[regulator.getBoardCount() + 1];
+        int[] counts = new int[wins.length];
+        for (int in = 1; in < wins.length; in++)
+        {
+            regulator.setBoard(in);
+            StringBuilder moves = new StringBuilder();
+            for (String move : solver.solve(regulator.getBoard()))
+            {
+                moves.append(move);
+                counts[in]++;
+            }
+            wins[in] = moves.toString();
+        }
+
+        List<Object[]> entries = new ArrayList<Object[]>();
+        int[] expected = new int[50000];
+        Random random = new Random(3);
+        for (int in = 0; in < expected.length; in++)
+        {
+            int board = 1 + random.nextInt(wins.length - 1);
+            int count = counts[board];
+            expected[in] = HallOfFameVerifier.kVerified;
+            // Some entries claim the wrong number of moves
+            if (in % 97 == 0)
+            {
+                count++;
+                expected[in] = HallOfFameVerifier.kWrongCount;
+            }
+            entries.add(entry(board, count, wins[board]));
+        }
+        entries.set(12345, entry(1, 1, "15L"));
+        expected[12345] = HallOfFameVerifier.kNotWon;
+
+        HallOfFameVerifier verifier = new HallOfFameVerifier(4);
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+        int[] statuses = verifier.verify(entries, new PrintStream(report));
+        verifier.shutdown();
+        assertTrue("Statuses", Arrays.equals(expected, statuses));
+        assertTrue("Moves counted", verifier.getMovesReplayed() > 0);
+        assertTrue("Reported " + report, report.toString()
+            .contains("Verified 50000 entries"));
+        assertTrue("Flagged " + report, report.toString()
+            .contains((50000 / 97 + 1 + 1) + " flagged"));
+
+        report.reset();
+        assertEquals("Listed", 50000 / 97 + 1 + 1, HallOfFameVerifier
+            .printFlagged(entries, statuses, new PrintStream(report)));
+        assertTrue("Names the entry " + report, report.toString()
+            .contains("Entry 12346: board 1, 1 moves 15L: doesn't win"));
+    }
+}
@@ -0,0 +1,274 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * HallOfFameWriter class appends entries to a hall of fame file through
+ * one FileChannel that stays open, instead of opening and closing the
+ * file for every entry. Entries are kept in memory and written together
+ * once enough of them have come in, or once the oldest has waited long
+ * enough, so a session that wins many games writes a group at a time.
+ *
+ * How hard it tries to get the entries onto the disk is up to its
+ * policy: kNoSync leaves that to the operating system, kGroupSync
+ * forces each group out after writing it, and kEntrySync writes and
+ * forces every entry as it comes. Entries still held in memory are
+ * lost if the program dies, so flush or close it before quitting.
+ *
+ * @author Eric Tran
+ * @version 1
+ */
+public class HallOfFameWriter
+{
+    /**
+     * Written entries are left for the operating system to store.
+     */
+    public static final int kNoSync = 0;
+
+    /**
+     * Each group of entries is forced to the disk once written.
+     */
+    public static final int kGroupSync = 1;
+
+    /**
+     * Each entry is written and forced to the disk right away.
+     */
+    public static final int kEntrySync = 2;
+
+    /**
+     * Names of the policies, as given on the command line.
+     */
+    private static final String[] kPolicyNames = {"none", "group", "entry"};
+
+    private static final int kInitialCapacity = 1024;
+
+    /**
+     * Writes the groups that waited long enough, shared by every writer.
+     */
+    private static final ScheduledThreadPoolExecutor kTimer =
+        new ScheduledThreadPoolExecutor(1, new ThreadFactory()
+        {
+            public Thread newThread(Runnable task)
+            {
+                Thread thread = new Thread(task, "hall-of-fame-writer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+    private final File file;
+    private final int policy;
+    private final int groupSize;
+    private final long groupDelay;
+    private FileChannel channel;
+    private byte[] pending;
+    private int pendingBytes;
+    private int pendingEntries;
+    private boolean timerSet;
+    private long groups;
+
+    /**
+     * Constructs a writer that writes each entry as it comes, leaving
+     * it for the operating system to store, like a FileWriter would.
+     * @param file the file to append to
+     */
+    public HallOfFameWriter(File file)
+    {
+        this(file, kNoSync, 1, 0);
+    }
+
+    /**
+     * Constructs a writer.
+     * @param file the file to append to
+     * @param policy kNoSync, kGroupSync or kEntrySync
+     * @param groupSize entries held before they are written together
+     * @param groupDelay longest an entry is held before it is written,
+     *        in milliseconds, or 0 to only write full groups
+     */
+    public HallOfFameWriter(File file, int policy, int groupSize,
+        long groupDelay)
+    {
+        // Must be one of the policies and hold at least one entry
+        if (policy < kNoSync || policy > kEntrySync || groupSize < 1 ||
+            groupDelay < 0)
+        {
+            throw new IllegalArgumentException("Bad policy " + policy
+                + ", group size " + groupSize + " or delay " + groupDelay);
+        }
+        this.file = file;
+        this.policy = policy;
+        this.groupSize = policy == kEntrySync ? 1 : groupSize;
+        this.groupDelay = groupDelay;
+        pending = new byte[kInitialCapacity];
+    }
+
+    /**
+     * Finds a policy by name.
+     * @param name "none", "group" or "entry"
+     * @return kNoSync, kGroupSync or kEntrySync, or -1 if there is none
+     */
+    public static int policyOf(String name)
+    {
+        return Arrays.asList(kPolicyNames).indexOf(name);
+    }
+
+    /**
+     * Gets the number of groups written so far.
+     * @return number of groups
+     */
+    public synchronized long getGroups()
+    {
+        return groups;
+    }
+
+    /**
+     * Adds a line to the file, writing it with the others held once
+     * the group is full.
+     * @param line the line, without the line break
+     * @throws IOException if a group can't be written
+     */
+    public synchronized void append(String line) throws IOException
+    {
+        byte[] bytes = (line + System.lineSeparator()).getBytes();
+        // Not enough room left for the line
+        if (pendingBytes + bytes.length > pending.length)
+        {
+            byte[] bigger = new byte[Math.max(pending.length * 2,
+                pendingBytes + bytes.length)];
+            System.arraycopy(pending, 0, bigger, 0, pendingBytes);
+            pending = bigger;
+        }
+        System.arraycopy(bytes, 0, pending, pendingBytes, bytes.length);
+        pendingBytes += bytes.length;
+        pendingEntries++;
+        // The group is full
+        if (pendingEntries >= groupSize)
+        {
+            flush();
+        }
+        // First of a group that may have to wait
+        else if (groupDelay > 0 && !timerSet)
+        {
+            timerSet = true;
+            kTimer.schedule(new Runnable()
+            {
+                public void run()
+                {
+                    flushLate();
+                }
+            }, groupDelay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Writes the group that waited long enough, called by the timer.
+     */
+    private synchronized void flushLate()
+    {
+        timerSet = false;
+        try
+        {
+            flush();
+        }
+        catch (IOException e)
+        {
+            System.out.println("Can't save entries to file " + file.getName());
+        }
+    }
+
+    /**
+     * Writes the entries held, forcing them to the disk unless the
+     * policy is kNoSync.
+     * @throws IOException if they can't be written
+     */
+    public synchronized void flush() throws IOException
+    {
+        // Nothing held
+        if (pendingEntries == 0)
+        {
+            return;
+        }
+        // Opened on the first write, or again after closing
+        if (channel == null)
+        {
+            channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(pending, 0, pendingBytes);
+        try
+        {
+            // A write may take only part of it
+            while (bytes.hasRemaining())
+            {
+                write(channel, bytes);
+            }
+        }
+        finally
+        {
+            // Only what wasn't written is held, so it isn't written twice
+            drop(bytes.position());
+        }
+        // Make sure it is on the disk
+        if (policy != kNoSync)
+        {
+            channel.force(false);
+        }
+        groups++;
+    }
+
+    /**
+     * Writes as much of the bytes as the file takes at once.
+     * @param channel the file
+     * @param bytes what is left to write
+     * @throws IOException if nothing more can be written
+     */
+    void write(FileChannel channel, ByteBuffer bytes) throws IOException
+    {
+        channel.write(bytes);
+    }
+
+    /**
+     * Drops bytes from the front of those held, once they are written.
+     * @param written how many were written
+     */
+    private void drop(int written)
+    {
+        // Counts the entries that were written all the way
+        for (int in = 0; in < written; in++)
+        {
+            // Each entry ends with a line break
+            if (pending[in] == '\n')
+            {
+                pendingEntries--;
+            }
+        }
+        System.arraycopy(pending, written, pending, 0, pendingBytes - written);
+        pendingBytes -= written;
+    }
+
+    /**
+     * Writes the entries held and closes the file. Appending again
+     * opens it again.
+     * @throws IOException if they can't be written
+     */
+    public synchronized void close() throws IOException
+    {
+        try
+        {
+            flush();
+        }
+        finally
+        {
+            // Only opened once something was written
+            if (channel != null)
+            {
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,212 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.util.*;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * The test class HallOfFameWriterTest.
+ *
+ * @author  Eric Tran
+ * @version 1
+ */
+public class HallOfFameWriterTest extends junit.framework.TestCase
+{
+    /**
+     * Makes an empty temporary file.
+     * @return the file, deleted when the tests end
+     */
+    private static File tempFile() throws IOException
+    {
+        File file = File.createTempFile("halloffame", ".ser");
+        file.deleteOnExit();
+        return file;
+    }
+
+    /**
+     * Counts the lines of a file.
+     * @param file the file
+     * @return number of lines
+     */
+    private static int lines(File file) throws IOException
+    {
+        BufferedReader reader = new BufferedReader(new FileReader(file));
+        int count = 0;
+        while (reader.readLine() != null)
+        {
+            count++;
+        }
+        reader.close();
+        return count;
+    }
+
+    /**
+     * Tests that entries are written a group at a time.
+     */
+    @Test
+    public void testGroups() throws IOException
+    {
+        File file = tempFile();
+        HallOfFameWriter writer = new HallOfFameWriter(file,
+            HallOfFameWriter.kGroupSync, 3, 0);
+        writer.append("1 E 0:00:00 1 32R");
+        writer.append("1 E 0:00:00 1 32R");
+        assertEquals("Held back", 0, lines(file));
+        writer.append("1 E 0:00:00 1 32R");
+        assertEquals("Group written", 3, lines(file));
+        assertEquals("One group", 1, writer.getGroups());
+        writer.append("2 E 0:00:00 3 14D22D32R");
+        writer.flush();
+        assertEquals("Flushed", 4, lines(file));
+        writer.close();
+        writer.append("1 E 0:00:00 1 32R");
+        writer.close();
+        assertEquals("Opened again", 5, lines(file));
+    }
+
+    /**
+     * Tests that a group that isn't full is written after the delay.
+     */
+    @Test
+    public void testDelay() throws Exception
+    {
+        File file = tempFile();
+        HallOfFameWriter writer = new HallOfFameWriter(file,
+            HallOfFameWriter.kNoSync, 100, 20);
+        writer.append("1 E 0:00:00 1 32R");
+        long end = System.currentTimeMillis() + 5000;
+        while (lines(file) == 0 && System.currentTimeMillis() < end)
+        {
+            Thread.sleep(5);
+        }
+        assertEquals("Written late", 1, lines(file));
+        writer.close();
+    }
+
+    /**
+     * Tests that each entry is written when forcing every entry.
+     */
+    @Test
+    public void testEntrySync() throws IOException
+    {
+        File file = tempFile();
+        HallOfFameWriter writer = new HallOfFameWriter(file,
+            HallOfFameWriter.kEntrySync, 50, 0);
+        writer.append("1 E 0:00:00 1 32R");
+        writer.append("1 E 0:00:00 1 32R");
+        assertEquals("Both written", 2, lines(file));
+        assertEquals("Two groups", 2, writer.getGroups());
+        writer.close();
+    }
+
+    /**
+     * Tests that bad settings are refused.
+     */
+    @Test
+    public void testBadSettings()
+    {
+        File file = new File("unused");
+        int[][] settings = {{-1, 1, 0}, {3, 1, 0}, {0, 0, 0}, {0, 1, -1}};
+        for (int[] setting : settings)
+        {
+            try
+            {
+                new HallOfFameWriter(file, setting[0], setting[1], setting[2]);
+                fail("Accepted " + Arrays.toString(setting));
+            }
+            catch (IllegalArgumentException e)
+            {
+                assertTrue("Says why", e.getMessage().length() > 0);
+            }
+        }
+        assertFalse("Nothing made", file.exists());
+    }
+
+    /**
+     * Tests a hall of fame writing its entries in groups.
+     */
+    @Test
+    public void testHallOfFame() throws IOException
+    {
+        File file = tempFile();
+        HallOfFame hof = new HallOfFame(file, new HallOfFameWriter(file,
+            HallOfFameWriter.kGroupSync, 10, 0));
+        for (int in = 0; in < 15; in++)
+        {
+            hof.addEntry(hof.buildEntry(1, "E", "0:00:00", 1, "32R"));
+        }
+        assertEquals("All added", 15, hof.getHallOfFamers().size());
+        assertEquals("One group written", 10, new HallOfFame(file)
+            .getHallOfFamers().size());
+        hof.close();
+        HallOfFame loaded = new HallOfFame(file);
+        assertEquals("All read back", 15, loaded.getHallOfFamers().size());
+        assertEquals("Same entry", Arrays.toString(
+            hof.getHallOfFamers().get(14)),
+            Arrays.toString(loaded.getHallOfFamers().get(14)));
+        loaded.deleteFile();
+    }
+
+    /**
+     * Tests that a write that fails part way doesn't write any entry twice.
+     */
+    @Test
+    public void testPartialWrite() throws IOException
+    {
+        File file = tempFile();
+        final boolean[] failed = {false};
+        HallOfFameWriter writer = new HallOfFameWriter(file,
+            HallOfFameWriter.kNoSync, 2, 0)
+        {
+            void write(FileChannel channel, ByteBuffer bytes) throws IOException
+            {
+                // First write takes the first entry and a bit, then fails
+                if (!failed[0])
+                {
+                    failed[0] = true;
+                    ByteBuffer part = bytes.duplicate();
+                    part.limit(bytes.position() + 20);
+                    channel.write(part);
+                    bytes.position(part.position());
+                    throw new IOException("Disk full");
+                }
+                super.write(channel, bytes);
+            }
+        };
+        writer.append("1 E 0:00:00 1 32R");
+        try
+        {
+            writer.append("2 E 0:00:00 3 14D22D32R");
+            fail("Write failed");
+        }
+        catch (IOException e)
+        {
+            // expected
+        }
+        writer.close();
+        BufferedReader reader = new BufferedReader(new FileReader(file));
+        assertEquals("First once", "1 E 0:00:00 1 32R", reader.readLine());
+        assertEquals("Second finished", "2 E 0:00:00 3 14D22D32R",
+            reader.readLine());
+        assertNull("Nothing twice", reader.readLine());
+        reader.close();
+    }
+
+    /**
+     * Tests finding the policies by name.
+     */
+    @Test
+    public void testPolicyOf()
+    {
+        assertEquals("None", HallOfFameWriter.kNoSync,
+            HallOfFameWriter.policyOf("none"));
+        assertEquals("Group", HallOfFameWriter.kGroupSync,
+            HallOfFameWriter.policyOf("group"));
+        assertEquals("Entry", HallOfFameWriter.kEntrySync,
+            HallOfFameWriter.policyOf("entry"));
+        assertEquals("Unknown", -1, HallOfFameWriter.policyOf("always"));
+    }
+}
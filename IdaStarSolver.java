@@ -0,0 +1,233 @@
+import java.util.*;
+
+/**
+ * IdaStarSolver class finds the shortest winning move sequence with
+ * iterative-deepening A*. Unlike BoardSolver it does not keep every
+ * position it has seen, so its memory grows only with the length of
+ * the solution (plus a fixed size table of recently seen positions).
+ *
+ * The lower bound comes from the red robot's distance to the center:
+ * it needs one slide to change row and one to change col, and always
+ * at least one move to finish. A PatternDatabase can be given for a
+ * tighter bound based on the blockers around the center.
+ *
+ * @author Eric Tran
+ * @version 1
+ */
+public class IdaStarSolver implements PuzzleSolver
+{
+    /**
+     * Default number of entries in the table of seen positions.
+     */
+    public static final int kDefaultTableSize = 1 << 16;
+
+    private static final int kFound = -1;
+    private static final int kInfinity = Integer.MAX_VALUE;
+    private static final int kMaxDepth = 100;
+
+    private BitBoard engine;
+    private PatternDatabase patterns;
+    private int centerRow;
+    private int centerCol;
+    private int[] path;
+    private int length;
+    private long nodes;
+    private int iteration;
+    private long[] seenKeys;
+    private int[] seenStamps;
+    private int seenMask;
+
+    /**
+     * Default constructor for a solver of the standard board.
+     */
+    public IdaStarSolver()
+    {
+        this(new BitBoard(GameBoard.kMaxRowCol), null, kDefaultTableSize);
+    }
+
+    /**
+     * Constructs a solver with an optional pattern database.
+     * @param engine the engine used to compute slides
+     * @param patterns the pattern database, or null to use only
+     * the red robot's distance
+     * @param tableSize entries in the table of seen positions, a power
+     * of two, or 0 for none at all
+     */
+    public IdaStarSolver(BitBoard engine, PatternDatabase patterns, int tableSize)
+    {
+        this.engine = engine;
+        this.patterns = patterns;
+        centerRow = engine.rowOf(engine.getCenter());
+        centerCol = engine.colOf(engine.getCenter());
+        path = new int[kMaxDepth];
+        seenKeys = new long[tableSize];
+        seenStamps = new int[tableSize];
+        seenMask = tableSize - 1;
+    }
+
+    /**
+     * Gets the number of positions expanded by the last solve.
+     * @return number of expanded positions
+     */
+    public long getNodes()
+    {
+        return nodes;
+    }
+
+    /**
+     * Finds the shortest winning move sequence for a board.
+     * @param board the board to be solved, e.g. "11 15 32R 34 51 55"
+     * @return the moves in "32R" notation, or null if it can't be won
+     */
+    public ArrayList<String> solve(String board)
+    {
+        return solve(engine.parse(board));
+    }
+
+    /**
+     * Finds the shortest winning move sequence for a packed position.
+     * @param start the position to be solved
+     * @return the moves in "32R" notation, or null if it can't be won
+     */
+    public ArrayList<String> solve(long start)
+    {
+        nodes = 0;
+        int bound = estimate(start);
+        // Deepens the bound until a solution shows up
+        while (bound < kMaxDepth)
+        {
+            iteration++;
+            int next = search(start, 0, bound);
+            // Found a solution within the bound
+            if (next == kFound)
+            {
+                ArrayList<String> moves = new ArrayList<String>();
+                // Names every move on the path
+                for (int in = 0; in < length; in++)
+                {
+                    int cell = path[in] / BitBoard.kNumDirs;
+                    moves.add(BitBoard.moveName(engine.rowOf(cell),
+                        engine.colOf(cell), path[in] % BitBoard.kNumDirs));
+                }
+                return moves;
+            }
+            bound = next;
+        }
+        return null;
+    }
+
+    /**
+     * Estimates the moves left to win without overestimating.
+     * @param position the packed position
+     * @return lower bound on the moves left
+     */
+    private int estimate(long position)
+    {
+        int red = BitBoard.redCell(position);
+        int bound = 0;
+        // Needs a slide to change row
+        if (engine.rowOf(red) != centerRow)
+        {
+            bound++;
+        }
+        // Needs a slide to change col
+        if (engine.colOf(red) != centerCol)
+        {
+            bound++;
+        }
+        bound = Math.max(bound, 1);
+        // The pattern database may know better
+        if (patterns != null)
+        {
+            bound = Math.max(bound, patterns.lookup(position));
+        }
+        return bound;
+    }
+
+    /**
+     * Checks the table of seen positions, and records this visit.
+     * @param position the packed position
+     * @param depth the moves made to reach it
+     * @return whether it was already searched this round with as many
+     * moves left
+     */
+    private boolean seenBefore(long position, int depth)
+    {
+        // No table in use
+        if (seenKeys.length == 0)
+        {
+            return false;
+        }
+        int index = (int) LongHashSet.mix(position) & seenMask;
+        int stamp = (iteration << 8) | depth;
+        // Same position, same round, reached in no more moves
+        if (seenKeys[index] == position && seenStamps[index] >>> 8 == iteration
+            && (seenStamps[index] & 0xff) <= depth)
+        {
+            return true;
+        }
+        seenKeys[index] = position;
+        seenStamps[index] = stamp;
+        return false;
+    }
+
+    /**
+     * Searches depth first, cutting off where the estimate passes the bound.
+     * @param position the packed position
+     * @param depth the moves made to reach it
+     * @param bound the most moves allowed this round
+     * @return kFound, or the smallest estimate that was cut off
+     */
+    private int search(long position, int depth, int bound)
+    {
+        int estimate = estimate(position);
+        // Can't win within the bound from here
+        if (depth + estimate > bound)
+        {
+            return estimate >= PatternDatabase.kUnsolvable
+                ? kInfinity : depth + estimate;
+        }
+        // Already searched from here with as many moves left
+        if (seenBefore(position, depth))
+        {
+            return kInfinity;
+        }
+        nodes++;
+        int red = BitBoard.redCell(position);
+        long robots = BitBoard.occupied(position);
+        int least = kInfinity;
+        // Goes through every robot
+        while (robots != 0)
+        {
+            int from = Long.numberOfTrailingZeros(robots);
+            robots &= robots - 1;
+            // Goes through every direction
+            for (int dir = 0; dir < BitBoard.kNumDirs; dir++)
+            {
+                int to = engine.slide(position, from, dir);
+                // Red ends its move on the center, so the game is won
+                if (from == red && to == engine.getCenter())
+                {
+                    path[depth] = from * BitBoard.kNumDirs + dir;
+                    length = depth + 1;
+                    return kFound;
+                }
+                // Walking off loses and a blocked robot changes nothing
+                if (to == BitBoard.kOffBoard || to == from)
+                {
+                    continue;
+                }
+                path[depth] = from * BitBoard.kNumDirs + dir;
+                int result = search(BitBoard.move(position, from, to),
+                    depth + 1, bound);
+                // Pass the solution up
+                if (result == kFound)
+                {
+                    return kFound;
+                }
+                least = Math.min(least, result);
+            }
+        }
+        return least;
+    }
+}
@@ -0,0 +1,60 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.util.*;
+
+/**
+ * The test class IdaStarSolverTest.
+ *
+ * @author  Eric Tran
+ * @version 1
+ */
+public class IdaStarSolverTest extends junit.framework.TestCase
+{
+    /**
+     * Tests that IDA* finds optimal solutions on every built in board,
+     * with and without the pattern database.
+     */
+    @Test
+    public void testMatchesBoardSolver()
+    {
+        BitBoard engine = new BitBoard(GameBoard.kMaxRowCol);
+        BoardSolver bfs = new BoardSolver(engine);
+        PatternDatabase patterns = new PatternDatabase(engine);
+        IdaStarSolver plain = new IdaStarSolver();
+        IdaStarSolver pattern = new IdaStarSolver(engine, patterns,
+            IdaStarSolver.kDefaultTableSize);
+        ReplayEngine replayer = new ReplayEngine();
+        BoardRegulator regulator = new BoardRegulator();
+        for (int in = 1; in <= 18; in++)
+        {
+            regulator.setBoard(in);
+            String board = regulator.getBoard();
+            int optimal = bfs.solve(board).size();
+            assertTrue("Board " + in + " bound is a lower bound",
+                patterns.lookup(engine.parse(board)) <= optimal);
+            ArrayList<String> moves = plain.solve(board);
+            assertEquals("Board " + in + " plain", optimal, moves.size());
+            assertTrue("Board " + in + " plain wins",
+                replayer.replay(board, moves).isWon());
+            moves = pattern.solve(board);
+            assertEquals("Board " + in + " with patterns", optimal,
+                moves.size());
+            assertTrue("Board " + in + " with patterns wins",
+                replayer.replay(board, moves).isWon());
+        }
+    }
+
+    /**
+     * Tests solving without the table of seen positions.
+     */
+    @Test
+    public void testNoTable()
+    {
+        IdaStarSolver solver = new IdaStarSolver(
+            new BitBoard(GameBoard.kMaxRowCol), null, 0);
+        assertEquals("Board 2", "[14D, 22D, 32R]",
+            solver.solve("22R 14 31 42 44 55").toString());
+    }
+}
@@ -0,0 +1,185 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * ListenerBus class passes board events to the views without locking.
+ * The listeners are kept in an array that is copied whenever one is
+ * added or removed, so sending an event only reads the current array
+ * and never waits on the console thread or the Swing thread.
+ *
+ * Each listener picks how it is called: right away on the thread that
+ * changed the board, or on a thread of its own, which gets its events
+ * in order. A Swing view is wrapped in an EdtListener, so the bus itself
+ * never needs Swing.
+ *
+ * @author Eric Tran
+ * @version 1
+ */
+public class ListenerBus
+{
+    /**
+     * Call the listener on the thread that changed the board.
+     */
+    public static final int kSync = 0;
+
+    /**
+     * Call the listener on a background thread of its own.
+     */
+    public static final int kBackground = 1;
+
+    private final AtomicReference<Registration[]> listeners =
+        new AtomicReference<Registration[]>(new Registration[0]);
+
+    /**
+     * Adds a listener.
+     * @param listener the listener
+     * @param delivery how it is called, kSync or kBackground
+     */
+    public void add(BoardListener listener, int delivery)
+    {
+        // Not a way of calling listeners
+        if (delivery < kSync || delivery > kBackground)
+        {
+            throw new IllegalArgumentException("Delivery " + delivery);
+        }
+        Registration added = new Registration(listener, delivery);
+        Registration[] old;
+        Registration[] copy;
+        // Retry if another thread changed the listeners meanwhile
+        do
+        {
+            old = listeners.get();
+            copy = Arrays.copyOf(old, old.length + 1);
+            copy[old.length] = added;
+        }
+        while (!listeners.compareAndSet(old, copy));
+    }
+
+    /**
+     * Removes a listener. A background listener still gets the events
+     * already sent to it.
+     * @param listener the listener
+     * @return whether it was listening
+     */
+    public boolean remove(BoardListener listener)
+    {
+        Registration[] old;
+        Registration[] copy;
+        Registration removed;
+        // Retry if another thread changed the listeners meanwhile
+        do
+        {
+            old = listeners.get();
+            int at = -1;
+            // Finds the listener
+            for (int in = 0; in < old.length && at == -1; in++)
+            {
+                // Found it
+                if (old[in].listener == listener)
+                {
+                    at = in;
+                }
+            }
+            // Not listening
+            if (at == -1)
+            {
+                return false;
+            }
+            removed = old[at];
+            copy = new Registration[old.length - 1];
+            System.arraycopy(old, 0, copy, 0, at);
+            System.arraycopy(old, at + 1, copy, at, copy.length - at);
+        }
+        while (!listeners.compareAndSet(old, copy));
+        // Let its thread finish and stop
+        if (removed.executor != null)
+        {
+            removed.executor.shutdown();
+        }
+        return true;
+    }
+
+    /**
+     * Gets the number of listeners.
+     * @return number of listeners
+     */
+    public int size()
+    {
+        return listeners.get().length;
+    }
+
+    /**
+     * Sends an event to every listener.
+     * @param event what changed
+     */
+    public void publish(BoardEvent event)
+    {
+        // Goes through the listeners as they were when the event was sent
+        for (Registration registration : listeners.get())
+        {
+            registration.deliver(event);
+        }
+    }
+
+    /**
+     * Inner class holding a listener and how it is called.
+     */
+    private static class Registration
+    {
+        private final BoardListener listener;
+        private final int delivery;
+        private final ExecutorService executor;
+
+        /**
+         * Constructs a registration, with a thread if it needs one.
+         * @param listener the listener
+         * @param delivery how it is called
+         */
+        Registration(BoardListener listener, int delivery)
+        {
+            this.listener = listener;
+            this.delivery = delivery;
+            // Background listeners get a thread of their own
+            if (delivery == kBackground)
+            {
+                executor = Executors.newSingleThreadExecutor(
+                    new ThreadFactory()
+                    {
+                        public Thread newThread(Runnable run)
+                        {
+                            Thread thread = new Thread(run, "board-listener");
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+            }
+            else
+            {
+                executor = null;
+            }
+        }
+
+        /**
+         * Calls the listener the way it asked.
+         * @param event what changed
+         */
+        void deliver(final BoardEvent event)
+        {
+            // Right here
+            if (delivery == kSync)
+            {
+                listener.boardChanged(event);
+                return;
+            }
+            // Queue it for the listener's own thread
+            executor.execute(new Runnable()
+            {
+                public void run()
+                {
+                    listener.boardChanged(event);
+                }
+            });
+        }
+    }
+}
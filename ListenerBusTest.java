@@ -0,0 +1,146 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.util.*;
+import java.util.concurrent.*;
+import javax.swing.SwingUtilities;
+
+/**
+ * The test class ListenerBusTest.
+ *
+ * @author  Eric Tran
+ * @version 1
+ */
+public class ListenerBusTest extends junit.framework.TestCase
+{
+    /**
+     * Tests that listeners are called in order and can be removed.
+     */
+    @Test
+    public void testSync()
+    {
+        ListenerBus bus = new ListenerBus();
+        final ArrayList<String> calls = new ArrayList<String>();
+        BoardListener first = new BoardListener()
+        {
+            public void boardChanged(BoardEvent event)
+            {
+                calls.add("first " + event);
+            }
+        };
+        BoardListener second = new BoardListener()
+        {
+            public void boardChanged(BoardEvent event)
+            {
+                calls.add("second " + event);
+            }
+        };
+        bus.add(first, ListenerBus.kSync);
+        bus.add(second, ListenerBus.kSync);
+        bus.publish(new BoardEvent(BoardEvent.kPieceMoved, new int[2]));
+        assertEquals("Both in order", "[first PieceMoved(2), second PieceMoved(2)]",
+            calls.toString());
+
+        assertTrue("Removed", bus.remove(first));
+        assertFalse("Already removed", bus.remove(first));
+        assertEquals("One left", 1, bus.size());
+        calls.clear();
+        bus.publish(new BoardEvent(BoardEvent.kGameWon, new int[1]));
+        assertEquals("Only second", "[second GameWon(1)]", calls.toString());
+    }
+
+    /**
+     * Tests that a listener can remove itself while being called.
+     */
+    @Test
+    public void testRemoveWhileSending()
+    {
+        final ListenerBus bus = new ListenerBus();
+        final int[] calls = new int[1];
+        bus.add(new BoardListener()
+        {
+            public void boardChanged(BoardEvent event)
+            {
+                calls[0]++;
+                bus.remove(this);
+            }
+        }, ListenerBus.kSync);
+        bus.add(new BoardListener()
+        {
+            public void boardChanged(BoardEvent event)
+            {
+                calls[0] += 10;
+            }
+        }, ListenerBus.kSync);
+        bus.publish(new BoardEvent(BoardEvent.kPieceMoved, new int[0]));
+        bus.publish(new BoardEvent(BoardEvent.kPieceMoved, new int[0]));
+        assertEquals("First called once, second twice", 21, calls[0]);
+    }
+
+    /**
+     * Tests calling listeners on the Swing thread and on their own thread.
+     */
+    @Test
+    public void testAsync() throws Exception
+    {
+        ListenerBus bus = new ListenerBus();
+        final int events = 1000;
+        final CountDownLatch done = new CountDownLatch(2);
+        final boolean[] onEdt = {true};
+        final ArrayList<Integer> order = new ArrayList<Integer>();
+        bus.add(new EdtListener(new BoardListener()
+        {
+            public void boardChanged(BoardEvent event)
+            {
+                onEdt[0] &= SwingUtilities.isEventDispatchThread();
+                // Last one
+                if (event.getCells().length == events - 1)
+                {
+                    done.countDown();
+                }
+            }
+        }), ListenerBus.kSync);
+        bus.add(new BoardListener()
+        {
+            public void boardChanged(BoardEvent event)
+            {
+                order.add(event.getCells().length);
+                // Last one
+                if (event.getCells().length == events - 1)
+                {
+                    done.countDown();
+                }
+            }
+        }, ListenerBus.kBackground);
+        for (int in = 0; in < events; in++)
+        {
+            bus.publish(new BoardEvent(BoardEvent.kPieceMoved, new int[in]));
+        }
+        assertTrue("Both got every event", done.await(10, TimeUnit.SECONDS));
+        assertTrue("Called on the Swing thread", onEdt[0]);
+        assertEquals("Background got them all", events, order.size());
+        // Goes through what the background listener got
+        for (int in = 0; in < events; in++)
+        {
+            assertEquals("In order", in, (int) order.get(in));
+        }
+    }
+
+    /**
+     * Tests that an unknown delivery is refused.
+     */
+    @Test
+    public void testBadDelivery()
+    {
+        try
+        {
+            new ListenerBus().add(null, 7);
+            fail("No such delivery");
+        }
+        catch (IllegalArgumentException ex)
+        {
+            assertTrue("Names it", ex.getMessage().contains("7"));
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/**
+ * LongHashSet class is a set of packed positions kept in a flat
+ * long[] with open addressing, so no boxing happens on add or lookup.
+ * The value 0 is reserved to mark empty slots; it is never a real
+ * position since every board has at least one robot.
+ *
+ * @author Eric Tran
+ * @version 1
+ */
+public class LongHashSet
+{
+    private static final int kInitialCapacity = 1024;
+
+    private long[] slots;
+    private int size;
+    private int mask;
+
+    /**
+     * Default constructor for an empty set.
+     */
+    public LongHashSet()
+    {
+        this(kInitialCapacity);
+    }
+
+    /**
+     * Constructs an empty set sized for an expected number of keys.
+     * @param expected number of keys expected to be added
+     */
+    public LongHashSet(int expected)
+    {
+        int capacity = Integer.highestOneBit(Math.max(expected, 2) * 2 - 1) * 2;
+        slots = new long[capacity];
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    /**
+     * Spreads the bits of a key over the whole hash.
+     * @param key the key to be hashed
+     * @return the mixed hash
+     */
+    static long mix(long key)
+    {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    /**
+     * Adds a key to the set.
+     * @param key the key to be added, never 0
+     * @return whether the key was not already in the set
+     */
+    public boolean add(long key)
+    {
+        int index = (int) mix(key) & mask;
+        // Probe until an empty slot or the key itself
+        while (slots[index] != 0)
+        {
+            // Already in the set
+            if (slots[index] == key)
+            {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        slots[index] = key;
+        size++;
+        // Keep the table at most half full
+        if (size * 2 > slots.length)
+        {
+            grow();
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a key is in the set.
+     * @param key the key to be looked up
+     * @return whether the key is in the set
+     */
+    public boolean contains(long key)
+    {
+        int index = (int) mix(key) & mask;
+        // Probe until an empty slot or the key itself
+        while (slots[index] != 0)
+        {
+            // Found it
+            if (slots[index] == key)
+            {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the number of keys in the set.
+     * @return number of keys
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Removes every key from the set, keeping its capacity.
+     */
+    public void clear()
+    {
+        java.util.Arrays.fill(slots, 0);
+        size = 0;
+    }
+
+    /**
+     * Doubles the table and rehashes every key into it.
+     */
+    private void grow()
+    {
+        long[] old = slots;
+        slots = new long[old.length * 2];
+        mask = slots.length - 1;
+        // Goes through the old slots
+        for (long key : old)
+        {
+            // Only move the used slots
+            if (key != 0)
+            {
+                int index = (int) mix(key) & mask;
+                // Probe until an empty slot
+                while (slots[index] != 0)
+                {
+                    index = (index + 1) & mask;
+                }
+                slots[index] = key;
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/**
+ * LongIntHashMap class maps packed positions to int values in flat
+ * arrays with open addressing, so no boxing happens on put or get.
+ * Like LongHashSet, the key 0 is reserved to mark empty slots.
+ *
+ * @author Eric Tran
+ * @version 1
+ */
+public class LongIntHashMap
+{
+    /**
+     * Returned by get for keys that are not in the map.
+     */
+    public static final int kMissing = Integer.MIN_VALUE;
+
+    private static final int kInitialCapacity = 1024;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+
+    /**
+     * Default constructor for an empty map.
+     */
+    public LongIntHashMap()
+    {
+        this(kInitialCapacity);
+    }
+
+    /**
+     * Constructs an empty map sized for an expected number of keys.
+     * @param expected number of keys expected to be put
+     */
+    public LongIntHashMap(int expected)
+    {
+        int capacity = Integer.highestOneBit(Math.max(expected, 2) * 2 - 1) * 2;
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    /**
+     * Finds the slot of a key, or the empty slot it would go in.
+     * @param key the key to be looked up
+     * @return the slot index
+     */
+    private int slotOf(long key)
+    {
+        int index = (int) LongHashSet.mix(key) & mask;
+        // Probe until an empty slot or the key itself
+        while (keys[index] != 0 && keys[index] != key)
+        {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    /**
+     * Gets the value of a key.
+     * @param key the key to be looked up
+     * @return the value, or kMissing if the key is not in the map
+     */
+    public int get(long key)
+    {
+        int index = slotOf(key);
+        return keys[index] == 0 ? kMissing : values[index];
+    }
+
+    /**
+     * Checks whether a key is in the map.
+     * @param key the key to be looked up
+     * @return whether the key is in the map
+     */
+    public boolean containsKey(long key)
+    {
+        return keys[slotOf(key)] != 0;
+    }
+
+    /**
+     * Puts a value for a key, replacing any old value.
+     * @param key the key, never 0
+     * @param value the value to be stored
+     */
+    public void put(long key, int value)
+    {
+        int index = slotOf(key);
+        // New key
+        if (keys[index] == 0)
+        {
+            keys[index] = key;
+            size++;
+        }
+        values[index] = value;
+        // Keep the table at most half full
+        if (size * 2 > keys.length)
+        {
+            grow();
+        }
+    }
+
+    /**
+     * Puts a value only if the key is not in the map yet.
+     * @param key the key, never 0
+     * @param value the value to be stored
+     * @return whether the key was new
+     */
+    public boolean putIfAbsent(long key, int value)
+    {
+        int index = slotOf(key);
+        // Already there
+        if (keys[index] != 0)
+        {
+            return false;
+        }
+        keys[index] = key;
+        values[index] = value;
+        size++;
+        // Keep the table at most half full
+        if (size * 2 > keys.length)
+        {
+            grow();
+        }
+        return true;
+    }
+
+    /**
+     * Gets the number of keys in the map.
+     * @return number of keys
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Removes every key from the map, keeping its capacity.
+     */
+    public void clear()
+    {
+        java.util.Arrays.fill(keys, 0);
+        size = 0;
+    }
+
+    /**
+     * Doubles the table and rehashes every key into it.
+     */
+    private void grow()
+    {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        mask = keys.length - 1;
+        // Goes through the old slots
+        for (int in = 0; in < oldKeys.length; in++)
+        {
+            // Only move the used slots
+            if (oldKeys[in] != 0)
+            {
+                int index = slotOf(oldKeys[in]);
+                keys[index] = oldKeys[in];
+                values[index] = oldValues[in];
+            }
+        }
+    }
+}
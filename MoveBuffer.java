@@ -0,0 +1,152 @@
+import java.util.*;
+
+/**
+ * MoveBuffer class records the moves of a game, one byte each. A move is
+ * encoded the way the solvers do, cell * BitBoard.kNumDirs + dir, which
+ * fits in a byte for every board the engine can hold. Moves are only
+ * turned into text like "32R" when someone reads them.
+ *
+ * The array can be shared with snapshots. Moves are only ever added at
+ * the end, so a snapshot keeps seeing its own moves; when a move would
+ * overwrite one a snapshot can see, after an undo, the array is copied
+ * first.
+ *
+ * @author Eric Tran
+ * @version 1
+ */
+public class MoveBuffer
+{
+    private static final int kInitialCapacity = 16;
+
+    private byte[] moves;
+    private int size;
+    private int shared;
+
+    /**
+     * Constructs an empty buffer.
+     */
+    public MoveBuffer()
+    {
+        moves = new byte[kInitialCapacity];
+    }
+
+    /**
+     * Encodes a move.
+     * @param cell the engine cell of the robot moved
+     * @param dir the direction, e.g. BitBoard.kUp
+     * @return the move
+     */
+    public static int encode(int cell, int dir)
+    {
+        return cell * BitBoard.kNumDirs + dir;
+    }
+
+    /**
+     * Adds a move at the end.
+     * @param move the encoded move
+     */
+    public void add(int move)
+    {
+        // A snapshot still sees the move this would overwrite
+        if (size < shared)
+        {
+            moves = moves.clone();
+            shared = 0;
+        }
+        // Full, so grow
+        if (size == moves.length)
+        {
+            moves = Arrays.copyOf(moves, moves.length * 2);
+            shared = 0;
+        }
+        moves[size++] = (byte) move;
+    }
+
+    /**
+     * Removes the last move.
+     */
+    public void removeLast()
+    {
+        size--;
+    }
+
+    /**
+     * Removes every move.
+     */
+    public void clear()
+    {
+        size = 0;
+    }
+
+    /**
+     * Gets the number of moves.
+     * @return number of moves
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Gets a move.
+     * @param index which move, the first is 0
+     * @return the encoded move
+     */
+    public int get(int index)
+    {
+        return moves[index] & 0xFF;
+    }
+
+    /**
+     * Hands out the array so a snapshot can read the moves so far.
+     * They are never changed in place afterwards.
+     * @return the array, holding size() moves
+     */
+    byte[] share()
+    {
+        shared = Math.max(shared, size);
+        return moves;
+    }
+
+    /**
+     * Writes a move in text, e.g. "32R".
+     * @param out where to write it
+     * @param engine the engine the move was made on
+     * @param move the encoded move
+     */
+    public static void appendMove(StringBuilder out, BitBoard engine, int move)
+    {
+        int cell = move / BitBoard.kNumDirs;
+        out.append(engine.rowOf(cell)).append(engine.colOf(cell))
+            .append(BitBoard.kDirNames.charAt(move % BitBoard.kNumDirs));
+    }
+
+    /**
+     * Writes moves in text, one after another, e.g. "32R34L".
+     * @param out where to write them
+     * @param engine the engine the moves were made on
+     * @param moves the encoded moves
+     * @param count how many of them
+     */
+    public static void appendMoves(StringBuilder out, BitBoard engine,
+        byte[] moves, int count)
+    {
+        // Goes through the moves in order
+        for (int in = 0; in < count; in++)
+        {
+            appendMove(out, engine, moves[in] & 0xFF);
+        }
+    }
+
+    /**
+     * Writes the moves in text, e.g. "32R34L".
+     * @param engine the engine the moves were made on
+     * @return the moves
+     */
+    public String toString(BitBoard engine)
+    {
+        StringBuilder out = new StringBuilder(size * 3);
+        appendMoves(out, engine, moves, size);
+        return out.toString();
+    }
+}
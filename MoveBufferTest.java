@@ -0,0 +1,111 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * The test class MoveBufferTest.
+ *
+ * @author  Eric Tran
+ * @version 1
+ */
+public class MoveBufferTest extends junit.framework.TestCase
+{
+    /**
+     * Tests adding, reading and taking back moves.
+     */
+    @Test
+    public void testAddRemove()
+    {
+        BitBoard engine = new BitBoard(GameBoard.kMaxRowCol);
+        MoveBuffer buffer = new MoveBuffer();
+        assertEquals("Empty", 0, buffer.size());
+        int move = MoveBuffer.encode(engine.cellAt(3, 2), BitBoard.kRight);
+        buffer.add(move);
+        buffer.add(MoveBuffer.encode(engine.cellAt(1, 5), BitBoard.kLeft));
+        assertEquals("Two moves", 2, buffer.size());
+        assertEquals("First", move, buffer.get(0));
+        assertEquals("Text", "32R15L", buffer.toString(engine));
+        buffer.removeLast();
+        assertEquals("Taken back", "32R", buffer.toString(engine));
+        buffer.clear();
+        assertEquals("Cleared", 0, buffer.size());
+    }
+
+    /**
+     * Tests that the biggest move still fits in a byte.
+     */
+    @Test
+    public void testBiggestMove()
+    {
+        BitBoard engine = new BitBoard(9);
+        MoveBuffer buffer = new MoveBuffer();
+        int move = MoveBuffer.encode(engine.cellAt(7, 7), BitBoard.kRight);
+        buffer.add(move);
+        assertEquals("Read back", move, buffer.get(0));
+        assertEquals("Text", "77R", buffer.toString(engine));
+    }
+
+    /**
+     * Tests that the buffer grows and keeps its moves.
+     */
+    @Test
+    public void testGrows()
+    {
+        BitBoard engine = new BitBoard(GameBoard.kMaxRowCol);
+        MoveBuffer buffer = new MoveBuffer();
+        StringBuilder expected = new StringBuilder();
+        for (int in = 0; in < 100; in++)
+        {
+            int dir = in % BitBoard.kNumDirs;
+            buffer.add(MoveBuffer.encode(engine.cellAt(2, 4), dir));
+            expected.append("24").append(BitBoard.kDirNames.charAt(dir));
+        }
+        assertEquals("Moves", 100, buffer.size());
+        assertEquals("Text", expected.toString(), buffer.toString(engine));
+    }
+
+    /**
+     * Tests that a shared array is not written over after an undo.
+     */
+    @Test
+    public void testSharedUnchanged()
+    {
+        BitBoard engine = new BitBoard(GameBoard.kMaxRowCol);
+        MoveBuffer buffer = new MoveBuffer();
+        buffer.add(MoveBuffer.encode(engine.cellAt(1, 5), BitBoard.kLeft));
+        buffer.add(MoveBuffer.encode(engine.cellAt(5, 1), BitBoard.kRight));
+        byte[] shared = buffer.share();
+        buffer.removeLast();
+        buffer.add(MoveBuffer.encode(engine.cellAt(3, 2), BitBoard.kRight));
+        StringBuilder old = new StringBuilder();
+        MoveBuffer.appendMoves(old, engine, shared, 2);
+        assertEquals("Shared kept", "15L51R", old.toString());
+        assertEquals("New move", "15L32R", buffer.toString(engine));
+
+        byte[] again = buffer.share();
+        buffer.add(MoveBuffer.encode(engine.cellAt(5, 5), BitBoard.kUp));
+        assertSame("Adding at the end doesn't copy", again, buffer.share());
+    }
+
+    /**
+     * Tests that a snapshot renders its moves on demand.
+     */
+    @Test
+    public void testSnapshotMoves()
+    {
+        GameBoard board = new GameBoard(false);
+        board.movePiece(1, 5, BitBoard.kLeft);
+        BoardSnapshot before = board.getSnapshot();
+        board.undo();
+        board.movePiece(5, 1, BitBoard.kRight);
+        StringBuilder moves = new StringBuilder();
+        before.appendMoves(moves);
+        assertEquals("Old snapshot kept", "15L", moves.toString());
+        assertEquals("Old list", "[15L]", before.getMoves().toString());
+        assertEquals("New list", "[51R]", board.getMoves().toString());
+        assertEquals("Encoded", MoveBuffer.encode(
+            new BitBoard(GameBoard.kMaxRowCol).cellAt(5, 1), BitBoard.kRight),
+            board.getSnapshot().getMove(0));
+    }
+}
@@ -0,0 +1,311 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * ParallelBoardSolver class finds the shortest winning move sequence
+ * like BoardSolver, but expands each breadth-first level in parallel
+ * on a ForkJoinPool. It is meant for big custom boards (up to 9x9,
+ * any number of robots) where a single thread takes too long.
+ *
+ * Only the frontiers are kept, not a parent per position, so the
+ * winning path is rebuilt afterwards by walking back one level at a time.
+ *
+ * @author Eric Tran
+ * @version 1
+ */
+public class ParallelBoardSolver implements PuzzleSolver
+{
+    private static final int kSplitSize = 512;
+
+    private BitBoard engine;
+    private ForkJoinPool pool;
+    private ConcurrentLongHashSet visited;
+    private ConcurrentLinkedQueue<long[]> found;
+    private volatile boolean won;
+    private long winFrom;
+    private int winMove;
+    private int expanded;
+
+    /**
+     * Constructs a solver for the standard board.
+     * @param threads number of threads to search with
+     */
+    public ParallelBoardSolver(int threads)
+    {
+        this(new BitBoard(GameBoard.kMaxRowCol), threads);
+    }
+
+    /**
+     * Constructs a solver for boards of the engine's size.
+     * @param engine the engine used to compute slides
+     * @param threads number of threads to search with
+     */
+    public ParallelBoardSolver(BitBoard engine, int threads)
+    {
+        this.engine = engine;
+        pool = new ForkJoinPool(threads);
+        visited = new ConcurrentLongHashSet(threads);
+        found = new ConcurrentLinkedQueue<long[]>();
+    }
+
+    /**
+     * Gets the number of positions expanded by the last solve.
+     * @return number of expanded positions
+     */
+    public int getExpanded()
+    {
+        return expanded;
+    }
+
+    /**
+     * Stops the threads of this solver.
+     */
+    public void shutdown()
+    {
+        pool.shutdown();
+    }
+
+    /**
+     * Finds the shortest winning move sequence for a board.
+     * @param board the board to be solved, e.g. "11 15 32R 34 51 55"
+     * @return the moves in "32R" notation, or null if it can't be won
+     */
+    public ArrayList<String> solve(String board)
+    {
+        return solve(engine.parse(board));
+    }
+
+    /**
+     * Finds the shortest winning move sequence for a packed position.
+     * @param start the position to be solved
+     * @return the moves in "32R" notation, or null if it can't be won
+     */
+    public ArrayList<String> solve(long start)
+    {
+        ArrayList<long[]> levels = new ArrayList<long[]>();
+        long[] frontier = new long[] {start};
+        visited.clear();
+        visited.add(start);
+        won = false;
+        expanded = 0;
+
+        // Expands one whole level at a time
+        while (frontier.length > 0)
+        {
+            levels.add(frontier);
+            found.clear();
+            pool.invoke(new ExpandTask(frontier, 0, frontier.length));
+            expanded += frontier.length;
+            // Someone on this level made the winning move
+            if (won)
+            {
+                return buildPath(levels);
+            }
+            frontier = collectFound();
+        }
+        return null;
+    }
+
+    /**
+     * Records the winning move, keeping only the first one found.
+     * @param position the position the move was made from
+     * @param move the move, encoded as cell * 4 + direction
+     */
+    private synchronized void recordWin(long position, int move)
+    {
+        // Only the first win is kept
+        if (!won)
+        {
+            winFrom = position;
+            winMove = move;
+            won = true;
+        }
+    }
+
+    /**
+     * Joins the chunks the tasks found into the next frontier.
+     * @return the next level's positions
+     */
+    private long[] collectFound()
+    {
+        int total = 0;
+        // Counts every chunk
+        for (long[] chunk : found)
+        {
+            total += chunk.length;
+        }
+        long[] next = new long[total];
+        int index = 0;
+        // Copies every chunk
+        for (long[] chunk : found)
+        {
+            System.arraycopy(chunk, 0, next, index, chunk.length);
+            index += chunk.length;
+        }
+        return next;
+    }
+
+    /**
+     * Rebuilds the path to the winning move, walking back one level
+     * at a time to find a position that slides into the current one.
+     * @param levels the frontiers of every level searched
+     * @return the moves in "32R" notation
+     */
+    private ArrayList<String> buildPath(ArrayList<long[]> levels)
+    {
+        ArrayList<String> path = new ArrayList<String>();
+        path.add(moveName(winMove));
+        long current = winFrom;
+        // Goes back level by level to the start
+        for (int level = levels.size() - 2; level >= 0; level--)
+        {
+            int move = -1;
+            // Goes through the positions one level up
+            for (long position : levels.get(level))
+            {
+                move = findMove(position, current);
+                // This one leads to the current position
+                if (move != -1)
+                {
+                    path.add(moveName(move));
+                    current = position;
+                    break;
+                }
+            }
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Finds the move that turns one position into another.
+     * @param position the position to move from
+     * @param target the position wanted after the move
+     * @return the move encoded as cell * 4 + direction, or -1 if none
+     */
+    private int findMove(long position, long target)
+    {
+        long robots = BitBoard.occupied(position) & ~BitBoard.occupied(target);
+        // Exactly one robot must have left its cell
+        if (Long.bitCount(robots) != 1)
+        {
+            return -1;
+        }
+        int from = Long.numberOfTrailingZeros(robots);
+        // Goes through every direction
+        for (int dir = 0; dir < BitBoard.kNumDirs; dir++)
+        {
+            int to = engine.slide(position, from, dir);
+            // This direction gives the target
+            if (to != BitBoard.kOffBoard &&
+                BitBoard.move(position, from, to) == target)
+            {
+                return from * BitBoard.kNumDirs + dir;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Names an encoded move the way the GameBoard records it.
+     * @param move the move, encoded as cell * 4 + direction
+     * @return the move in "32R" notation
+     */
+    private String moveName(int move)
+    {
+        int cell = move / BitBoard.kNumDirs;
+        return BitBoard.moveName(engine.rowOf(cell), engine.colOf(cell),
+            move % BitBoard.kNumDirs);
+    }
+
+    /**
+     * Task that expands a slice of the frontier,
+     * splitting in half until the slice is small.
+     */
+    private class ExpandTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+        private long[] frontier;
+        private int low;
+        private int high;
+
+        /**
+         * Constructs a task for frontier[low, high).
+         */
+        public ExpandTask(long[] frontier, int low, int high)
+        {
+            this.frontier = frontier;
+            this.low = low;
+            this.high = high;
+        }
+
+        /**
+         * Splits the slice or expands it directly.
+         */
+        protected void compute()
+        {
+            // Small enough to do here
+            if (high - low <= kSplitSize)
+            {
+                expand();
+            }
+            // Split in half
+            else
+            {
+                int mid = (low + high) >>> 1;
+                invokeAll(new ExpandTask(frontier, low, mid),
+                    new ExpandTask(frontier, mid, high));
+            }
+        }
+
+        /**
+         * Expands every position in the slice into a local chunk.
+         */
+        private void expand()
+        {
+            long[] chunk = new long[kSplitSize];
+            int count = 0;
+            // Goes through the slice unless someone already won
+            for (int in = low; in < high && !won; in++)
+            {
+                long position = frontier[in];
+                int red = BitBoard.redCell(position);
+                long robots = BitBoard.occupied(position);
+                // Goes through every robot
+                while (robots != 0)
+                {
+                    int from = Long.numberOfTrailingZeros(robots);
+                    robots &= robots - 1;
+                    // Goes through every direction
+                    for (int dir = 0; dir < BitBoard.kNumDirs; dir++)
+                    {
+                        int to = engine.slide(position, from, dir);
+                        // Red ends its move on the center, so the game is won
+                        if (from == red && to == engine.getCenter())
+                        {
+                            recordWin(position, from * BitBoard.kNumDirs + dir);
+                            return;
+                        }
+                        // Walking off loses and a blocked robot changes nothing
+                        if (to == BitBoard.kOffBoard || to == from)
+                        {
+                            continue;
+                        }
+                        long next = BitBoard.move(position, from, to);
+                        // Only keep positions not seen before
+                        if (visited.add(next))
+                        {
+                            // Out of room, so double the chunk
+                            if (count == chunk.length)
+                            {
+                                chunk = Arrays.copyOf(chunk, count * 2);
+                            }
+                            chunk[count++] = next;
+                        }
+                    }
+                }
+            }
+            found.add(Arrays.copyOf(chunk, count));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.util.*;
+
+/**
+ * The test class ParallelBoardSolverTest.
+ *
+ * @author  Eric Tran
+ * @version 1
+ */
+public class ParallelBoardSolverTest extends junit.framework.TestCase
+{
+    /**
+     * Tests that the parallel solver finds solutions as short as
+     * the single threaded one on every built in board.
+     */
+    @Test
+    public void testMatchesBoardSolver()
+    {
+        BoardSolver single = new BoardSolver();
+        ParallelBoardSolver parallel = new ParallelBoardSolver(4);
+        ReplayEngine replayer = new ReplayEngine();
+        BoardRegulator regulator = new BoardRegulator();
+        for (int in = 1; in <= 18; in++)
+        {
+            regulator.setBoard(in);
+            ArrayList<String> moves = parallel.solve(regulator.getBoard());
+            assertEquals("Board " + in + " same length",
+                single.solve(regulator.getBoard()).size(), moves.size());
+            assertTrue("Board " + in + " solution wins",
+                replayer.replay(regulator.getBoard(), moves).isWon());
+        }
+        assertNull("Red alone can't win", parallel.solve("32R"));
+        parallel.shutdown();
+    }
+
+    /**
+     * Tests a 9x9 board with 10 robots.
+     */
+    @Test
+    public void testLargeBoard()
+    {
+        BitBoard engine = new BitBoard(BitBoard.kMaxSize);
+        ParallelBoardSolver parallel = new ParallelBoardSolver(engine, 4);
+        String board = "14 25 26 36R 42 51 61 65 72 75";
+        ArrayList<String> moves = parallel.solve(board);
+        assertEquals("Ten moves", 10, moves.size());
+        assertTrue("Solution wins", new ReplayEngine(BitBoard.kMaxSize)
+            .replay(board, moves).isWon());
+        parallel.shutdown();
+    }
+}
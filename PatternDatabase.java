@@ -0,0 +1,216 @@
+/**
+ * PatternDatabase class holds a lower bound on the moves left to win,
+ * precomputed for every blocker layout around the center.
+ *
+ * A position is cut down to the red robot's cell plus which cells of the
+ * center row and center col hold a green robot. Everything else on the
+ * board is unknown, so a slide may stop anywhere an unknown robot could be,
+ * and a green move may take one robot out of the pattern and put one in.
+ * Every real move is also a move of this smaller game, so its distances
+ * never overestimate and are safe to use as an IDA* heuristic.
+ *
+ * @author Eric Tran
+ * @version 1
+ */
+public class PatternDatabase
+{
+    /**
+     * Stored for layouts the red robot can never win from.
+     */
+    public static final int kUnsolvable = Byte.MAX_VALUE;
+
+    private BitBoard engine;
+    private int inner;
+    private int[] patternCells;
+    private int[] patternIndex;
+    private int patternSize;
+    private byte[] distance;
+
+    /**
+     * Constructs and fills the database for the engine's board size.
+     * @param engine the engine whose board is used
+     */
+    public PatternDatabase(BitBoard engine)
+    {
+        this.engine = engine;
+        this.inner = engine.getSize() - 2;
+        int center = engine.getCenter();
+        patternIndex = new int[engine.getCellCount()];
+        patternCells = new int[inner * 2 - 1];
+        // Picks the center row and center col
+        for (int cell = 0; cell < engine.getCellCount(); cell++)
+        {
+            patternIndex[cell] = -1;
+            // Same row or col as the center
+            if (cell / inner == center / inner || cell % inner == center % inner)
+            {
+                patternIndex[cell] = patternSize;
+                patternCells[patternSize++] = cell;
+            }
+        }
+        distance = new byte[engine.getCellCount() << patternSize];
+        build();
+    }
+
+    /**
+     * Gets the lower bound for a real position.
+     * @param position the packed position
+     * @return the least number of moves to win, or kUnsolvable
+     */
+    public int lookup(long position)
+    {
+        int red = BitBoard.redCell(position);
+        long greens = BitBoard.occupied(position) & ~(1L << red);
+        int mask = 0;
+        // Picks out the pattern cells
+        for (int in = 0; in < patternSize; in++)
+        {
+            // A green robot sits on this pattern cell
+            if ((greens & (1L << patternCells[in])) != 0)
+            {
+                mask |= 1 << in;
+            }
+        }
+        return distance[(red << patternSize) | mask];
+    }
+
+    /**
+     * Gets the number of layouts stored.
+     * @return number of entries
+     */
+    public int size()
+    {
+        return distance.length;
+    }
+
+    /**
+     * Fills in the distances one level at a time: first the layouts
+     * the red robot wins from in one move, then the layouts one move
+     * away from those, and so on until nothing changes.
+     */
+    private void build()
+    {
+        java.util.Arrays.fill(distance, (byte) kUnsolvable);
+        boolean changed = true;
+        // Goes one level deeper each pass
+        for (int level = 1; changed && level < kUnsolvable; level++)
+        {
+            changed = false;
+            // Goes through every layout
+            for (int state = 0; state < distance.length; state++)
+            {
+                // Only layouts without a distance yet
+                if (distance[state] == kUnsolvable &&
+                    reaches(state, level - 1))
+                {
+                    distance[state] = (byte) level;
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks whether a layout has a move to a layout of the given distance.
+     * Distance 0 stands for the red robot stopping on the center.
+     * @param state the layout, red cell and pattern mask
+     * @param target the distance wanted after the move
+     * @return whether such a move exists
+     */
+    private boolean reaches(int state, int target)
+    {
+        int red = state >>> patternSize;
+        int mask = state & ((1 << patternSize) - 1);
+        // Red cannot stand on a green robot
+        if (patternIndex[red] != -1 && (mask & (1 << patternIndex[red])) != 0)
+        {
+            return false;
+        }
+        // Goes through every way the red robot can go
+        for (int dir = 0; dir < BitBoard.kNumDirs; dir++)
+        {
+            int cell = red;
+            // Goes along the ray while the way is not known to be blocked
+            while (cell != BitBoard.kOffBoard && !isGreen(mask, cell))
+            {
+                int next = engine.neighbor(cell, dir);
+                // Something may stop the red robot here
+                if (next != BitBoard.kOffBoard &&
+                    (patternIndex[next] == -1 || isGreen(mask, next)))
+                {
+                    // Stopping on the center wins
+                    if (target == 0 && cell == engine.getCenter())
+                    {
+                        return true;
+                    }
+                    // Another red stop of the right distance
+                    if (target > 0 &&
+                        distance[(cell << patternSize) | mask] == target)
+                    {
+                        return true;
+                    }
+                }
+                cell = next;
+            }
+        }
+        // Green moves never win on their own
+        if (target == 0)
+        {
+            return false;
+        }
+        return reachesByGreen(red, mask, target);
+    }
+
+    /**
+     * Checks the green moves: one green robot may leave the pattern,
+     * one may enter it, or one may move from one pattern cell to another.
+     * @param red the red robot's cell
+     * @param mask which pattern cells hold a green robot
+     * @param target the distance wanted after the move
+     * @return whether such a move exists
+     */
+    private boolean reachesByGreen(int red, int mask, int target)
+    {
+        int full = (1 << patternSize) - 1;
+        int redBit = patternIndex[red] == -1 ? 0 : 1 << patternIndex[red];
+        // Goes through what leaves, including nothing
+        for (int out = -1; out < patternSize; out++)
+        {
+            // Can only take away a robot that is there
+            if (out != -1 && (mask & (1 << out)) == 0)
+            {
+                continue;
+            }
+            int left = out == -1 ? mask : mask & ~(1 << out);
+            // Goes through what comes in, including nothing
+            for (int in = -1; in < patternSize; in++)
+            {
+                int bit = in == -1 ? 0 : 1 << in;
+                // Must land on a free cell that is not the red robot
+                if ((left & bit) != 0 || (bit & redBit) != 0)
+                {
+                    continue;
+                }
+                int after = (left | bit) & full;
+                // Found a green move to the wanted distance
+                if (after != mask &&
+                    distance[(red << patternSize) | after] == target)
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a cell is a pattern cell holding a green robot.
+     * @param mask which pattern cells hold a green robot
+     * @param cell the cell to check
+     * @return whether a green robot is known to be there
+     */
+    private boolean isGreen(int mask, int cell)
+    {
+        return patternIndex[cell] != -1 && (mask & (1 << patternIndex[cell])) != 0;
+    }
+}
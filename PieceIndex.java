@@ -0,0 +1,138 @@
+import java.util.*;
+
+/**
+ * PieceIndex class keeps where every robot stands, next to the grid, so
+ * finding, clearing or drawing the robots costs the number of robots,
+ * not the area of the board. The red robot is always kept first.
+ *
+ * Cells are numbered row * width + col.
+ *
+ * @author Eric Tran
+ * @version 1
+ */
+public class PieceIndex
+{
+    private int width;
+    private int[] cells;
+    private int length;
+    private boolean hasRed;
+
+    /**
+     * Constructs an empty index for a square board.
+     * @param width rows and cols of the board
+     */
+    public PieceIndex(int width)
+    {
+        this.width = width;
+        cells = new int[width];
+    }
+
+    /**
+     * Adds a robot to the index.
+     * @param row the x coord
+     * @param col the y coord
+     * @param red whether it is the red robot
+     */
+    public void add(int row, int col, boolean red)
+    {
+        // Out of room, so double the array
+        if (length == cells.length)
+        {
+            cells = Arrays.copyOf(cells, length * 2);
+        }
+        cells[length++] = row * width + col;
+        // Red goes to the front
+        if (red)
+        {
+            cells[length - 1] = cells[0];
+            cells[0] = row * width + col;
+            hasRed = true;
+        }
+    }
+
+    /**
+     * Moves the robot standing on one cell to another.
+     * @param fromRow the x coord it stands on
+     * @param fromCol the y coord it stands on
+     * @param toRow the x coord it moves to
+     * @param toCol the y coord it moves to
+     */
+    public void move(int fromRow, int fromCol, int toRow, int toCol)
+    {
+        int in = indexOf(fromRow, fromCol);
+        // No robot was there
+        if (in == -1)
+        {
+            throw new IllegalArgumentException(
+                "No robot at " + fromRow + "," + fromCol);
+        }
+        cells[in] = toRow * width + toCol;
+    }
+
+    /**
+     * Removes every robot.
+     */
+    public void clear()
+    {
+        length = 0;
+        hasRed = false;
+    }
+
+    /**
+     * Finds the robot standing on a cell.
+     * @param row the x coord
+     * @param col the y coord
+     * @return its place in the index, or -1 if no robot is there
+     */
+    public int indexOf(int row, int col)
+    {
+        int cell = row * width + col;
+        // Goes through the robots
+        for (int in = 0; in < length; in++)
+        {
+            // Found the robot
+            if (cells[in] == cell)
+            {
+                return in;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the cell of the red robot.
+     * @return the cell, or -1 if there is no red robot
+     */
+    public int getRed()
+    {
+        return hasRed ? cells[0] : -1;
+    }
+
+    /**
+     * Gets the cell of a robot.
+     * @param in its place in the index, the red robot is 0
+     * @return the cell
+     */
+    public int get(int in)
+    {
+        return cells[in];
+    }
+
+    /**
+     * Gets the number of robots.
+     * @return number of robots
+     */
+    public int size()
+    {
+        return length;
+    }
+
+    /**
+     * Gets every robot's cell.
+     * @return a copy of the cells, red first
+     */
+    public int[] toArray()
+    {
+        return Arrays.copyOf(cells, length);
+    }
+}
@@ -0,0 +1,85 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.util.*;
+
+/**
+ * The test class PieceIndexTest.
+ *
+ * @author  Eric Tran
+ * @version 1
+ */
+public class PieceIndexTest extends junit.framework.TestCase
+{
+    /**
+     * Tests adding, finding and moving robots.
+     */
+    @Test
+    public void testIndex()
+    {
+        PieceIndex pieces = new PieceIndex(7);
+        assertEquals("No red yet", -1, pieces.getRed());
+        pieces.add(1, 1, false);
+        pieces.add(3, 2, true);
+        pieces.add(5, 5, false);
+        assertEquals("Robots", 3, pieces.size());
+        assertEquals("Red first", 23, pieces.getRed());
+        assertEquals("Cells", "[23, 8, 40]", Arrays.toString(pieces.toArray()));
+        assertEquals("Found", 2, pieces.indexOf(5, 5));
+        assertEquals("Not a robot", -1, pieces.indexOf(4, 4));
+
+        pieces.move(3, 2, 3, 4);
+        assertEquals("Red moved", 25, pieces.getRed());
+        assertEquals("Old cell empty", -1, pieces.indexOf(3, 2));
+        pieces.clear();
+        assertEquals("Cleared", 0, pieces.size());
+        assertEquals("Cleared red", -1, pieces.getRed());
+    }
+
+    /**
+     * Tests that moving a robot that isn't there is caught.
+     */
+    @Test
+    public void testMoveMissing()
+    {
+        PieceIndex pieces = new PieceIndex(7);
+        pieces.add(1, 1, true);
+        try
+        {
+            pieces.move(2, 2, 3, 3);
+            fail("No robot at 2,2");
+        }
+        catch (IllegalArgumentException ex)
+        {
+            assertEquals("Unchanged", 8, pieces.getRed());
+        }
+    }
+
+    /**
+     * Tests that the game keeps the index in step with the grid.
+     */
+    @Test
+    public void testGameBoard()
+    {
+        GameBoard board = new GameBoard(false);
+        assertEquals("Board 1", "[23, 12, 8, 25, 36, 40]",
+            Arrays.toString(board.getPieces()));
+
+        board.movePiece(1, 5, BitBoard.kLeft);
+        board.movePiece(1, 1, BitBoard.kUp);
+        assertEquals("Moved and fell", "[23, 9, 1, 25, 36, 40]",
+            Arrays.toString(board.getPieces()));
+        board.undo();
+        board.undo();
+        assertEquals("Undone", "[23, 12, 8, 25, 36, 40]",
+            Arrays.toString(board.getPieces()));
+
+        board.movePiece(3, 2, BitBoard.kRight);
+        assertTrue("Red on the center wins", board.getWinFlag());
+        board.newGame("22R 14 31 42 44 55");
+        assertEquals("New game", 6, board.getPieces().length);
+        assertEquals("Old robots cleared", GameBoard.kBlank,
+            new BoardTableModel(board).getValueAt(3, 3));
+    }
+}
@@ -0,0 +1,328 @@
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PuzzleGenerator class makes new boards of a wanted difficulty.
+ * Worker threads place robots at random, solve each placement and keep
+ * the ones that DifficultyRater gives the wanted letter and whose first
+ * move isn't forced, so a generated board rates the same as it is
+ * labelled. Kept boards go through a shared concurrent set
+ * so no board is written twice, and are streamed to a pack file as soon
+ * as they are found.
+ *
+ * Each line of a pack file is the difficulty, the par (shortest number
+ * of moves) and the board, e.g. "E 1 11 15 32R 34 51 55".
+ *
+ * @author Eric Tran
+ * @version 1
+ */
+public class PuzzleGenerator
+{
+    /**
+     * Fewest opening moves a kept board must have, so the first move
+     * isn't forced.
+     */
+    public static final int kMinBranching = 4;
+
+    private static final int kMaxMisses = 1 << 20;
+
+    private BitBoard engine;
+    private int robots;
+    private int threads;
+    private Tablebase tablebase;
+
+    /**
+     * Constructs a generator for the standard board.
+     * @param threads number of threads to generate with
+     */
+    public PuzzleGenerator(int threads)
+    {
+        this(new BitBoard(GameBoard.kMaxRowCol), Tablebase.kStandardRobots,
+            threads);
+    }
+
+    /**
+     * Constructs a generator for boards of the engine's size.
+     * @param engine the engine used to compute slides
+     * @param robots number of robots on every board, red included
+     * @param threads number of threads to generate with
+     */
+    public PuzzleGenerator(BitBoard engine, int robots, int threads)
+    {
+        this.engine = engine;
+        this.robots = robots;
+        this.threads = threads;
+        // Standard boards are looked up instead of solved
+        if (engine.getSize() == GameBoard.kMaxRowCol &&
+            robots == Tablebase.kStandardRobots)
+        {
+            tablebase = Tablebase.getStandard();
+            // Not written yet, but quick enough to build here
+            if (tablebase == null)
+            {
+                tablebase = Tablebase.generate(engine, robots);
+            }
+        }
+    }
+
+    /**
+     * Works out which band a board falls in.
+     * @param rating the board's rating
+     * @param branching moves that can be made from the start
+     * @return the difficulty, or ' ' if it fits no band
+     */
+    public static char bandOf(DifficultyRating rating, int branching)
+    {
+        // Forced openings make poor puzzles
+        if (branching < kMinBranching)
+        {
+            return ' ';
+        }
+        return rating.getLetter().charAt(0);
+    }
+
+    /**
+     * Counts the moves that can be made without losing or standing still.
+     * @param position the packed position
+     * @return number of moves
+     */
+    public int branching(long position)
+    {
+        long robots = BitBoard.occupied(position);
+        int count = 0;
+        // Goes through every robot
+        while (robots != 0)
+        {
+            int from = Long.numberOfTrailingZeros(robots);
+            robots &= robots - 1;
+            // Goes through every direction
+            for (int dir = 0; dir < BitBoard.kNumDirs; dir++)
+            {
+                int to = engine.slide(position, from, dir);
+                // Stays on the board and goes somewhere
+                if (to != BitBoard.kOffBoard && to != from)
+                {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Generates unique boards of a difficulty and writes them to a pack file.
+     * Gives up once kMaxMisses placements in a row turn up nothing new,
+     * so a band with fewer boards than wanted doesn't run forever.
+     * @param band the difficulty wanted, one of DifficultyRating.kBands
+     * @param count number of boards wanted
+     * @param pack the file to write the boards to
+     * @return number of boards written
+     * @throws IOException if the pack file can't be written
+     */
+    public int generate(char band, int count, File pack) throws IOException
+    {
+        Writer out = new BufferedWriter(new FileWriter(pack));
+        try
+        {
+            return generate(band, count, out);
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+
+    /**
+     * Generates unique boards of a difficulty and streams them out.
+     * @param band the difficulty wanted, one of DifficultyRating.kBands
+     * @param count number of boards wanted
+     * @param out where the pack lines are written
+     * @return number of boards written
+     * @throws IOException if a line can't be written
+     */
+    public int generate(char band, int count, Writer out) throws IOException
+    {
+        // Not a difficulty
+        if (DifficultyRating.kBands.indexOf(band) == -1)
+        {
+            throw new IllegalArgumentException("Unknown difficulty " + band);
+        }
+        ConcurrentLongHashSet seen = new ConcurrentLongHashSet(threads);
+        AtomicInteger kept = new AtomicInteger();
+        AtomicInteger misses = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        ArrayList<Future<Void>> workers = new ArrayList<Future<Void>>();
+        // Starts every worker
+        for (int in = 0; in < threads; in++)
+        {
+            workers.add(pool.submit(
+                new Worker(band, count, out, seen, kept, misses)));
+        }
+        try
+        {
+            // Waits for every worker to finish
+            for (Future<Void> worker : workers)
+            {
+                worker.get();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException e)
+        {
+            // Pass on a failed write
+            if (e.getCause() instanceof IOException)
+            {
+                throw (IOException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+        finally
+        {
+            pool.shutdownNow();
+        }
+        out.flush();
+        return Math.min(kept.get(), count);
+    }
+
+    /**
+     * Worker class places, solves and keeps boards until enough are kept.
+     */
+    private class Worker implements Callable<Void>
+    {
+        private char band;
+        private int count;
+        private Writer out;
+        private ConcurrentLongHashSet seen;
+        private AtomicInteger kept;
+        private AtomicInteger misses;
+        private BoardSolver solver;
+        private DifficultyRater rater;
+
+        /**
+         * Constructs a worker sharing the counters and output.
+         * @param band the difficulty wanted
+         * @param count number of boards wanted
+         * @param out where the pack lines are written
+         * @param seen every board kept so far
+         * @param kept number of boards kept so far
+         * @param misses placements in a row that turned up nothing new
+         */
+        Worker(char band, int count, Writer out, ConcurrentLongHashSet seen,
+            AtomicInteger kept, AtomicInteger misses)
+        {
+            this.band = band;
+            this.count = count;
+            this.out = out;
+            this.seen = seen;
+            this.kept = kept;
+            this.misses = misses;
+            solver = new BoardSolver(engine);
+            // Nearly every board is only seen once, so not worth caching
+            rater = new DifficultyRater(engine, 0);
+        }
+
+        /**
+         * Keeps going until enough boards are kept or new ones stop
+         * turning up.
+         * @return nothing
+         * @throws IOException if a line can't be written
+         */
+        public Void call() throws IOException
+        {
+            Random random = ThreadLocalRandom.current();
+            // Tries placements until done
+            while (kept.get() < count && misses.incrementAndGet() <= kMaxMisses)
+            {
+                long position = place(random);
+                int length = lengthOf(position);
+                int branching = branching(position);
+                // Can't be won or the first move is forced, checked before
+                // rating as that searches every position out to par
+                if (length == -1 || branching < kMinBranching)
+                {
+                    continue;
+                }
+                // Not the wanted difficulty
+                if (bandOf(rater.rate(position), branching) != band)
+                {
+                    continue;
+                }
+                // Only the first worker to find a board keeps it
+                if (seen.add(position) && kept.getAndIncrement() < count)
+                {
+                    misses.set(0);
+                    String line = band + " " + length + " "
+                        + engine.format(position) + "\n";
+                    synchronized (out)
+                    {
+                        out.write(line);
+                    }
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Places the robots on distinct random cells.
+         * @param random where the cells come from
+         * @return the packed position
+         */
+        private long place(Random random)
+        {
+            long cells = 0;
+            // Adds robots until there are enough
+            while (Long.bitCount(cells) < robots)
+            {
+                cells |= 1L << random.nextInt(engine.getCellCount());
+            }
+            int pick = random.nextInt(robots);
+            long red = cells;
+            // Skips to the picked robot
+            for (int in = 0; in < pick; in++)
+            {
+                red &= red - 1;
+            }
+            return BitBoard.pack(cells, Long.numberOfTrailingZeros(red));
+        }
+
+        /**
+         * Finds the shortest solution length, from the tablebase if it
+         * covers the position, otherwise by solving.
+         * @param position the packed position
+         * @return moves in the shortest solution, or -1 if it can't be won
+         */
+        private int lengthOf(long position)
+        {
+            // Looking it up is much cheaper than searching
+            if (tablebase != null && tablebase.covers(position))
+            {
+                int distance = tablebase.distance(position);
+                return distance == Tablebase.kUnsolvable ? -1 : distance;
+            }
+            ArrayList<String> moves = solver.solve(position);
+            return moves == null ? -1 : moves.size();
+        }
+    }
+
+    /**
+     * Generates a pack and prints how many boards it got.
+     * @param args the difficulty, the number of boards, the pack file
+     * and optionally the number of threads
+     */
+    public static void main(String[] args) throws IOException
+    {
+        char band = args.length > 0 ? args[0].charAt(0) : 'M';
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        File pack = new File(args.length > 2 ? args[2] : "roundup/boards.txt");
+        int threads = args.length > 3 ? Integer.parseInt(args[3])
+            : Runtime.getRuntime().availableProcessors();
+        int written = new PuzzleGenerator(threads).generate(band, count, pack);
+        System.out.println(written + " " + band + " boards written to "
+            + pack.getName());
+    }
+}
@@ -0,0 +1,98 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.util.*;
+import java.io.*;
+
+/**
+ * The test class PuzzleGeneratorTest.
+ *
+ * @author  Eric Tran
+ * @version 1
+ */
+public class PuzzleGeneratorTest extends junit.framework.TestCase
+{
+    /**
+     * Tests the bands the lengths fall in.
+     */
+    @Test
+    public void testBandOf()
+    {
+        DifficultyRater rater = new DifficultyRater(new BitBoard(7));
+        assertEquals("Board 1", 'E',
+            PuzzleGenerator.bandOf(rater.rate("11 15 32R 34 51 55"), 10));
+        assertEquals("Board 3", 'M',
+            PuzzleGenerator.bandOf(rater.rate("11 21 31R 51 15 45"), 10));
+        assertEquals("Board 9", 'D',
+            PuzzleGenerator.bandOf(rater.rate("11 15 21 33 41R 44"), 10));
+        assertEquals("Board 13", 'H',
+            PuzzleGenerator.bandOf(rater.rate("11 13 15 31 51 55R"), 10));
+        assertEquals("Forced opening", ' ',
+            PuzzleGenerator.bandOf(rater.rate("11 13 15 31 51 55R"), 2));
+    }
+
+    /**
+     * Tests that every generated board is unique, can be won in
+     * the par written and is in the band asked for.
+     */
+    @Test
+    public void testGenerate() throws IOException
+    {
+        PuzzleGenerator generator = new PuzzleGenerator(2);
+        BoardSolver solver = new BoardSolver();
+        DifficultyRater rater = new DifficultyRater(solver.getEngine());
+        for (char band : DifficultyRating.kBands.toCharArray())
+        {
+            StringWriter out = new StringWriter();
+            assertEquals("Band " + band + " count", 50,
+                generator.generate(band, 50, out));
+            String[] lines = out.toString().split("\n");
+            assertEquals("Band " + band + " lines", 50, lines.length);
+            HashSet<String> boards = new HashSet<String>();
+            for (String line : lines)
+            {
+                int space = line.indexOf(' ', 2);
+                String board = line.substring(space + 1);
+                int par = Integer.parseInt(line.substring(2, space));
+                assertTrue("Unique " + board, boards.add(board));
+                assertEquals("Band " + board, band, line.charAt(0));
+                assertEquals("Par " + board, solver.solve(board).size(), par);
+                long position = solver.getEngine().parse(board);
+                assertEquals("Fits " + board, band,
+                    PuzzleGenerator.bandOf(rater.rate(position),
+                        generator.branching(position)));
+            }
+        }
+    }
+
+    /**
+     * Tests a board size without a tablebase, solved by searching.
+     */
+    @Test
+    public void testOtherSize() throws IOException
+    {
+        BitBoard engine = new BitBoard(6);
+        PuzzleGenerator generator = new PuzzleGenerator(engine, 4, 1);
+        DifficultyRater rater = new DifficultyRater(engine);
+        StringWriter out = new StringWriter();
+        assertEquals("Count", 20, generator.generate('E', 20, out));
+        for (String line : out.toString().split("\n"))
+        {
+            String board = line.substring(line.indexOf(' ', 2) + 1);
+            assertEquals("Easy " + board, "E", rater.rate(board).getLetter());
+        }
+    }
+
+    /**
+     * Tests that a band with fewer boards than wanted stops.
+     */
+    @Test
+    public void testRunsOut() throws IOException
+    {
+        BitBoard engine = new BitBoard(5);
+        PuzzleGenerator generator = new PuzzleGenerator(engine, 3, 1);
+        int written = generator.generate('H', 10, new StringWriter());
+        assertTrue("Tiny board has no long puzzles", written < 10);
+    }
+}
@@ -0,0 +1,25 @@
+import java.util.*;
+
+/**
+ * PuzzleSolver interface is shared by every solver,
+ * so callers can pick whichever search suits the board.
+ *
+ * @author Eric Tran
+ * @version 1
+ */
+public interface PuzzleSolver
+{
+    /**
+     * Finds the shortest winning move sequence for a board.
+     * @param board the board to be solved, e.g. "11 15 32R 34 51 55"
+     * @return the moves in "32R" notation, or null if it can't be won
+     */
+    ArrayList<String> solve(String board);
+
+    /**
+     * Finds the shortest winning move sequence for a packed position.
+     * @param start the position to be solved
+     * @return the moves in "32R" notation, or null if it can't be won
+     */
+    ArrayList<String> solve(long start);
+}
@@ -0,0 +1,109 @@
+/**
+ * Replay class holds how a replayed move sequence ended: the position
+ * it left, how many moves were made, and whether the red robot reached
+ * the center.
+ *
+ * @author Eric Tran
+ * @version 1
+ */
+public class Replay
+{
+    /**
+     * The red robot reached the center on the last move.
+     */
+    public static final int kWon = 0;
+
+    /**
+     * A robot walked off the board on the last move.
+     */
+    public static final int kLost = 1;
+
+    /**
+     * Every move was made but the game isn't over.
+     */
+    public static final int kUnfinished = 2;
+
+    /**
+     * A move couldn't be read or made, or came after the game was over.
+     */
+    public static final int kInvalid = 3;
+
+    private final BitBoard engine;
+    private final long position;
+    private final int moveCount;
+    private final int outcome;
+    private final int badMove;
+
+    /**
+     * Constructs the result of a replay.
+     * @param engine the engine the moves were made on
+     * @param position the packed position after the last move made,
+     * without any robot that walked off
+     * @param moveCount the number of moves made
+     * @param outcome kWon, kLost, kUnfinished or kInvalid
+     * @param badMove the index of the move that couldn't be made, or -1
+     */
+    public Replay(BitBoard engine, long position, int moveCount, int outcome,
+        int badMove)
+    {
+        this.engine = engine;
+        this.position = position;
+        this.moveCount = moveCount;
+        this.outcome = outcome;
+        this.badMove = badMove;
+    }
+
+    /**
+     * Gets the position the moves left.
+     * @return the packed position
+     */
+    public long getPosition()
+    {
+        return position;
+    }
+
+    /**
+     * Gets the position the moves left as a board string.
+     * @return the board, e.g. "11 15 33R 34 51 55"
+     */
+    public String getBoard()
+    {
+        return engine.format(position);
+    }
+
+    /**
+     * Gets the number of moves made.
+     * @return number of moves, not counting one that couldn't be made
+     */
+    public int getMoveCount()
+    {
+        return moveCount;
+    }
+
+    /**
+     * Gets how the replay ended.
+     * @return kWon, kLost, kUnfinished or kInvalid
+     */
+    public int getOutcome()
+    {
+        return outcome;
+    }
+
+    /**
+     * Checks whether the red robot reached the center.
+     * @return whether the moves win the game
+     */
+    public boolean isWon()
+    {
+        return outcome == kWon;
+    }
+
+    /**
+     * Gets the move that couldn't be made.
+     * @return its index, the first move is 0, or -1 if there is none
+     */
+    public int getBadMove()
+    {
+        return badMove;
+    }
+}
@@ -0,0 +1,172 @@
+import java.util.List;
+
+/**
+ * ReplayEngine class plays back recorded move sequences, like the
+ * "14D22D32R" kept in the hall of fame, on the packed engine. The
+ * sequence is read a character at a time, without making a string for
+ * each move, and each move is a single slide on a long, so whole
+ * leaderboards can be checked in one go.
+ *
+ * The rules are the GameBoard's: any robot may be moved any way, a
+ * robot that walks off the board loses the game, and the game is won
+ * when the red robot stops on the center. Nothing may be moved once
+ * the game is over.
+ *
+ * @author Eric Tran
+ * @version 1
+ */
+public class ReplayEngine
+{
+    /**
+     * Characters in one move, e.g. "32R".
+     */
+    public static final int kMoveLength = 3;
+
+    private static final int kNoDirection = -1;
+
+    private final BitBoard engine;
+
+    /**
+     * Constructs a replay engine for the GameBoard's board size.
+     */
+    public ReplayEngine()
+    {
+        this(GameBoard.kMaxRowCol);
+    }
+
+    /**
+     * Constructs a replay engine for a board size.
+     * @param size rows and cols of the board, including the border
+     */
+    public ReplayEngine(int size)
+    {
+        engine = new BitBoard(size);
+    }
+
+    /**
+     * Gets the engine the moves are made on.
+     * @return the engine
+     */
+    public BitBoard getEngine()
+    {
+        return engine;
+    }
+
+    /**
+     * Replays moves on a board.
+     * @param board the board in the BoardRegulator format, already validated
+     * @param moves the moves, e.g. "14D22D32R"
+     * @return how the moves ended
+     */
+    public Replay replay(String board, CharSequence moves)
+    {
+        return replay(engine.parse(board), moves);
+    }
+
+    /**
+     * Replays a list of moves on a board, like a solver's solution.
+     * @param board the board in the BoardRegulator format, already validated
+     * @param moves the moves in "32R" notation
+     * @return how the moves ended
+     */
+    public Replay replay(String board, List<String> moves)
+    {
+        StringBuilder joined = new StringBuilder(moves.size() * kMoveLength);
+        // Puts the moves back to back, as the hall of fame keeps them
+        for (String move : moves)
+        {
+            joined.append(move);
+        }
+        return replay(engine.parse(board), joined);
+    }
+
+    /**
+     * Replays moves on a packed position.
+     * @param start the packed position before the first move
+     * @param moves the moves, e.g. "14D22D32R"
+     * @return how the moves ended
+     */
+    public Replay replay(long start, CharSequence moves)
+    {
+        long position = start;
+        int length = moves.length();
+        int count = 0;
+        // Goes through the moves three characters at a time
+        for (int index = 0; index < length; index += kMoveLength)
+        {
+            // Only part of a move is left
+            if (index + kMoveLength > length)
+            {
+                return new Replay(engine, position, count, Replay.kInvalid,
+                    count);
+            }
+            int row = moves.charAt(index) - '0';
+            int col = moves.charAt(index + 1) - '0';
+            int dir = directionOf(moves.charAt(index + 2));
+            // Not a direction, not a cell, or no robot there to move
+            if (dir == kNoDirection || !engine.contains(row, col) ||
+                !BitBoard.isOccupied(position, engine.cellAt(row, col)))
+            {
+                return new Replay(engine, position, count, Replay.kInvalid,
+                    count);
+            }
+            int from = engine.cellAt(row, col);
+            int to = engine.slide(position, from, dir);
+            count++;
+            // Walked off the board, the game is lost
+            if (to == BitBoard.kOffBoard)
+            {
+                return end(position & ~(1L << from), count, Replay.kLost,
+                    index + kMoveLength < length);
+            }
+            position = BitBoard.move(position, from, to);
+            // Red stopped on the center, the game is won
+            if (to == engine.getCenter() && BitBoard.redCell(position) == to)
+            {
+                return end(position, count, Replay.kWon,
+                    index + kMoveLength < length);
+            }
+        }
+        return new Replay(engine, position, count, Replay.kUnfinished, -1);
+    }
+
+    /**
+     * Makes the result of a game that ended.
+     * @param position the position it ended on
+     * @param count the moves made
+     * @param outcome kWon or kLost
+     * @param more whether there are moves after the last one made
+     * @return the result
+     */
+    private Replay end(long position, int count, int outcome, boolean more)
+    {
+        // Moves after the end of the game can't have been made
+        if (more)
+        {
+            return new Replay(engine, position, count, Replay.kInvalid, count);
+        }
+        return new Replay(engine, position, count, outcome, -1);
+    }
+
+    /**
+     * Reads a direction letter.
+     * @param letter 'U', 'D', 'L' or 'R'
+     * @return the direction, or kNoDirection if it isn't one
+     */
+    private static int directionOf(char letter)
+    {
+        switch (letter)
+        {
+            case 'U':
+                return BitBoard.kUp;
+            case 'D':
+                return BitBoard.kDown;
+            case 'L':
+                return BitBoard.kLeft;
+            case 'R':
+                return BitBoard.kRight;
+            default:
+                return kNoDirection;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.util.*;
+
+/**
+ * The test class ReplayEngineTest.
+ *
+ * @author  Eric Tran
+ * @version 1
+ */
+public class ReplayEngineTest extends junit.framework.TestCase
+{
+    /**
+     * Tests a winning sequence.
+     */
+    @Test
+    public void testWin()
+    {
+        ReplayEngine replayer = new ReplayEngine();
+        Replay replay = replayer.replay("22R 14 31 42 44 55", "14D22D32R");
+        assertTrue("Won", replay.isWon());
+        assertEquals("Outcome", Replay.kWon, replay.getOutcome());
+        assertEquals("Moves", 3, replay.getMoveCount());
+        assertEquals("No bad move", -1, replay.getBadMove());
+        assertEquals("Board", "31 33R 34 42 44 55", replay.getBoard());
+    }
+
+    /**
+     * Tests that the solver's solutions win every built in board.
+     */
+    @Test
+    public void testSolutions()
+    {
+        ReplayEngine replayer = new ReplayEngine();
+        PuzzleSolver solver = new BoardSolver();
+        BoardRegulator regulator = new BoardRegulator();
+        for (int in = 1; in <= 18; in++)
+        {
+            regulator.setBoard(in);
+            ArrayList<String> solution = solver.solve(regulator.getBoard());
+            Replay replay = replayer.replay(regulator.getBoard(), solution);
+            assertTrue("Board " + in + " won", replay.isWon());
+            assertEquals("Board " + in + " moves", solution.size(),
+                replay.getMoveCount());
+        }
+    }
+
+    /**
+     * Tests sequences that lose or don't finish.
+     */
+    @Test
+    public void testLostUnfinished()
+    {
+        ReplayEngine replayer = new ReplayEngine();
+        Replay lost = replayer.replay("11 15 32R 34 51 55", "15L12U");
+        assertEquals("Lost", Replay.kLost, lost.getOutcome());
+        assertFalse("Not won", lost.isWon());
+        assertEquals("Both moves made", 2, lost.getMoveCount());
+        assertEquals("Robot gone", "11 32R 34 51 55", lost.getBoard());
+
+        Replay unfinished = replayer.replay("11 15 32R 34 51 55", "15L");
+        assertEquals("Unfinished", Replay.kUnfinished, unfinished.getOutcome());
+        assertEquals("Moves", 1, unfinished.getMoveCount());
+        assertEquals("Board", "11 12 32R 34 51 55", unfinished.getBoard());
+
+        Replay none = replayer.replay("11 15 32R 34 51 55", "");
+        assertEquals("Nothing moved", Replay.kUnfinished, none.getOutcome());
+        assertEquals("Same board", "11 15 32R 34 51 55", none.getBoard());
+    }
+
+    /**
+     * Tests sequences that can't be replayed.
+     */
+    @Test
+    public void testInvalid()
+    {
+        ReplayEngine replayer = new ReplayEngine();
+        String board = "11 15 32R 34 51 55";
+        String[] bad = {"32", "15L3", "22R", "32X", "92R", "3:R", "15L32R15R"};
+        int[] badMove = {0, 1, 0, 0, 0, 0, 2};
+        for (int in = 0; in < bad.length; in++)
+        {
+            Replay replay = replayer.replay(board, bad[in]);
+            assertEquals(bad[in] + " invalid", Replay.kInvalid,
+                replay.getOutcome());
+            assertEquals(bad[in] + " bad move", badMove[in],
+                replay.getBadMove());
+            assertEquals(bad[in] + " moves made", badMove[in],
+                replay.getMoveCount());
+        }
+    }
+
+    /**
+     * Tests that random games end the same way as on the GameBoard.
+     */
+    @Test
+    public void testMatchesGameBoard()
+    {
+        ReplayEngine replayer = new ReplayEngine();
+        Random random = new Random(7);
+        BoardRegulator regulator = new BoardRegulator();
+        GameBoard board = new GameBoard(false);
+        for (int game = 0; game < 200; game++)
+        {
+            regulator.setBoard(1 + random.nextInt(18));
+            board.newGame(regulator.getBoard());
+            // Moves random robots until the game ends or gets long
+            while (!board.getWinFlag() && !board.getLoseFlag() &&
+                board.getMoveCount() < 20)
+            {
+                int[] pieces = board.getSnapshot().getPieces();
+                int cell = pieces[random.nextInt(pieces.length)];
+                board.movePiece(cell / board.getSize(),
+                    cell % board.getSize(),
+                    random.nextInt(BitBoard.kNumDirs));
+            }
+            StringBuilder moves = new StringBuilder();
+            board.getSnapshot().appendMoves(moves);
+            Replay replay = replayer.replay(regulator.getBoard(), moves);
+            assertEquals(moves + " won", board.getWinFlag(), replay.isWon());
+            assertEquals(moves + " lost", board.getLoseFlag(),
+                replay.getOutcome() == Replay.kLost);
+            assertEquals(moves + " moves", board.getMoveCount(),
+                replay.getMoveCount());
+            // Only a game still on the board has the same position
+            if (!board.getLoseFlag())
+            {
+                assertEquals(moves + " position", board.getSnapshot()
+                    .getPosition(), replay.getPosition());
+            }
+        }
+    }
+}
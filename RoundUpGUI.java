@@ -15,7 +15,7 @@ import java.util.*;
  * @author Eric Tran
  * @version 1
  */
-public class RoundUpGUI extends JFrame implements Observer
+public class RoundUpGUI extends JFrame implements BoardListener
 {
     /* Main components of the GUI */
     // DO NOT CHANGE THE FOLLOWING THREE LINES
@@ -25,6 +25,8 @@ public class RoundUpGUI extends JFrame implements Observer
     // The underlying data model
     private GameBoard gameBoard; 
     private BoardRegulator regulator;
+    // The table's model, holding the board being shown
+    private IconTableModel model;
     // The images to be displayed
     private ImageIcon redUp;
     private ImageIcon greenUp;
@@ -40,11 +42,15 @@ public class RoundUpGUI extends JFrame implements Observer
     private ImageIcon deadUp; 
     private ImageIcon deadRight; 
     private ImageIcon deadLeft;
+    private boolean showingLose;
     /* Image dimensions, in pixels */
     private int numCols;
     private int numRows;
-    /* Keeps track of the hall of fame */
-    private HallOfFame hof;
+    /* Shows the hall of fame */
+    private HallOfFameDialog hofDialog;
+    /* The robot clicked on, 0 when none */
+    private int selectedRow;
+    private int selectedCol;
 
     /**
      * Represents the About message,
@@ -77,10 +83,10 @@ public class RoundUpGUI extends JFrame implements Observer
 
         this.gameBoard = passIn;
         this.regulator = gameBoard.getRegulator();  
-        hof = gameBoard.getHallOfFame();
+        hofDialog = new HallOfFameDialog(gameBoard.getHallOfFame());
 
-        numCols = gameBoard.getGrid().getColumnCount();
-        numRows = gameBoard.getGrid().getRowCount();  
+        numCols = gameBoard.getSize();
+        numRows = gameBoard.getSize();  
 
         try
         {
@@ -97,13 +103,13 @@ public class RoundUpGUI extends JFrame implements Observer
      */
     public void layoutGUI()
     {
-        setTitle("Roundup - board " + regulator.getBoardNumber() + " " 
-            + regulator.getBoardDifficulty());
         loadImages();
-        gameBoard.newGame(regulator.getBoard()); 
+        BoardSnapshot loaded = gameBoard.restartGame();
+        showTitle(loaded);
+        model = new IconTableModel();
+        model.setSnapshot(loaded);
         
-        table = new ImageJTable(
-            gameBoard.getGrid().getTable(), gameBoard.getGrid().getColumns());
+        table = new ImageJTable(model);
 
         // Define the layout manager that will control order of components
         getContentPane().setLayout(
@@ -112,7 +118,7 @@ public class RoundUpGUI extends JFrame implements Observer
 
         // Create a panel for the status information
         JPanel statusPane = new JPanel();
-        myStatus = new JLabel("Moves: " + gameBoard.getMoveCount());
+        myStatus = new JLabel("Moves: " + model.getSnapshot().getMoveCount());
         statusPane.add(myStatus);
         statusPane.setAlignmentX(Component.CENTER_ALIGNMENT);
         getContentPane().add(statusPane);
@@ -168,11 +174,41 @@ public class RoundUpGUI extends JFrame implements Observer
                         Toolkit.getDefaultToolkit()
                             .getImage(this.getClass()
                                 .getResource("images/backgroundbkgd.png")));
-                    gameBoard.newGame(regulator.getBoard());
+                    gameBoard.restartGame();
                 }
             });
         mnuGame.add(mnuRestart);
 
+        //sets up 'Undo' in the menu
+        JMenuItem mnuUndo = new JMenuItem("Undo Move");
+        mnuUndo.setMnemonic('U');
+        mnuUndo.setAccelerator(
+            KeyStroke.getKeyStroke('Z', ActionEvent.CTRL_MASK));
+        mnuUndo.setActionCommand("Undo Move");        
+        mnuUndo.addActionListener(new ActionListener()
+            {
+                public void actionPerformed(ActionEvent e)
+                {             
+                    gameBoard.undo();
+                }
+            });
+        mnuGame.add(mnuUndo);
+
+        //sets up 'Redo' in the menu
+        JMenuItem mnuRedo = new JMenuItem("Redo Move");
+        mnuRedo.setMnemonic('O');
+        mnuRedo.setAccelerator(
+            KeyStroke.getKeyStroke('Y', ActionEvent.CTRL_MASK));
+        mnuRedo.setActionCommand("Redo Move");        
+        mnuRedo.addActionListener(new ActionListener()
+            {
+                public void actionPerformed(ActionEvent e)
+                {             
+                    gameBoard.redo();
+                }
+            });
+        mnuGame.add(mnuRedo);
+
         //sets up 'New Game' in the menu
         JMenuItem mnuNew = new JMenuItem("New Game");
         mnuNew.setMnemonic('N');
@@ -187,11 +223,7 @@ public class RoundUpGUI extends JFrame implements Observer
                         Toolkit.getDefaultToolkit()
                             .getImage(this.getClass()
                                 .getResource("images/backgroundbkgd.png")));
-                    regulator.nextBoard();
-                    gameBoard.newGame(regulator.getBoard());  
-                    setTitle("Roundup - Board " 
-                        + regulator.getBoardNumber() + " " 
-                        + regulator.getBoardDifficulty()); 
+                    showTitle(gameBoard.nextGame());
                 }
             });
         mnuGame.add(mnuNew);
@@ -208,7 +240,8 @@ public class RoundUpGUI extends JFrame implements Observer
                 {           
                     String input = (String)JOptionPane.showInputDialog(
                             null,
-                            "Input a game board number (1-18)",
+                            "Input a game board number (1-" 
+                                + regulator.getBoardCount() + ")",
                             "Select game number",
                             JOptionPane.PLAIN_MESSAGE);
                     if (input != null) 
@@ -217,11 +250,7 @@ public class RoundUpGUI extends JFrame implements Observer
                             Toolkit.getDefaultToolkit()
                                 .getImage(this.getClass()
                                     .getResource("images/backgroundbkgd.png")));
-                        regulator.setBoard(Integer.parseInt(input));
-                        gameBoard.newGame(regulator.getBoard());
-                        setTitle("Roundup - board " + 
-                            regulator.getBoardNumber() + 
-                            " " + regulator.getBoardDifficulty());
+                        showTitle(gameBoard.newGame(Integer.parseInt(input)));
 
                     }
                 }
@@ -253,9 +282,7 @@ public class RoundUpGUI extends JFrame implements Observer
                                         .getResource(
                                             "images/backgroundbkgd.png")));
 
-                            regulator.setCustom(input);
-                            gameBoard.newGame(input);
-                            setTitle("Roundup - Board 0");
+                            showTitle(gameBoard.newCustomGame(input));
                         }
                         else
                         {
@@ -280,7 +307,8 @@ public class RoundUpGUI extends JFrame implements Observer
             {
                 public void actionPerformed(ActionEvent e)
                 {           
-                    hof.makeVisibleDialog();
+                    hofDialog.makeVisibleDialog(
+                        gameBoard.getSnapshot().getBoardNumber());
                 }
             });
         mnuGame.add(mnuHall);
@@ -349,18 +377,12 @@ public class RoundUpGUI extends JFrame implements Observer
                         (background.getIconHeight() / numRows));
                 int col = (int) (ev.getPoint().getX() /
                         (background.getIconWidth() / numCols));
-                Object boardPiece = gameBoard.getGrid().getValueAt(row, col);
-
-                if (boardPiece.toString().equals("red") || 
-                    boardPiece.toString().equals("green") ||
-                    boardPiece.toString().equals("reddown") || 
-                    boardPiece.toString().equals("greendown") ||
-                    boardPiece.toString().equals("redleft") || 
-                    boardPiece.toString().equals("greenleft") ||
-                    boardPiece.toString().equals("redright") || 
-                    boardPiece.toString().equals("greenright")) 
+                int boardPiece = model.getSnapshot().getCell(row, col);
+
+                if (Cell.isRobot(boardPiece)) 
                 {
-                    gameBoard.getGrid().setCurRowCol(row, col);
+                    selectedRow = row;
+                    selectedCol = col;
                 }
             }
         };  // end mouse listener
@@ -371,18 +393,53 @@ public class RoundUpGUI extends JFrame implements Observer
     private KeyAdapter myKeyListener = new KeyAdapter()
         {
             public void keyPressed (KeyEvent e) {
-                int c = e.getKeyCode ();
-                int row = gameBoard.getGrid().getCurRow();
-                int col = gameBoard.getGrid().getCurCol();
+                int dir = directionOf(e.getKeyCode ());
 
-                if (row != 0 && col != 0)
+                if (selectedRow != 0 && selectedCol != 0 && dir != -1)
                 {
-                    gameBoard.setLastDir(c);
-                    gameBoard.movePiece(row, col, c);
+                    gameBoard.setLastDir(dir);
+                    // A moved robot has to be clicked on again
+                    if (gameBoard.movePiece(selectedRow, selectedCol, dir))
+                    {
+                        selectedRow = 0;
+                        selectedCol = 0;
+                    }
                 }
             }
         }; // end key listener 
 
+    /**
+     * Converts a key code into a board direction.
+     * @param keyCode the direction key entered
+     * @return the direction, e.g. BitBoard.kUp, or -1 if the key
+     * is not a direction
+     */
+    static int directionOf(int keyCode)
+    {
+        int dir = -1;
+        // If key entered was down or d
+        if (keyCode == KeyEvent.VK_DOWN || keyCode == KeyEvent.VK_D)
+        {
+            dir = BitBoard.kDown;
+        }
+        // If key entered was up or e
+        else if (keyCode == KeyEvent.VK_UP || keyCode == KeyEvent.VK_E)
+        {
+            dir = BitBoard.kUp;
+        }
+        // If key entered was left or s
+        else if (keyCode == KeyEvent.VK_LEFT || keyCode == KeyEvent.VK_S)
+        {
+            dir = BitBoard.kLeft;
+        }
+        // If key entered was right or f
+        else if (keyCode == KeyEvent.VK_RIGHT || keyCode == KeyEvent.VK_F)
+        {
+            dir = BitBoard.kRight;
+        }
+        return dir;
+    }
+
     /**
      * Load the images to be displayed. 
      */
@@ -482,9 +539,9 @@ public class RoundUpGUI extends JFrame implements Observer
         /**
          * Default constructor for the ImageJTable.
          */
-        public ImageJTable(Object[][] rowData, Object[] columnNames)
+        public ImageJTable(TableModel model)
         {
-            super(rowData, columnNames);
+            super(model);
         }
         /**
          *  Tell JTable it should expect each column to contain IconImages,
@@ -522,210 +579,209 @@ public class RoundUpGUI extends JFrame implements Observer
             }
             // Now let the paint do its usual work
             super.paint(gfx);
+            // Draw the trail dots of the board the cells were drawn from
+            if (trailDot != null)
+            {
+                for (int cell : model.getSnapshot().getTrail())
+                {
+                    Rectangle rect = getCellRect(cell / GameBoard.kMaxRowCol,
+                        cell % GameBoard.kMaxRowCol, false);
+                    gfx.drawImage(trailDot.getImage(), 
+                        rect.x + (rect.width - trailDot.getIconWidth()) / 2,
+                        rect.y + (rect.height - trailDot.getIconHeight()) / 2,
+                        null);
+                }
+            }
         }
 
     } // end ImageJTable
 
     /** 
      * Prints the Win message to the dialog dispplayed on top of the gui. 
+     * @param won the board the game was won on
      */
-    private void printWin()
+    private void printWin(BoardSnapshot won)
     {
-        ArrayList < String > allMoves = gameBoard.getMoves();
         StringBuilder moves = new StringBuilder();
-        for (String move : allMoves)
-        {
-            moves.append(move);
-        }
+        won.appendMoves(moves);
         if (this.isFocused()) 
         {
             int n = JOptionPane.showConfirmDialog(
                     this,
-                    "You won game " + regulator.getBoardNumber() + "!\n" +
+                    "You won game " + won.getBoardNumber() + "!\n" +
                     moves.toString() + "\n" +
                     "Save your win? (y/n)",
                     "Game Won Notification",
                     JOptionPane.YES_NO_OPTION);
             if (n == JOptionPane.YES_OPTION)
             {
-                gameBoard.addEntryToHallOfFame(moves);
+                gameBoard.addEntryToHallOfFame(won);
             }
         }
     }
 
-     /**
-     * Called whenever the model is changed. 
-     * Updates the gui view. 
+    /** 
+     * Shows the game's grid to the table as pictures, picking the
+     * picture for each cell as it is drawn.
      */
-    public void update(Observable ob, Object o)
-    {   
-        if (gameBoard.getBothViewUp() && gameBoard.getAboutFlag())
+    private class IconTableModel extends BoardTableModel
+    {
+        private static final long serialVersionUID = 1L;
+
+        public IconTableModel()
         {
-            JOptionPane.showMessageDialog(null,
-                        kAboutGame,
-                        "About",
-                        JOptionPane.INFORMATION_MESSAGE);
-            gameBoard.setAboutFlagWithoutNotifying(false);
+            super(gameBoard);
         }
-        
-        if (gameBoard.getBothViewUp() && gameBoard.getHallFlag())
+
+        public Object getValueAt(int row, int col)
         {
-            hof.makeVisibleDialog();
-            gameBoard.setHallFlagWithoutNotifying(false);
+            return iconFor(getSnapshot().getCell(row, col));
         }
-        GameBoard.MyTable grid = gameBoard.getGrid();
-        setTitle("Roundup - board " + regulator.getBoardNumber() + " " 
-            + regulator.getBoardDifficulty());
-        myStatus.setText("Moves: " + gameBoard.getMoveCount());
-        background = new ImageIcon(
-            Toolkit.getDefaultToolkit()
-                .getImage(this.getClass()
-                    .getResource("images/backgroundbkgd.png")));
-
-        int lastDir = gameBoard.getLastDir();
-        for (int i = 0; i < grid.getRowCount(); i++)
+    } // end IconTableModel
+
+    /**
+     * Picks the picture for a cell of the grid.
+     * @param cell the cell
+     * @return the picture, or null for an empty square
+     */
+    private ImageIcon iconFor(int cell)
+    {
+        int facing = Cell.facingOf(cell);
+        switch (Cell.pieceOf(cell))
         {
-            for (int j = 0; j < grid.getColumnCount(); j++)
-            {
-                if (grid.getValueAt(i, j) == (Object)GameBoard.kRed) 
-                {
-                    if (i == gameBoard.getLastMovedRow() 
-                        && j == gameBoard.getLastMovedCol())
-                    {
-                        if (lastDir == KeyEvent.VK_DOWN || 
-                            lastDir == KeyEvent.VK_D) 
-                        {
-                            if (gameBoard.getLoseFlag())
-                            {
-                                grid.setSpace(i, j, deadDown);
-                            }
-                            else
-                            {
-                                grid.setSpace(i, j, redDown);
-                            }
-                        }
-                        else if (lastDir == KeyEvent.VK_RIGHT ||
-                            lastDir == KeyEvent.VK_F)
-                        {
-                            if (gameBoard.getLoseFlag())
-                            {
-                                grid.setSpace(i, j, deadRight);
-                            }
-                            else
-                            {
-                                grid.setSpace(i, j, redRight);
-                            }
-                        }
-                        else if (lastDir == KeyEvent.VK_LEFT || 
-                            lastDir == KeyEvent.VK_S)
-                        {
-                            if (gameBoard.getLoseFlag())
-                            {
-                                grid.setSpace(i, j, deadLeft);
-                            }
-                            else
-                            {
-                                grid.setSpace(i, j, redLeft);
-                            }
-                        }
-                        else if (lastDir == KeyEvent.VK_UP || 
-                            lastDir == KeyEvent.VK_E)
-                        {
-                            if (gameBoard.getLoseFlag())
-                            {
-                                grid.setSpace(i, j, deadUp);
-                            }
-                            else
-                            {
-                                grid.setSpace(i, j, redUp);
-                            }
-                        }
-                    }
-                    else 
-                    {
-                        grid.setSpace(i, j, redUp);
-                    }
-                }
-                else if (grid.getValueAt(i, j) == (Object)GameBoard.kGreen)
+            case Cell.kRed:
+                if (Cell.isDead(cell))
                 {
-                    if (i == gameBoard.getLastMovedRow() && 
-                        j == gameBoard.getLastMovedCol())
-                    {
-                        if (lastDir == KeyEvent.VK_DOWN || 
-                            lastDir == KeyEvent.VK_D)
-                        {
-                            if (gameBoard.getLoseFlag())
-                            {
-                                grid.setSpace(i, j, deadDown);
-                            }
-                            else
-                            {
-                                grid.setSpace(i, j, greenDown);
-                            }
-                        }
-                        else if (lastDir == KeyEvent.VK_RIGHT || 
-                            lastDir == KeyEvent.VK_F)
-                        {
-                            if (gameBoard.getLoseFlag())
-                            {
-                                grid.setSpace(i, j, deadRight);
-                            }
-                            else
-                            {
-                                grid.setSpace(i, j, greenRight);
-                            }
-                        }
-                        else if (lastDir == KeyEvent.VK_LEFT || 
-                            lastDir == KeyEvent.VK_S)
-                        {
-                            if (gameBoard.getLoseFlag())
-                            {
-                                grid.setSpace(i, j, deadLeft);
-                            }
-                            else
-                            {
-                                grid.setSpace(i, j, greenLeft);
-                            }
-                        }
-                        else if (lastDir == KeyEvent.VK_UP || 
-                            lastDir == KeyEvent.VK_E)
-                        {
-                            if (gameBoard.getLoseFlag())
-                            {
-                                grid.setSpace(i, j, deadUp);
-                            }
-                            else
-                            {
-                                grid.setSpace(i, j, greenUp);
-                            }
-                        }
-                    }
-                    else 
-                    {
-                        grid.setSpace(i, j, greenUp);
-                    }
+                    return turned(facing, deadUp, deadDown, deadLeft, deadRight);
                 }
-                else if (grid.getValueAt(i, j) == (Object)GameBoard.kTrail)
+                return turned(facing, redUp, redDown, redLeft, redRight);
+            case Cell.kGreen:
+                if (Cell.isDead(cell))
                 {
-                    grid.setSpace(i, j, trailDot);
+                    return turned(facing, deadUp, deadDown, deadLeft, deadRight);
                 }
+                return turned(facing, greenUp, greenDown, greenLeft, 
+                    greenRight);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Picks one of four pictures by the way a robot faces.
+     * @param facing the BitBoard direction
+     * @param up picture facing up
+     * @param down picture facing down
+     * @param left picture facing left
+     * @param right picture facing right
+     * @return the picture
+     */
+    private ImageIcon turned(int facing, ImageIcon up, ImageIcon down,
+        ImageIcon left, ImageIcon right)
+    {
+        switch (facing)
+        {
+            case BitBoard.kDown:
+                return down;
+            case BitBoard.kLeft:
+                return left;
+            case BitBoard.kRight:
+                return right;
+            default:
+                return up;
+        }
+    }
+
+    /**
+     * Shows a board's number and difficulty in the title.
+     * @param snapshot the board shown
+     */
+    private void showTitle(BoardSnapshot snapshot)
+    {
+        setTitle("Roundup - board " + snapshot.getBoardNumber() + " "
+            + snapshot.getDifficulty());
+    }
+
+     /**
+     * Called whenever the model is changed. 
+     * Updates the gui view, redrawing only the cells the event names
+     * unless the whole board or the background changed. 
+     */
+    public void boardChanged(BoardEvent event)
+    {   
+        int kind = BoardEvent.kBoardLoaded;
+        int[] cells = null;
+        BoardSnapshot snapshot = gameBoard.getSnapshot();
+        if (event != null)
+        {
+            kind = event.getKind();
+            cells = event.getCells();
+            snapshot = event.getSnapshot();
+        }
+
+        if (kind == BoardEvent.kDialogRequested)
+        {
+            showDialogs();
+            return;
+        }
+        // Everything below is drawn from the board of this event
+        model.setSnapshot(snapshot);
+        showTitle(snapshot);
+        myStatus.setText("Moves: " + snapshot.getMoveCount());
+
+        if (kind == BoardEvent.kBoardLoaded || showingLose)
+        {
+            background = new ImageIcon(
+                Toolkit.getDefaultToolkit()
+                    .getImage(this.getClass()
+                        .getResource("images/backgroundbkgd.png")));
+            showingLose = false;
+            repaint();
+        }
+        else
+        {
+            for (int cell : cells)
+            {
+                table.repaint(table.getCellRect(cell / GameBoard.kMaxRowCol, 
+                    cell % GameBoard.kMaxRowCol, false));
             }
         }
-        repaint();
         
-        if (gameBoard.getLoseFlag())
+        if (kind == BoardEvent.kGameLost)
         {
             background = new ImageIcon(
                 Toolkit.getDefaultToolkit()
                     .getImage(this.getClass()
                         .getResource("images/losebkgd.png")));
             myStatus.setText("LOSE");
+            showingLose = true;
+            repaint();
+        }
+        else if (kind == BoardEvent.kGameWon)
+        {
+            printWin(snapshot);
         }
-        else if (gameBoard.getWinFlag())
+    }
+
+    /**
+     * Shows the About or Hall of Fame dialog the console asked for.
+     */
+    private void showDialogs()
+    {
+        if (gameBoard.getBothViewUp() && gameBoard.getAboutFlag())
         {
-            printWin();
+            JOptionPane.showMessageDialog(null,
+                        kAboutGame,
+                        "About",
+                        JOptionPane.INFORMATION_MESSAGE);
+            gameBoard.setAboutFlagWithoutNotifying(false);
         }
         
-        gameBoard.resetMovedRowCol();
+        if (gameBoard.getBothViewUp() && gameBoard.getHallFlag())
+        {
+            hofDialog.makeVisibleDialog(
+                gameBoard.getSnapshot().getBoardNumber());
+            gameBoard.setHallFlagWithoutNotifying(false);
+        }
     }
 }  // end RoundUpGUI
\ No newline at end of file
@@ -13,6 +13,102 @@ import jargs.gnu.CmdLineParser;
  */
 public class RoundupLauncher 
 {
+    /**
+     * Most updates queued for a view before moves wait for it.
+     */
+    private static final int kViewQueue = 64;
+
+    /**
+     * Longest a finished console session waits for its last board
+     * to print, in milliseconds.
+     */
+    private static final long kFlushWait = 10000;
+
+    /**
+     * When the program exits, saves the hints worked out this run, if
+     * any were asked for, and writes any hall of fame entries still
+     * held back.
+     * @param hof the game's hall of fame
+     */
+    private static void closeOnExit(final HallOfFame hof)
+    {
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable()
+            {
+                public void run()
+                {
+                    TranspositionTable.saveShared();
+                    hof.close();
+                }
+            }));
+    }
+
+    /**
+     * Replays every entry of a hall of fame just loaded and prints
+     * those whose moves don't win their board.
+     * @param hof the hall of fame
+     */
+    private static void verifyHallOfFame(HallOfFame hof)
+    {
+        HallOfFameVerifier verifier = new HallOfFameVerifier(
+            Runtime.getRuntime().availableProcessors());
+        int[] statuses = verifier.verify(hof, System.out);
+        verifier.shutdown();
+        HallOfFameVerifier.printFlagged(hof.getHallOfFamers(), statuses,
+            System.out);
+    }
+
+    /**
+     * Opens the game's hall of fame, written the way the options ask.
+     * @param cmdParser the parsed options
+     * @param policyOption "none", "group" or "entry"
+     * @param groupOption entries written to the file together
+     * @param delayOption longest an entry is held back, in milliseconds
+     * @return the hall of fame, or null if an option isn't allowed
+     */
+    private static HallOfFame openHallOfFame(
+        CmdLineParser cmdParser,
+        CmdLineParser.Option policyOption,
+        CmdLineParser.Option groupOption,
+        CmdLineParser.Option delayOption)
+    {
+        int policy = HallOfFameWriter.policyOf(
+            (String) cmdParser.getOptionValue(policyOption, "none"));
+        int group = (Integer) cmdParser.getOptionValue(groupOption, 1);
+        int delay = (Integer) cmdParser.getOptionValue(delayOption, 0);
+        // Not a policy, no room for an entry, or a delay back in time
+        if (policy == -1 || group < 1 || delay < 0)
+        {
+            return null;
+        }
+        File file = new File(HallOfFame.kDefaultFile);
+        return new HallOfFame(file,
+            new HallOfFameWriter(file, policy, group, delay));
+    }
+
+    /**
+     * Wraps a view so it draws on its own thread, skipping boards
+     * that moves have already passed.
+     * @param view the view
+     * @return the wrapped view
+     */
+    private static CoalescingListener coalesce(BoardListener view)
+    {
+        return new CoalescingListener(view, kViewQueue,
+            CoalescingListener.kMerge);
+    }
+
+    /**
+     * Wraps a Swing view so it draws on the Swing thread, skipping
+     * boards that moves have already passed.
+     * @param view the view
+     * @return the wrapped view
+     */
+    private static CoalescingListener coalesceOnEdt(BoardListener view)
+    {
+        return new CoalescingListener(view, EdtListener.kEdt, kViewQueue,
+            CoalescingListener.kMerge);
+    }
+
     /**
      * Helps parse in file.
      * @param defaultRdr original Reader to be used
@@ -70,11 +166,13 @@ public class RoundupLauncher
      * @param CmdLineParser cmdParser
      * @param fileInOption the file in input
      * @param fileOutOption the file out output
+     * @param hof the game's hall of fame
      */
     private void runConsoleFlag(
         CmdLineParser cmdParser,
         CmdLineParser.Option fileInOption, 
-        CmdLineParser.Option fileOutOption)
+        CmdLineParser.Option fileOutOption,
+        HallOfFame hof)
     {
         InputStreamReader rdr = new InputStreamReader(System.in);
         OutputStreamWriter wtr = new OutputStreamWriter(System.out);
@@ -86,11 +184,14 @@ public class RoundupLauncher
             (String)cmdParser.getOptionValue(fileOutOption);
         wtr = launch.parseOutFile(wtr, outFile);
                 
-        GameBoard board = new GameBoard(false);
+        GameBoard board = new GameBoard(false, hof);
         ConsoleUI console = new ConsoleUI(rdr, wtr, board); 
-        board.addObserver(console);
-        console.update(board, null);
+        CoalescingListener consoleView = 
+            coalesce(console);
+        board.addListener(consoleView, ListenerBus.kSync);
+        console.boardChanged(null);
         console.run();
+        consoleView.flush(kFlushWait);
     }
     
     /** 
@@ -115,35 +216,63 @@ public class RoundupLauncher
             cmdParser.addStringOption('i', "infile");
         CmdLineParser.Option fileOutOption = 
             cmdParser.addStringOption('o', "outfile");
+        CmdLineParser.Option policyOption = 
+            cmdParser.addStringOption('s', "save-policy");
+        CmdLineParser.Option groupOption = 
+            cmdParser.addIntegerOption('n', "save-group");
+        CmdLineParser.Option delayOption = 
+            cmdParser.addIntegerOption('d', "save-delay");
+        CmdLineParser.Option verifyOption = 
+            cmdParser.addBooleanOption('v', "verify");
         try 
         {
             cmdParser.parse(args);
+            HallOfFame hof = openHallOfFame(cmdParser, policyOption, 
+                groupOption, delayOption);
+            // Can't save wins the way asked
+            if (hof == null)
+            {
+                System.out.println("ILLEGAL");
+                return;
+            }
+            closeOnExit(hof);
+            // Checks the saved wins before playing
+            if (cmdParser.getOptionValue(verifyOption) != null)
+            {
+                verifyHallOfFame(hof);
+            }
             // Console flag showed
             if (cmdParser.getOptionValue(consoleOpt) != null)
             {
-                launch.runConsoleFlag(cmdParser, fileInOption, fileOutOption);
+                launch.runConsoleFlag(cmdParser, fileInOption, fileOutOption,
+                    hof);
             }
             // Gui flag showed
             else if (cmdParser.getOptionValue(guiOpt) != null)
             {
-                board = new GameBoard(false);
+                board = new GameBoard(false, hof);
                 RoundUpGUI gui = new RoundUpGUI(board);
                 gui.layoutGUI();   // do the layout of widgets of the GUI
-                board.addObserver(gui);
-                gui.update(board, null);
+                board.addListener(coalesceOnEdt(gui), 
+                    ListenerBus.kSync);
+                gui.boardChanged(null);
             }
             // No flag or -cg showed
             else 
             {
-                board = new GameBoard(true);
+                board = new GameBoard(true, hof);
                 RoundUpGUI gui = new RoundUpGUI(board);
                 gui.layoutGUI(); 
                 ConsoleUI console = new ConsoleUI(rdr, wtr, board);
-                board.addObserver(gui);
-                board.addObserver(console);
-                gui.update(board, null);
-                console.update(board, null);
+                CoalescingListener consoleView = 
+                    coalesce(console);
+                board.addListener(coalesceOnEdt(gui), 
+                    ListenerBus.kSync);
+                board.addListener(consoleView, ListenerBus.kSync);
+                gui.boardChanged(null);
+                console.boardChanged(null);
                 console.run();
+                consoleView.flush(kFlushWait);
             }
         }
         catch (CmdLineParser.IllegalOptionValueException e) 
@@ -0,0 +1,447 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.util.*;
+
+/**
+ * Tablebase class holds the moves left to win for every position of the
+ * standard 5x5 play area with one red and five green robots, about a
+ * million positions at one byte each.
+ *
+ * The table is built offline by retrograde analysis: starting from the
+ * positions red wins from in one move, it steps backwards through every
+ * move that could have led there, one level at a time. It is then written
+ * to "roundup/tablebase.bin" and memory-mapped when opened, so a lookup
+ * is one index computation and one byte read.
+ *
+ * A position's index is the red cell times the number of green layouts,
+ * plus the rank of the green layout among all layouts of the other cells.
+ *
+ * @author Eric Tran
+ * @version 1
+ */
+public class Tablebase
+{
+    /**
+     * Stored for positions that can't be won.
+     */
+    public static final int kUnsolvable = 0xff;
+
+    /**
+     * Where the tablebase is kept.
+     */
+    public static final String kDefaultFile = "roundup/tablebase.bin";
+
+    /**
+     * Number of robots on the standard boards.
+     */
+    public static final int kStandardRobots = 6;
+
+    private static final int kMagic = 0x52544231;
+    private static final int kHeaderSize = 12;
+
+    private static Tablebase standard;
+    private static boolean standardTried;
+
+    private BitBoard engine;
+    private int robots;
+    private int layouts;
+    private long[][] choose;
+    private ByteBuffer distances;
+
+    /**
+     * Constructs a tablebase over a buffer of distances.
+     * @param engine the engine whose board is used
+     * @param robots number of robots in every position
+     * @param distances one byte per position, after any header
+     */
+    private Tablebase(BitBoard engine, int robots, ByteBuffer distances)
+    {
+        this.engine = engine;
+        this.robots = robots;
+        this.distances = distances;
+        int others = engine.getCellCount() - 1;
+        choose = new long[others + 1][robots];
+        // Fills in Pascal's triangle
+        for (int n = 0; n <= others; n++)
+        {
+            choose[n][0] = 1;
+            for (int k = 1; k < robots && k <= n; k++)
+            {
+                choose[n][k] = choose[n - 1][k - 1] + choose[n - 1][k];
+            }
+        }
+        layouts = (int) choose[others][robots - 1];
+    }
+
+    /**
+     * Gets the number of positions in the table.
+     * @return number of positions
+     */
+    public int size()
+    {
+        return engine.getCellCount() * layouts;
+    }
+
+    /**
+     * Checks whether a position is one this table covers.
+     * @param position the packed position
+     * @return whether it has the right number of robots
+     */
+    public boolean covers(long position)
+    {
+        return Long.bitCount(BitBoard.occupied(position)) == robots;
+    }
+
+    /**
+     * Works out where a position is stored.
+     * @param position the packed position
+     * @return its index in the table
+     */
+    public int indexOf(long position)
+    {
+        int red = BitBoard.redCell(position);
+        long below = (1L << red) - 1;
+        long greens = BitBoard.occupied(position) & ~(1L << red);
+        // Closes the gap left by the red cell
+        greens = (greens & below) | ((greens & ~below) >>> 1);
+        long rank = 0;
+        // Adds up each green's share of the rank
+        for (int k = 1; greens != 0; k++)
+        {
+            rank += choose[Long.numberOfTrailingZeros(greens)][k];
+            greens &= greens - 1;
+        }
+        return red * layouts + (int) rank;
+    }
+
+    /**
+     * Gets the moves left to win.
+     * @param position the packed position
+     * @return moves left, or kUnsolvable
+     */
+    public int distance(long position)
+    {
+        return distances.get(indexOf(position)) & 0xff;
+    }
+
+    /**
+     * Finds an optimal next move.
+     * @param position the packed position
+     * @return the move encoded as cell * 4 + direction, or -1 if it can't be won
+     */
+    public int bestMove(long position)
+    {
+        int distance = distance(position);
+        int red = BitBoard.redCell(position);
+        long robots = BitBoard.occupied(position);
+        // Can't be won
+        if (distance == kUnsolvable)
+        {
+            return -1;
+        }
+        // Goes through every robot
+        while (robots != 0)
+        {
+            int from = Long.numberOfTrailingZeros(robots);
+            robots &= robots - 1;
+            // Goes through every direction
+            for (int dir = 0; dir < BitBoard.kNumDirs; dir++)
+            {
+                int to = engine.slide(position, from, dir);
+                // Red ends its move on the center, so this wins
+                if (from == red && to == engine.getCenter())
+                {
+                    return from * BitBoard.kNumDirs + dir;
+                }
+                // One step closer to winning
+                if (to != BitBoard.kOffBoard && to != from && distance(
+                    BitBoard.move(position, from, to)) == distance - 1)
+                {
+                    return from * BitBoard.kNumDirs + dir;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds an optimal next move for a board.
+     * @param board the board, e.g. "11 15 32R 34 51 55"
+     * @return the move in "32R" notation, or null if it can't be won
+     */
+    public String bestMove(String board)
+    {
+        int move = bestMove(engine.parse(board));
+        // Can't be won
+        if (move == -1)
+        {
+            return null;
+        }
+        int cell = move / BitBoard.kNumDirs;
+        return BitBoard.moveName(engine.rowOf(cell), engine.colOf(cell),
+            move % BitBoard.kNumDirs);
+    }
+
+    /**
+     * Gets the tablebase for the standard board, opening
+     * kDefaultFile the first time it is asked for.
+     * @return the standard tablebase, or null if it hasn't been generated
+     */
+    public static synchronized Tablebase getStandard()
+    {
+        // Only try to open it once
+        if (!standardTried)
+        {
+            standardTried = true;
+            File file = new File(kDefaultFile);
+            // Generated already
+            if (file.exists())
+            {
+                try
+                {
+                    standard = open(file);
+                }
+                catch (IOException e)
+                {
+                    System.out.println("Can't open tablebase " + file.getName());
+                }
+            }
+        }
+        return standard;
+    }
+
+    /**
+     * Memory-maps a tablebase written by write.
+     * @param file the file to open
+     * @return the tablebase
+     * @throws IOException if the file can't be read or isn't a tablebase
+     */
+    public static Tablebase open(File file) throws IOException
+    {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try
+        {
+            FileChannel channel = raf.getChannel();
+            MappedByteBuffer map = channel.map(
+                FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            // Check it is really a tablebase
+            if (map.capacity() < kHeaderSize || map.getInt(0) != kMagic)
+            {
+                throw new IOException(file.getName() + " is not a tablebase");
+            }
+            BitBoard engine;
+            try
+            {
+                engine = new BitBoard(map.getInt(4));
+            }
+            catch (IllegalArgumentException e)
+            {
+                throw new IOException(file.getName() + ": " + e.getMessage());
+            }
+            int robots = map.getInt(8);
+            // Needs red, and can't have more robots than cells
+            if (robots < 1 || robots > engine.getCellCount())
+            {
+                throw new IOException(file.getName() + " has " + robots
+                    + " robots");
+            }
+            map.position(kHeaderSize);
+            Tablebase base = new Tablebase(engine, robots, map.slice());
+            // Cut short, or more bytes than its positions take
+            if (base.size() != map.capacity() - kHeaderSize)
+            {
+                throw new IOException(file.getName() + " should hold "
+                    + base.size() + " positions but is " + map.capacity()
+                    + " bytes");
+            }
+            return base;
+        }
+        finally
+        {
+            raf.close();
+        }
+    }
+
+    /**
+     * Writes the tablebase so it can be memory-mapped later.
+     * @param file the file to write to
+     * @throws IOException if the file can't be written
+     */
+    public void write(File file) throws IOException
+    {
+        DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(new FileOutputStream(file)));
+        try
+        {
+            out.writeInt(kMagic);
+            out.writeInt(engine.getSize());
+            out.writeInt(robots);
+            // Goes through every position
+            for (int in = 0; in < size(); in++)
+            {
+                out.writeByte(distances.get(in));
+            }
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+
+    /**
+     * Builds the tablebase by retrograde analysis.
+     * @param engine the engine whose board is used
+     * @param robots number of robots in every position
+     * @return the tablebase, held in memory
+     */
+    public static Tablebase generate(BitBoard engine, int robots)
+    {
+        Tablebase base = new Tablebase(engine, robots, null);
+        byte[] table = new byte[base.size()];
+        Arrays.fill(table, (byte) kUnsolvable);
+        base.distances = ByteBuffer.wrap(table);
+        long[] frontier = base.seedWins(table);
+        // Steps back one level at a time until nothing new turns up
+        for (int level = 2; frontier.length > 0 && level < kUnsolvable; level++)
+        {
+            frontier = base.stepBack(table, frontier, level, false);
+        }
+        return base;
+    }
+
+    /**
+     * Marks every position red wins from in one move.
+     * @param table the distances being built
+     * @return the positions marked
+     */
+    private long[] seedWins(byte[] table)
+    {
+        int center = engine.getCenter();
+        int others = engine.getCellCount() - 1;
+        long below = (1L << center) - 1;
+        long[] finished = new long[layouts];
+        int count = 0;
+        // Goes through every layout of greens around a red on the center
+        for (long pick = (1L << (robots - 1)) - 1; pick < (1L << others);
+            pick = BitBoard.nextCombination(pick))
+        {
+            long cells = (pick & below) | ((pick & ~below) << 1);
+            long position = BitBoard.pack(cells | (1L << center), center);
+            finished[count++] = position;
+            // Goes through every side of the center
+            for (int dir = 0; dir < BitBoard.kNumDirs; dir++)
+            {
+                int beside = engine.neighbor(center, dir);
+                // Red pushing into a neighbour stays put and wins
+                if (beside != BitBoard.kOffBoard &&
+                    BitBoard.isOccupied(position, beside))
+                {
+                    table[indexOf(position)] = 1;
+                }
+            }
+        }
+        long[] wins = stepBack(table, finished, 1, true);
+        long[] level = new long[wins.length + count];
+        int size = 0;
+        // The red on the center positions that win in place count too
+        for (int in = 0; in < count; in++)
+        {
+            // Marked as winning in place
+            if (table[indexOf(finished[in])] == 1)
+            {
+                level[size++] = finished[in];
+            }
+        }
+        System.arraycopy(wins, 0, level, size, wins.length);
+        return Arrays.copyOf(level, size + wins.length);
+    }
+
+    /**
+     * Finds every unmarked position one move before the given ones,
+     * and marks it with the level.
+     * @param table the distances being built
+     * @param frontier the positions of the level before
+     * @param level the distance to mark
+     * @param redOnly whether only the red robot may have moved
+     * @return the positions marked
+     */
+    private long[] stepBack(byte[] table, long[] frontier, int level,
+        boolean redOnly)
+    {
+        long[] found = new long[1024];
+        int count = 0;
+        // Goes through the level before
+        for (long position : frontier)
+        {
+            long movers = redOnly ? 1L << BitBoard.redCell(position)
+                : BitBoard.occupied(position);
+            // Goes through every robot that could have moved last
+            while (movers != 0)
+            {
+                int cell = Long.numberOfTrailingZeros(movers);
+                movers &= movers - 1;
+                // Goes through every direction it could have moved in
+                for (int dir = 0; dir < BitBoard.kNumDirs; dir++)
+                {
+                    int blocker = engine.neighbor(cell, dir);
+                    // Nothing there to stop it
+                    if (blocker == BitBoard.kOffBoard ||
+                        !BitBoard.isOccupied(position, blocker))
+                    {
+                        continue;
+                    }
+                    int back = BitBoard.opposite(dir);
+                    // Goes back over every free cell it could have started on
+                    for (int from = engine.neighbor(cell, back);
+                        from != BitBoard.kOffBoard &&
+                        !BitBoard.isOccupied(position, from);
+                        from = engine.neighbor(from, back))
+                    {
+                        long before = BitBoard.move(position, cell, from);
+                        int index = indexOf(before);
+                        // Not marked yet
+                        if ((table[index] & 0xff) == kUnsolvable)
+                        {
+                            table[index] = (byte) level;
+                            // Out of room, so double the array
+                            if (count == found.length)
+                            {
+                                found = Arrays.copyOf(found, count * 2);
+                            }
+                            found[count++] = before;
+                        }
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Generates the standard tablebase and writes it to kDefaultFile.
+     * @param args not used
+     */
+    public static void main(String[] args) throws IOException
+    {
+        Tablebase base = generate(new BitBoard(GameBoard.kMaxRowCol),
+            kStandardRobots);
+        int solvable = 0;
+        int deepest = 0;
+        // Counts what was found
+        for (int in = 0; in < base.size(); in++)
+        {
+            int distance = base.distances.get(in) & 0xff;
+            // Can be won
+            if (distance != kUnsolvable)
+            {
+                solvable++;
+                deepest = Math.max(deepest, distance);
+            }
+        }
+        base.write(new File(kDefaultFile));
+        System.out.println(String.format(
+            "%d positions, %d solvable, deepest %d moves",
+            base.size(), solvable, deepest));
+    }
+}
@@ -0,0 +1,218 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.util.*;
+import java.io.*;
+
+/**
+ * The test class TablebaseTest.
+ *
+ * @author  Eric Tran
+ * @version 1
+ */
+public class TablebaseTest extends junit.framework.TestCase
+{
+    private static Tablebase shared;
+    private BitBoard engine = new BitBoard(GameBoard.kMaxRowCol);
+
+    /**
+     * Gets the standard tablebase, generating it only once.
+     * @return the tablebase
+     */
+    private static synchronized Tablebase standard()
+    {
+        if (shared == null)
+        {
+            shared = Tablebase.generate(new BitBoard(GameBoard.kMaxRowCol),
+                Tablebase.kStandardRobots);
+        }
+        return shared;
+    }
+
+    /**
+     * Tests that the distances match the shortest solutions found by
+     * searching, on every built in board.
+     */
+    @Test
+    public void testMatchesBoardSolver()
+    {
+        Tablebase base = standard();
+        BoardSolver solver = new BoardSolver(engine);
+        BoardRegulator regulator = new BoardRegulator();
+        for (int in = 1; in <= 18; in++)
+        {
+            regulator.setBoard(in);
+            long position = engine.parse(regulator.getBoard());
+            assertTrue("Board " + in + " covered", base.covers(position));
+            assertEquals("Board " + in + " same length",
+                solver.solve(position).size(), base.distance(position));
+        }
+        assertEquals("Board 1", 1,
+            base.distance(engine.parse("11 15 32R 34 51 55")));
+        assertEquals("Blocked on the center", 1,
+            base.distance(engine.parse("11 15 33R 34 51 55")));
+        assertFalse("Too few robots", base.covers(engine.parse("11 32R")));
+    }
+
+    /**
+     * Tests that following the best moves wins in exactly the
+     * number of moves stored.
+     */
+    @Test
+    public void testBestMove()
+    {
+        Tablebase base = standard();
+        assertEquals("Board 1", "32R", base.bestMove("11 15 32R 34 51 55"));
+        BoardRegulator regulator = new BoardRegulator();
+        for (int in = 1; in <= 18; in++)
+        {
+            regulator.setBoard(in);
+            long position = engine.parse(regulator.getBoard());
+            int moves = 0;
+            while (!engine.isWin(position))
+            {
+                int move = base.bestMove(position);
+                assertTrue("Board " + in + " has a move", move != -1);
+                int from = move / BitBoard.kNumDirs;
+                int to = engine.slide(position, from, move % BitBoard.kNumDirs);
+                assertTrue("Board " + in + " stays on", to != BitBoard.kOffBoard);
+                position = BitBoard.move(position, from, to);
+                moves++;
+            }
+            regulator.setBoard(in);
+            assertEquals("Board " + in + " wins in time",
+                base.distance(engine.parse(regulator.getBoard())), moves);
+        }
+    }
+
+    /**
+     * Tests that a written tablebase reads back the same when mapped.
+     */
+    @Test
+    public void testWriteOpen() throws IOException
+    {
+        Tablebase base = standard();
+        File file = File.createTempFile("tablebase", ".bin");
+        try
+        {
+            base.write(file);
+            Tablebase mapped = Tablebase.open(file);
+            assertEquals("Same size", base.size(), mapped.size());
+            Random random = new Random(7);
+            for (int in = 0; in < 1000; in++)
+            {
+                long position = randomPosition(random);
+                assertEquals("Same distance", base.distance(position),
+                    mapped.distance(position));
+            }
+        }
+        finally
+        {
+            file.delete();
+        }
+    }
+
+    /**
+     * Tests that a damaged tablebase file isn't opened.
+     */
+    @Test
+    public void testOpenBad() throws IOException
+    {
+        File file = File.createTempFile("tablebase", ".bin");
+        try
+        {
+            standard().write(file);
+            RandomAccessFile cut = new RandomAccessFile(file, "rw");
+            cut.setLength(file.length() - 1);
+            cut.close();
+            try
+            {
+                Tablebase.open(file);
+                fail("Truncated");
+            }
+            catch (IOException e)
+            {
+            }
+            cut = new RandomAccessFile(file, "rw");
+            cut.setLength(file.length() + 1);
+            cut.seek(4);
+            cut.writeInt(99);
+            cut.close();
+            try
+            {
+                Tablebase.open(file);
+                fail("Board too big");
+            }
+            catch (IOException e)
+            {
+            }
+            cut = new RandomAccessFile(file, "rw");
+            cut.seek(4);
+            cut.writeInt(GameBoard.kMaxRowCol);
+            cut.writeInt(0);
+            cut.close();
+            try
+            {
+                Tablebase.open(file);
+                fail("No robots");
+            }
+            catch (IOException e)
+            {
+            }
+            cut = new RandomAccessFile(file, "rw");
+            cut.setLength(2);
+            cut.close();
+            try
+            {
+                Tablebase.open(file);
+                fail("Shorter than the header");
+            }
+            catch (IOException e)
+            {
+            }
+        }
+        finally
+        {
+            file.delete();
+        }
+    }
+
+    /**
+     * Tests that every position gets its own index.
+     */
+    @Test
+    public void testIndexOf()
+    {
+        Tablebase base = standard();
+        Random random = new Random(11);
+        for (int in = 0; in < 1000; in++)
+        {
+            long position = randomPosition(random);
+            int index = base.indexOf(position);
+            assertTrue("In range", index >= 0 && index < base.size());
+            assertEquals("Red picks the block", BitBoard.redCell(position),
+                index / (base.size() / engine.getCellCount()));
+        }
+        assertEquals("First layout", 0,
+            base.indexOf(engine.parse("11R 12 13 14 15 21")));
+        assertEquals("Last layout", base.size() - 1,
+            base.indexOf(engine.parse("55R 45 51 52 53 54")));
+    }
+
+    /**
+     * Picks a random standard position.
+     * @param random where the picks come from
+     * @return the packed position
+     */
+    private long randomPosition(Random random)
+    {
+        long cells = 0;
+        while (Long.bitCount(cells) < Tablebase.kStandardRobots)
+        {
+            cells |= 1L << random.nextInt(engine.getCellCount());
+        }
+        int red = Long.numberOfTrailingZeros(cells);
+        return BitBoard.pack(cells, red);
+    }
+}
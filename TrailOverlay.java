@@ -0,0 +1,105 @@
+import java.util.*;
+
+/**
+ * TrailOverlay class keeps the dots a robot leaves behind as a short
+ * list of cells, apart from the grid of robots. A trail is never longer
+ * than one row or col, so clearing it or checking a cell costs the
+ * length of the trail, not the area of the board.
+ *
+ * Cells are numbered row * width + col.
+ *
+ * @author Eric Tran
+ * @version 1
+ */
+public class TrailOverlay
+{
+    private int width;
+    private int[] cells;
+    private int length;
+
+    /**
+     * Constructs an empty overlay for a square board.
+     * @param width rows and cols of the board
+     */
+    public TrailOverlay(int width)
+    {
+        this.width = width;
+        cells = new int[width];
+    }
+
+    /**
+     * Adds a cell to the trail.
+     * @param row the x coord
+     * @param col the y coord
+     */
+    public void add(int row, int col)
+    {
+        // Out of room, so double the array
+        if (length == cells.length)
+        {
+            cells = Arrays.copyOf(cells, length * 2);
+        }
+        cells[length++] = row * width + col;
+    }
+
+    /**
+     * Removes the whole trail.
+     */
+    public void clear()
+    {
+        length = 0;
+    }
+
+    /**
+     * Checks whether a cell has a trail dot.
+     * @param row the x coord
+     * @param col the y coord
+     * @return whether the cell is on the trail
+     */
+    public boolean contains(int row, int col)
+    {
+        int cell = row * width + col;
+        // Goes along the trail
+        for (int in = 0; in < length; in++)
+        {
+            // Found the cell
+            if (cells[in] == cell)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the number of cells on the trail.
+     * @return trail length
+     */
+    public int size()
+    {
+        return length;
+    }
+
+    /**
+     * Gets the trail's cells.
+     * @return a copy of the cells, each row * width + col
+     */
+    public int[] toArray()
+    {
+        return Arrays.copyOf(cells, length);
+    }
+
+    /**
+     * Replaces the trail, as when a move is taken back.
+     * @param trail the cells, each row * width + col
+     */
+    public void set(int[] trail)
+    {
+        clear();
+        // Copies every cell
+        for (int cell : trail)
+        {
+            add(cell / width, cell % width);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.util.*;
+
+/**
+ * The test class TrailOverlayTest.
+ *
+ * @author  Eric Tran
+ * @version 1
+ */
+public class TrailOverlayTest extends junit.framework.TestCase
+{
+    /**
+     * Tests adding, checking and clearing the trail.
+     */
+    @Test
+    public void testTrail()
+    {
+        TrailOverlay trail = new TrailOverlay(7);
+        assertEquals("Empty", 0, trail.size());
+        trail.add(3, 2);
+        trail.add(3, 3);
+        assertTrue("On the trail", trail.contains(3, 3));
+        assertFalse("Not on the trail", trail.contains(3, 4));
+        assertEquals("Cells", "[23, 24]", Arrays.toString(trail.toArray()));
+        trail.clear();
+        assertFalse("Cleared", trail.contains(3, 3));
+        trail.set(new int[] {8, 15, 22});
+        assertTrue("Set", trail.contains(2, 1));
+        assertEquals("Set length", 3, trail.size());
+    }
+
+    /**
+     * Tests that trails longer than a row still fit.
+     */
+    @Test
+    public void testGrow()
+    {
+        TrailOverlay trail = new TrailOverlay(3);
+        for (int in = 0; in < 9; in++)
+        {
+            trail.add(in / 3, in % 3);
+        }
+        assertEquals("All kept", 9, trail.size());
+        assertTrue("Last kept", trail.contains(2, 2));
+    }
+
+    /**
+     * Tests that the game board keeps its trail in the overlay.
+     */
+    @Test
+    public void testGameBoard()
+    {
+        GameBoard board = new GameBoard(true);
+        board.newGame("11 15 32R 34 51 55");
+        board.movePiece(1, 1, BitBoard.kDown);
+        assertEquals("Trail cells", "[8, 15, 22]",
+            Arrays.toString(board.getTrail()));
+        board.movePiece(1, 5, BitBoard.kDown);
+        assertFalse("Old trail cleared", board.isTrail(2, 1));
+        assertTrue("New trail", board.isTrail(1, 5));
+        board.undo();
+        assertTrue("Old trail back", board.isTrail(2, 1));
+        assertFalse("New trail gone", board.isTrail(1, 5));
+    }
+}
@@ -0,0 +1,247 @@
+import java.io.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * TranspositionTable class remembers, for positions already worked out,
+ * the moves left to win and the best next move. It has a fixed number of
+ * slots picked by the Zobrist hash, and a newer entry simply replaces
+ * whatever was in its slot.
+ *
+ * Each slot is two longs: the data, and the position xor-ed with the data.
+ * A reader only trusts a slot whose two halves agree, so threads can share
+ * the table without any locks and a half written slot just reads as a miss.
+ *
+ * The shared table is read from "roundup/transpositions.bin" the first time
+ * it is asked for, and saved there again with saveShared, so the hints worked
+ * out in one game are still known in the next.
+ *
+ * @author Eric Tran
+ * @version 1
+ */
+public class TranspositionTable
+{
+    /**
+     * Returned by probe for positions not in the table.
+     */
+    public static final long kMiss = -1;
+
+    /**
+     * Stored as the move when there is no best move.
+     */
+    public static final int kNoMove = 0xff;
+
+    /**
+     * Default size of the table, as a power of two.
+     */
+    public static final int kDefaultBits = 20;
+
+    /**
+     * Where the shared table is kept between runs.
+     */
+    public static final String kDefaultFile = "roundup/transpositions.bin";
+
+    private static TranspositionTable shared;
+
+    private AtomicLongArray slots;
+    private int mask;
+    private volatile boolean changed;
+
+    /**
+     * Constructs an empty table.
+     * @param bits the table holds 2 to the power of bits entries
+     */
+    public TranspositionTable(int bits)
+    {
+        slots = new AtomicLongArray(2 << bits);
+        mask = (1 << bits) - 1;
+    }
+
+    /**
+     * Gets the table shared by everything in this program, reading it
+     * from kDefaultFile the first time if it was saved there.
+     * @return the shared table
+     */
+    public static synchronized TranspositionTable getShared()
+    {
+        // Made the first time it is asked for
+        if (shared == null)
+        {
+            File file = new File(kDefaultFile);
+            // Saved by an earlier run
+            if (file.exists())
+            {
+                try
+                {
+                    shared = load(file);
+                }
+                catch (IOException e)
+                {
+                    System.out.println("Can't read table " + file.getName());
+                }
+            }
+            // Nothing saved, or it couldn't be read
+            if (shared == null)
+            {
+                shared = new TranspositionTable(kDefaultBits);
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Writes the shared table to kDefaultFile, if it was used and
+     * something was stored in it since it was read.
+     */
+    public static synchronized void saveShared()
+    {
+        // Never used, or nothing new to keep
+        if (shared == null || !shared.changed)
+        {
+            return;
+        }
+        File file = new File(kDefaultFile);
+        try
+        {
+            shared.save(file);
+        }
+        catch (IOException e)
+        {
+            System.out.println("Can't save table " + file.getName());
+        }
+    }
+
+    /**
+     * Gets the number of slots.
+     * @return number of entries the table can hold
+     */
+    public int capacity()
+    {
+        return mask + 1;
+    }
+
+    /**
+     * Stores what is known about a position.
+     * @param hash the position's zobrist hash
+     * @param position the packed position
+     * @param distance moves left to win
+     * @param move best next move, encoded as cell * 4 + direction, or kNoMove
+     */
+    public void store(long hash, long position, int distance, int move)
+    {
+        int index = ((int) hash & mask) << 1;
+        long data = (distance & 0xff) | ((long) (move & 0xff) << 8) | (1L << 16);
+        slots.set(index, position ^ data);
+        slots.set(index + 1, data);
+        changed = true;
+    }
+
+    /**
+     * Looks up a position.
+     * @param hash the position's zobrist hash
+     * @param position the packed position
+     * @return the entry's data, or kMiss
+     */
+    public long probe(long hash, long position)
+    {
+        int index = ((int) hash & mask) << 1;
+        long check = slots.get(index);
+        long data = slots.get(index + 1);
+        // Both halves agree, so it is this position's entry
+        if (data != 0 && (check ^ data) == position)
+        {
+            return data;
+        }
+        return kMiss;
+    }
+
+    /**
+     * Gets the distance from an entry's data.
+     * @param data the data returned by probe
+     * @return moves left to win
+     */
+    public static int distanceOf(long data)
+    {
+        return (int) (data & 0xff);
+    }
+
+    /**
+     * Gets the best move from an entry's data.
+     * @param data the data returned by probe
+     * @return the move, encoded as cell * 4 + direction, or kNoMove
+     */
+    public static int moveOf(long data)
+    {
+        return (int) ((data >>> 8) & 0xff);
+    }
+
+    /**
+     * Removes every entry.
+     */
+    public void clear()
+    {
+        // Goes through every slot
+        for (int in = 0; in < slots.length(); in++)
+        {
+            slots.set(in, 0);
+        }
+        changed = true;
+    }
+
+    /**
+     * Writes the table to a file so a later run can reuse it.
+     * @param file the file to write to
+     * @throws IOException if the file can't be written
+     */
+    public void save(File file) throws IOException
+    {
+        DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(new FileOutputStream(file)));
+        try
+        {
+            out.writeInt(mask + 1);
+            // Goes through every slot
+            for (int in = 0; in < slots.length(); in++)
+            {
+                out.writeLong(slots.get(in));
+            }
+            changed = false;
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+
+    /**
+     * Reads a table written by save.
+     * @param file the file to read from
+     * @return the table
+     * @throws IOException if the file can't be read
+     */
+    public static TranspositionTable load(File file) throws IOException
+    {
+        DataInputStream in = new DataInputStream(
+            new BufferedInputStream(new FileInputStream(file)));
+        try
+        {
+            int capacity = in.readInt();
+            // Not written by save
+            if (capacity <= 0 || Integer.bitCount(capacity) != 1)
+            {
+                throw new IOException("Bad table size " + capacity);
+            }
+            TranspositionTable table = new TranspositionTable(
+                Integer.numberOfTrailingZeros(capacity));
+            // Goes through every slot
+            for (int slot = 0; slot < table.slots.length(); slot++)
+            {
+                table.slots.set(slot, in.readLong());
+            }
+            return table;
+        }
+        finally
+        {
+            in.close();
+        }
+    }
+}
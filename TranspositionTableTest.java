@@ -0,0 +1,128 @@
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.util.*;
+import java.io.*;
+
+/**
+ * The test class TranspositionTableTest.
+ *
+ * @author  Eric Tran
+ * @version 1
+ */
+public class TranspositionTableTest extends junit.framework.TestCase
+{
+    /**
+     * Tests that the hash kept by the gameboard matches a fresh one.
+     */
+    @Test
+    public void testIncrementalHash()
+    {
+        GameBoard board = new GameBoard(false);
+        board.newGame("22R 14 31 42 44 55");
+        assertEquals("Start", Zobrist.hash(board.getPosition()), board.getHash());
+        board.movePiece(1, 4, BitBoard.kDown);
+        assertEquals("Green moved", Zobrist.hash(board.getPosition()),
+            board.getHash());
+        board.movePiece(2, 2, BitBoard.kDown);
+        assertEquals("Red moved", Zobrist.hash(board.getPosition()),
+            board.getHash());
+    }
+
+    /**
+     * Tests storing and probing entries.
+     */
+    @Test
+    public void testStoreProbe()
+    {
+        BitBoard engine = new BitBoard(GameBoard.kMaxRowCol);
+        TranspositionTable table = new TranspositionTable(4);
+        long position = engine.parse("11 15 32R 34 51 55");
+        long hash = Zobrist.hash(position);
+
+        assertEquals("Empty", TranspositionTable.kMiss,
+            table.probe(hash, position));
+        table.store(hash, position, 1, 42);
+        long data = table.probe(hash, position);
+        assertEquals("Distance", 1, TranspositionTable.distanceOf(data));
+        assertEquals("Move", 42, TranspositionTable.moveOf(data));
+        assertEquals("Other position misses", TranspositionTable.kMiss,
+            table.probe(hash, engine.parse("11 15 33R 34 51 55")));
+    }
+
+    /**
+     * Tests a solver reusing what another solver stored.
+     */
+    @Test
+    public void testSharedSolvers()
+    {
+        TranspositionTable table = new TranspositionTable(12);
+        BoardSolver first = new BoardSolver();
+        BoardSolver second = new BoardSolver();
+        first.setTable(table);
+        second.setTable(table);
+
+        ArrayList<String> moves = first.solve("22R 14 31 42 44 55");
+        assertEquals("Same answer", moves, second.solve("22R 14 31 42 44 55"));
+        assertEquals("Nothing searched", 0, second.getExpanded());
+        assertEquals("Rest of the path is known too", "[22D, 32R]",
+            second.solve("22R 31 34 42 44 55").toString());
+    }
+
+    /**
+     * Tests saving and loading a table.
+     */
+    @Test
+    public void testSaveLoad() throws IOException
+    {
+        TranspositionTable table = new TranspositionTable(4);
+        table.store(7, 12345, 3, 9);
+        File file = File.createTempFile("table", ".bin");
+        table.save(file);
+        TranspositionTable loaded = TranspositionTable.load(file);
+        file.delete();
+        assertEquals("Same size", table.capacity(), loaded.capacity());
+        assertEquals("Same entry", table.probe(7, 12345), loaded.probe(7, 12345));
+    }
+
+    /**
+     * Tests that a file not written by save is rejected.
+     */
+    @Test
+    public void testLoadBadFile() throws IOException
+    {
+        File file = File.createTempFile("table", ".bin");
+        DataOutputStream out = new DataOutputStream(new FileOutputStream(file));
+        out.writeInt(12);
+        out.close();
+        try
+        {
+            TranspositionTable.load(file);
+            fail("Loaded a table of 12 slots");
+        }
+        catch (IOException e)
+        {
+            // expected
+        }
+        finally
+        {
+            file.delete();
+        }
+    }
+
+    /**
+     * Tests that hints are kept in the shared table.
+     */
+    @Test
+    public void testHintShared()
+    {
+        GameBoard board = new GameBoard(false);
+        // Five robots, so no tablebase covers it
+        board.newGame("22R 14 31 42 44");
+        assertEquals("Hint", "14D", board.getHint());
+        long position = board.getSnapshot().getPosition();
+        assertTrue("Kept for the next hint", TranspositionTable.getShared()
+            .probe(Zobrist.hash(position), position) != TranspositionTable.kMiss);
+    }
+}
@@ -0,0 +1,64 @@
+import java.util.Random;
+
+/**
+ * Zobrist class hashes packed positions by xor-ing together one random
+ * key per robot and cell. A slide only changes two cells, so a hash is
+ * updated in O(1) per move instead of being recomputed.
+ *
+ * The keys come from a fixed seed, so a hash means the same thing in
+ * every run and saved tables stay valid.
+ *
+ * @author Eric Tran
+ * @version 1
+ */
+public class Zobrist
+{
+    private static final long kSeed = 0x526f756e64757000L;
+    private static final int kMaxCells = 64;
+    private static final long[] kGreenKeys = new long[kMaxCells];
+    private static final long[] kRedKeys = new long[kMaxCells];
+
+    static
+    {
+        Random random = new Random(kSeed);
+        // Makes a key per cell for each colour
+        for (int cell = 0; cell < kMaxCells; cell++)
+        {
+            kGreenKeys[cell] = random.nextLong();
+            kRedKeys[cell] = random.nextLong();
+        }
+    }
+
+    /**
+     * Hashes a whole position from scratch.
+     * @param position the packed position
+     * @return the zobrist hash
+     */
+    public static long hash(long position)
+    {
+        int red = BitBoard.redCell(position);
+        long robots = BitBoard.occupied(position) & ~(1L << red);
+        long hash = kRedKeys[red];
+        // Goes through the green robots
+        while (robots != 0)
+        {
+            hash ^= kGreenKeys[Long.numberOfTrailingZeros(robots)];
+            robots &= robots - 1;
+        }
+        return hash;
+    }
+
+    /**
+     * Updates a hash for a robot sliding from one cell to another.
+     * @param hash the hash before the slide
+     * @param from the cell the robot left
+     * @param to the cell the robot stopped on
+     * @param red whether the robot is the red one
+     * @return the hash after the slide
+     */
+    public static long slide(long hash, int from, int to, boolean red)
+    {
+        long[] keys = red ? kRedKeys : kGreenKeys;
+        return hash ^ keys[from] ^ keys[to];
+    }
+}